@@ -0,0 +1,77 @@
+package com.featureflux.config;
+
+import com.featureflux.entity.FeatureFlag;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the values we round-trip through Redis: {@code eval:}/{@code killswitch:} booleans
+ * and the {@code featureFlags} cache entries, using the serializer configured in {@link RedisConfig}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedisSerializationBenchmark {
+
+    @Param({"0", "100", "1000"})
+    private int targetListSize;
+
+    private RedisSerializer<Object> serializer;
+    private FeatureFlag flag;
+    private byte[] flagBytes;
+    private byte[] booleanBytes;
+
+    @Setup
+    public void setup() {
+        serializer = RedisConfig.valueSerializer();
+
+        List<String> targets = new ArrayList<>(targetListSize);
+        for (int i = 0; i < targetListSize; i++) {
+            targets.add("user-" + i);
+        }
+        flag = FeatureFlag.builder()
+                .id(42L)
+                .key("benchmark-flag")
+                .name("Benchmark Flag")
+                .description("Flag used by the serialization benchmark")
+                .enabled(true)
+                .rolloutPercentage(25)
+                .targetUserIds(targets)
+                .excludedUserIds(new ArrayList<>())
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .version(3L)
+                .build();
+
+        flagBytes = serializer.serialize(flag);
+        booleanBytes = serializer.serialize(Boolean.TRUE);
+    }
+
+    @Benchmark
+    public byte[] serializeBoolean() {
+        return serializer.serialize(Boolean.TRUE);
+    }
+
+    @Benchmark
+    public Object deserializeBoolean() {
+        return serializer.deserialize(booleanBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeFlag() {
+        return serializer.serialize(flag);
+    }
+
+    @Benchmark
+    public Object deserializeFlag() {
+        return serializer.deserialize(flagBytes);
+    }
+}
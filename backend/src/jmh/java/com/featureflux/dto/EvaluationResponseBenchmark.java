@@ -0,0 +1,47 @@
+package com.featureflux.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding cost of the evaluation API responses, using an ObjectMapper
+ * configured the same way Spring Boot configures the MVC message converter.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EvaluationResponseBenchmark {
+
+    private ObjectMapper objectMapper;
+    private EvaluationResponse response;
+    private Map<String, Boolean> bulkResponse;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        response = new EvaluationResponse("benchmark-flag", "user-12345", true, 42, null, null);
+
+        bulkResponse = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            bulkResponse.put("flag-" + i, i % 2 == 0);
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeEvaluationResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] encodeBulkResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(bulkResponse);
+    }
+}
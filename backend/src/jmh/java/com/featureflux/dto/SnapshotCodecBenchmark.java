@@ -0,0 +1,71 @@
+package com.featureflux.dto;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflux.entity.FeatureFlag;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding cost of the binary flag snapshot against the JSON flag list of the admin API, for 200 flags
+ * that each target 1000 users drawn from a shared pool of 5000.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnapshotCodecBenchmark {
+
+    private ObjectMapper objectMapper;
+    private EvaluationSnapshot snapshot;
+    private List<FeatureFlagDTO> flagList;
+    private byte[] binary;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<FeatureFlag> flags = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            List<String> users = new ArrayList<>();
+            for (int u = 0; u < 1000; u++) {
+                users.add("user-" + (i * 37 + u * 5) % 5000);
+            }
+            flags.add(FeatureFlag.builder().key("flag-" + i).name("Flag " + i).description("Benchmark flag " + i)
+                    .version(1L).enabled(true).rolloutPercentage(i % 100).targetUserIds(users).build());
+        }
+        snapshot = new EvaluationSnapshot(Instant.now(), flags.stream().map(EvaluationSnapshot::evaluationOnly).toList(),
+                List.of(), List.of());
+        flagList = flags.stream().map(FeatureFlagDTO::fromEntity).toList();
+        binary = SnapshotCodec.encode(snapshot);
+        json = objectMapper.writeValueAsBytes(flagList);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return SnapshotCodec.encode(snapshot);
+    }
+
+    @Benchmark
+    public EvaluationSnapshot decodeBinary() {
+        return SnapshotCodec.decode(binary);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws Exception {
+        return objectMapper.writeValueAsBytes(flagList);
+    }
+
+    @Benchmark
+    public List<FeatureFlagDTO> decodeJson() throws Exception {
+        return objectMapper.readValue(json, new TypeReference<>() {
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package com.featureflux.rules;
+
+import com.featureflux.entity.ClauseOperator;
+import com.featureflux.entity.TargetingClause;
+import com.featureflux.entity.TargetingRule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled targeting rules with dozens of clauses. Every rule but the last misses on its final (most expensive)
+ * clause, so the benchmark walks the whole rule list for each context.
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.include=RuleEvaluationBenchmark
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RuleEvaluationBenchmark {
+
+    private static final int CONTEXT_POOL_SIZE = 256;
+    private static final String[] COUNTRIES = {"DE", "FR", "US", "GB", "JP", "BR", "IN", "CA"};
+    private static final String[] PLANS = {"free", "team", "pro", "enterprise"};
+
+    @Param({"8", "48"})
+    private int clauseCount;
+
+    private CompiledRules rules;
+    private Map<String, String>[] contexts;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        List<TargetingRule> ruleList = new ArrayList<>();
+        for (int r = 0; r < clauseCount / 4; r++) {
+            List<TargetingClause> clauses = new ArrayList<>();
+            clauses.add(clause("country", ClauseOperator.IN, COUNTRIES));
+            clauses.add(clause("plan", ClauseOperator.IN, PLANS));
+            clauses.add(clause("appVersion", ClauseOperator.SEMVER_GTE, "1.0.0"));
+            // Alternate between an anchored literal (rewritten to equality) and a pattern that needs the regex engine
+            clauses.add(clause("tenant", ClauseOperator.MATCHES, r % 2 == 0 ? "^tenant-" + r + "$" : "^tenant-" + r + "(-[a-z]+)?$"));
+            ruleList.add(TargetingRule.builder().clauses(clauses).build());
+        }
+        rules = RuleCompiler.compile(ruleList);
+
+        contexts = new Map[CONTEXT_POOL_SIZE];
+        for (int i = 0; i < CONTEXT_POOL_SIZE; i++) {
+            Map<String, String> context = new HashMap<>();
+            context.put("country", COUNTRIES[i % COUNTRIES.length]);
+            context.put("plan", PLANS[i % PLANS.length]);
+            context.put("appVersion", "2." + (i % 20) + ".3");
+            context.put("tenant", "tenant-" + (clauseCount / 4 - 1));
+            contexts[i] = context;
+        }
+    }
+
+    private static TargetingClause clause(String attribute, ClauseOperator operator, String... values) {
+        return TargetingClause.builder().attribute(attribute).operator(operator).values(List.of(values)).build();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public Boolean evaluateRules(Cursor cursor) {
+        return rules.evaluate("user-1", contexts[cursor.next++ & (CONTEXT_POOL_SIZE - 1)]);
+    }
+}
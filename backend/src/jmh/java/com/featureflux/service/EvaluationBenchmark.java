@@ -0,0 +1,113 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Segment;
+import com.featureflux.entity.Variant;
+import com.featureflux.store.InMemorySegmentStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot-path benchmarks for deterministic bucketing and in-memory flag evaluation.
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.include=EvaluationBenchmark
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EvaluationBenchmark {
+
+    private static final int USER_POOL_SIZE = 1024;
+
+    @Param({"0", "10", "1000", "10000"})
+    private int targetListSize;
+
+    private FeatureEvaluationService service;
+    private FeatureFlag flag;
+    private FeatureFlag segmentFlag;
+    private FeatureFlag variantFlag;
+    private String[] userIds;
+
+    @Setup
+    public void setup() {
+        // Only the pure evaluation methods are exercised, so collaborators other than segments are not needed
+        InMemorySegmentStore segmentStore = new InMemorySegmentStore();
+        service = new FeatureEvaluationService(null, null, null, new SegmentService(segmentStore, null, null), null);
+
+        List<String> targets = new ArrayList<>(targetListSize);
+        for (int i = 0; i < targetListSize; i++) {
+            targets.add("target-" + i);
+        }
+        flag = FeatureFlag.builder()
+                .key("benchmark-flag")
+                .name("Benchmark Flag")
+                .enabled(true)
+                .rolloutPercentage(50)
+                .targetUserIds(targets)
+                .excludedUserIds(new ArrayList<>(List.of("excluded-1", "excluded-2")))
+                .build();
+
+        // The same cohort as a shared segment instead of a per-flag list
+        segmentStore.save(Segment.builder().key("benchmark-segment").name("Benchmark Segment").members(targets).build());
+        segmentFlag = flag.toBuilder()
+                .targetUserIds(new ArrayList<>())
+                .targetSegmentKeys(new ArrayList<>(List.of("benchmark-segment")))
+                .build();
+
+        variantFlag = flag.toBuilder()
+                .variants(new ArrayList<>(List.of(
+                        Variant.builder().key("a").weight(10).build(),
+                        Variant.builder().key("b").weight(10).build(),
+                        Variant.builder().key("control").weight(80).build())))
+                .build();
+
+        userIds = new String[USER_POOL_SIZE];
+        for (int i = 0; i < USER_POOL_SIZE; i++) {
+            userIds[i] = "user-" + i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        String nextUser(String[] userIds) {
+            return userIds[next++ & (USER_POOL_SIZE - 1)];
+        }
+    }
+
+    @Benchmark
+    public int deterministicBucket(Cursor cursor) {
+        return service.getDeterministicBucket(flag.getKey(), cursor.nextUser(userIds));
+    }
+
+    /**
+     * Users outside the target list, so every call scans both user lists before bucketing.
+     */
+    @Benchmark
+    public boolean evaluateFlagRollout(Cursor cursor) {
+        return service.evaluateFlag(flag, cursor.nextUser(userIds));
+    }
+
+    /**
+     * Same users and cohort as {@link #evaluateFlagRollout}, with the cohort referenced as a segment.
+     */
+    @Benchmark
+    public boolean evaluateFlagSegment(Cursor cursor) {
+        return service.evaluateFlag(segmentFlag, cursor.nextUser(userIds));
+    }
+
+    /**
+     * Rollout plus a 10/10/80 variant split, both taken from the one hash computed per evaluation.
+     */
+    @Benchmark
+    public EvaluationResult evaluateFlagVariant(Cursor cursor) {
+        return service.evaluateFlagDetail(variantFlag, cursor.nextUser(userIds), Collections.emptyMap());
+    }
+}
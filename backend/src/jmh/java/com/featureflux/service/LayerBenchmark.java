@@ -0,0 +1,85 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.rules.ExperimentLayers;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemoryKillSwitchStore;
+import com.featureflux.store.InMemorySegmentStore;
+import com.featureflux.store.NoOpEvaluationCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk evaluation of 50 experiment flags for one user, either as independent 2% rollouts (one hash per flag)
+ * or as 2% slot ranges of one layer (one hash for all of them).
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.include=LayerBenchmark
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LayerBenchmark {
+
+    private static final int USER_POOL_SIZE = 1024;
+    private static final int FLAGS = 50;
+
+    @Param({"false", "true"})
+    private boolean layered;
+
+    private FeatureEvaluationService service;
+    private String[] flagKeys;
+    private String[] userIds;
+
+    @Setup
+    public void setup() {
+        InMemoryFlagStore flagStore = new InMemoryFlagStore();
+        service = new FeatureEvaluationService(flagStore, new NoOpEvaluationCache(),
+                new KillSwitchService(new InMemoryKillSwitchStore(), flagStore),
+                new SegmentService(new InMemorySegmentStore(), flagStore, null), new EvaluationTracer(16));
+
+        int slotsPerFlag = ExperimentLayers.SLOTS / FLAGS;
+        flagKeys = new String[FLAGS];
+        for (int i = 0; i < FLAGS; i++) {
+            flagKeys[i] = "experiment-" + i;
+            FeatureFlag.FeatureFlagBuilder flag = FeatureFlag.builder()
+                    .key(flagKeys[i])
+                    .name(flagKeys[i])
+                    .enabled(true);
+            if (layered) {
+                flag.rolloutPercentage(100).layerKey("benchmark-layer").layerStart(i * slotsPerFlag).layerEnd((i + 1) * slotsPerFlag);
+            } else {
+                flag.rolloutPercentage(2);
+            }
+            flagStore.save(flag.build());
+        }
+
+        userIds = new String[USER_POOL_SIZE];
+        for (int i = 0; i < USER_POOL_SIZE; i++) {
+            userIds[i] = "user-" + i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        String nextUser(String[] userIds) {
+            return userIds[next++ & (USER_POOL_SIZE - 1)];
+        }
+    }
+
+    @Benchmark
+    public Map<String, Boolean> bulkEvaluate(Cursor cursor) {
+        String userId = cursor.nextUser(userIds);
+        Map<String, String> requests = new LinkedHashMap<>();
+        for (String key : flagKeys) {
+            requests.put(key, userId);
+        }
+        return service.evaluateBulk(requests);
+    }
+}
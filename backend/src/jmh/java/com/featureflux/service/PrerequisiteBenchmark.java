@@ -0,0 +1,107 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Prerequisite;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemoryKillSwitchStore;
+import com.featureflux.store.InMemorySegmentStore;
+import com.featureflux.store.NoOpEvaluationCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation cost of prerequisite chains {@code chain-depth -> ... -> chain-1 -> chain-0}.
+ * {@code bulkChain} asks for every flag of the chain in one request, where memoization evaluates each flag once;
+ * {@code individualChain} asks for them in separate requests, which re-evaluates the chain below each flag.
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.include=PrerequisiteBenchmark
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrerequisiteBenchmark {
+
+    private static final int USER_POOL_SIZE = 1024;
+
+    @Param({"1", "8", "32"})
+    private int depth;
+
+    private FeatureEvaluationService service;
+    private String topKey;
+    private List<String> chainKeys;
+    private String[] userIds;
+
+    @Setup
+    public void setup() {
+        InMemoryFlagStore flagStore = new InMemoryFlagStore();
+        service = new FeatureEvaluationService(flagStore, new NoOpEvaluationCache(),
+                new KillSwitchService(new InMemoryKillSwitchStore(), flagStore),
+                new SegmentService(new InMemorySegmentStore(), flagStore, null), new EvaluationTracer(16));
+
+        chainKeys = new ArrayList<>();
+        for (int i = 0; i <= depth; i++) {
+            String key = "chain-" + i;
+            List<Prerequisite> prerequisites = new ArrayList<>();
+            if (i > 0) {
+                prerequisites.add(Prerequisite.builder().flagKey("chain-" + (i - 1)).build());
+            }
+            flagStore.save(FeatureFlag.builder()
+                    .key(key)
+                    .name(key)
+                    .enabled(true)
+                    .rolloutPercentage(100)
+                    .prerequisites(prerequisites)
+                    .build());
+            chainKeys.add(key);
+        }
+        topKey = "chain-" + depth;
+
+        userIds = new String[USER_POOL_SIZE];
+        for (int i = 0; i < USER_POOL_SIZE; i++) {
+            userIds[i] = "user-" + i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        String nextUser(String[] userIds) {
+            return userIds[next++ & (USER_POOL_SIZE - 1)];
+        }
+    }
+
+    @Benchmark
+    public boolean deepestFlag(Cursor cursor) {
+        return service.evaluate(topKey, cursor.nextUser(userIds));
+    }
+
+    @Benchmark
+    public Map<String, Boolean> bulkChain(Cursor cursor) {
+        String userId = cursor.nextUser(userIds);
+        Map<String, String> requests = new LinkedHashMap<>();
+        for (String key : chainKeys) {
+            requests.put(key, userId);
+        }
+        return service.evaluateBulk(requests);
+    }
+
+    @Benchmark
+    public int individualChain(Cursor cursor) {
+        String userId = cursor.nextUser(userIds);
+        int on = 0;
+        for (String key : chainKeys) {
+            if (service.evaluate(key, userId)) {
+                on++;
+            }
+        }
+        return on;
+    }
+}
@@ -0,0 +1,115 @@
+package com.featureflux.analytics;
+
+import com.featureflux.rules.UserHash;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One flag's evaluations in one time bucket: the on/off split, distinct users ({@link HyperLogLog}) and the most
+ * frequent users ({@link CountMinSketch} with {@link HeavyHitters}). About 10 KB however many users are evaluated.
+ * Recording never locks, and sketches of the same bucket from different nodes {@link #merge} into the cluster's.
+ */
+public final class FlagSketch {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final long bucket;
+    private final LongAdder enabled = new LongAdder();
+    private final LongAdder disabled = new LongAdder();
+    private final HyperLogLog users;
+    private final CountMinSketch frequencies;
+    private final HeavyHitters topUsers;
+
+    public FlagSketch(long bucket) {
+        this(bucket, new HyperLogLog(), new CountMinSketch(), new HeavyHitters());
+    }
+
+    private FlagSketch(long bucket, HyperLogLog users, CountMinSketch frequencies, HeavyHitters topUsers) {
+        this.bucket = bucket;
+        this.users = users;
+        this.frequencies = frequencies;
+        this.topUsers = topUsers;
+    }
+
+    public void record(String userId, boolean result) {
+        (result ? enabled : disabled).increment();
+        long hash = UserHash.stable(userId);
+        users.add(hash);
+        topUsers.offer(userId, frequencies.add(hash));
+    }
+
+    /** Adds another node's sketch of the same bucket to this one. */
+    public void merge(FlagSketch other) {
+        enabled.add(other.getEnabled());
+        disabled.add(other.getDisabled());
+        users.merge(other.users);
+        frequencies.merge(other.frequencies);
+        // Re-ranks both sides' candidates by their counts across both nodes
+        for (List<HeavyHitters.Candidate> candidates : List.of(topUsers.top(), other.topUsers.top())) {
+            for (HeavyHitters.Candidate candidate : candidates) {
+                topUsers.offer(candidate.userId(), frequencies.estimate(UserHash.stable(candidate.userId())));
+            }
+        }
+    }
+
+    public long getBucket() {
+        return bucket;
+    }
+
+    public long getEnabled() {
+        return enabled.sum();
+    }
+
+    public long getDisabled() {
+        return disabled.sum();
+    }
+
+    public long getEvaluations() {
+        return getEnabled() + getDisabled();
+    }
+
+    public long getUniqueUsers() {
+        return users.estimate();
+    }
+
+    public HyperLogLog getUsers() {
+        return users;
+    }
+
+    public List<HeavyHitters.Candidate> getTopUsers() {
+        return topUsers.top();
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 3 * Long.BYTES + HyperLogLog.BYTES + CountMinSketch.BYTES
+                + HeavyHitters.maxBytes());
+        buffer.put(FORMAT_VERSION);
+        buffer.putLong(bucket);
+        buffer.putLong(getEnabled());
+        buffer.putLong(getDisabled());
+        users.write(buffer);
+        frequencies.write(buffer);
+        topUsers.write(buffer);
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+
+    public static FlagSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported flag sketch format version: " + version);
+        }
+        long bucket = buffer.getLong();
+        long enabled = buffer.getLong();
+        long disabled = buffer.getLong();
+        FlagSketch sketch = new FlagSketch(bucket, HyperLogLog.read(buffer), CountMinSketch.read(buffer),
+                HeavyHitters.read(buffer));
+        sketch.enabled.add(enabled);
+        sketch.disabled.add(disabled);
+        return sketch;
+    }
+}
@@ -0,0 +1,118 @@
+package com.featureflux.analytics;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The {@value #CAPACITY} users with the highest count-min estimates seen so far. Slots are replaced with
+ * compare-and-set, so offering never locks; a lost race can leave a user in two slots, which {@link #top} merges.
+ * Most offers return after one volatile read, once the estimate falls below the smallest tracked one.
+ */
+public final class HeavyHitters {
+
+    static final int CAPACITY = 10;
+    /** Longer user ids are not tracked, which bounds the sketch's size. */
+    static final int MAX_USER_ID_LENGTH = 128;
+
+    public record Candidate(String userId, long count) {
+    }
+
+    private final AtomicReferenceArray<Candidate> slots = new AtomicReferenceArray<>(CAPACITY);
+    /** Smallest tracked count once every slot is taken, else 0. */
+    private volatile long floor;
+
+    public void offer(String userId, long count) {
+        if (count <= floor || userId.length() > MAX_USER_ID_LENGTH) {
+            return;
+        }
+        int smallest = -1;
+        Candidate smallestCandidate = null;
+        for (int i = 0; i < CAPACITY; i++) {
+            Candidate candidate = slots.get(i);
+            if (candidate == null) {
+                if (slots.compareAndSet(i, null, new Candidate(userId, count))) {
+                    updateFloor();
+                    return;
+                }
+                candidate = slots.get(i);
+            }
+            if (candidate.userId().equals(userId)) {
+                if (candidate.count() < count) {
+                    slots.compareAndSet(i, candidate, new Candidate(userId, count));
+                    updateFloor();
+                }
+                return;
+            }
+            if (smallestCandidate == null || candidate.count() < smallestCandidate.count()) {
+                smallest = i;
+                smallestCandidate = candidate;
+            }
+        }
+        if (smallestCandidate != null && count > smallestCandidate.count()
+                && slots.compareAndSet(smallest, smallestCandidate, new Candidate(userId, count))) {
+            updateFloor();
+        }
+    }
+
+    /** Tracked users by descending count. */
+    public List<Candidate> top() {
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            Candidate candidate = slots.get(i);
+            if (candidate != null) {
+                counts.merge(candidate.userId(), candidate.count(), Math::max);
+            }
+        }
+        List<Candidate> top = new ArrayList<>();
+        counts.forEach((userId, count) -> top.add(new Candidate(userId, count)));
+        top.sort(Comparator.comparingLong(Candidate::count).reversed().thenComparing(Candidate::userId));
+        return top;
+    }
+
+    void write(ByteBuffer buffer) {
+        List<Candidate> top = top();
+        buffer.put((byte) top.size());
+        for (Candidate candidate : top) {
+            byte[] userId = candidate.userId().getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) userId.length);
+            buffer.put(userId);
+            buffer.putLong(candidate.count());
+        }
+    }
+
+    static HeavyHitters read(ByteBuffer buffer) {
+        HeavyHitters sketch = new HeavyHitters();
+        int size = buffer.get();
+        for (int i = 0; i < size; i++) {
+            byte[] userId = new byte[buffer.getShort()];
+            buffer.get(userId);
+            sketch.offer(new String(userId, StandardCharsets.UTF_8), buffer.getLong());
+        }
+        return sketch;
+    }
+
+    /** Upper bound on what {@link #write} needs. */
+    static int maxBytes() {
+        // UTF-8 takes at most three bytes per UTF-16 char
+        return 1 + CAPACITY * (Short.BYTES + 3 * MAX_USER_ID_LENGTH + Long.BYTES);
+    }
+
+    private void updateFloor() {
+        long smallest = Long.MAX_VALUE;
+        for (int i = 0; i < CAPACITY; i++) {
+            Candidate candidate = slots.get(i);
+            if (candidate == null) {
+                floor = 0;
+                return;
+            }
+            smallest = Math.min(smallest, candidate.count());
+        }
+        floor = smallest;
+    }
+}
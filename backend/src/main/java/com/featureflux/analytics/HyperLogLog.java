@@ -0,0 +1,83 @@
+package com.featureflux.analytics;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * HyperLogLog distinct counter over 64-bit hashes: 2^11 registers (about 2.3% standard error) in a fixed 2 KB,
+ * however many users are added. Registers are bytes packed four to an int and raised with compare-and-set, so
+ * adding never locks. Merging takes the register-wise maximum, which is idempotent.
+ */
+public final class HyperLogLog {
+
+    static final int PRECISION = 11;
+    static final int REGISTERS = 1 << PRECISION;
+    static final int BYTES = REGISTERS;
+
+    private final AtomicIntegerArray words = new AtomicIntegerArray(REGISTERS / 4);
+
+    public void add(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // Position of the first set bit in the remaining bits, capped by the sentinel bit
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        raise(index, rank);
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < REGISTERS; i++) {
+            int rank = register(i);
+            sum += Math.scalb(1.0, -rank);
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+        double estimate = alpha * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Linear counting is more accurate while many registers are still empty
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            raise(i, other.register(i));
+        }
+    }
+
+    void write(ByteBuffer buffer) {
+        for (int i = 0; i < REGISTERS; i++) {
+            buffer.put((byte) register(i));
+        }
+    }
+
+    static HyperLogLog read(ByteBuffer buffer) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < REGISTERS; i++) {
+            sketch.raise(i, buffer.get() & 0xff);
+        }
+        return sketch;
+    }
+
+    private int register(int index) {
+        return (words.get(index >>> 2) >>> ((index & 3) * 8)) & 0xff;
+    }
+
+    private void raise(int index, int rank) {
+        int word = index >>> 2;
+        int shift = (index & 3) * 8;
+        while (true) {
+            int current = words.get(word);
+            if (((current >>> shift) & 0xff) >= rank) {
+                return;
+            }
+            int raised = (current & ~(0xff << shift)) | (rank << shift);
+            if (words.compareAndSet(word, current, raised)) {
+                return;
+            }
+        }
+    }
+}
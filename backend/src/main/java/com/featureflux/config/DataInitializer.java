@@ -5,6 +5,7 @@ import com.featureflux.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -18,7 +19,15 @@ public class DataInitializer implements CommandLineRunner {
 
     @Override
     public void run(String... args) {
-        
+        try {
+            createDefaultUsers();
+        } catch (DataAccessException e) {
+            // Nodes start from their flag snapshot while the database is down; the users exist from an earlier start
+            log.warn("Database unavailable, skipped creating default users", e);
+        }
+    }
+
+    private void createDefaultUsers() {
         if (userRepository.findByUsername("admin").isEmpty()) {
             User admin = User.builder()
                     .username("admin")
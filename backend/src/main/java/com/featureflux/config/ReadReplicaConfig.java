@@ -0,0 +1,73 @@
+package com.featureflux.config;
+
+import com.featureflux.store.ReadReplicas;
+import com.featureflux.store.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes read-only transactions to the Postgres replicas in {@code featureflux.datasource.replicas.urls}, so admin
+ * listings and audit browsing do not compete with writes on the primary. Without replicas, Spring Boot's single
+ * {@code spring.datasource} is used as before.
+ */
+@Configuration
+@ConditionalOnExpression("!'${featureflux.datasource.replicas.urls:}'.isBlank()")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Replicas log in as {@code spring.datasource} does unless given their own credentials.
+     */
+    @Bean
+    public ReadReplicas readReplicas(DataSourceProperties properties,
+                                     @Value("${featureflux.datasource.replicas.urls}") List<String> urls,
+                                     @Value("${featureflux.datasource.replicas.username:}") String username,
+                                     @Value("${featureflux.datasource.replicas.password:}") String password,
+                                     @Value("${featureflux.datasource.replicas.max-lag:5s}") Duration maxLag,
+                                     @Value("${featureflux.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize) {
+        List<ReadReplicas.Replica> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "replica-" + (replicas.size() + 1);
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .username(username.isEmpty() ? properties.determineUsername() : username)
+                    .password(username.isEmpty() ? properties.determinePassword() : password)
+                    .build();
+            dataSource.setPoolName(name);
+            dataSource.setMaximumPoolSize(maximumPoolSize);
+            dataSource.setReadOnly(true);
+            replicas.add(new ReadReplicas.Replica(name, dataSource));
+        }
+        return new ReadReplicas(replicas, maxLag);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary, ReadReplicas replicas) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicas));
+    }
+}
@@ -1,6 +1,12 @@
 package com.featureflux.config;
 
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.featureflux.store.RedisEvaluationCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
@@ -9,6 +15,7 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
@@ -21,24 +28,48 @@ public class RedisConfig {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(valueSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setHashValueSerializer(valueSerializer());
         template.afterPropertiesSet();
         return template;
     }
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    @ConditionalOnProperty(name = StoreConfig.STORE_TYPE, havingValue = "redis", matchIfMissing = true)
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     @Value("${featureflux.cache.ttl-jitter:0.1}") double jitter) {
+        // Jittered, so entries cached together do not all expire and miss together
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(5))
+                .entryTtl((key, value) -> RedisEvaluationCache.jittered(Duration.ofMinutes(5), jitter))
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer()))
                 .disableCachingNullValues();
 
         return RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
                 .build();
     }
+
+    /**
+     * Stores without Redis serve reads from Postgres or process memory directly,
+     * so {@code @Cacheable} methods simply pass through.
+     */
+    @Bean
+    @ConditionalOnExpression("'${" + StoreConfig.STORE_TYPE + ":redis}' != 'redis'")
+    public CacheManager noOpCacheManager() {
+        return new NoOpCacheManager();
+    }
+
+    /**
+     * Value serializer shared by the template and the cache manager.
+     * Exposed so benchmarks measure exactly what production writes to Redis.
+     */
+    public static RedisSerializer<Object> valueSerializer() {
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+        // Cached entities carry LocalDateTime audit columns
+        serializer.configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+        return serializer;
+    }
 }
 
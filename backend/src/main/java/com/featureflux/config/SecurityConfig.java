@@ -45,9 +45,13 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/evaluate/**").permitAll() // Public evaluation endpoint
+                .requestMatchers(WebSocketConfig.ENDPOINT + "/**").permitAll() // Dashboards authenticate the STOMP CONNECT frame
                 .requestMatchers("/api/flags/**").authenticated()
+                .requestMatchers("/api/segments/**").authenticated()
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .requestMatchers("/api/audit/**").hasRole("ADMIN")
+                .requestMatchers("/actuator/health/**").permitAll() // Liveness and readiness probes
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
             .sessionManagement(session -> session
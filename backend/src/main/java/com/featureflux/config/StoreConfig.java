@@ -0,0 +1,196 @@
+package com.featureflux.config;
+
+import com.featureflux.repository.ChangeRecordRepository;
+import com.featureflux.repository.FeatureFlagRepository;
+import com.featureflux.repository.KillSwitchRepository;
+import com.featureflux.repository.SegmentRepository;
+import com.featureflux.store.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Selects the flag and kill switch store with {@code featureflux.store.type}: {@code redis} (default),
+ * {@code jpa} or {@code memory}. See {@link FlagStore} for the trade-offs.
+ */
+@Configuration
+public class StoreConfig {
+
+    static final String STORE_TYPE = "featureflux.store.type";
+
+    @Bean
+    public FlagRevisions flagRevisions() {
+        return new FlagRevisions();
+    }
+
+    /**
+     * Change feed for the Postgres-backed types; the memory type has no other nodes to tell.
+     */
+    @Bean
+    @ConditionalOnExpression("'${" + STORE_TYPE + ":redis}' != 'memory'")
+    public ChangeOutbox changeOutbox(ChangeRecordRepository repository, JdbcTemplate jdbcTemplate,
+                                     FlagRevisions flagRevisions, DataSourceProperties dataSourceProperties) {
+        return new ChangeOutbox(repository, jdbcTemplate, flagRevisions,
+                ChangeOutbox.supportsNotify(dataSourceProperties.determineUrl()));
+    }
+
+    /**
+     * Last evaluation times in Postgres for the Postgres-backed types.
+     */
+    @Bean
+    @ConditionalOnExpression("'${" + STORE_TYPE + ":redis}' != 'memory'")
+    public LastEvaluatedStore lastEvaluatedStore(FeatureFlagRepository repository, JdbcTemplate jdbcTemplate) {
+        return new JpaLastEvaluatedStore(repository, jdbcTemplate);
+    }
+
+    /**
+     * Local fallback for the Postgres-backed types while their stores are unreachable; the memory type has nothing
+     * to fall back from.
+     */
+    @Bean
+    @ConditionalOnExpression("'${" + STORE_TYPE + ":redis}' != 'memory' and ${featureflux.snapshot.enabled:true}")
+    public SnapshotFallback snapshotFallback(
+            @Value("${featureflux.snapshot.path:${java.io.tmpdir}/featureflux/flags.snapshot}") String path) {
+        return new SnapshotFallback(Path.of(path));
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = STORE_TYPE, havingValue = "redis", matchIfMissing = true)
+    static class RedisStoreConfig {
+
+        /**
+         * Evaluation inside Redis, for flags whose result depends only on their own definition.
+         */
+        @Bean
+        @ConditionalOnProperty(name = "featureflux.evaluation.redis-script", havingValue = "true")
+        public RedisEvaluationScript redisEvaluationScript(RedisTemplate<String, Object> redisTemplate) {
+            return new RedisEvaluationScript(redisTemplate);
+        }
+
+        @Bean
+        public FlagStore flagStore(FeatureFlagRepository repository, ChangeOutbox outbox, RedisTemplate<String, Object> redisTemplate,
+                                   ObjectProvider<SnapshotFallback> snapshot, ObjectProvider<RedisEvaluationScript> script) {
+            return withSnapshot(new RedisFlagStore(new JpaFlagStore(repository, outbox), redisTemplate,
+                    script.getIfAvailable()), snapshot);
+        }
+
+        @Bean
+        public KillSwitchStore killSwitchStore(KillSwitchRepository repository, ChangeOutbox outbox,
+                                               RedisTemplate<String, Object> redisTemplate, ObjectProvider<SnapshotFallback> snapshot) {
+            return withSnapshot(new RedisKillSwitchStore(new JpaKillSwitchStore(repository, outbox), redisTemplate), snapshot);
+        }
+
+        @Bean
+        public SegmentStore segmentStore(SegmentRepository repository, ChangeOutbox outbox, ObjectProvider<SnapshotFallback> snapshot) {
+            return withSnapshot(new JpaSegmentStore(repository, outbox), snapshot);
+        }
+
+        @Bean
+        public EvaluationCache evaluationCache(RedisTemplate<String, Object> redisTemplate, FlagRevisions flagRevisions,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${featureflux.cache.evaluation-ttl:60s}") Duration ttl,
+                                               @Value("${featureflux.cache.ttl-jitter:0.1}") double jitter,
+                                               @Value("${featureflux.cache.stale-grace:30s}") Duration staleGrace,
+                                               ObjectProvider<RedisEvaluationScript> script) {
+            EvaluationCache cache = new RedisEvaluationCache(redisTemplate, flagRevisions, ttl, jitter, staleGrace, meterRegistry);
+            RedisEvaluationScript evaluationScript = script.getIfAvailable();
+            return evaluationScript != null ? new RedisScriptEvaluationCache(cache, evaluationScript, flagRevisions) : cache;
+        }
+
+        @Bean
+        public SketchStore sketchStore(RedisTemplate<String, Object> redisTemplate) {
+            return new RedisSketchStore(redisTemplate);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = STORE_TYPE, havingValue = "jpa")
+    static class JpaStoreConfig {
+
+        @Bean
+        public FlagStore flagStore(FeatureFlagRepository repository, ChangeOutbox outbox, ObjectProvider<SnapshotFallback> snapshot) {
+            return withSnapshot(new JpaFlagStore(repository, outbox), snapshot);
+        }
+
+        @Bean
+        public KillSwitchStore killSwitchStore(KillSwitchRepository repository, ChangeOutbox outbox,
+                                               ObjectProvider<SnapshotFallback> snapshot) {
+            return withSnapshot(new JpaKillSwitchStore(repository, outbox), snapshot);
+        }
+
+        @Bean
+        public SegmentStore segmentStore(SegmentRepository repository, ChangeOutbox outbox, ObjectProvider<SnapshotFallback> snapshot) {
+            return withSnapshot(new JpaSegmentStore(repository, outbox), snapshot);
+        }
+
+        @Bean
+        public EvaluationCache evaluationCache() {
+            return new NoOpEvaluationCache();
+        }
+
+        @Bean
+        public SketchStore sketchStore() {
+            return new LocalSketchStore();
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = STORE_TYPE, havingValue = "memory")
+    static class InMemoryStoreConfig {
+
+        @Bean
+        public FlagStore flagStore() {
+            return new InMemoryFlagStore();
+        }
+
+        @Bean
+        public KillSwitchStore killSwitchStore() {
+            return new InMemoryKillSwitchStore();
+        }
+
+        @Bean
+        public SegmentStore segmentStore() {
+            return new InMemorySegmentStore();
+        }
+
+        @Bean
+        public EvaluationCache evaluationCache() {
+            return new NoOpEvaluationCache();
+        }
+
+        @Bean
+        public SketchStore sketchStore() {
+            return new LocalSketchStore();
+        }
+
+        @Bean
+        public LastEvaluatedStore lastEvaluatedStore(FlagStore flagStore) {
+            return new InMemoryLastEvaluatedStore(flagStore);
+        }
+    }
+
+    private static FlagStore withSnapshot(FlagStore store, ObjectProvider<SnapshotFallback> snapshot) {
+        SnapshotFallback fallback = snapshot.getIfAvailable();
+        return fallback != null ? fallback.wrap(store) : store;
+    }
+
+    private static KillSwitchStore withSnapshot(KillSwitchStore store, ObjectProvider<SnapshotFallback> snapshot) {
+        SnapshotFallback fallback = snapshot.getIfAvailable();
+        return fallback != null ? fallback.wrap(store) : store;
+    }
+
+    private static SegmentStore withSnapshot(SegmentStore store, ObjectProvider<SnapshotFallback> snapshot) {
+        SnapshotFallback fallback = snapshot.getIfAvailable();
+        return fallback != null ? fallback.wrap(store) : store;
+    }
+}
@@ -1,58 +1,258 @@
 package com.featureflux.controller;
 
+import com.featureflux.dto.BulkEvaluationRequest;
+import com.featureflux.dto.EvaluationProtobuf;
 import com.featureflux.dto.EvaluationRequest;
 import com.featureflux.dto.EvaluationResponse;
+import com.featureflux.dto.SnapshotCodec;
+import com.featureflux.service.BatchEvaluationService;
+import com.featureflux.service.DashboardPublisher;
+import com.featureflux.service.EvaluationLimiter;
+import com.featureflux.service.EvaluationResult;
 import com.featureflux.service.FeatureEvaluationService;
+import com.featureflux.service.FlagAnalyticsService;
+import com.featureflux.service.FlagDistributionService;
+import com.featureflux.service.FlagSetEvaluationService;
+import com.featureflux.service.LastEvaluatedTracker;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
+/**
+ * Evaluation endpoints run under the {@link EvaluationLimiter}, except the snapshot, which is served from memory and
+ * lets SDKs keep evaluating locally while this node sheds, and batches, which have their own cap.
+ */
 @RestController
 @RequestMapping("/api/evaluate")
 @RequiredArgsConstructor
 public class EvaluationController {
 
+    /** Seconds shed callers are told to wait before retrying. */
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     private final FeatureEvaluationService evaluationService;
+    private final FlagDistributionService distributionService;
+    private final DashboardPublisher dashboardPublisher;
+    private final FlagAnalyticsService analyticsService;
+    private final LastEvaluatedTracker lastEvaluatedTracker;
+    private final FlagSetEvaluationService flagSetEvaluationService;
+    private final EvaluationLimiter limiter;
+    private final BatchEvaluationService batchEvaluationService;
 
     @PostMapping
     public ResponseEntity<EvaluationResponse> evaluate(@Valid @RequestBody EvaluationRequest request) {
-        boolean enabled = evaluationService.evaluate(request.getFlagKey(), request.getUserId());
-        
-        EvaluationResponse response = new EvaluationResponse();
-        response.setFlagKey(request.getFlagKey());
-        response.setUserId(request.getUserId());
-        response.setEnabled(enabled);
-        
-        response.setBucket(calculateBucket(request.getFlagKey(), request.getUserId()));
-        
-        return ResponseEntity.ok(response);
+        return limited(() -> ResponseEntity.ok(evaluate(request.getFlagKey(), request.getUserId(), request.getContext())),
+                () -> defaultResponse(request.getFlagKey(), request.getUserId()));
+    }
+
+    /**
+     * {@code EvaluateRequest} to {@code EvaluateResponse} in the protobuf encoding of {@link EvaluationProtobuf}, for
+     * service-to-service callers.
+     */
+    @PostMapping(consumes = EvaluationProtobuf.MEDIA_TYPE, produces = EvaluationProtobuf.MEDIA_TYPE)
+    public ResponseEntity<byte[]> evaluateProtobuf(@RequestBody byte[] body) {
+        EvaluationRequest request;
+        try {
+            request = EvaluationProtobuf.decodeRequest(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (isBlank(request.getFlagKey()) || isBlank(request.getUserId())) {
+            return ResponseEntity.badRequest().build();
+        }
+        return limited(() -> ResponseEntity.ok(EvaluationProtobuf.encodeResponse(
+                        evaluate(request.getFlagKey(), request.getUserId(), request.getContext()))),
+                () -> EvaluationProtobuf.encodeResponse(defaultResponse(request.getFlagKey(), request.getUserId())));
     }
 
     @GetMapping("/{flagKey}/{userId}")
     public ResponseEntity<EvaluationResponse> evaluateGet(
             @PathVariable String flagKey,
             @PathVariable String userId) {
-        boolean enabled = evaluationService.evaluate(flagKey, userId);
-        
+        return limited(() -> ResponseEntity.ok(evaluate(flagKey, userId, null)), () -> defaultResponse(flagKey, userId));
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<Map<String, Boolean>> evaluateBulk(@RequestBody Map<String, String> requests) {
+        return limited(() -> {
+            Map<String, Boolean> results = evaluationService.evaluateBulk(requests);
+            results.forEach((flagKey, enabled) -> {
+                dashboardPublisher.recordEvaluation(flagKey);
+                lastEvaluatedTracker.record(flagKey);
+                analyticsService.record(flagKey, requests.get(flagKey), enabled);
+            });
+            return ResponseEntity.ok(results);
+        }, () -> {
+            Map<String, Boolean> defaults = new HashMap<>();
+            requests.keySet().forEach(flagKey -> defaults.put(flagKey, limiter.getDefaultValue()));
+            return defaults;
+        });
+    }
+
+    /**
+     * Many flags for one user in the protobuf encoding: {@code BulkEvaluateRequest} names flags by their position
+     * in the flag set, and {@code BulkEvaluateResponse} returns one bit per position. See
+     * {@link FlagSetEvaluationService}. Shed requests always get a 503, since the positions only mean something
+     * against this node's flag set.
+     */
+    @PostMapping(value = "/bulk", consumes = EvaluationProtobuf.MEDIA_TYPE, produces = EvaluationProtobuf.MEDIA_TYPE)
+    public ResponseEntity<byte[]> evaluateBulkProtobuf(@RequestBody byte[] body) {
+        BulkEvaluationRequest request;
+        try {
+            request = EvaluationProtobuf.decodeBulkRequest(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (isBlank(request.getUserId())) {
+            return ResponseEntity.badRequest().build();
+        }
+        return limited(() -> {
+            try {
+                return ResponseEntity.ok(EvaluationProtobuf.encodeBulkResponse(flagSetEvaluationService.evaluate(request)));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }, null);
+    }
+
+    /**
+     * One flag for many users, for batch jobs: user ids are streamed in, one per line as plain text or NDJSON, and
+     * results streamed back as NDJSON in the same order. See {@link BatchEvaluationService}. Results bypass the
+     * evaluation cache and are not recorded in the flag's analytics or live rates.
+     */
+    @PostMapping(value = "/batch/{flagKey}", consumes = {BatchEvaluationService.NDJSON, MediaType.TEXT_PLAIN_VALUE})
+    public void evaluateBatch(@PathVariable String flagKey,
+                              @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                              InputStream body, HttpServletResponse response) throws IOException {
+        BufferedReader userIds = new BufferedReader(new InputStreamReader(body,
+                contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8));
+        boolean ndjson = contentType.isCompatibleWith(MediaType.parseMediaType(BatchEvaluationService.NDJSON));
+        response.setContentType(BatchEvaluationService.NDJSON);
+        BatchEvaluationService.Outcome outcome;
+        try {
+            outcome = batchEvaluationService.evaluate(flagKey, userIds, ndjson, response.getOutputStream());
+        } catch (IllegalArgumentException e) {
+            if (!response.isCommitted()) {
+                response.setStatus(HttpStatus.BAD_REQUEST.value());
+            }
+            // Otherwise the stream just ends early, short of the results the client expects
+            return;
+        }
+        switch (outcome) {
+            case EVALUATED -> lastEvaluatedTracker.record(flagKey);
+            case FLAG_NOT_FOUND -> response.setStatus(HttpStatus.NOT_FOUND.value());
+            case BUSY -> {
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Everything an SDK needs to evaluate the active flags locally, in the compact binary format of
+     * {@link SnapshotCodec} or, for clients that ask for {@code application/json}, as JSON.
+     */
+    @GetMapping(value = "/snapshot", produces = SnapshotCodec.MEDIA_TYPE)
+    public ResponseEntity<byte[]> snapshot(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return snapshot(FlagDistributionService.Format.BINARY, MediaType.parseMediaType(SnapshotCodec.MEDIA_TYPE), acceptEncoding, ifNoneMatch);
+    }
+
+    @GetMapping(value = "/snapshot", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> snapshotJson(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return snapshot(FlagDistributionService.Format.JSON, MediaType.APPLICATION_JSON, acceptEncoding, ifNoneMatch);
+    }
+
+    private ResponseEntity<byte[]> snapshot(FlagDistributionService.Format format, MediaType contentType,
+                                            String acceptEncoding, String ifNoneMatch) {
+        FlagDistributionService.Encoded snapshot = distributionService.snapshot(format);
+        if (ifNoneMatch != null && ifNoneMatch.contains(snapshot.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.getEtag())
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(contentType);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzipped());
+        }
+        return response.body(snapshot.getPlain());
+    }
+
+    private EvaluationResponse evaluate(String flagKey, String userId, Map<String, String> context) {
+        EvaluationResult result = evaluationService.evaluateDetail(flagKey, userId, context);
+        dashboardPublisher.recordEvaluation(flagKey);
+        lastEvaluatedTracker.record(flagKey);
+        analyticsService.record(flagKey, userId, result.isEnabled());
+
         EvaluationResponse response = new EvaluationResponse();
         response.setFlagKey(flagKey);
         response.setUserId(userId);
-        response.setEnabled(enabled);
+        response.setEnabled(result.isEnabled());
+        response.setVariant(result.getVariant());
+        response.setValue(result.getValue());
         response.setBucket(calculateBucket(flagKey, userId));
-        return ResponseEntity.ok(response);
+        return response;
     }
 
-    @PostMapping("/bulk")
-    public ResponseEntity<Map<String, Boolean>> evaluateBulk(@RequestBody Map<String, String> requests) {
-        Map<String, Boolean> results = new HashMap<>();
-        requests.forEach((flagKey, userId) -> {
-            results.put(flagKey, evaluationService.evaluate(flagKey, userId));
-        });
-        return ResponseEntity.ok(results);
+    /**
+     * Runs the evaluation within the concurrency limit, or sheds it.
+     *
+     * @param defaults the result served to shed requests if the limiter is configured to serve defaults, or
+     *                 {@code null} to always answer them with 503
+     */
+    private <T> ResponseEntity<T> limited(Supplier<ResponseEntity<T>> evaluation, Supplier<T> defaults) {
+        long permit = limiter.tryAcquire();
+        if (permit == EvaluationLimiter.SHED) {
+            if (defaults != null && limiter.getShedResponse() == EvaluationLimiter.ShedResponse.DEFAULT) {
+                return ResponseEntity.ok(defaults.get());
+            }
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .build();
+        }
+        boolean failed = true;
+        try {
+            ResponseEntity<T> response = evaluation.get();
+            failed = false;
+            return response;
+        } finally {
+            limiter.release(permit, failed);
+        }
+    }
+
+    /** Served to shed requests instead of evaluating; not recorded as an evaluation. */
+    private EvaluationResponse defaultResponse(String flagKey, String userId) {
+        EvaluationResponse response = new EvaluationResponse();
+        response.setFlagKey(flagKey);
+        response.setUserId(userId);
+        response.setEnabled(limiter.getDefaultValue());
+        response.setBucket(calculateBucket(flagKey, userId));
+        return response;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 
     private int calculateBucket(String flagKey, String userId) {
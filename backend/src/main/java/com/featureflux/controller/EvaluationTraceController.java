@@ -0,0 +1,53 @@
+package com.featureflux.controller;
+
+import com.featureflux.service.EvaluationTrace;
+import com.featureflux.service.EvaluationTracer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Sampled evaluation traces of the node serving the request, and their sampling, which applies to that node only.
+ */
+@RestController
+@RequestMapping("/api/admin/traces")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class EvaluationTraceController {
+
+    private final EvaluationTracer tracer;
+
+    @GetMapping
+    public ResponseEntity<List<EvaluationTrace>> getTraces(@RequestParam(required = false) String flagKey,
+                                                           @RequestParam(required = false) String userId,
+                                                           @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(tracer.recent(flagKey, userId, limit));
+    }
+
+    @GetMapping("/sampling")
+    public ResponseEntity<EvaluationTracer.Sampling> getSampling() {
+        EvaluationTracer.Sampling sampling = tracer.getSampling();
+        return ResponseEntity.ok(sampling != null ? sampling : new EvaluationTracer.Sampling(null, null, 0));
+    }
+
+    /**
+     * Replaces the sampling; rates outside [0, 1] are rejected while the body is read.
+     */
+    @PutMapping("/sampling")
+    public ResponseEntity<EvaluationTracer.Sampling> setSampling(@RequestBody EvaluationTracer.Sampling sampling) {
+        tracer.setSampling(sampling);
+        return getSampling();
+    }
+
+    @DeleteMapping("/sampling")
+    public ResponseEntity<Void> stopSampling() {
+        tracer.setSampling(null);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,16 +1,27 @@
 package com.featureflux.controller;
 
+import com.featureflux.dto.ChangesetRequest;
+import com.featureflux.dto.ChangesetResponse;
 import com.featureflux.dto.FeatureFlagDTO;
+import com.featureflux.dto.FlagStats;
+import com.featureflux.dto.StaleFlag;
 import com.featureflux.entity.FeatureFlag;
+import com.featureflux.service.ChangesetService;
 import com.featureflux.service.FeatureFlagService;
+import com.featureflux.service.FlagAnalyticsService;
+import com.featureflux.service.LastEvaluatedTracker;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,6 +31,9 @@ import java.util.stream.Collectors;
 public class FeatureFlagController {
 
     private final FeatureFlagService featureFlagService;
+    private final ChangesetService changesetService;
+    private final FlagAnalyticsService analyticsService;
+    private final LastEvaluatedTracker lastEvaluatedTracker;
 
     @GetMapping
     public ResponseEntity<List<FeatureFlagDTO>> getAllFlags() {
@@ -29,6 +43,22 @@ public class FeatureFlagController {
         return ResponseEntity.ok(flags);
     }
 
+    /**
+     * Flags not evaluated on any node for at least {@code days}, least recently evaluated first. Nodes flush
+     * evaluation times periodically, so the last few minutes of evaluations may not be counted yet.
+     */
+    @GetMapping("/stale")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<StaleFlag>> getStaleFlags(@RequestParam(defaultValue = "30") int days) {
+        if (days < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<StaleFlag> flags = lastEvaluatedTracker.findStale(Duration.ofDays(days)).stream()
+                .map(StaleFlag::fromEntity)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(flags);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<FeatureFlagDTO> getFlagById(@PathVariable Long id) {
         return featureFlagService.getFlagById(id)
@@ -84,6 +114,40 @@ public class FeatureFlagController {
         }
     }
 
+    /**
+     * Approximate evaluation analytics over the recent time buckets, merged across nodes.
+     */
+    @GetMapping("/{key}/stats")
+    public ResponseEntity<FlagStats> getFlagStats(@PathVariable String key) {
+        if (featureFlagService.getFlagByKey(key).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(analyticsService.stats(key));
+    }
+
+    /**
+     * Applies all flag and kill switch changes in one transaction, or none of them. Kill switch changes need the
+     * admin role, as they do one at a time.
+     */
+    @PostMapping("/changesets")
+    public ResponseEntity<ChangesetResponse> applyChangeset(@RequestBody ChangesetRequest changeset,
+                                                            Authentication authentication, HttpServletRequest request) {
+        if (changeset.getKillSwitches() != null && !changeset.getKillSwitches().isEmpty() && !request.isUserInRole("ADMIN")) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            ChangesetService.Applied applied = changesetService.apply(changeset, authentication.getName(), request);
+            return ResponseEntity.ok(new ChangesetResponse(
+                    applied.getFlags().stream().map(FeatureFlagDTO::fromEntity).collect(Collectors.toList()),
+                    applied.getKillSwitches()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            // A flag changed since the changeset was prepared
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
     @Data
     static class ToggleRequest {
         private Boolean enabled;
@@ -2,6 +2,7 @@ package com.featureflux.controller;
 
 import com.featureflux.dto.KillSwitchRequest;
 import com.featureflux.entity.KillSwitch;
+import com.featureflux.entity.KillSwitchScope;
 import com.featureflux.service.AuditService;
 import com.featureflux.service.KillSwitchService;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +15,10 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.List;
 
+/**
+ * Flag kill switches under {@code /{flagKey}}; tag and global switches under {@code /scope}, so no flag key can
+ * shadow them.
+ */
 @RestController
 @RequestMapping("/api/admin/killswitch")
 @RequiredArgsConstructor
@@ -52,6 +57,73 @@ public class KillSwitchController {
         return ResponseEntity.ok(killSwitch);
     }
 
+    @PostMapping("/scope/tags/{tag}/activate")
+    public ResponseEntity<KillSwitch> activateTagKillSwitch(
+            @PathVariable String tag,
+            @Valid @RequestBody KillSwitchRequest request,
+            Authentication authentication,
+            HttpServletRequest httpRequest) {
+
+        KillSwitch killSwitch = killSwitchService.activateTagKillSwitch(tag, request.getReason(), authentication.getName());
+
+        auditService.logKillSwitchChange(KillSwitchScope.TAG, tag, true, request.getReason(), httpRequest);
+
+        return ResponseEntity.ok(killSwitch);
+    }
+
+    @PostMapping("/scope/tags/{tag}/deactivate")
+    public ResponseEntity<KillSwitch> deactivateTagKillSwitch(
+            @PathVariable String tag,
+            Authentication authentication,
+            HttpServletRequest httpRequest) {
+
+        KillSwitch killSwitch = killSwitchService.deactivateTagKillSwitch(tag);
+
+        auditService.logKillSwitchChange(KillSwitchScope.TAG, tag, false, "Deactivated by " + authentication.getName(), httpRequest);
+
+        return ResponseEntity.ok(killSwitch);
+    }
+
+    @GetMapping("/scope/tags/{tag}")
+    public ResponseEntity<KillSwitch> getTagKillSwitch(@PathVariable String tag) {
+        return killSwitchService.getTagKillSwitch(tag)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /** Panic mode: switches off every flag until deactivated. */
+    @PostMapping("/scope/global/activate")
+    public ResponseEntity<KillSwitch> activateGlobalKillSwitch(
+            @Valid @RequestBody KillSwitchRequest request,
+            Authentication authentication,
+            HttpServletRequest httpRequest) {
+
+        KillSwitch killSwitch = killSwitchService.activateGlobalKillSwitch(request.getReason(), authentication.getName());
+
+        auditService.logKillSwitchChange(KillSwitchScope.GLOBAL, null, true, request.getReason(), httpRequest);
+
+        return ResponseEntity.ok(killSwitch);
+    }
+
+    @PostMapping("/scope/global/deactivate")
+    public ResponseEntity<KillSwitch> deactivateGlobalKillSwitch(
+            Authentication authentication,
+            HttpServletRequest httpRequest) {
+
+        KillSwitch killSwitch = killSwitchService.deactivateGlobalKillSwitch();
+
+        auditService.logKillSwitchChange(KillSwitchScope.GLOBAL, null, false, "Deactivated by " + authentication.getName(), httpRequest);
+
+        return ResponseEntity.ok(killSwitch);
+    }
+
+    @GetMapping("/scope/global")
+    public ResponseEntity<KillSwitch> getGlobalKillSwitch() {
+        return killSwitchService.getGlobalKillSwitch()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/{flagKey}")
     public ResponseEntity<KillSwitch> getKillSwitch(@PathVariable String flagKey) {
         return killSwitchService.getKillSwitch(flagKey)
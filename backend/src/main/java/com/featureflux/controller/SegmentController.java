@@ -0,0 +1,70 @@
+package com.featureflux.controller;
+
+import com.featureflux.dto.SegmentDTO;
+import com.featureflux.entity.Segment;
+import com.featureflux.service.SegmentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/segments")
+@RequiredArgsConstructor
+public class SegmentController {
+
+    private final SegmentService segmentService;
+
+    @GetMapping
+    public ResponseEntity<List<SegmentDTO>> getAllSegments() {
+        List<SegmentDTO> segments = segmentService.getAllSegments().stream()
+                .map(SegmentDTO::summaryOf)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(segments);
+    }
+
+    @GetMapping("/{key}")
+    public ResponseEntity<SegmentDTO> getSegment(@PathVariable String key) {
+        return segmentService.getSegment(key)
+                .map(segment -> ResponseEntity.ok(SegmentDTO.fromEntity(segment)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<SegmentDTO> createSegment(@RequestBody SegmentDTO dto, HttpServletRequest request) {
+        try {
+            Segment segment = segmentService.createSegment(dto.toEntity(), request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(SegmentDTO.summaryOf(segment));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/{key}")
+    public ResponseEntity<SegmentDTO> updateSegment(@PathVariable String key, @RequestBody SegmentDTO dto, HttpServletRequest request) {
+        try {
+            Segment segment = segmentService.updateSegment(key, dto.toEntity(), request);
+            return ResponseEntity.ok(SegmentDTO.summaryOf(segment));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{key}")
+    public ResponseEntity<Void> deleteSegment(@PathVariable String key, HttpServletRequest request) {
+        if (segmentService.getSegment(key).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            segmentService.deleteSegment(key, request);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            // Still referenced by flags
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
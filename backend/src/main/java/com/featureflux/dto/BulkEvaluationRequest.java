@@ -0,0 +1,23 @@
+package com.featureflux.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Many flags for one user, referred to by their position in a flag set. The binary counterpart of the JSON bulk
+ * request; see {@link EvaluationProtobuf}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEvaluationRequest {
+    private String userId;
+    private Map<String, String> context;
+    /** Id of the flag set {@link #flags} refers to, or 0. */
+    private long flagSet;
+    /** Positions of the flags to evaluate; empty for all of them. */
+    private int[] flags;
+}
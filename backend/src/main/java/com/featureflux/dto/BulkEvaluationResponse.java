@@ -0,0 +1,26 @@
+package com.featureflux.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Results of a {@link BulkEvaluationRequest} as a bitset over the positions of the flag set.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEvaluationResponse {
+    private long flagSet;
+    private int flagCount;
+    /** Bit {@code i % 8} of byte {@code i / 8} is set when the flag at position {@code i} is on. */
+    private byte[] enabled;
+    /** The flag set's keys by position, or empty when the request already referred to this flag set. */
+    private List<String> flagKeys;
+
+    public boolean isEnabled(int position) {
+        return (enabled[position >>> 3] & (1 << (position & 7))) != 0;
+    }
+}
@@ -0,0 +1,46 @@
+package com.featureflux.dto;
+
+import com.featureflux.entity.Variant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flag and kill switch changes applied together by {@code POST /api/flags/changesets}: all of them or none.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangesetRequest {
+    /** Shown in the audit log of every changed flag. */
+    private String description;
+    private List<FlagChange> flags = new ArrayList<>();
+    private List<KillSwitchChange> killSwitches = new ArrayList<>();
+
+    /**
+     * Changes one flag; fields left {@code null} keep their current value. {@code version} is the flag version
+     * the change was prepared against, and the changeset fails if the flag has changed since.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FlagChange {
+        private String key;
+        private Long version;
+        private Boolean enabled;
+        private Integer rolloutPercentage;
+        private List<Variant> variants;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class KillSwitchChange {
+        private String flagKey;
+        private boolean active;
+        private String reason;
+    }
+}
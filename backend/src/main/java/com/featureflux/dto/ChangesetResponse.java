@@ -0,0 +1,16 @@
+package com.featureflux.dto;
+
+import com.featureflux.entity.KillSwitch;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangesetResponse {
+    private List<FeatureFlagDTO> flags;
+    private List<KillSwitch> killSwitches;
+}
@@ -0,0 +1,366 @@
+package com.featureflux.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Protocol Buffers (proto3) encoding of the evaluation API, so that services calling it at high rates spend no CPU
+ * on JSON. The messages are defined in {@code src/main/proto/featureflux/v1/evaluation.proto}, from which callers
+ * generate their stubs. This class reads and writes the same wire format by hand, so the backend needs no protobuf
+ * runtime or code generation. As protobuf requires, unknown fields are skipped and fields at their default value
+ * are not written.
+ */
+public final class EvaluationProtobuf {
+
+    public static final String MEDIA_TYPE = "application/x-protobuf";
+
+    static final int VARINT = 0;
+    static final int FIXED64 = 1;
+    static final int LENGTH_DELIMITED = 2;
+    static final int FIXED32 = 5;
+
+    private EvaluationProtobuf() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the data is not a valid {@code EvaluateRequest}
+     */
+    public static EvaluationRequest decodeRequest(byte[] data) {
+        EvaluationRequest request = new EvaluationRequest();
+        Input input = new Input(data, 0, data.length);
+        while (input.hasMore()) {
+            int tag = input.tag();
+            switch (tag >>> 3) {
+                case 1 -> request.setFlagKey(input.string(tag));
+                case 2 -> request.setUserId(input.string(tag));
+                case 3 -> request.setContext(input.mapEntry(tag, request.getContext()));
+                default -> input.skip(tag);
+            }
+        }
+        return request;
+    }
+
+    public static byte[] encodeResponse(EvaluationResponse response) {
+        Output output = new Output(64);
+        output.string(1, response.getFlagKey());
+        output.string(2, response.getUserId());
+        output.bool(3, Boolean.TRUE.equals(response.getEnabled()));
+        output.uint(4, response.getBucket() != null ? response.getBucket() : 0);
+        output.string(5, response.getVariant());
+        output.string(6, response.getValue() != null ? response.getValue().toString() : null);
+        return output.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the data is not a valid {@code BulkEvaluateRequest}
+     */
+    public static BulkEvaluationRequest decodeBulkRequest(byte[] data) {
+        BulkEvaluationRequest request = new BulkEvaluationRequest();
+        IntList flags = new IntList();
+        Input input = new Input(data, 0, data.length);
+        while (input.hasMore()) {
+            int tag = input.tag();
+            switch (tag >>> 3) {
+                case 1 -> request.setUserId(input.string(tag));
+                case 2 -> request.setContext(input.mapEntry(tag, request.getContext()));
+                case 3 -> request.setFlagSet(input.fixed64(tag));
+                case 4 -> input.uints(tag, flags);
+                default -> input.skip(tag);
+            }
+        }
+        request.setFlags(flags.toArray());
+        return request;
+    }
+
+    public static byte[] encodeBulkResponse(BulkEvaluationResponse response) {
+        Output output = new Output(32 + response.getEnabled().length);
+        output.fixed64(1, response.getFlagSet());
+        output.uint(2, response.getFlagCount());
+        output.bytes(3, response.getEnabled());
+        if (response.getFlagKeys() != null) {
+            for (String key : response.getFlagKeys()) {
+                output.repeatedString(4, key);
+            }
+        }
+        return output.toByteArray();
+    }
+
+    /** Reads the wire format; every read checks the field's wire type and stays within the message. */
+    static final class Input {
+        private final byte[] data;
+        private int position;
+        private final int end;
+
+        Input(byte[] data, int offset, int end) {
+            this.data = data;
+            this.position = offset;
+            this.end = end;
+        }
+
+        boolean hasMore() {
+            return position < end;
+        }
+
+        int tag() {
+            long tag = varint();
+            if (tag >>> 3 == 0 || tag < 0 || tag > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid protobuf field tag " + tag);
+            }
+            return (int) tag;
+        }
+
+        String string(int tag) {
+            int length = length(tag);
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        byte[] bytes(int tag) {
+            int length = length(tag);
+            byte[] value = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return value;
+        }
+
+        long uint(int tag) {
+            expect(tag, VARINT);
+            return varint();
+        }
+
+        long fixed64(int tag) {
+            expect(tag, FIXED64);
+            require(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value |= (data[position++] & 0xFFL) << (8 * i);
+            }
+            return value;
+        }
+
+        /** A repeated uint32, packed or not; parsers must accept both. */
+        void uints(int tag, IntList values) {
+            if ((tag & 7) == LENGTH_DELIMITED) {
+                int length = length(tag);
+                Input packed = new Input(data, position, position + length);
+                while (packed.hasMore()) {
+                    values.add(uint32(packed.varint()));
+                }
+                position += length;
+            } else {
+                values.add(uint32(uint(tag)));
+            }
+        }
+
+        /** Adds one entry of a {@code map<string, string>} field to the map read so far. */
+        Map<String, String> mapEntry(int tag, Map<String, String> map) {
+            int length = length(tag);
+            Input entry = new Input(data, position, position + length);
+            String key = "";
+            String value = "";
+            while (entry.hasMore()) {
+                int entryTag = entry.tag();
+                switch (entryTag >>> 3) {
+                    case 1 -> key = entry.string(entryTag);
+                    case 2 -> value = entry.string(entryTag);
+                    default -> entry.skip(entryTag);
+                }
+            }
+            position += length;
+            Map<String, String> entries = map != null ? map : new HashMap<>();
+            entries.put(key, value);
+            return entries;
+        }
+
+        void skip(int tag) {
+            switch (tag & 7) {
+                case VARINT -> varint();
+                case FIXED64 -> advance(8);
+                case LENGTH_DELIMITED -> advance(length(tag));
+                case FIXED32 -> advance(4);
+                default -> throw new IllegalArgumentException("Unsupported protobuf wire type " + (tag & 7));
+            }
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                require(1);
+                byte next = data[position++];
+                value |= (long) (next & 0x7F) << shift;
+                if (next >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed protobuf varint");
+        }
+
+        private int length(int tag) {
+            expect(tag, LENGTH_DELIMITED);
+            long length = varint();
+            if (length < 0 || length > end - position) {
+                throw new IllegalArgumentException("Truncated protobuf message");
+            }
+            return (int) length;
+        }
+
+        private void advance(int bytes) {
+            require(bytes);
+            position += bytes;
+        }
+
+        private void require(int bytes) {
+            if (bytes > end - position) {
+                throw new IllegalArgumentException("Truncated protobuf message");
+            }
+        }
+
+        private static void expect(int tag, int wireType) {
+            if ((tag & 7) != wireType) {
+                throw new IllegalArgumentException("Field " + (tag >>> 3) + " has wire type " + (tag & 7)
+                        + ", expected " + wireType);
+            }
+        }
+
+        private static int uint32(long value) {
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Protobuf uint32 out of range: " + value);
+            }
+            return (int) value;
+        }
+    }
+
+    /** Writes the wire format, leaving out fields at their default value. */
+    static final class Output {
+        private byte[] buffer;
+        private int size;
+
+        Output(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void string(int field, String value) {
+            if (value != null && !value.isEmpty()) {
+                repeatedString(field, value);
+            }
+        }
+
+        /** Writes the string even when empty, as elements of a repeated field must be. */
+        void repeatedString(int field, String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            tag(field, LENGTH_DELIMITED);
+            varint(bytes.length);
+            raw(bytes);
+        }
+
+        void bytes(int field, byte[] value) {
+            if (value.length > 0) {
+                tag(field, LENGTH_DELIMITED);
+                varint(value.length);
+                raw(value);
+            }
+        }
+
+        void bool(int field, boolean value) {
+            uint(field, value ? 1 : 0);
+        }
+
+        void uint(int field, long value) {
+            if (value != 0) {
+                repeatedUint(field, value);
+            }
+        }
+
+        /** Writes the value even when zero, as unpacked elements of a repeated field must be. */
+        void repeatedUint(int field, long value) {
+            tag(field, VARINT);
+            varint(value);
+        }
+
+        void fixed64(int field, long value) {
+            if (value != 0) {
+                tag(field, FIXED64);
+                ensure(8);
+                for (int i = 0; i < 8; i++) {
+                    buffer[size++] = (byte) (value >>> (8 * i));
+                }
+            }
+        }
+
+        /** A packed repeated uint32, the proto3 default encoding. */
+        void packed(int field, int[] values) {
+            if (values.length == 0) {
+                return;
+            }
+            Output packed = new Output(values.length * 2);
+            for (int value : values) {
+                packed.varint(value);
+            }
+            tag(field, LENGTH_DELIMITED);
+            varint(packed.size);
+            ensure(packed.size);
+            System.arraycopy(packed.buffer, 0, buffer, size, packed.size);
+            size += packed.size;
+        }
+
+        /** One entry of a {@code map<string, string>} field. */
+        void mapEntry(int field, String key, String value) {
+            Output entry = new Output(16);
+            entry.string(1, key);
+            entry.string(2, value);
+            tag(field, LENGTH_DELIMITED);
+            varint(entry.size);
+            ensure(entry.size);
+            System.arraycopy(entry.buffer, 0, buffer, size, entry.size);
+            size += entry.size;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void tag(int field, int wireType) {
+            varint((long) field << 3 | wireType);
+        }
+
+        private void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        private void raw(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void ensure(int bytes) {
+            if (size + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes));
+            }
+        }
+    }
+
+    /** Growable {@code int[]} for repeated fields, avoiding boxing. */
+    static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
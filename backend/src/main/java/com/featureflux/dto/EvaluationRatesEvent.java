@@ -0,0 +1,18 @@
+package com.featureflux.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Evaluations per second served by the node a dashboard is connected to over the last interval, by flag key.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EvaluationRatesEvent {
+    private long intervalMs;
+    private Map<String, Double> rates;
+}
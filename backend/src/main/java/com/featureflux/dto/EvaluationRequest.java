@@ -4,11 +4,16 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class EvaluationRequest {
     private String flagKey;
     private String userId;
+
+    /** Attributes such as country, plan, appVersion or tenant matched by the flag's targeting rules. */
+    private Map<String, String> context;
 }
 
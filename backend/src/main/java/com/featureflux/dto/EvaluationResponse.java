@@ -1,5 +1,7 @@
 package com.featureflux.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,5 +14,12 @@ public class EvaluationResponse {
     private String userId;
     private Boolean enabled;
     private Integer bucket;
+
+    /** Variant served by a multivariate flag; omitted for boolean flags. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String variant;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private JsonNode value;
 }
 
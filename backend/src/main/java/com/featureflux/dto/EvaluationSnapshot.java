@@ -0,0 +1,63 @@
+package com.featureflux.dto;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Segment;
+import com.featureflux.entity.TargetingRule;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything a client needs to evaluate the active flags itself, without the descriptive fields of the admin API:
+ * the flags, the keys of those switched off by their own, a tag's or the global kill switch, and the segments they
+ * reference.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EvaluationSnapshot {
+    private Instant generatedAt;
+    private List<FeatureFlag> flags = new ArrayList<>();
+    private List<String> killSwitches = new ArrayList<>();
+    private List<Segment> segments = new ArrayList<>();
+
+    /** Copy of the flag with only the fields evaluation reads. */
+    public static FeatureFlag evaluationOnly(FeatureFlag flag) {
+        return FeatureFlag.builder()
+                .key(flag.getKey())
+                .version(flag.getVersion())
+                .enabled(flag.getEnabled())
+                .rolloutPercentage(flag.getRolloutPercentage())
+                .rolloutSchedule(copy(flag.getRolloutSchedule()))
+                .layerKey(flag.getLayerKey())
+                .layerStart(flag.getLayerStart())
+                .layerEnd(flag.getLayerEnd())
+                .targetUserIds(copy(flag.getTargetUserIds()))
+                .excludedUserIds(copy(flag.getExcludedUserIds()))
+                .targetSegmentKeys(copy(flag.getTargetSegmentKeys()))
+                .excludedSegmentKeys(copy(flag.getExcludedSegmentKeys()))
+                .rules(flag.getRules() == null ? new ArrayList<>() : new ArrayList<>(flag.getRules().stream()
+                        .map(rule -> TargetingRule.builder().clauses(rule.getClauses()).serve(rule.isServe()).build())
+                        .toList()))
+                .prerequisites(copy(flag.getPrerequisites()))
+                .variants(copy(flag.getVariants()))
+                .build();
+    }
+
+    /** Copy of the segment with only its key, version and members. */
+    public static Segment evaluationOnly(Segment segment) {
+        return Segment.builder()
+                .key(segment.getKey())
+                .version(segment.getVersion())
+                .members(copy(segment.getMembers()))
+                .build();
+    }
+
+    private static <T> List<T> copy(List<T> values) {
+        return values != null ? new ArrayList<>(values) : new ArrayList<>();
+    }
+}
@@ -1,6 +1,10 @@
 package com.featureflux.dto;
 
 import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Prerequisite;
+import com.featureflux.entity.RolloutStep;
+import com.featureflux.entity.TargetingRule;
+import com.featureflux.entity.Variant;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,11 +25,23 @@ public class FeatureFlagDTO {
     private String description;
     private Boolean enabled;
     private Integer rolloutPercentage;
+    private List<RolloutStep> rolloutSchedule;
+    private String layerKey;
+    private Integer layerStart;
+    private Integer layerEnd;
+    private List<String> tags;
     private List<String> targetUserIds;
     private List<String> excludedUserIds;
+    private List<String> targetSegmentKeys;
+    private List<String> excludedSegmentKeys;
+    private List<TargetingRule> rules;
+    private List<Prerequisite> prerequisites;
+    private List<Variant> variants;
     private Boolean archived;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    /** Read-only; changesets send it back to detect concurrent changes. */
+    private Long version;
 
     public static FeatureFlagDTO fromEntity(FeatureFlag flag) {
         return FeatureFlagDTO.builder()
@@ -35,11 +51,22 @@ public class FeatureFlagDTO {
                 .description(flag.getDescription())
                 .enabled(flag.getEnabled())
                 .rolloutPercentage(flag.getRolloutPercentage())
+                .rolloutSchedule(flag.getRolloutSchedule() != null ? new ArrayList<>(flag.getRolloutSchedule()) : new ArrayList<>())
+                .layerKey(flag.getLayerKey())
+                .layerStart(flag.getLayerStart())
+                .layerEnd(flag.getLayerEnd())
+                .tags(flag.getTags() != null ? new ArrayList<>(flag.getTags()) : new ArrayList<>())
                 .targetUserIds(flag.getTargetUserIds() != null ? new ArrayList<>(flag.getTargetUserIds()) : new ArrayList<>())
                 .excludedUserIds(flag.getExcludedUserIds() != null ? new ArrayList<>(flag.getExcludedUserIds()) : new ArrayList<>())
+                .targetSegmentKeys(flag.getTargetSegmentKeys() != null ? new ArrayList<>(flag.getTargetSegmentKeys()) : new ArrayList<>())
+                .excludedSegmentKeys(flag.getExcludedSegmentKeys() != null ? new ArrayList<>(flag.getExcludedSegmentKeys()) : new ArrayList<>())
+                .rules(flag.getRules() != null ? new ArrayList<>(flag.getRules()) : new ArrayList<>())
+                .prerequisites(flag.getPrerequisites() != null ? new ArrayList<>(flag.getPrerequisites()) : new ArrayList<>())
+                .variants(flag.getVariants() != null ? new ArrayList<>(flag.getVariants()) : new ArrayList<>())
                 .archived(flag.getArchived())
                 .createdAt(flag.getCreatedAt())
                 .updatedAt(flag.getUpdatedAt())
+                .version(flag.getVersion())
                 .build();
     }
 
@@ -51,8 +78,18 @@ public class FeatureFlagDTO {
                 .description(this.description)
                 .enabled(this.enabled != null ? this.enabled : false)
                 .rolloutPercentage(this.rolloutPercentage != null ? this.rolloutPercentage : 0)
+                .rolloutSchedule(this.rolloutSchedule != null ? new ArrayList<>(this.rolloutSchedule) : new ArrayList<>())
+                .layerKey(this.layerKey)
+                .layerStart(this.layerStart)
+                .layerEnd(this.layerEnd)
+                .tags(this.tags != null ? new ArrayList<>(this.tags) : new ArrayList<>())
                 .targetUserIds(this.targetUserIds != null ? new ArrayList<>(this.targetUserIds) : new ArrayList<>())
                 .excludedUserIds(this.excludedUserIds != null ? new ArrayList<>(this.excludedUserIds) : new ArrayList<>())
+                .targetSegmentKeys(this.targetSegmentKeys != null ? new ArrayList<>(this.targetSegmentKeys) : new ArrayList<>())
+                .excludedSegmentKeys(this.excludedSegmentKeys != null ? new ArrayList<>(this.excludedSegmentKeys) : new ArrayList<>())
+                .rules(this.rules != null ? new ArrayList<>(this.rules) : new ArrayList<>())
+                .prerequisites(this.prerequisites != null ? new ArrayList<>(this.prerequisites) : new ArrayList<>())
+                .variants(this.variants != null ? new ArrayList<>(this.variants) : new ArrayList<>())
                 .archived(this.archived != null ? this.archived : false)
                 .build();
     }
@@ -0,0 +1,24 @@
+package com.featureflux.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * A committed flag change as pushed to dashboards. {@code changes} holds only the {@link FeatureFlagDTO} fields
+ * that differ from what was last pushed, or every field for a flag the dashboards have not been sent yet.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlagChangeEvent {
+
+    public enum Type { UPSERT, REMOVED }
+
+    private Type type;
+    private String key;
+    private Long version;
+    private Map<String, Object> changes;
+}
@@ -0,0 +1,48 @@
+package com.featureflux.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Approximate evaluation analytics for one flag over the recent time buckets, oldest first. Unique users are
+ * HyperLogLog estimates and top user counts are count-min estimates, which may overcount but never undercount.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlagStats {
+    private String flagKey;
+    private int bucketMinutes;
+    /** False when other nodes' sketches could not be read, so only this node's evaluations are included. */
+    private boolean clusterWide;
+    private long evaluations;
+    private long enabled;
+    private long disabled;
+    /** Distinct users over the whole window, not the sum of the buckets'. */
+    private long uniqueUsers;
+    private List<TopUser> topUsers;
+    private List<Bucket> buckets;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private Instant start;
+        private long evaluations;
+        private long enabled;
+        private long disabled;
+        private long uniqueUsers;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TopUser {
+        private String userId;
+        private long evaluations;
+    }
+}
@@ -0,0 +1,24 @@
+package com.featureflux.dto;
+
+import com.featureflux.entity.KillSwitchScope;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A kill switch toggle as pushed to dashboards, with the keys of every flag the active switches turn off afterwards.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KillSwitchEvent {
+    private boolean active;
+    private KillSwitchScope scope;
+    /** The flag key or tag; null for the global switch. */
+    private String target;
+    private String reason;
+    private String activatedBy;
+    private List<String> killedFlags;
+}
@@ -0,0 +1,54 @@
+package com.featureflux.dto;
+
+import com.featureflux.entity.Segment;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SegmentDTO {
+    private Long id;
+    private String key;
+    private String name;
+    private String description;
+    private List<String> members;
+    private Integer memberCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    /** Without the member list, for listings of segments that may hold many thousands of users. */
+    public static SegmentDTO summaryOf(Segment segment) {
+        return SegmentDTO.builder()
+                .id(segment.getId())
+                .key(segment.getKey())
+                .name(segment.getName())
+                .description(segment.getDescription())
+                .memberCount(segment.getMembers() != null ? segment.getMembers().size() : 0)
+                .createdAt(segment.getCreatedAt())
+                .updatedAt(segment.getUpdatedAt())
+                .build();
+    }
+
+    public static SegmentDTO fromEntity(Segment segment) {
+        SegmentDTO dto = summaryOf(segment);
+        dto.setMembers(segment.getMembers() != null ? new ArrayList<>(segment.getMembers()) : new ArrayList<>());
+        return dto;
+    }
+
+    public Segment toEntity() {
+        return Segment.builder()
+                .key(this.key)
+                .name(this.name)
+                .description(this.description)
+                .members(this.members != null ? new ArrayList<>(this.members) : new ArrayList<>())
+                .build();
+    }
+}
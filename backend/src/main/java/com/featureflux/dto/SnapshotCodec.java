@@ -0,0 +1,390 @@
+package com.featureflux.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.featureflux.entity.ClauseOperator;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Prerequisite;
+import com.featureflux.entity.RolloutStep;
+import com.featureflux.entity.Segment;
+import com.featureflux.entity.TargetingClause;
+import com.featureflux.entity.TargetingRule;
+import com.featureflux.entity.Variant;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+/**
+ * Wire formats of {@link EvaluationSnapshot}: a compact binary format for SDKs and a JSON form of the same content.
+ * <p>
+ * Binary layout, big-endian: magic, format version, generation time, payload length and the CRC32C of the payload,
+ * then the payload. The payload starts with a table of every distinct string; everything after it refers to strings
+ * by table index, so user ids and keys shared between flags and segments are sent and decoded once. Counts, indexes
+ * and small numbers are unsigned varints, and every list is prefixed with its length. Nullable strings are encoded as
+ * index + 1, with 0 for {@code null}.
+ */
+public final class SnapshotCodec {
+
+    public static final String MEDIA_TYPE = "application/vnd.featureflux.snapshot";
+    static final int MAGIC = 0x46465753; // "FFWS"
+    static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 2 + 8 + 4 + 4;
+
+    private static final int ENABLED = 1;
+    private static final int KILLED = 1 << 1;
+    private static final int LAYERED = 1 << 2;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
+
+    private SnapshotCodec() {
+    }
+
+    public static byte[] encode(EvaluationSnapshot snapshot) {
+        StringTable strings = new StringTable();
+        Output body = new Output();
+        Set<String> killed = new HashSet<>(snapshot.getKillSwitches());
+
+        body.varint(snapshot.getFlags().size());
+        for (FeatureFlag flag : snapshot.getFlags()) {
+            body.varint(strings.index(flag.getKey()));
+            body.varint(flag.getVersion() != null ? flag.getVersion() + 1 : 0);
+            int bits = (Boolean.TRUE.equals(flag.getEnabled()) ? ENABLED : 0)
+                    | (killed.contains(flag.getKey()) ? KILLED : 0)
+                    | (flag.getLayerKey() != null ? LAYERED : 0);
+            body.varint(bits);
+            body.varint(flag.getRolloutPercentage() != null ? flag.getRolloutPercentage() : 0);
+            if (flag.getLayerKey() != null) {
+                body.varint(strings.index(flag.getLayerKey()));
+                body.varint(flag.getLayerStart() != null ? flag.getLayerStart() : 0);
+                body.varint(flag.getLayerEnd() != null ? flag.getLayerEnd() : 0);
+            }
+            List<RolloutStep> schedule = list(flag.getRolloutSchedule());
+            body.varint(schedule.size());
+            for (RolloutStep step : schedule) {
+                body.fixed64(step.getAt().toEpochMilli());
+                body.varint(step.getPercentage());
+                body.varint(step.isLinear() ? 1 : 0);
+            }
+            body.strings(flag.getTargetUserIds(), strings);
+            body.strings(flag.getExcludedUserIds(), strings);
+            body.strings(flag.getTargetSegmentKeys(), strings);
+            body.strings(flag.getExcludedSegmentKeys(), strings);
+            List<TargetingRule> rules = list(flag.getRules());
+            body.varint(rules.size());
+            for (TargetingRule rule : rules) {
+                body.varint(rule.isServe() ? 1 : 0);
+                List<TargetingClause> clauses = list(rule.getClauses());
+                body.varint(clauses.size());
+                for (TargetingClause clause : clauses) {
+                    body.varint(strings.index(clause.getAttribute()));
+                    body.varint(strings.index(clause.getOperator().name()));
+                    body.varint(clause.isNegate() ? 1 : 0);
+                    body.strings(clause.getValues(), strings);
+                }
+            }
+            List<Prerequisite> prerequisites = list(flag.getPrerequisites());
+            body.varint(prerequisites.size());
+            for (Prerequisite prerequisite : prerequisites) {
+                body.varint(strings.index(prerequisite.getFlagKey()));
+                body.varint(strings.nullableIndex(prerequisite.getVariant()));
+            }
+            List<Variant> variants = list(flag.getVariants());
+            body.varint(variants.size());
+            for (Variant variant : variants) {
+                body.varint(strings.index(variant.getKey()));
+                body.varint(variant.getWeight());
+                body.varint(strings.nullableIndex(variant.getValue() != null ? variant.getValue().toString() : null));
+            }
+        }
+
+        body.varint(snapshot.getSegments().size());
+        for (Segment segment : snapshot.getSegments()) {
+            body.varint(strings.index(segment.getKey()));
+            body.varint(segment.getVersion() != null ? segment.getVersion() + 1 : 0);
+            body.strings(segment.getMembers(), strings);
+        }
+
+        Output payload = new Output();
+        payload.varint(strings.values.size());
+        for (String value : strings.values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            payload.varint(bytes.length);
+            payload.bytes(bytes, bytes.length);
+        }
+        payload.bytes(body.buffer, body.size);
+
+        CRC32C checksum = new CRC32C();
+        checksum.update(payload.buffer, 0, payload.size);
+        return ByteBuffer.allocate(HEADER_BYTES + payload.size)
+                .putInt(MAGIC)
+                .putShort((short) FORMAT_VERSION)
+                .putLong(snapshot.getGeneratedAt().toEpochMilli())
+                .putInt(payload.size)
+                .putInt((int) checksum.getValue())
+                .put(payload.buffer, 0, payload.size)
+                .array();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the data is not a snapshot, has an unsupported format version, is
+     *                                  truncated or fails its checksum
+     */
+    public static EvaluationSnapshot decode(byte[] data) {
+        ByteBuffer input = ByteBuffer.wrap(data);
+        try {
+            if (input.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a flag snapshot");
+            }
+            int version = input.getShort();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported flag snapshot format " + version);
+            }
+            Instant generatedAt = Instant.ofEpochMilli(input.getLong());
+            int length = input.getInt();
+            int expectedChecksum = input.getInt();
+            if (length != input.remaining()) {
+                throw new IllegalArgumentException("Truncated flag snapshot");
+            }
+            CRC32C checksum = new CRC32C();
+            checksum.update(input.slice());
+            if ((int) checksum.getValue() != expectedChecksum) {
+                throw new IllegalArgumentException("Flag snapshot checksum mismatch");
+            }
+            return decodePayload(input, generatedAt);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated flag snapshot", e);
+        }
+    }
+
+    public static byte[] encodeJson(EvaluationSnapshot snapshot) {
+        try {
+            return MAPPER.writeValueAsBytes(snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to serialize flag snapshot", e);
+        }
+    }
+
+    public static EvaluationSnapshot decodeJson(byte[] data) {
+        try {
+            return MAPPER.readValue(data, EvaluationSnapshot.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unreadable flag snapshot", e);
+        }
+    }
+
+    private static EvaluationSnapshot decodePayload(ByteBuffer input, Instant generatedAt) {
+        String[] strings = new String[varint(input)];
+        for (int i = 0; i < strings.length; i++) {
+            int length = varint(input);
+            strings[i] = new String(input.array(), input.arrayOffset() + input.position(), length, StandardCharsets.UTF_8);
+            input.position(input.position() + length);
+        }
+
+        int flagCount = varint(input);
+        List<FeatureFlag> flags = new ArrayList<>(flagCount);
+        List<String> killSwitches = new ArrayList<>();
+        for (int i = 0; i < flagCount; i++) {
+            FeatureFlag.FeatureFlagBuilder flag = FeatureFlag.builder();
+            String key = strings[varint(input)];
+            flag.key(key);
+            long version = varlong(input);
+            flag.version(version > 0 ? version - 1 : null);
+            int bits = varint(input);
+            flag.enabled((bits & ENABLED) != 0);
+            if ((bits & KILLED) != 0) {
+                killSwitches.add(key);
+            }
+            flag.rolloutPercentage(varint(input));
+            if ((bits & LAYERED) != 0) {
+                flag.layerKey(strings[varint(input)]).layerStart(varint(input)).layerEnd(varint(input));
+            }
+            int steps = varint(input);
+            List<RolloutStep> schedule = new ArrayList<>(steps);
+            for (int s = 0; s < steps; s++) {
+                schedule.add(RolloutStep.builder()
+                        .at(Instant.ofEpochMilli(input.getLong()))
+                        .percentage(varint(input))
+                        .linear(varint(input) == 1)
+                        .build());
+            }
+            flag.rolloutSchedule(schedule);
+            flag.targetUserIds(strings(input, strings));
+            flag.excludedUserIds(strings(input, strings));
+            flag.targetSegmentKeys(strings(input, strings));
+            flag.excludedSegmentKeys(strings(input, strings));
+            int ruleCount = varint(input);
+            List<TargetingRule> rules = new ArrayList<>(ruleCount);
+            for (int r = 0; r < ruleCount; r++) {
+                boolean serve = varint(input) == 1;
+                int clauseCount = varint(input);
+                List<TargetingClause> clauses = new ArrayList<>(clauseCount);
+                for (int c = 0; c < clauseCount; c++) {
+                    clauses.add(TargetingClause.builder()
+                            .attribute(strings[varint(input)])
+                            .operator(ClauseOperator.valueOf(strings[varint(input)]))
+                            .negate(varint(input) == 1)
+                            .values(strings(input, strings))
+                            .build());
+                }
+                rules.add(TargetingRule.builder().clauses(clauses).serve(serve).build());
+            }
+            flag.rules(rules);
+            int prerequisiteCount = varint(input);
+            List<Prerequisite> prerequisites = new ArrayList<>(prerequisiteCount);
+            for (int p = 0; p < prerequisiteCount; p++) {
+                prerequisites.add(Prerequisite.builder()
+                        .flagKey(strings[varint(input)])
+                        .variant(nullable(varint(input), strings))
+                        .build());
+            }
+            flag.prerequisites(prerequisites);
+            int variantCount = varint(input);
+            List<Variant> variants = new ArrayList<>(variantCount);
+            for (int v = 0; v < variantCount; v++) {
+                variants.add(Variant.builder()
+                        .key(strings[varint(input)])
+                        .weight(varint(input))
+                        .value(json(nullable(varint(input), strings)))
+                        .build());
+            }
+            flag.variants(variants);
+            flags.add(flag.build());
+        }
+
+        int segmentCount = varint(input);
+        List<Segment> segments = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            String key = strings[varint(input)];
+            long version = varlong(input);
+            segments.add(Segment.builder()
+                    .key(key)
+                    .version(version > 0 ? version - 1 : null)
+                    .members(strings(input, strings))
+                    .build());
+        }
+        return new EvaluationSnapshot(generatedAt, flags, killSwitches, segments);
+    }
+
+    private static List<String> strings(ByteBuffer input, String[] strings) {
+        int count = varint(input);
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(strings[varint(input)]);
+        }
+        return values;
+    }
+
+    private static String nullable(int index, String[] strings) {
+        return index == 0 ? null : strings[index - 1];
+    }
+
+    private static JsonNode json(String value) {
+        try {
+            return value != null ? MAPPER.readTree(value) : null;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unreadable variant value in flag snapshot", e);
+        }
+    }
+
+    private static int varint(ByteBuffer input) {
+        long value = varlong(input);
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Varint out of range in flag snapshot");
+        }
+        return (int) value;
+    }
+
+    private static long varlong(ByteBuffer input) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte next = input.get();
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in flag snapshot");
+    }
+
+    private static <T> List<T> list(List<T> values) {
+        return values != null ? values : List.of();
+    }
+
+    /** Distinct strings in first-use order. */
+    private static final class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int index(String value) {
+            return indexes.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+
+        int nullableIndex(String value) {
+            return value == null ? 0 : index(value) + 1;
+        }
+    }
+
+    private static final class Output {
+        private byte[] buffer = new byte[4096];
+        private int size;
+
+        void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void fixed64(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void bytes(byte[] bytes, int length) {
+            ensure(length);
+            System.arraycopy(bytes, 0, buffer, size, length);
+            size += length;
+        }
+
+        void strings(List<String> values, StringTable strings) {
+            List<String> list = list(values);
+            varint(list.size());
+            for (String value : list) {
+                varint(strings.index(value));
+            }
+        }
+
+        private void ensure(int bytes) {
+            if (size + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes));
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.featureflux.dto;
+
+import com.featureflux.entity.FeatureFlag;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A flag no node has evaluated for a while, and so a candidate for removal from the code and archiving.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StaleFlag {
+    private String key;
+    private String name;
+    private Boolean enabled;
+    private List<String> tags;
+    private LocalDateTime createdAt;
+    /** Null if the flag was never evaluated since last evaluation times are tracked. */
+    private LocalDateTime lastEvaluatedAt;
+
+    public static StaleFlag fromEntity(FeatureFlag flag) {
+        return new StaleFlag(flag.getKey(), flag.getName(), flag.getEnabled(), flag.getTags(), flag.getCreatedAt(),
+                flag.getLastEvaluatedAt());
+    }
+}
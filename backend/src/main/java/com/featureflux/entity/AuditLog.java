@@ -21,7 +21,7 @@ public class AuditLog {
     private Long id;
 
     @Column(nullable = false)
-    private String action; // CREATE, UPDATE, DELETE, TOGGLE, KILL_SWITCH
+    private String action; // CREATE, UPDATE, DELETE, TOGGLE, KILL_SWITCH, ROLLOUT_STEP
 
     @Column(nullable = false)
     private String entityType; // FEATURE_FLAG, USER, etc.
@@ -0,0 +1,45 @@
+package com.featureflux.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbox row written in the same transaction as a flag, kill switch or segment change. The generated id is the
+ * change's revision, which other nodes consume in order to refresh their local state.
+ */
+@Entity
+@Table(name = "change_feed")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long revision;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ChangeType type;
+
+    @Column(name = "entity_key", nullable = false)
+    private String key;
+
+    /** Everything a {@link ChangeType#CHANGESET} changed, all at this one revision; empty for other types. */
+    @Convert(converter = ChangedKeysConverter.class)
+    @Column(name = "changed_keys", columnDefinition = "TEXT")
+    @Builder.Default
+    private List<ChangedKey> changes = new ArrayList<>();
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,14 @@
+package com.featureflux.entity;
+
+/**
+ * Kind of entity a {@link ChangeRecord} refers to; the record's key is the flag key for flags and kill switches,
+ * the segment key for segments, and the tag (or {@code *} for the global switch) for tag and global kill switches.
+ * A {@link #CHANGESET} record lists the entities it changed instead.
+ */
+public enum ChangeType {
+    FLAG,
+    KILL_SWITCH,
+    BULK_KILL_SWITCH,
+    SEGMENT,
+    CHANGESET
+}
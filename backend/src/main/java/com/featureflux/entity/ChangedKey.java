@@ -0,0 +1,16 @@
+package com.featureflux.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One flag, kill switch or segment changed by a changeset, as listed in its {@link ChangeRecord}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangedKey {
+    private ChangeType type;
+    private String key;
+}
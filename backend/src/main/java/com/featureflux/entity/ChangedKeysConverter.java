@@ -0,0 +1,11 @@
+package com.featureflux.entity;
+
+import jakarta.persistence.Converter;
+
+@Converter
+public class ChangedKeysConverter extends JsonListConverter<ChangedKey> {
+
+    public ChangedKeysConverter() {
+        super(ChangedKey.class);
+    }
+}
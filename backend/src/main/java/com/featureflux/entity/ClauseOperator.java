@@ -0,0 +1,19 @@
+package com.featureflux.entity;
+
+/**
+ * Operators a {@link TargetingClause} can apply to a context attribute.
+ * A clause matches when the operator holds for any of its values.
+ */
+public enum ClauseOperator {
+    EQUALS,
+    IN,
+    STARTS_WITH,
+    ENDS_WITH,
+    CONTAINS,
+    MATCHES,
+    SEMVER_EQ,
+    SEMVER_LT,
+    SEMVER_LTE,
+    SEMVER_GT,
+    SEMVER_GTE
+}
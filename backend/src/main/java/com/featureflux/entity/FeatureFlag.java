@@ -13,9 +13,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "feature_flags")
+@Table(name = "feature_flags", indexes = @Index(name = "idx_feature_flags_last_evaluated_at", columnList = "last_evaluated_at"))
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class FeatureFlag {
@@ -40,6 +40,26 @@ public class FeatureFlag {
     @Builder.Default
     private Integer rolloutPercentage = 0;
 
+    @Convert(converter = RolloutScheduleConverter.class)
+    @Column(name = "rollout_schedule", columnDefinition = "TEXT")
+    @Builder.Default
+    private List<RolloutStep> rolloutSchedule = new ArrayList<>();
+
+    // Experiment layer membership: the flag owns slots [layerStart, layerEnd) of the layer
+    @Column(name = "layer_key")
+    private String layerKey;
+
+    private Integer layerStart;
+
+    private Integer layerEnd;
+
+    // Eager, since kill switch state is compiled from the tags outside any transaction
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "flag_tags", joinColumns = @JoinColumn(name = "flag_id"))
+    @Column(name = "tag")
+    @Builder.Default
+    private List<String> tags = new ArrayList<>();
+
     @ElementCollection
     @CollectionTable(name = "flag_target_users", joinColumns = @JoinColumn(name = "flag_id"))
     @Column(name = "user_id")
@@ -52,6 +72,33 @@ public class FeatureFlag {
     @Builder.Default
     private List<String> excludedUserIds = new ArrayList<>();
 
+    @ElementCollection
+    @CollectionTable(name = "flag_target_segments", joinColumns = @JoinColumn(name = "flag_id"))
+    @Column(name = "segment_key")
+    @Builder.Default
+    private List<String> targetSegmentKeys = new ArrayList<>();
+
+    @ElementCollection
+    @CollectionTable(name = "flag_excluded_segments", joinColumns = @JoinColumn(name = "flag_id"))
+    @Column(name = "segment_key")
+    @Builder.Default
+    private List<String> excludedSegmentKeys = new ArrayList<>();
+
+    @Convert(converter = TargetingRulesConverter.class)
+    @Column(name = "targeting_rules", columnDefinition = "TEXT")
+    @Builder.Default
+    private List<TargetingRule> rules = new ArrayList<>();
+
+    @Convert(converter = PrerequisitesConverter.class)
+    @Column(name = "prerequisites", columnDefinition = "TEXT")
+    @Builder.Default
+    private List<Prerequisite> prerequisites = new ArrayList<>();
+
+    @Convert(converter = VariantsConverter.class)
+    @Column(name = "variants", columnDefinition = "TEXT")
+    @Builder.Default
+    private List<Variant> variants = new ArrayList<>();
+
     @Column(nullable = false)
     @Builder.Default
     private Boolean archived = false;
@@ -66,5 +113,10 @@ public class FeatureFlag {
 
     @Version
     private Long version;
+
+    // Written only by the batched flush of evaluation times, never by saving the flag, so a save cannot move it
+    // back and does not bump the version; copies kept in Redis or snapshots may lag behind the table
+    @Column(name = "last_evaluated_at", insertable = false, updatable = false)
+    private LocalDateTime lastEvaluatedAt;
 }
 
@@ -0,0 +1,53 @@
+package com.featureflux.entity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.AttributeConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores a list of value objects as one JSON document, so a flag and its nested settings load in a single row read.
+ * Empty lists are stored as {@code NULL}.
+ */
+abstract class JsonListConverter<T> implements AttributeConverter<List<T>, String> {
+
+    // Timestamps are stored as ISO-8601 strings, readable in the column and in audit diffs
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final JavaType listType;
+
+    protected JsonListConverter(Class<T> elementType) {
+        this.listType = MAPPER.getTypeFactory().constructCollectionType(List.class, elementType);
+    }
+
+    @Override
+    public String convertToDatabaseColumn(List<T> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(values);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to serialize " + listType.getContentType().getRawClass().getSimpleName() + " list", e);
+        }
+    }
+
+    @Override
+    public List<T> convertToEntityAttribute(String json) {
+        if (json == null || json.isBlank()) {
+            return new ArrayList<>();
+        }
+        try {
+            return MAPPER.readValue(json, listType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable " + listType.getContentType().getRawClass().getSimpleName() + " list: " + json, e);
+        }
+    }
+}
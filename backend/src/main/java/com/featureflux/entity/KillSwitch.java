@@ -10,10 +10,15 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
+/**
+ * A kill switch of one of three {@link KillSwitchScope}s: a flag switch has a {@code flagKey}, a tag switch a
+ * {@code tag}, and the single global switch neither. {@code schema-postgresql.sql} drops the NOT NULL constraint
+ * that databases created before scopes existed keep on {@code flag_key}, and allows only one global row.
+ */
 @Entity
 @Table(name = "kill_switches")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class KillSwitch {
@@ -21,9 +26,18 @@ public class KillSwitch {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Enumerated(EnumType.STRING)
+    // Defaulted in the schema too, so existing rows become flag switches when the column is added
+    @Column(nullable = false, length = 10, columnDefinition = "varchar(10) default 'FLAG'")
+    @Builder.Default
+    private KillSwitchScope scope = KillSwitchScope.FLAG;
+
+    @Column(unique = true)
     private String flagKey;
 
+    @Column(unique = true)
+    private String tag;
+
     @Column(nullable = false)
     @Builder.Default
     private Boolean active = false;
@@ -0,0 +1,19 @@
+package com.featureflux.entity;
+
+/**
+ * What a {@link KillSwitch} turns off: one flag, every flag carrying a tag, or every flag ("panic mode").
+ */
+public enum KillSwitchScope {
+    FLAG,
+    TAG,
+    GLOBAL;
+
+    /** The switch's target as shown in logs and audit entries. */
+    public String describe(String target) {
+        return switch (this) {
+            case FLAG -> "flag '" + target + "'";
+            case TAG -> "tag '" + target + "'";
+            case GLOBAL -> "all flags";
+        };
+    }
+}
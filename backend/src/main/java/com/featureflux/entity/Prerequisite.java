@@ -0,0 +1,23 @@
+package com.featureflux.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Requires another flag to be on for the same user, and optionally to serve a given variant,
+ * before the dependent flag is evaluated any further.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Prerequisite implements Serializable {
+    private String flagKey;
+
+    /** Variant the prerequisite must serve; {@code null} accepts any result that is on. */
+    private String variant;
+}
@@ -0,0 +1,11 @@
+package com.featureflux.entity;
+
+import jakarta.persistence.Converter;
+
+@Converter
+public class PrerequisitesConverter extends JsonListConverter<Prerequisite> {
+
+    public PrerequisitesConverter() {
+        super(Prerequisite.class);
+    }
+}
@@ -0,0 +1,11 @@
+package com.featureflux.entity;
+
+import jakarta.persistence.Converter;
+
+@Converter
+public class RolloutScheduleConverter extends JsonListConverter<RolloutStep> {
+
+    public RolloutScheduleConverter() {
+        super(RolloutStep.class);
+    }
+}
@@ -0,0 +1,23 @@
+package com.featureflux.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * One point of a rollout schedule: from {@code at} on, the flag rolls out to {@code percentage}. A {@code linear} step
+ * is instead reached gradually, ramping from the previous step's percentage over the time between the two steps.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RolloutStep implements Serializable {
+    private Instant at;
+    private int percentage;
+    private boolean linear;
+}
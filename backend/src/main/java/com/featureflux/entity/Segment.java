@@ -0,0 +1,56 @@
+package com.featureflux.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Named user cohort (beta testers, internal staff, ...) that flags reference by key
+ * instead of copying its members into their own target lists.
+ */
+@Entity
+@Table(name = "segments")
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class Segment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String key;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(length = 1000)
+    private String description;
+
+    // Always needed together with the segment: it is only loaded to (re)build its membership index
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "segment_members", joinColumns = @JoinColumn(name = "segment_id"))
+    @Column(name = "user_id")
+    @Builder.Default
+    private List<String> members = new ArrayList<>();
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+}
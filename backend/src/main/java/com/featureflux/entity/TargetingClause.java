@@ -0,0 +1,29 @@
+package com.featureflux.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One condition on a request context attribute, e.g. {@code country IN [DE, FR]} or
+ * {@code appVersion SEMVER_GTE 2.4.0}. The attribute {@code userId} always resolves to the evaluated user.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TargetingClause implements Serializable {
+    private String attribute;
+    private ClauseOperator operator;
+
+    @Builder.Default
+    private List<String> values = new ArrayList<>();
+
+    @Builder.Default
+    private boolean negate = false;
+}
@@ -0,0 +1,28 @@
+package com.featureflux.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves {@code serve} when all of its clauses match. Rules are checked in order after the
+ * explicit target and exclusion lists; the first matching rule wins, otherwise the rollout applies.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TargetingRule implements Serializable {
+    private String description;
+
+    @Builder.Default
+    private List<TargetingClause> clauses = new ArrayList<>();
+
+    @Builder.Default
+    private boolean serve = true;
+}
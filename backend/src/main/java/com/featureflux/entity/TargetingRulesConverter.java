@@ -0,0 +1,11 @@
+package com.featureflux.entity;
+
+import jakarta.persistence.Converter;
+
+@Converter
+public class TargetingRulesConverter extends JsonListConverter<TargetingRule> {
+
+    public TargetingRulesConverter() {
+        super(TargetingRule.class);
+    }
+}
@@ -0,0 +1,23 @@
+package com.featureflux.entity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One arm of a multivariate flag. {@code weight} is relative to the other variants (10/10/80 or 1/1/8 are the same
+ * split); {@code value} is the payload returned to clients and may be any JSON value, e.g. {@code "blue"} or an object.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Variant implements Serializable {
+    private String key;
+    private int weight;
+    private JsonNode value;
+}
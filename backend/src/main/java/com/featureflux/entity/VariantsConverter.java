@@ -0,0 +1,11 @@
+package com.featureflux.entity;
+
+import jakarta.persistence.Converter;
+
+@Converter
+public class VariantsConverter extends JsonListConverter<Variant> {
+
+    public VariantsConverter() {
+        super(Variant.class);
+    }
+}
@@ -15,6 +15,8 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     List<AuditLog> findByEntityTypeAndEntityKeyOrderByTimestampDesc(String entityType, String entityKey);
     
     List<AuditLog> findByPerformedByOrderByTimestampDesc(String performedBy);
+
+    boolean existsByActionAndEntityKeyAndNewValue(String action, String entityKey, String newValue);
     
     @Query("SELECT a FROM AuditLog a WHERE a.timestamp >= :since ORDER BY a.timestamp DESC")
     List<AuditLog> findRecentLogs(LocalDateTime since);
@@ -0,0 +1,32 @@
+package com.featureflux.repository;
+
+import com.featureflux.entity.ChangeRecord;
+import com.featureflux.entity.ChangeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChangeRecordRepository extends JpaRepository<ChangeRecord, Long> {
+    List<ChangeRecord> findTop500ByRevisionGreaterThanOrderByRevisionAsc(Long revision);
+
+    @Query("SELECT MAX(c.revision) FROM ChangeRecord c")
+    Optional<Long> findLatestRevision();
+
+    /** Pairs of {@code [key, latest revision]} for the given change types. */
+    @Query("SELECT c.key, MAX(c.revision) FROM ChangeRecord c WHERE c.type IN :types GROUP BY c.key")
+    List<Object[]> findLatestRevisionByKey(@Param("types") Collection<ChangeType> types);
+
+    List<ChangeRecord> findByType(ChangeType type);
+
+    @Modifying
+    @Query("DELETE FROM ChangeRecord c WHERE c.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
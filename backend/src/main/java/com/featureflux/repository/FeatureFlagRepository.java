@@ -3,8 +3,10 @@ package com.featureflux.repository;
 import com.featureflux.entity.FeatureFlag;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,5 +18,10 @@ public interface FeatureFlagRepository extends JpaRepository<FeatureFlag, Long>
     
     @Query("SELECT f FROM FeatureFlag f WHERE f.archived = false AND f.enabled = true")
     List<FeatureFlag> findActiveFlags();
-}
 
+    /** Non-archived flags created before the cutoff and not evaluated since, never-evaluated ones first. */
+    @Query("SELECT f FROM FeatureFlag f WHERE f.archived = false AND f.createdAt < :cutoff"
+            + " AND (f.lastEvaluatedAt IS NULL OR f.lastEvaluatedAt < :cutoff)"
+            + " ORDER BY f.lastEvaluatedAt ASC NULLS FIRST, f.key")
+    List<FeatureFlag> findNotEvaluatedSince(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,6 +1,7 @@
 package com.featureflux.repository;
 
 import com.featureflux.entity.KillSwitch;
+import com.featureflux.entity.KillSwitchScope;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,6 +11,10 @@ import java.util.Optional;
 @Repository
 public interface KillSwitchRepository extends JpaRepository<KillSwitch, Long> {
     Optional<KillSwitch> findByFlagKey(String flagKey);
+
+    Optional<KillSwitch> findByTag(String tag);
+
+    Optional<KillSwitch> findFirstByScope(KillSwitchScope scope);
     
     List<KillSwitch> findByActiveTrue();
 }
@@ -0,0 +1,17 @@
+package com.featureflux.repository;
+
+import com.featureflux.entity.Segment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SegmentRepository extends JpaRepository<Segment, Long> {
+    Optional<Segment> findByKey(String key);
+
+    @Query("SELECT s.version FROM Segment s WHERE s.key = :key")
+    Optional<Long> findVersionByKey(@Param("key") String key);
+}
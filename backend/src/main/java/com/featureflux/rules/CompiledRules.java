@@ -0,0 +1,102 @@
+package com.featureflux.rules;
+
+import java.util.Map;
+
+/**
+ * Targeting rules of one flag version, compiled by {@link RuleCompiler} into flat arrays of predicates.
+ * Rules are tried in order and each rule's clauses are ANDed cheapest-first, stopping at the first miss.
+ * Identical clauses are shared between rules and evaluated at most once per call.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class CompiledRules {
+
+    public static final CompiledRules EMPTY = new CompiledRules(new Clause[0], new Rule[0]);
+
+    private static final byte UNKNOWN = 0;
+    private static final byte MATCHED = 1;
+    private static final byte MISSED = 2;
+
+    private final Clause[] clauses;
+    private final Rule[] rules;
+
+    CompiledRules(Clause[] clauses, Rule[] rules) {
+        this.clauses = clauses;
+        this.rules = rules;
+    }
+
+    public boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+    /**
+     * @return the {@code serve} value of the first matching rule, or {@code null} when no rule matches
+     */
+    public Boolean evaluate(String userId, Map<String, String> context) {
+        // Outcome per distinct clause for this call; only needed when a clause can be reached twice
+        byte[] outcomes = rules.length > 1 ? new byte[clauses.length] : null;
+        for (Rule rule : rules) {
+            if (matches(rule, userId, context, outcomes)) {
+                return rule.serve;
+            }
+        }
+        return null;
+    }
+
+    private boolean matches(Rule rule, String userId, Map<String, String> context, byte[] outcomes) {
+        for (int index : rule.clauseIndexes) {
+            boolean matched;
+            if (outcomes == null) {
+                matched = clauses[index].matches(userId, context);
+            } else if (outcomes[index] != UNKNOWN) {
+                matched = outcomes[index] == MATCHED;
+            } else {
+                matched = clauses[index].matches(userId, context);
+                outcomes[index] = matched ? MATCHED : MISSED;
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static final class Rule {
+        private final int[] clauseIndexes;
+        private final Boolean serve;
+
+        Rule(int[] clauseIndexes, boolean serve) {
+            this.clauseIndexes = clauseIndexes;
+            this.serve = serve;
+        }
+    }
+
+    static final class Clause {
+        private final String attribute;
+        private final boolean userIdAttribute;
+        private final ValuePredicate predicate;
+        private final boolean negate;
+        final int cost;
+
+        Clause(String attribute, ValuePredicate predicate, boolean negate, int cost) {
+            this.attribute = attribute;
+            this.userIdAttribute = RuleCompiler.USER_ID_ATTRIBUTE.equals(attribute);
+            this.predicate = predicate;
+            this.negate = negate;
+            this.cost = cost;
+        }
+
+        private boolean matches(String userId, Map<String, String> context) {
+            String value = userIdAttribute ? userId : (context != null ? context.get(attribute) : null);
+            // An absent attribute never matches, negated or not
+            if (value == null) {
+                return false;
+            }
+            return predicate.test(value) != negate;
+        }
+    }
+
+    @FunctionalInterface
+    interface ValuePredicate {
+        boolean test(String value);
+    }
+}
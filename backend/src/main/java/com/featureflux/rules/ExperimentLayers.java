@@ -0,0 +1,50 @@
+package com.featureflux.rules;
+
+import com.featureflux.entity.FeatureFlag;
+
+import java.util.Collection;
+
+/**
+ * Experiment layers split their users into {@value #SLOTS} slots. Each flag in a layer owns a contiguous slot range
+ * that no other flag of the layer overlaps, so a user is in at most one of the layer's experiments.
+ */
+public final class ExperimentLayers {
+
+    public static final int SLOTS = 10_000;
+
+    private ExperimentLayers() {
+    }
+
+    /**
+     * @param flags saved flags to check the range against; the flag itself (by key) and other layers are ignored
+     * @throws IllegalArgumentException if the flag's slot range is incomplete, out of bounds or empty, or overlaps
+     *                                  the range of another flag in the same layer
+     */
+    public static void validate(FeatureFlag flag, Collection<FeatureFlag> flags) {
+        if (flag.getLayerKey() == null) {
+            if (flag.getLayerStart() != null || flag.getLayerEnd() != null) {
+                throw new IllegalArgumentException("A layer slot range needs a layerKey");
+            }
+            return;
+        }
+        if (flag.getLayerKey().isBlank()) {
+            throw new IllegalArgumentException("Layer key must not be blank");
+        }
+        Integer start = flag.getLayerStart();
+        Integer end = flag.getLayerEnd();
+        if (start == null || end == null || start < 0 || end > SLOTS || start >= end) {
+            throw new IllegalArgumentException("Layer slots must be a range within [0, " + SLOTS + "), got ["
+                    + start + ", " + end + ")");
+        }
+        for (FeatureFlag other : flags) {
+            if (other.getKey().equals(flag.getKey()) || !flag.getLayerKey().equals(other.getLayerKey())
+                    || Boolean.TRUE.equals(other.getArchived())) {
+                continue;
+            }
+            if (start < other.getLayerEnd() && other.getLayerStart() < end) {
+                throw new IllegalArgumentException("Layer slots [" + start + ", " + end + ") of layer '" + flag.getLayerKey()
+                        + "' overlap flag '" + other.getKey() + "' at [" + other.getLayerStart() + ", " + other.getLayerEnd() + ")");
+            }
+        }
+    }
+}
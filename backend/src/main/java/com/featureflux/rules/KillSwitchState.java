@@ -0,0 +1,132 @@
+package com.featureflux.rules;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.KillSwitch;
+import com.featureflux.entity.KillSwitchScope;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable kill state of every flag on a node, compiled from the active kill switches: whether the global switch
+ * is on, and a bitset over flag ordinals of the flags switched off by their own or a tag's switch. A check is a
+ * couple of field loads, plus one ordinal lookup and a bit test while any flag or tag switch is active, however many
+ * switches that is.
+ * <p>
+ * Each state carries the epoch it was compiled for. Callers take the epoch before reading the switches, so of two
+ * compilations racing, the one that read later has the higher epoch and can be kept over the other.
+ */
+public final class KillSwitchState {
+
+    private final long epoch;
+    private final boolean global;
+    private final boolean tagged;
+    private final long[] killed;
+    private final Ordinals ordinals;
+
+    private KillSwitchState(long epoch, boolean global, boolean tagged, long[] killed, Ordinals ordinals) {
+        this.epoch = epoch;
+        this.global = global;
+        this.tagged = tagged;
+        this.killed = killed;
+        this.ordinals = ordinals;
+    }
+
+    /**
+     * @param active the active switches of every scope
+     * @param flags  flags to match against active tag switches; only read when one is active
+     */
+    public static KillSwitchState compile(long epoch, Collection<KillSwitch> active, Collection<FeatureFlag> flags,
+                                          Ordinals ordinals) {
+        boolean global = active.stream().anyMatch(killSwitch -> killSwitch.getScope() == KillSwitchScope.GLOBAL);
+        boolean tagged = active.stream().anyMatch(killSwitch -> killSwitch.getScope() == KillSwitchScope.TAG);
+        long[] killed = new long[0];
+        if (!global) {
+            for (String flagKey : killedFlags(active, flags)) {
+                int ordinal = ordinals.of(flagKey);
+                if (ordinal >>> 6 >= killed.length) {
+                    killed = Arrays.copyOf(killed, (ordinal >>> 6) + 1);
+                }
+                killed[ordinal >>> 6] |= 1L << ordinal;
+            }
+        }
+        return new KillSwitchState(epoch, global, tagged, killed, ordinals);
+    }
+
+    /**
+     * Keys of the flags switched off by the active switches: every flag for the global switch, else those with a
+     * switch of their own or carrying a switched off tag. Sorted, for snapshots that list them.
+     */
+    public static Set<String> killedFlags(Collection<KillSwitch> active, Collection<FeatureFlag> flags) {
+        Set<String> killed = new TreeSet<>();
+        Set<String> tags = new HashSet<>();
+        boolean global = false;
+        for (KillSwitch killSwitch : active) {
+            switch (killSwitch.getScope()) {
+                case FLAG -> killed.add(killSwitch.getFlagKey());
+                case TAG -> tags.add(killSwitch.getTag());
+                case GLOBAL -> global = true;
+            }
+        }
+        if (global || !tags.isEmpty()) {
+            for (FeatureFlag flag : flags) {
+                if (global || (flag.getTags() != null && flag.getTags().stream().anyMatch(tags::contains))) {
+                    killed.add(flag.getKey());
+                }
+            }
+        }
+        return killed;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public boolean isGlobal() {
+        return global;
+    }
+
+    /** Whether a tag switch is active, in which case flag changes can change the state too. */
+    public boolean dependsOnFlags() {
+        return tagged;
+    }
+
+    public boolean isKilled(String flagKey) {
+        if (global) {
+            return true;
+        }
+        if (killed.length == 0) {
+            return false;
+        }
+        int ordinal = ordinals.find(flagKey);
+        return ordinal >= 0 && ordinal >>> 6 < killed.length && (killed[ordinal >>> 6] & 1L << ordinal) != 0;
+    }
+
+    /**
+     * Bit position of each flag key, shared by all states of a node. Positions are handed out the first time a flag
+     * is switched off and kept for the life of the node, so they stay dense.
+     */
+    public static final class Ordinals {
+        private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+        private int next;
+
+        synchronized int of(String flagKey) {
+            Integer ordinal = ordinals.get(flagKey);
+            if (ordinal == null) {
+                ordinal = next++;
+                ordinals.put(flagKey, ordinal);
+            }
+            return ordinal;
+        }
+
+        int find(String flagKey) {
+            Integer ordinal = ordinals.get(flagKey);
+            return ordinal != null ? ordinal : -1;
+        }
+    }
+}
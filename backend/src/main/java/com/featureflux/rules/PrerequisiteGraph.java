@@ -0,0 +1,88 @@
+package com.featureflux.rules;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Prerequisite;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Walks the prerequisite graph below one flag. The result lists every transitive prerequisite once, dependencies
+ * before dependents, so evaluating it front to back always finds a flag's prerequisites already evaluated.
+ */
+public final class PrerequisiteGraph {
+
+    private PrerequisiteGraph() {
+    }
+
+    /**
+     * @param rootKey       key of the flag whose prerequisites are resolved
+     * @param prerequisites the root's prerequisites (possibly not yet saved)
+     * @param lookup        loads other flags by key
+     * @param requireExists whether a missing prerequisite flag is an error or simply left out of the order
+     * @return the prerequisite flags in evaluation order, excluding the root
+     * @throws IllegalArgumentException on a dependency cycle, or a missing flag when {@code requireExists}
+     */
+    public static List<FeatureFlag> evaluationOrder(String rootKey, List<Prerequisite> prerequisites,
+                                                    Function<String, Optional<FeatureFlag>> lookup, boolean requireExists) {
+        List<FeatureFlag> order = new ArrayList<>();
+        Set<String> done = new HashSet<>();
+        Deque<String> path = new ArrayDeque<>();
+        path.addLast(rootKey);
+        for (Prerequisite prerequisite : prerequisites) {
+            visit(prerequisite.getFlagKey(), lookup, requireExists, done, path, order);
+        }
+        return order;
+    }
+
+    private static void visit(String key, Function<String, Optional<FeatureFlag>> lookup, boolean requireExists,
+                              Set<String> done, Deque<String> path, List<FeatureFlag> order) {
+        if (path.contains(key)) {
+            List<String> cycle = new ArrayList<>(path);
+            cycle.add(key);
+            throw new IllegalArgumentException("Prerequisite cycle: " + String.join(" -> ", cycle.subList(cycle.indexOf(key), cycle.size())));
+        }
+        if (!done.add(key)) {
+            return;
+        }
+        Optional<FeatureFlag> flag = lookup.apply(key);
+        if (flag.isEmpty() || Boolean.TRUE.equals(flag.get().getArchived())) {
+            if (requireExists) {
+                throw new IllegalArgumentException("Prerequisite flag not found: " + key);
+            }
+            return;
+        }
+        path.addLast(key);
+        List<Prerequisite> prerequisites = flag.get().getPrerequisites();
+        if (prerequisites != null) {
+            for (Prerequisite prerequisite : prerequisites) {
+                visit(prerequisite.getFlagKey(), lookup, requireExists, done, path, order);
+            }
+        }
+        path.removeLast();
+        order.add(flag.get());
+    }
+
+    /**
+     * @throws IllegalArgumentException if a prerequisite has no flag key, refers to the flag itself or is listed twice
+     */
+    public static void validate(String rootKey, List<Prerequisite> prerequisites) {
+        Set<String> keys = prerequisites.stream().map(Prerequisite::getFlagKey).collect(Collectors.toSet());
+        if (keys.contains(null) || keys.contains("")) {
+            throw new IllegalArgumentException("Every prerequisite needs a flag key");
+        }
+        if (keys.contains(rootKey)) {
+            throw new IllegalArgumentException("A flag cannot be its own prerequisite: " + rootKey);
+        }
+        if (keys.size() != prerequisites.size()) {
+            throw new IllegalArgumentException("Duplicate prerequisite on flag " + rootKey);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.featureflux.rules;
+
+import com.featureflux.entity.RolloutStep;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rollout steps of one flag version as parallel arrays of epoch millis and percentages. The effective percentage is a
+ * pure function of the clock, so a schedule advances without writes to the store or invalidation of compiled flags.
+ */
+public final class RolloutSchedule {
+
+    private final long[] times;
+    private final int[] percentages;
+    private final boolean[] linear;
+
+    private RolloutSchedule(long[] times, int[] percentages, boolean[] linear) {
+        this.times = times;
+        this.percentages = percentages;
+        this.linear = linear;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a step has no time, a percentage outside 0-100, the times are not strictly
+     *                                  increasing, or the first step is linear (a ramp needs a step to start from)
+     */
+    public static RolloutSchedule compile(List<RolloutStep> steps) {
+        if (steps == null || steps.isEmpty()) {
+            throw new IllegalArgumentException("A rollout schedule needs at least one step");
+        }
+        long[] times = new long[steps.size()];
+        int[] percentages = new int[steps.size()];
+        boolean[] linear = new boolean[steps.size()];
+        for (int i = 0; i < steps.size(); i++) {
+            RolloutStep step = steps.get(i);
+            if (step == null || step.getAt() == null) {
+                throw new IllegalArgumentException("Every rollout step needs a time");
+            }
+            if (step.getPercentage() < 0 || step.getPercentage() > 100) {
+                throw new IllegalArgumentException("Rollout step percentage must be between 0 and 100: " + step.getPercentage());
+            }
+            times[i] = step.getAt().toEpochMilli();
+            if (i > 0 && times[i] <= times[i - 1]) {
+                throw new IllegalArgumentException("Rollout steps must be in strictly increasing time order: " + step.getAt());
+            }
+            if (i == 0 && step.isLinear()) {
+                throw new IllegalArgumentException("The first rollout step cannot be linear");
+            }
+            percentages[i] = step.getPercentage();
+            linear[i] = step.isLinear();
+        }
+        return new RolloutSchedule(times, percentages, linear);
+    }
+
+    /**
+     * @param basePercentage the flag's own rollout percentage, which applies until the first step
+     */
+    public int percentageAt(long epochMillis, int basePercentage) {
+        int index = stepIndexAt(epochMillis);
+        if (index < 0) {
+            return basePercentage;
+        }
+        int next = index + 1;
+        if (next < times.length && linear[next]) {
+            // Floor of the straight line between the two steps, so the ramp never runs ahead of schedule
+            long elapsed = epochMillis - times[index];
+            long span = times[next] - times[index];
+            return percentages[index] + (int) ((percentages[next] - percentages[index]) * elapsed / span);
+        }
+        return percentages[index];
+    }
+
+    /**
+     * @return index of the last step reached at the given time, or {@code -1} before the first step
+     */
+    public int stepIndexAt(long epochMillis) {
+        int position = Arrays.binarySearch(times, epochMillis);
+        return position >= 0 ? position : -position - 2;
+    }
+
+    public int size() {
+        return times.length;
+    }
+
+    public int percentage(int stepIndex) {
+        return percentages[stepIndex];
+    }
+}
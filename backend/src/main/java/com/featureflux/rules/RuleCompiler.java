@@ -0,0 +1,206 @@
+package com.featureflux.rules;
+
+import com.featureflux.entity.ClauseOperator;
+import com.featureflux.entity.TargetingClause;
+import com.featureflux.entity.TargetingRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles a flag's {@link TargetingRule}s into {@link CompiledRules}. All per-rule work happens here once per
+ * flag version: value sets are hashed, regexes and semver bounds are parsed, and clauses are ordered by cost.
+ * Invalid rules raise {@link IllegalArgumentException} so they are rejected when the flag is saved.
+ */
+public final class RuleCompiler {
+
+    static final String USER_ID_ATTRIBUTE = "userId";
+
+    private static final int COST_EQUALITY = 0;
+    private static final int COST_STRING = 1;
+    private static final int COST_SEMVER = 2;
+    private static final int COST_REGEX = 3;
+
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    private RuleCompiler() {
+    }
+
+    public static CompiledRules compile(List<TargetingRule> rules) {
+        if (rules == null || rules.isEmpty()) {
+            return CompiledRules.EMPTY;
+        }
+        Map<TargetingClause, Integer> clauseIndexes = new HashMap<>();
+        List<CompiledRules.Clause> clauses = new ArrayList<>();
+        CompiledRules.Rule[] compiled = new CompiledRules.Rule[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            TargetingRule rule = rules.get(i);
+            if (rule == null || rule.getClauses() == null || rule.getClauses().isEmpty()) {
+                throw new IllegalArgumentException("Targeting rule " + i + " has no clauses");
+            }
+            int ruleIndex = i;
+            int[] indexes = rule.getClauses().stream()
+                    .mapToInt(clause -> clauseIndexes.computeIfAbsent(clause, c -> {
+                        clauses.add(compileClause(c, ruleIndex));
+                        return clauses.size() - 1;
+                    }))
+                    .distinct()
+                    .boxed()
+                    // Clauses are ANDed, so evaluating cheap ones first lets most misses skip regex and semver work
+                    .sorted(Comparator.comparingInt(index -> clauses.get(index).cost))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            compiled[i] = new CompiledRules.Rule(indexes, rule.isServe());
+        }
+        return new CompiledRules(clauses.toArray(new CompiledRules.Clause[0]), compiled);
+    }
+
+    private static CompiledRules.Clause compileClause(TargetingClause clause, int ruleIndex) {
+        if (clause.getAttribute() == null || clause.getAttribute().isBlank()) {
+            throw new IllegalArgumentException("Targeting rule " + ruleIndex + " has a clause without an attribute");
+        }
+        if (clause.getOperator() == null) {
+            throw new IllegalArgumentException("Clause on '" + clause.getAttribute() + "' has no operator");
+        }
+        List<String> values = clause.getValues();
+        if (values == null || values.isEmpty() || values.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Clause on '" + clause.getAttribute() + "' needs at least one non-null value");
+        }
+        String[] array = values.toArray(new String[0]);
+
+        CompiledRules.ValuePredicate predicate;
+        int cost;
+        switch (clause.getOperator()) {
+            case EQUALS, IN -> {
+                predicate = equalsAny(array);
+                cost = COST_EQUALITY;
+            }
+            case STARTS_WITH -> {
+                predicate = value -> anyMatch(array, value::startsWith);
+                cost = COST_STRING;
+            }
+            case ENDS_WITH -> {
+                predicate = value -> anyMatch(array, value::endsWith);
+                cost = COST_STRING;
+            }
+            case CONTAINS -> {
+                predicate = value -> anyMatch(array, value::contains);
+                cost = COST_STRING;
+            }
+            case MATCHES -> {
+                CompiledRules.ValuePredicate literal = literalRegex(array);
+                predicate = literal != null ? literal : regex(array);
+                cost = literal != null ? COST_STRING : COST_REGEX;
+            }
+            default -> {
+                predicate = semver(clause.getOperator(), array);
+                cost = COST_SEMVER;
+            }
+        }
+        return new CompiledRules.Clause(clause.getAttribute(), predicate, clause.isNegate(), cost);
+    }
+
+    private static CompiledRules.ValuePredicate equalsAny(String[] values) {
+        if (values.length == 1) {
+            String expected = values[0];
+            return expected::equals;
+        }
+        Set<String> set = Set.of(Arrays.stream(values).distinct().toArray(String[]::new));
+        return set::contains;
+    }
+
+    /**
+     * Patterns without metacharacters (apart from {@code ^} and {@code $} anchors) are rewritten into plain
+     * string comparisons; returns {@code null} if any value needs the regex engine.
+     */
+    private static CompiledRules.ValuePredicate literalRegex(String[] values) {
+        CompiledRules.ValuePredicate[] literals = new CompiledRules.ValuePredicate[values.length];
+        for (int i = 0; i < values.length; i++) {
+            String pattern = values[i];
+            boolean anchoredStart = pattern.startsWith("^");
+            boolean anchoredEnd = pattern.endsWith("$") && pattern.length() > (anchoredStart ? 1 : 0);
+            String literal = pattern.substring(anchoredStart ? 1 : 0, pattern.length() - (anchoredEnd ? 1 : 0));
+            for (int c = 0; c < literal.length(); c++) {
+                if (REGEX_METACHARACTERS.indexOf(literal.charAt(c)) >= 0) {
+                    return null;
+                }
+            }
+            if (anchoredStart && anchoredEnd) {
+                literals[i] = literal::equals;
+            } else if (anchoredStart) {
+                literals[i] = value -> value.startsWith(literal);
+            } else if (anchoredEnd) {
+                literals[i] = value -> value.endsWith(literal);
+            } else {
+                literals[i] = value -> value.contains(literal);
+            }
+        }
+        return value -> {
+            for (CompiledRules.ValuePredicate literal : literals) {
+                if (literal.test(value)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static CompiledRules.ValuePredicate regex(String[] values) {
+        // One alternation instead of a loop over patterns
+        StringBuilder alternation = new StringBuilder();
+        for (String value : values) {
+            if (alternation.length() > 0) {
+                alternation.append('|');
+            }
+            alternation.append("(?:").append(value).append(')');
+        }
+        try {
+            Pattern pattern = Pattern.compile(alternation.toString());
+            return value -> pattern.matcher(value).find();
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Invalid regex in targeting rule: " + e.getMessage(), e);
+        }
+    }
+
+    private static CompiledRules.ValuePredicate semver(ClauseOperator operator, String[] values) {
+        Semver[] bounds = Arrays.stream(values).map(Semver::parse).toArray(Semver[]::new);
+        IntPredicate accepts = switch (operator) {
+            case SEMVER_EQ -> cmp -> cmp == 0;
+            case SEMVER_LT -> cmp -> cmp < 0;
+            case SEMVER_LTE -> cmp -> cmp <= 0;
+            case SEMVER_GT -> cmp -> cmp > 0;
+            case SEMVER_GTE -> cmp -> cmp >= 0;
+            default -> throw new IllegalStateException("Not a semver operator: " + operator);
+        };
+        return value -> {
+            Semver version = Semver.parseOrNull(value);
+            if (version == null) {
+                return false;
+            }
+            for (Semver bound : bounds) {
+                if (accepts.test(version.compareTo(bound))) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static boolean anyMatch(String[] values, CompiledRules.ValuePredicate test) {
+        for (String value : values) {
+            if (test.test(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,32 @@
+package com.featureflux.rules;
+
+/**
+ * Shared handle on a segment's current membership. Every compiled flag that references the segment holds
+ * the same instance, so publishing a new {@link SegmentMembership} updates all of them with one volatile write.
+ */
+public final class SegmentRef {
+
+    private final String key;
+    private volatile SegmentMembership membership;
+
+    public SegmentRef(String key, SegmentMembership membership) {
+        this.key = key;
+        this.membership = membership;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public SegmentMembership getMembership() {
+        return membership;
+    }
+
+    public void publish(SegmentMembership membership) {
+        this.membership = membership;
+    }
+
+    public boolean contains(long userHash) {
+        return membership.contains(userHash);
+    }
+}
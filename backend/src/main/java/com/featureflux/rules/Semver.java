@@ -0,0 +1,128 @@
+package com.featureflux.rules;
+
+/**
+ * Semantic version ({@code major.minor.patch[-prerelease][+build]}) ordered by the semver 2.0 precedence rules.
+ * Parsing is lenient about a leading {@code v} and missing minor/patch components ({@code 2.4} is {@code 2.4.0}).
+ */
+final class Semver implements Comparable<Semver> {
+
+    private final int major;
+    private final int minor;
+    private final int patch;
+    private final String[] prerelease;
+
+    private Semver(int major, int minor, int patch, String[] prerelease) {
+        this.major = major;
+        this.minor = minor;
+        this.patch = patch;
+        this.prerelease = prerelease;
+    }
+
+    static Semver parse(String text) {
+        Semver version = parseOrNull(text);
+        if (version == null) {
+            throw new IllegalArgumentException("Invalid semantic version: " + text);
+        }
+        return version;
+    }
+
+    /**
+     * Parses a request-supplied version; malformed input yields {@code null} so the clause simply does not match.
+     */
+    static Semver parseOrNull(String text) {
+        if (text == null) {
+            return null;
+        }
+        String s = text.trim();
+        if (s.startsWith("v") || s.startsWith("V")) {
+            s = s.substring(1);
+        }
+        int build = s.indexOf('+');
+        if (build >= 0) {
+            s = s.substring(0, build);
+        }
+        String[] prerelease = null;
+        int dash = s.indexOf('-');
+        if (dash >= 0) {
+            String pre = s.substring(dash + 1);
+            if (pre.isEmpty()) {
+                return null;
+            }
+            prerelease = pre.split("\\.");
+            s = s.substring(0, dash);
+        }
+
+        int[] core = new int[3];
+        int part = 0;
+        int value = -1;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 99_999_999) {
+                    return null;
+                }
+            } else if (c == '.' && value >= 0 && part < 2) {
+                core[part++] = value;
+                value = -1;
+            } else {
+                return null;
+            }
+        }
+        if (value < 0) {
+            return null;
+        }
+        core[part] = value;
+        return new Semver(core[0], core[1], core[2], prerelease);
+    }
+
+    @Override
+    public int compareTo(Semver other) {
+        int cmp = Integer.compare(major, other.major);
+        if (cmp == 0) {
+            cmp = Integer.compare(minor, other.minor);
+        }
+        if (cmp == 0) {
+            cmp = Integer.compare(patch, other.patch);
+        }
+        return cmp != 0 ? cmp : comparePrerelease(prerelease, other.prerelease);
+    }
+
+    private static int comparePrerelease(String[] a, String[] b) {
+        // A release outranks any of its pre-releases
+        if (a == null || b == null) {
+            return a == b ? 0 : (a == null ? 1 : -1);
+        }
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            int cmp = compareIdentifier(a[i], b[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    private static int compareIdentifier(String a, String b) {
+        boolean aNumeric = isNumeric(a);
+        boolean bNumeric = isNumeric(b);
+        if (aNumeric && bNumeric) {
+            return a.length() != b.length() ? Integer.compare(a.length(), b.length()) : a.compareTo(b);
+        }
+        if (aNumeric != bNumeric) {
+            return aNumeric ? -1 : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    private static boolean isNumeric(String s) {
+        if (s.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) < '0' || s.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
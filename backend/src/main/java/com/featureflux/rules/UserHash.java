@@ -0,0 +1,86 @@
+package com.featureflux.rules;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+
+/**
+ * 64-bit SipHash-2-4 of a user id under a per-process random key. Segment membership is stored as these
+ * hashes, so the key keeps callers from crafting user ids that collide with a segment member.
+ * Hashes are never persisted; they are rebuilt from member ids whenever a segment is loaded.
+ * {@link #stable} hashes under a fixed key instead, for sketches that nodes merge.
+ */
+public final class UserHash {
+
+    private static final long K0;
+    private static final long K1;
+    private static final long STABLE_K0 = 0x0706050403020100L;
+    private static final long STABLE_K1 = 0x0f0e0d0c0b0a0908L;
+
+    static {
+        SecureRandom random = new SecureRandom();
+        K0 = random.nextLong();
+        K1 = random.nextLong();
+    }
+
+    private UserHash() {
+    }
+
+    public static long of(String userId) {
+        return sipHash24(K0, K1, userId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Same hash on every node and across restarts. Only for approximate analytics, where a crafted collision
+     * merely skews a count.
+     */
+    public static long stable(String userId) {
+        return sipHash24(STABLE_K0, STABLE_K1, userId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long sipHash24(long k0, long k1, byte[] data) {
+        long v0 = 0x736f6d6570736575L ^ k0;
+        long v1 = 0x646f72616e646f6dL ^ k1;
+        long v2 = 0x6c7967656e657261L ^ k0;
+        long v3 = 0x7465646279746573L ^ k1;
+
+        int blocks = data.length / 8;
+        for (int i = 0; i < blocks; i++) {
+            long m = littleEndian(data, i * 8, 8);
+            v3 ^= m;
+            for (int round = 0; round < 2; round++) {
+                v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+                v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+                v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+                v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+            }
+            v0 ^= m;
+        }
+
+        long last = ((long) data.length << 56) | littleEndian(data, blocks * 8, data.length - blocks * 8);
+        v3 ^= last;
+        for (int round = 0; round < 2; round++) {
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        }
+        v0 ^= last;
+
+        v2 ^= 0xff;
+        for (int round = 0; round < 4; round++) {
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        }
+        return v0 ^ v1 ^ v2 ^ v3;
+    }
+
+    private static long littleEndian(byte[] data, int offset, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value |= (data[offset + i] & 0xffL) << (8 * i);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,85 @@
+package com.featureflux.rules;
+
+import com.featureflux.entity.Variant;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Variant weights of one flag version mapped onto {@value #BUCKETS} buckets. Each variant owns a contiguous range;
+ * the ranges' exclusive upper bounds are precomputed, so selecting a variant is a binary search over a small int array.
+ */
+public final class VariantAllocation {
+
+    public static final int BUCKETS = 10_000;
+
+    private final int[] upperBounds;
+    private final int[] variantIndexes;
+
+    private VariantAllocation(int[] upperBounds, int[] variantIndexes) {
+        this.upperBounds = upperBounds;
+        this.variantIndexes = variantIndexes;
+    }
+
+    /**
+     * @throws IllegalArgumentException if keys are missing or duplicated, a weight is negative, all weights are zero,
+     *                                  or a positive weight is too small to own a single bucket
+     */
+    public static VariantAllocation compile(List<Variant> variants) {
+        if (variants == null || variants.isEmpty()) {
+            throw new IllegalArgumentException("A multivariate flag needs at least one variant");
+        }
+        Set<String> keys = new HashSet<>();
+        long total = 0;
+        for (Variant variant : variants) {
+            if (variant == null || variant.getKey() == null || variant.getKey().isBlank()) {
+                throw new IllegalArgumentException("Every variant needs a key");
+            }
+            if (!keys.add(variant.getKey())) {
+                throw new IllegalArgumentException("Duplicate variant key: " + variant.getKey());
+            }
+            if (variant.getWeight() < 0) {
+                throw new IllegalArgumentException("Variant weight must not be negative: " + variant.getKey());
+            }
+            total += variant.getWeight();
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("At least one variant needs a positive weight");
+        }
+
+        // Zero-weight variants own no range, so the bounds stay strictly increasing
+        int[] bounds = new int[variants.size()];
+        int[] indexes = new int[variants.size()];
+        int ranges = 0;
+        long cumulative = 0;
+        int previous = 0;
+        for (int i = 0; i < variants.size(); i++) {
+            int weight = variants.get(i).getWeight();
+            if (weight == 0) {
+                continue;
+            }
+            cumulative += weight;
+            int bound = (int) (cumulative * BUCKETS / total);
+            if (bound == previous) {
+                throw new IllegalArgumentException("Variant weight is below the 1/" + BUCKETS + " resolution: " + variants.get(i).getKey());
+            }
+            bounds[ranges] = bound;
+            indexes[ranges] = i;
+            ranges++;
+            previous = bound;
+        }
+        return new VariantAllocation(Arrays.copyOf(bounds, ranges), Arrays.copyOf(indexes, ranges));
+    }
+
+    /**
+     * @param bucket a bucket in {@code [0, BUCKETS)}
+     * @return index into the flag's variant list
+     */
+    public int variantIndex(int bucket) {
+        int position = Arrays.binarySearch(upperBounds, bucket);
+        // An exact hit is the exclusive bound of the previous range
+        return variantIndexes[position >= 0 ? position + 1 : -position - 1];
+    }
+}
@@ -0,0 +1,67 @@
+package com.featureflux.security;
+
+import com.featureflux.service.DashboardPublisher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Authenticates dashboard WebSocket sessions. Browsers cannot set headers on the WebSocket handshake, so the
+ * handshake is public and the JWT travels in the {@code Authorization} header of the STOMP {@code CONNECT} frame
+ * instead. Topics are read-only: clients may subscribe, never send.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    private final JwtService jwtService;
+    private final com.featureflux.service.UserService userService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        switch (accessor.getCommand()) {
+            case CONNECT -> accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+            case SUBSCRIBE -> authorizeSubscription(accessor.getUser(), accessor.getDestination());
+            case SEND -> throw new AccessDeniedException("Dashboard topics are read-only");
+            default -> { }
+        }
+        return message;
+    }
+
+    private Authentication authenticate(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new AccessDeniedException("Missing bearer token");
+        }
+        String jwt = authHeader.substring(7);
+        String username = jwtService.extractUsername(jwt);
+        UserDetails userDetails = userService.loadUserByUsername(username);
+        if (!jwtService.isTokenValid(jwt, userDetails)) {
+            throw new AccessDeniedException("Invalid token");
+        }
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private static void authorizeSubscription(Principal user, String destination) {
+        if (!(user instanceof Authentication authentication)) {
+            throw new AccessDeniedException("Not authenticated");
+        }
+        if (DashboardPublisher.KILL_SWITCHES_TOPIC.equals(destination) && authentication.getAuthorities().stream()
+                .noneMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()))) {
+            throw new AccessDeniedException("Kill switch events need the admin role");
+        }
+    }
+}
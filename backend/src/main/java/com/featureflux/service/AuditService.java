@@ -2,6 +2,10 @@ package com.featureflux.service;
 
 import com.featureflux.entity.AuditLog;
 import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.KillSwitch;
+import com.featureflux.entity.KillSwitchScope;
+import com.featureflux.entity.RolloutStep;
+import com.featureflux.entity.Segment;
 import com.featureflux.repository.AuditLogRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,6 +17,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -52,37 +57,164 @@ public class AuditService {
 
     @Transactional
     public void logKillSwitchChange(String flagKey, boolean activated, String reason, HttpServletRequest request) {
+        logKillSwitchChange(KillSwitchScope.FLAG, flagKey, activated, reason, request);
+    }
+
+    /**
+     * @param target the flag key or tag the switch applies to, {@code null} for the global switch
+     */
+    @Transactional
+    public void logKillSwitchChange(KillSwitchScope scope, String target, boolean activated, String reason,
+                                    HttpServletRequest request) {
         try {
             String performedBy = getCurrentUsername();
             String ipAddress = getClientIpAddress(request);
 
             AuditLog auditLog = AuditLog.builder()
                     .action("KILL_SWITCH")
-                    .entityType("FEATURE_FLAG")
-                    .entityKey(flagKey)
+                    .entityType(switch (scope) {
+                        case FLAG -> "FEATURE_FLAG";
+                        case TAG -> "FLAG_TAG";
+                        case GLOBAL -> "ALL_FLAGS";
+                    })
+                    .entityKey(target)
                     .performedBy(performedBy)
                     .ipAddress(ipAddress)
-                    .description(String.format("Kill switch %s for flag '%s'. Reason: %s", 
-                            activated ? "activated" : "deactivated", flagKey, reason))
+                    .description(String.format("Kill switch %s for %s. Reason: %s",
+                            activated ? "activated" : "deactivated", scope.describe(target), reason))
                     .newValue(String.format("{\"killSwitchActive\": %s, \"reason\": \"%s\"}", activated, reason))
                     .build();
 
             auditLogRepository.save(auditLog);
-            log.info("Kill switch audit log created: {} by {}", flagKey, performedBy);
+            log.info("Kill switch audit log created: {} by {}", scope.describe(target), performedBy);
         } catch (Exception e) {
             log.error("Failed to create kill switch audit log", e);
         }
     }
 
+    /**
+     * Records a changeset with one entry per changed flag and kill switch, so each flag's history stays complete,
+     * written together in a single {@code saveAll}.
+     *
+     * @param previousFlags state of each flag before the changeset, in the same order as {@code flags}
+     */
+    @Transactional
+    public void logChangeset(String changesetDescription, List<FeatureFlag> flags, List<FeatureFlag> previousFlags,
+                             List<KillSwitch> killSwitches, HttpServletRequest request) {
+        try {
+            String performedBy = getCurrentUsername();
+            String ipAddress = getClientIpAddress(request);
+            String changeset = String.format("changeset of %d flags and %d kill switches%s", flags.size(), killSwitches.size(),
+                    changesetDescription != null && !changesetDescription.isBlank() ? " '" + changesetDescription + "'" : "");
+
+            List<AuditLog> auditLogs = new ArrayList<>();
+            for (int i = 0; i < flags.size(); i++) {
+                FeatureFlag flag = flags.get(i);
+                auditLogs.add(AuditLog.builder()
+                        .action("CHANGESET")
+                        .entityType("FEATURE_FLAG")
+                        .entityId(flag.getId())
+                        .entityKey(flag.getKey())
+                        .oldValue(objectMapper.writeValueAsString(previousFlags.get(i)))
+                        .newValue(objectMapper.writeValueAsString(flag))
+                        .performedBy(performedBy)
+                        .ipAddress(ipAddress)
+                        .description(truncate(String.format("Updated feature flag '%s' in %s", flag.getKey(), changeset), 1000))
+                        .build());
+            }
+            for (KillSwitch killSwitch : killSwitches) {
+                auditLogs.add(AuditLog.builder()
+                        .action("KILL_SWITCH")
+                        .entityType("FEATURE_FLAG")
+                        .entityKey(killSwitch.getFlagKey())
+                        .performedBy(performedBy)
+                        .ipAddress(ipAddress)
+                        .description(truncate(String.format("Kill switch %s for flag '%s' in %s",
+                                killSwitch.getActive() ? "activated" : "deactivated", killSwitch.getFlagKey(), changeset), 1000))
+                        .newValue(String.format("{\"killSwitchActive\": %s, \"reason\": \"%s\"}", killSwitch.getActive(), killSwitch.getReason()))
+                        .build());
+            }
+
+            auditLogRepository.saveAll(auditLogs);
+            log.info("Changeset audit logs created: {} entries by {}", auditLogs.size(), performedBy);
+        } catch (Exception e) {
+            log.error("Failed to create changeset audit logs", e);
+        }
+    }
+
+    @Transactional
+    public void logSegmentChange(String action, Segment segment, HttpServletRequest request) {
+        try {
+            String performedBy = getCurrentUsername();
+            String ipAddress = getClientIpAddress(request);
+            int memberCount = segment.getMembers() != null ? segment.getMembers().size() : 0;
+
+            // Member lists can be far larger than the audit columns, so only their size is recorded
+            AuditLog auditLog = AuditLog.builder()
+                    .action(action)
+                    .entityType("SEGMENT")
+                    .entityId(segment.getId())
+                    .entityKey(segment.getKey())
+                    .performedBy(performedBy)
+                    .ipAddress(ipAddress)
+                    .description(String.format("%s segment '%s' (%d members)", describeAction(action), segment.getKey(), memberCount))
+                    .newValue(String.format("{\"name\": \"%s\", \"memberCount\": %d, \"version\": %s}",
+                            segment.getName(), memberCount, segment.getVersion()))
+                    .build();
+
+            auditLogRepository.save(auditLog);
+            log.info("Segment audit log created: {} {} by {}", action, segment.getKey(), performedBy);
+        } catch (Exception e) {
+            log.error("Failed to create segment audit log", e);
+        }
+    }
+
+    /**
+     * Records that a flag's rollout schedule reached a step. Every node notices the step, so an entry that another
+     * node already wrote is not repeated.
+     *
+     * @return {@code true} if this call wrote the entry
+     */
+    @Transactional
+    public boolean logRolloutStep(FeatureFlag flag, int stepIndex, int stepCount, RolloutStep step) {
+        try {
+            String newValue = String.format("{\"step\": %d, \"at\": \"%s\", \"percentage\": %d}",
+                    stepIndex + 1, step.getAt(), step.getPercentage());
+            if (auditLogRepository.existsByActionAndEntityKeyAndNewValue("ROLLOUT_STEP", flag.getKey(), newValue)) {
+                return false;
+            }
+            AuditLog auditLog = AuditLog.builder()
+                    .action("ROLLOUT_STEP")
+                    .entityType("FEATURE_FLAG")
+                    .entityId(flag.getId())
+                    .entityKey(flag.getKey())
+                    .performedBy("SYSTEM")
+                    .description(String.format("Rollout of feature flag '%s' reached %d%% (step %d of %d)",
+                            flag.getKey(), step.getPercentage(), stepIndex + 1, stepCount))
+                    .newValue(newValue)
+                    .build();
+
+            auditLogRepository.save(auditLog);
+            log.info("Rollout step audit log created: {} step {}", flag.getKey(), stepIndex + 1);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to create rollout step audit log", e);
+            return false;
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<AuditLog> getAuditLogsForFlag(String flagKey) {
         return auditLogRepository.findByEntityTypeAndEntityKeyOrderByTimestampDesc("FEATURE_FLAG", flagKey);
     }
 
+    @Transactional(readOnly = true)
     public List<AuditLog> getRecentAuditLogs(int hours) {
         LocalDateTime since = LocalDateTime.now().minusHours(hours);
         return auditLogRepository.findRecentLogs(since);
     }
 
+    @Transactional(readOnly = true)
     public List<AuditLog> getAuditLogsByUser(String username) {
         return auditLogRepository.findByPerformedByOrderByTimestampDesc(username);
     }
@@ -103,6 +235,23 @@ public class AuditService {
         return request.getRemoteAddr();
     }
 
+    private static String truncate(String value, int length) {
+        return value.length() > length ? value.substring(0, length) : value;
+    }
+
+    private String describeAction(String action) {
+        switch (action) {
+            case "CREATE":
+                return "Created";
+            case "UPDATE":
+                return "Updated";
+            case "DELETE":
+                return "Deleted";
+            default:
+                return action;
+        }
+    }
+
     private String buildDescription(String action, FeatureFlag flag, FeatureFlag oldFlag) {
         if (flag == null && oldFlag == null) return action;
         
@@ -0,0 +1,217 @@
+package com.featureflux.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.store.FlagStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Evaluates one flag for a stream of users, for batch jobs such as email campaigns and backfills, and streams the
+ * results back in input order as NDJSON.
+ * <p>
+ * The flag and its kill switch are resolved once, when the batch starts. Users are read in chunks of
+ * {@code featureflux.batch.chunk-size}, which a dedicated fork-join pool evaluates in parallel against the stored
+ * definition, bypassing the per-user result cache. At most a few chunks per pool thread are read ahead of the
+ * results written, so memory stays the same however many users are sent. Each node runs at most
+ * {@code featureflux.batch.max-concurrent} batches at once.
+ */
+@Service
+@Slf4j
+public class BatchEvaluationService implements Closeable {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    /** Chunks read ahead per pool thread, so the pool never waits on the reader or the writer. */
+    private static final int CHUNKS_AHEAD_PER_THREAD = 2;
+
+    public enum Outcome {
+        EVALUATED,
+        FLAG_NOT_FOUND,
+        /** Too many batches are running on this node. */
+        BUSY
+    }
+
+    private final FlagStore flagStore;
+    private final KillSwitchService killSwitchService;
+    private final FeatureEvaluationService evaluationService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+    private final Semaphore batches;
+
+    public BatchEvaluationService(FlagStore flagStore, KillSwitchService killSwitchService,
+                                  FeatureEvaluationService evaluationService, ObjectMapper objectMapper,
+                                  @Value("${featureflux.batch.chunk-size:1000}") int chunkSize,
+                                  @Value("${featureflux.batch.parallelism:0}") int parallelism,
+                                  @Value("${featureflux.batch.max-concurrent:2}") int maxConcurrent) {
+        if (chunkSize < 1 || parallelism < 0 || maxConcurrent < 1) {
+            throw new IllegalArgumentException("Batch chunk size and concurrency must be positive");
+        }
+        this.flagStore = flagStore;
+        this.killSwitchService = killSwitchService;
+        this.evaluationService = evaluationService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.batches = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Writes one line per user, {@code {"userId":…,"enabled":…}} plus the {@code variant} of multivariate flags.
+     * Nothing is written unless the outcome is {@link Outcome#EVALUATED}.
+     *
+     * @param userIds one user id per line, or with {@code ndjson} one JSON string or {@code {"userId":…}} object per
+     *                line; blank lines are skipped
+     * @throws IllegalArgumentException for a line that is not valid, possibly after results of earlier lines were
+     *                                  written
+     */
+    public Outcome evaluate(String flagKey, BufferedReader userIds, boolean ndjson, OutputStream out) throws IOException {
+        if (!batches.tryAcquire()) {
+            return Outcome.BUSY;
+        }
+        try {
+            Optional<FeatureFlag> flagOpt = flagStore.findByKey(flagKey);
+            if (flagOpt.isEmpty()) {
+                return Outcome.FLAG_NOT_FOUND;
+            }
+            FeatureFlag flag = detached(flagOpt.get());
+            boolean killed = killSwitchService.isKillSwitchActive(flagKey);
+            long evaluated = stream(flag, killed, userIds, ndjson, out);
+            log.info("Evaluated flag {} for {} users in a batch", flagKey, evaluated);
+            return Outcome.EVALUATED;
+        } finally {
+            batches.release();
+        }
+    }
+
+    private long stream(FeatureFlag flag, boolean killed, BufferedReader userIds, boolean ndjson, OutputStream out)
+            throws IOException {
+        int maxPending = pool.getParallelism() * CHUNKS_AHEAD_PER_THREAD;
+        Deque<ForkJoinTask<EvaluationResult[]>> pending = new ArrayDeque<>(maxPending);
+        Deque<List<String>> pendingUsers = new ArrayDeque<>(maxPending);
+        long evaluated = 0;
+        // Closed only on success: closing commits the response, which a failure before any result must not
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        try {
+            List<String> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = userIds.readLine()) != null) {
+                String userId = userId(line, ndjson);
+                if (userId == null) {
+                    continue;
+                }
+                chunk.add(userId);
+                if (chunk.size() == chunkSize) {
+                    if (pending.size() == maxPending) {
+                        evaluated += write(generator, pendingUsers.poll(), pending.poll().join());
+                    }
+                    pending.add(submit(flag, killed, chunk));
+                    pendingUsers.add(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pending.add(submit(flag, killed, chunk));
+                pendingUsers.add(chunk);
+            }
+            while (!pending.isEmpty()) {
+                evaluated += write(generator, pendingUsers.poll(), pending.poll().join());
+            }
+        } finally {
+            // A failed batch leaves nothing running
+            pending.forEach(task -> task.cancel(false));
+        }
+        generator.close();
+        return evaluated;
+    }
+
+    private ForkJoinTask<EvaluationResult[]> submit(FeatureFlag flag, boolean killed, List<String> userIds) {
+        return pool.submit(() -> {
+            EvaluationResult[] results = new EvaluationResult[userIds.size()];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = killed
+                        ? EvaluationResult.OFF
+                        : evaluationService.evaluateFlagDetail(flag, userIds.get(i), Collections.emptyMap());
+            }
+            return results;
+        });
+    }
+
+    private static int write(JsonGenerator generator, List<String> userIds, EvaluationResult[] results)
+            throws IOException {
+        for (int i = 0; i < results.length; i++) {
+            generator.writeStartObject();
+            generator.writeStringField("userId", userIds.get(i));
+            generator.writeBooleanField("enabled", results[i].isEnabled());
+            if (results[i].getVariant() != null) {
+                generator.writeStringField("variant", results[i].getVariant());
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        // Stream each chunk back as soon as it is written
+        generator.flush();
+        return results.length;
+    }
+
+    private String userId(String line, boolean ndjson) throws IOException {
+        if (line.isBlank()) {
+            return null;
+        }
+        if (!ndjson) {
+            return line.strip();
+        }
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON line: " + line, e);
+        }
+        if (node.isTextual()) {
+            return node.asText();
+        }
+        if (node.isObject() && node.path("userId").isTextual()) {
+            return node.get("userId").asText();
+        }
+        throw new IllegalArgumentException("Expected a user id string or {\"userId\": ...} object, got: " + line);
+    }
+
+    /**
+     * Copy with its lazily loaded collections read, since the pool's threads evaluate it outside the request's
+     * persistence context.
+     */
+    private static FeatureFlag detached(FeatureFlag flag) {
+        return flag.toBuilder()
+                .targetUserIds(flag.getTargetUserIds() != null ? new ArrayList<>(flag.getTargetUserIds()) : new ArrayList<>())
+                .excludedUserIds(flag.getExcludedUserIds() != null ? new ArrayList<>(flag.getExcludedUserIds()) : new ArrayList<>())
+                .targetSegmentKeys(flag.getTargetSegmentKeys() != null ? new ArrayList<>(flag.getTargetSegmentKeys()) : new ArrayList<>())
+                .excludedSegmentKeys(flag.getExcludedSegmentKeys() != null ? new ArrayList<>(flag.getExcludedSegmentKeys()) : new ArrayList<>())
+                .build();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
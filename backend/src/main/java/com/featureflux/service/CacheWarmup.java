@@ -0,0 +1,145 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.KillSwitch;
+import com.featureflux.entity.KillSwitchScope;
+import com.featureflux.store.FlagStore;
+import com.featureflux.store.KillSwitchStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Preloads active flags and kill switches into the store's fast tier and the {@code featureFlags} cache, compiles
+ * the kill state and every active flag and runs synthetic evaluations until the evaluation path is JIT-compiled.
+ * <p>
+ * Runs as an {@link ApplicationRunner}, so the application reports readiness ({@code /actuator/health/readiness})
+ * only once warmup has finished and deploys never route traffic to a cold node. A failed warmup is logged and only
+ * costs the latency it would have saved. The duration is published as the {@value #WARMUP_TIMER} timer.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheWarmup implements ApplicationRunner {
+
+    static final String WARMUP_TIMER = "featureflux.warmup.duration";
+    private static final String WARMUP_USER_PREFIX = "warmup-user-";
+
+    private final FlagStore flagStore;
+    private final KillSwitchStore killSwitchStore;
+    private final KillSwitchService killSwitchService;
+    private final FeatureEvaluationService evaluationService;
+    private final CacheManager cacheManager;
+    private final TransactionOperations transactions;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${featureflux.warmup.enabled:true}")
+    private boolean enabled = true;
+
+    /** Synthetic evaluations spread over the active flags, enough for the JIT to compile the hot path. */
+    @Value("${featureflux.warmup.evaluations:20000}")
+    private int evaluations = 20_000;
+
+    /** Upper bound on the readiness delay; evaluations stop early when it runs out. */
+    @Value("${featureflux.warmup.timeout-ms:30000}")
+    private long timeoutMs = 30_000;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            warmUp();
+        }
+    }
+
+    void warmUp() {
+        long start = System.nanoTime();
+        try {
+            warmUp(start, start + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+        } catch (RuntimeException e) {
+            log.warn("Warmup failed after {} ms, serving traffic with cold caches",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e);
+        } finally {
+            Timer.builder(WARMUP_TIMER)
+                    .description("Startup cache warmup, which delays readiness")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void warmUp(long start, long deadline) {
+        try {
+            // Stored flags have lazily loaded collections, which compiling them reads
+            transactions.executeWithoutResult(status -> {
+                List<FeatureFlag> flags = preload();
+                int evaluated = evaluate(flags, deadline);
+                log.info("Warmed up {} active flags with {} evaluations in {} ms", flags.size(), evaluated,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            });
+        } catch (CannotCreateTransactionException e) {
+            // The database is down and the flags come from the snapshot, which must not overwrite the fast tier
+            List<FeatureFlag> flags = flagStore.findActive();
+            int evaluated = evaluate(flags, deadline);
+            log.warn("Database unavailable, warmed up only the evaluation path for {} snapshot flags with {} evaluations",
+                    flags.size(), evaluated);
+        }
+    }
+
+    private List<FeatureFlag> preload() {
+        List<FeatureFlag> flags = flagStore.findActive();
+        List<KillSwitch> killSwitches = killSwitchStore.findActive();
+        if (flags.isEmpty()) {
+            return flags;
+        }
+        flagStore.preload(flags);
+
+        Map<String, Boolean> killSwitchStates = new HashMap<>();
+        flags.forEach(flag -> killSwitchStates.put(flag.getKey(), false));
+        killSwitches.stream()
+                .filter(killSwitch -> killSwitch.getScope() == KillSwitchScope.FLAG)
+                .forEach(killSwitch -> killSwitchStates.put(killSwitch.getFlagKey(), true));
+        killSwitchStore.preload(killSwitchStates);
+        killSwitchService.recompile();
+
+        // The entries FeatureFlagService.getFlagByKey would cache on its first call, read back from the fast tier
+        Cache flagCache = cacheManager.getCache("featureFlags");
+        if (flagCache != null && !(flagCache instanceof NoOpCache)) {
+            flags.forEach(flag -> flagStore.findByKey(flag.getKey()).ifPresent(cached -> flagCache.put(flag.getKey(), cached)));
+        }
+        return flags;
+    }
+
+    /**
+     * Evaluates the flags for synthetic users through the pure evaluation path, which compiles each flag and
+     * reaches its prerequisites and segments, without writing synthetic users into the evaluation cache.
+     *
+     * @return number of evaluations run before the count or the deadline ran out
+     */
+    private int evaluate(List<FeatureFlag> flags, long deadline) {
+        if (flags.isEmpty()) {
+            return 0;
+        }
+        int i = 0;
+        while (i < evaluations && (i % flags.size() != 0 || System.nanoTime() < deadline)) {
+            FeatureFlag flag = flags.get(i % flags.size());
+            evaluationService.evaluateFlagDetail(flag, WARMUP_USER_PREFIX + i, Collections.emptyMap());
+            i++;
+        }
+        return i;
+    }
+}
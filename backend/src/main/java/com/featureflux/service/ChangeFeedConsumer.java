@@ -0,0 +1,362 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.ChangeRecord;
+import com.featureflux.entity.ChangeType;
+import com.featureflux.entity.ChangedKey;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Prerequisite;
+import com.featureflux.repository.ChangeRecordRepository;
+import com.featureflux.store.ChangeOutbox;
+import com.featureflux.store.FlagRevisions;
+import com.featureflux.store.FlagStore;
+import com.featureflux.store.KillSwitchStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Applies the change feed to this node: republishes changed flags and kill switches to the store's fast tier,
+ * reloads changed segments, recompiles the kill state, advances {@link FlagRevisions} for every flag whose
+ * results a change can affect and pushes the changes to this node's dashboards.
+ * <p>
+ * On Postgres a dedicated connection {@code LISTEN}s for the notifications sent with each change, so peers apply a
+ * change within milliseconds of its commit. A scheduled poll is the fallback, and the only path on other databases.
+ * Both read the feed in revision order. Revisions are allocated before commit, so a revision can show up after a
+ * later one; such gaps are re-read until they appear or {@link #GAP_TIMEOUT_MS} passes (the revision was rolled back),
+ * which applies every committed revision exactly once.
+ */
+@Service
+@ConditionalOnExpression("'${featureflux.store.type:redis}' != 'memory'")
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeFeedConsumer implements SmartLifecycle {
+
+    static final long GAP_TIMEOUT_MS = 60_000;
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_TRACKED_GAPS = 1_000;
+    private static final int LISTEN_TIMEOUT_MS = 10_000;
+    private static final long RECONNECT_DELAY_MS = 5_000;
+
+    private final ChangeRecordRepository repository;
+    private final FlagStore flagStore;
+    private final KillSwitchStore killSwitchStore;
+    private final SegmentService segmentService;
+    private final KillSwitchService killSwitchService;
+    private final DashboardPublisher dashboardPublisher;
+    private final FlagRevisions flagRevisions;
+    private final FeatureEvaluationService evaluationService;
+    private final DataSourceProperties dataSourceProperties;
+    private final TransactionOperations transactions;
+
+    @Value("${featureflux.changefeed.retention-hours:168}")
+    private long retentionHours;
+
+    /** Whether {@link #lastRevision} has been read; the database may be down at startup. */
+    private boolean positioned;
+    /** Highest revision applied; every revision at or below it is applied unless it is still in {@link #gaps}. */
+    private long lastRevision;
+    /** Missing revisions below {@link #lastRevision}, with the time they were first found missing. */
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+    /** Whether a kill switch changed in the changes applied by the current poll. */
+    private boolean killSwitchesChanged;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    /**
+     * Starts from the current end of the feed, with each flag's revision as recorded in it; older changes are
+     * already reflected in the stores this node reads at startup. If the database is down, this happens on the
+     * first poll that reaches it, while evaluations are served from the flag snapshot.
+     */
+    @Override
+    public void start() {
+        synchronized (this) {
+            try {
+                // The dependency scan reads lazily loaded flag collections
+                transactions.executeWithoutResult(status -> position());
+            } catch (DataAccessException e) {
+                log.warn("Change feed unavailable at startup, starting from its end once the database is reachable", e);
+            }
+        }
+        running = true;
+        if (ChangeOutbox.supportsNotify(dataSourceProperties.determineUrl())) {
+            listener = new Thread(this::listen, "change-feed-listener");
+            listener.setDaemon(true);
+            listener.start();
+        }
+        log.info("Change feed consumer started at revision {} ({})", lastRevision, listener != null ? "LISTEN/NOTIFY" : "polling only");
+    }
+
+    /**
+     * Seeds {@link FlagRevisions} from every change still in the feed, including segment changes and, through
+     * {@link #advanceRevisions}, prerequisites, so no flag's revision comes back lower than before a restart and
+     * results cached under it are never read again.
+     */
+    private void position() {
+        lastRevision = repository.findLatestRevision().orElse(0L);
+        Map<String, Long> changedFlags = new HashMap<>();
+        Map<String, Long> changedSegments = new HashMap<>();
+        for (Object[] row : repository.findLatestRevisionByKey(EnumSet.of(ChangeType.FLAG, ChangeType.KILL_SWITCH))) {
+            changedFlags.merge((String) row[0], (Long) row[1], Math::max);
+        }
+        for (Object[] row : repository.findLatestRevisionByKey(EnumSet.of(ChangeType.SEGMENT))) {
+            changedSegments.merge((String) row[0], (Long) row[1], Math::max);
+        }
+        for (ChangeRecord changeset : repository.findByType(ChangeType.CHANGESET)) {
+            for (ChangedKey changed : changeset.getChanges()) {
+                (changed.getType() == ChangeType.SEGMENT ? changedSegments : changedFlags)
+                        .merge(changed.getKey(), changeset.getRevision(), Math::max);
+            }
+        }
+        advanceRevisions(changedFlags, changedSegments);
+        positioned = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Fallback for notifications missed while the listener was reconnecting, and the only delivery path
+     * on databases without {@code LISTEN/NOTIFY}.
+     */
+    @Scheduled(fixedDelayString = "${featureflux.changefeed.poll-interval-ms:5000}")
+    public void scheduledPoll() {
+        if (running) {
+            poll();
+        }
+    }
+
+    /**
+     * Applies all changes committed since the last poll, plus any that fill earlier gaps. A change that fails to
+     * apply is retried from the next poll on; changes are idempotent, so retrying partially applied ones is safe.
+     */
+    public synchronized void poll() {
+        // Refreshing and the dependency scan read lazily loaded flag collections
+        transactions.executeWithoutResult(status -> applyNewChanges());
+    }
+
+    private void applyNewChanges() {
+        if (!positioned) {
+            position();
+            return;
+        }
+        long now = System.currentTimeMillis();
+        gaps.values().removeIf(firstMissing -> now - firstMissing > GAP_TIMEOUT_MS);
+        long from = gaps.isEmpty() ? lastRevision : Math.min(lastRevision, gaps.firstKey() - 1);
+
+        long previousRevision = lastRevision;
+        Map<String, Long> changedFlags = new HashMap<>();
+        Map<String, Long> changedSegments = new HashMap<>();
+        try {
+            List<ChangeRecord> batch;
+            do {
+                batch = repository.findTop500ByRevisionGreaterThanOrderByRevisionAsc(from);
+                applyBatch(batch, now, changedFlags, changedSegments);
+                from = lastRevision;
+            } while (batch.size() == BATCH_SIZE);
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply change feed after revision {}, retrying on the next poll", lastRevision, e);
+        } finally {
+            advanceRevisions(changedFlags, changedSegments);
+            publishToDashboards(changedFlags);
+            recompileKillState(changedFlags);
+        }
+        if (lastRevision != previousRevision) {
+            log.debug("Applied change feed up to revision {} ({} open gaps)", lastRevision, gaps.size());
+        }
+    }
+
+    private void applyBatch(List<ChangeRecord> batch, long now, Map<String, Long> changedFlags, Map<String, Long> changedSegments) {
+        for (ChangeRecord change : batch) {
+            long revision = change.getRevision();
+            boolean fillsGap = revision <= lastRevision;
+            if (fillsGap && !gaps.containsKey(revision)) {
+                continue;
+            }
+            apply(change, changedFlags, changedSegments);
+            if (fillsGap) {
+                gaps.remove(revision);
+            } else {
+                for (long missing = Math.max(lastRevision + 1, revision - MAX_TRACKED_GAPS); missing < revision; missing++) {
+                    gaps.put(missing, now);
+                }
+                lastRevision = revision;
+            }
+        }
+    }
+
+    private void apply(ChangeRecord change, Map<String, Long> changedFlags, Map<String, Long> changedSegments) {
+        if (change.getType() == ChangeType.CHANGESET) {
+            for (ChangedKey changed : change.getChanges()) {
+                apply(changed.getType(), changed.getKey(), change.getRevision(), changedFlags, changedSegments);
+            }
+        } else {
+            apply(change.getType(), change.getKey(), change.getRevision(), changedFlags, changedSegments);
+        }
+    }
+
+    private void apply(ChangeType type, String key, long revision, Map<String, Long> changedFlags, Map<String, Long> changedSegments) {
+        switch (type) {
+            case FLAG -> {
+                flagStore.refresh(key);
+                evaluationService.evictCache(key);
+            }
+            case KILL_SWITCH -> killSwitchStore.refresh(key);
+            case BULK_KILL_SWITCH -> {
+                // Only in the kill state, which no cached result depends on
+                killSwitchesChanged = true;
+                return;
+            }
+            case SEGMENT -> segmentService.reload(key);
+            case CHANGESET -> throw new IllegalStateException("Changesets cannot be nested");
+        }
+        if (type == ChangeType.KILL_SWITCH) {
+            killSwitchesChanged = true;
+        }
+        Map<String, Long> changed = type == ChangeType.SEGMENT ? changedSegments : changedFlags;
+        changed.merge(key, revision, Math::max);
+    }
+
+    /**
+     * Advances the changed flags, the flags referencing changed segments, and everything that depends on either
+     * through prerequisites, each to the highest revision that affects it.
+     */
+    private void advanceRevisions(Map<String, Long> changedFlags, Map<String, Long> changedSegments) {
+        if (changedFlags.isEmpty() && changedSegments.isEmpty()) {
+            return;
+        }
+        Deque<Map.Entry<String, Long>> pending = new ArrayDeque<>(changedFlags.entrySet());
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (FeatureFlag flag : flagStore.findAll()) {
+            if (flag.getPrerequisites() != null) {
+                for (Prerequisite prerequisite : flag.getPrerequisites()) {
+                    dependents.computeIfAbsent(prerequisite.getFlagKey(), key -> new ArrayList<>()).add(flag.getKey());
+                }
+            }
+            long segmentRevision = Math.max(
+                    latestRevision(flag.getTargetSegmentKeys(), changedSegments),
+                    latestRevision(flag.getExcludedSegmentKeys(), changedSegments));
+            if (segmentRevision > 0) {
+                pending.add(new AbstractMap.SimpleEntry<>(flag.getKey(), segmentRevision));
+            }
+        }
+
+        Map<String, Long> advanced = new HashMap<>();
+        while (!pending.isEmpty()) {
+            Map.Entry<String, Long> next = pending.poll();
+            if (advanced.getOrDefault(next.getKey(), 0L) >= next.getValue()) {
+                continue;
+            }
+            advanced.put(next.getKey(), next.getValue());
+            flagRevisions.advance(next.getKey(), next.getValue());
+            for (String dependent : dependents.getOrDefault(next.getKey(), List.of())) {
+                pending.add(new AbstractMap.SimpleEntry<>(dependent, next.getValue()));
+            }
+        }
+    }
+
+    private void recompileKillState(Map<String, Long> changedFlags) {
+        if (killSwitchesChanged) {
+            killSwitchesChanged = false;
+            killSwitchService.killSwitchesChanged();
+        } else if (!changedFlags.isEmpty()) {
+            killSwitchService.flagsChanged();
+        }
+    }
+
+    private void publishToDashboards(Map<String, Long> changedFlags) {
+        dashboardPublisher.flagsChanged(changedFlags.keySet());
+        if (killSwitchesChanged) {
+            dashboardPublisher.killSwitchesChanged();
+        }
+    }
+
+    private static long latestRevision(List<String> segmentKeys, Map<String, Long> changedSegments) {
+        long latest = 0;
+        if (segmentKeys != null) {
+            for (String segmentKey : segmentKeys) {
+                latest = Math.max(latest, changedSegments.getOrDefault(segmentKey, 0L));
+            }
+        }
+        return latest;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + ChangeOutbox.CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                // Catch up on anything committed while not listening
+                poll();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(LISTEN_TIMEOUT_MS);
+                    if (notifications != null && notifications.length > 0) {
+                        poll();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Change feed listener lost its connection, reconnecting in {} ms", RECONNECT_DELAY_MS, e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Every node prunes; the deletes are idempotent. Pruned revisions only matter to nodes that were down for
+     * longer than the retention, and those reload everything at startup anyway.
+     */
+    @Scheduled(fixedDelayString = "${featureflux.changefeed.prune-interval-ms:3600000}")
+    @Transactional
+    public void prune() {
+        int deleted = repository.deleteOlderThan(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Pruned {} change feed records", deleted);
+        }
+    }
+}
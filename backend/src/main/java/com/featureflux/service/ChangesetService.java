@@ -0,0 +1,167 @@
+package com.featureflux.service;
+
+import com.featureflux.dto.ChangesetRequest;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.KillSwitch;
+import com.featureflux.store.ChangeOutbox;
+import com.featureflux.store.FlagStore;
+import com.featureflux.store.KillSwitchStore;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Applies many flag and kill switch changes as one release: one transaction, one change feed revision and
+ * notification, one audit write and one eviction of the {@code featureFlags} cache. Clients never see a
+ * half-applied changeset, and every node refreshes the changed flags in a single pass.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChangesetService {
+
+    private final FlagStore flagStore;
+    private final KillSwitchStore killSwitchStore;
+    private final FeatureFlagService featureFlagService;
+    private final KillSwitchService killSwitchService;
+    private final AuditService auditService;
+    private final ObjectProvider<ChangeOutbox> changeOutbox;
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Applied {
+        private final List<FeatureFlag> flags;
+        private final List<KillSwitch> killSwitches;
+    }
+
+    /**
+     * @throws IllegalArgumentException          if the changeset is empty, changes something twice, names a flag
+     *                                           that does not exist, deactivates a kill switch that does not exist
+     *                                           or leaves a flag with invalid settings
+     * @throws OptimisticLockingFailureException if a flag is no longer at the version the change was prepared against
+     */
+    @Transactional
+    @CacheEvict(value = "featureFlags", allEntries = true)
+    public Applied apply(ChangesetRequest changeset, String performedBy, HttpServletRequest request) {
+        List<ChangesetRequest.FlagChange> flagChanges = changeset.getFlags() != null ? changeset.getFlags() : List.of();
+        List<ChangesetRequest.KillSwitchChange> killSwitchChanges = changeset.getKillSwitches() != null ? changeset.getKillSwitches() : List.of();
+        if (flagChanges.isEmpty() && killSwitchChanges.isEmpty()) {
+            throw new IllegalArgumentException("Changeset is empty");
+        }
+
+        List<FeatureFlag> previousFlags = new ArrayList<>();
+        List<FeatureFlag> changedFlags = prepareFlags(flagChanges, previousFlags);
+        List<KillSwitch> changedKillSwitches = prepareKillSwitches(killSwitchChanges, performedBy);
+
+        ChangeOutbox outbox = changeOutbox.getIfAvailable();
+        Applied applied = outbox != null
+                ? outbox.changeset(describe(changeset), () -> save(changedFlags, changedKillSwitches))
+                : save(changedFlags, changedKillSwitches);
+        if (!changedKillSwitches.isEmpty()) {
+            killSwitchService.killSwitchesChanged();
+        }
+
+        if (request != null) {
+            auditService.logChangeset(changeset.getDescription(), applied.getFlags(), previousFlags,
+                    applied.getKillSwitches(), request);
+        }
+        log.info("Applied changeset of {} flags and {} kill switches by {}", applied.getFlags().size(),
+                applied.getKillSwitches().size(), performedBy);
+        return applied;
+    }
+
+    /**
+     * Validates every flag change before anything is saved.
+     *
+     * @param previous receives each flag's state before the change, in the same order
+     * @return the changed copy of each flag
+     */
+    private List<FeatureFlag> prepareFlags(List<ChangesetRequest.FlagChange> changes, List<FeatureFlag> previous) {
+        Set<String> keys = new HashSet<>();
+        List<FeatureFlag> changed = new ArrayList<>();
+        for (ChangesetRequest.FlagChange change : changes) {
+            if (change.getKey() == null || !keys.add(change.getKey())) {
+                throw new IllegalArgumentException("Each flag change needs a key, and a flag can only be changed once: " + change.getKey());
+            }
+            if (change.getVersion() == null) {
+                throw new IllegalArgumentException("Flag change needs the version it was prepared against: " + change.getKey());
+            }
+            FeatureFlag current = flagStore.findByKey(change.getKey())
+                    .filter(flag -> !Boolean.TRUE.equals(flag.getArchived()))
+                    .orElseThrow(() -> new IllegalArgumentException("Feature flag not found: " + change.getKey()));
+            if (!Objects.equals(current.getVersion(), change.getVersion())) {
+                throw new OptimisticLockingFailureException("Feature flag '" + change.getKey() + "' is at version "
+                        + current.getVersion() + ", not " + change.getVersion());
+            }
+            // A copy, so an invalid change later in the changeset leaves the stored flags untouched
+            FeatureFlag updated = current.toBuilder().build();
+            if (change.getEnabled() != null) {
+                updated.setEnabled(change.getEnabled());
+            }
+            if (change.getRolloutPercentage() != null) {
+                if (change.getRolloutPercentage() < 0 || change.getRolloutPercentage() > 100) {
+                    throw new IllegalArgumentException("Rollout percentage must be between 0 and 100: " + change.getKey());
+                }
+                updated.setRolloutPercentage(change.getRolloutPercentage());
+            }
+            if (change.getVariants() != null) {
+                updated.setVariants(new ArrayList<>(change.getVariants()));
+            }
+            featureFlagService.validateTargeting(updated);
+            changed.add(updated);
+            previous.add(current.toBuilder().build());
+        }
+        return changed;
+    }
+
+    private List<KillSwitch> prepareKillSwitches(List<ChangesetRequest.KillSwitchChange> changes, String performedBy) {
+        Set<String> keys = new HashSet<>();
+        List<KillSwitch> changed = new ArrayList<>();
+        for (ChangesetRequest.KillSwitchChange change : changes) {
+            if (change.getFlagKey() == null || !keys.add(change.getFlagKey())) {
+                throw new IllegalArgumentException("Each kill switch change needs a flag key, and a kill switch can only be changed once: " + change.getFlagKey());
+            }
+            KillSwitch killSwitch = killSwitchStore.findByFlagKey(change.getFlagKey())
+                    .map(KillSwitch::toBuilder)
+                    .map(KillSwitch.KillSwitchBuilder::build)
+                    .orElse(null);
+            if (killSwitch == null) {
+                if (!change.isActive()) {
+                    throw new IllegalArgumentException("Kill switch not found for flag: " + change.getFlagKey());
+                }
+                killSwitch = KillSwitch.builder().flagKey(change.getFlagKey()).build();
+            }
+            killSwitch.setActive(change.isActive());
+            killSwitch.setReason(change.isActive() ? change.getReason() : null);
+            killSwitch.setActivatedBy(change.isActive() ? performedBy : null);
+            changed.add(killSwitch);
+        }
+        return changed;
+    }
+
+    private Applied save(List<FeatureFlag> flags, List<KillSwitch> killSwitches) {
+        List<FeatureFlag> savedFlags = new ArrayList<>();
+        flags.forEach(flag -> savedFlags.add(flagStore.save(flag)));
+        List<KillSwitch> savedKillSwitches = new ArrayList<>();
+        killSwitches.forEach(killSwitch -> savedKillSwitches.add(killSwitchStore.save(killSwitch)));
+        return new Applied(savedFlags, savedKillSwitches);
+    }
+
+    private static String describe(ChangesetRequest changeset) {
+        String description = changeset.getDescription() != null && !changeset.getDescription().isBlank()
+                ? changeset.getDescription() : "changeset";
+        return description.length() > 255 ? description.substring(0, 255) : description;
+    }
+}
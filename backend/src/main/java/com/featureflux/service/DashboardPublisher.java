@@ -0,0 +1,249 @@
+package com.featureflux.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflux.dto.EvaluationRatesEvent;
+import com.featureflux.dto.FeatureFlagDTO;
+import com.featureflux.dto.FlagChangeEvent;
+import com.featureflux.dto.KillSwitchEvent;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.KillSwitch;
+import com.featureflux.entity.KillSwitchScope;
+import com.featureflux.rules.KillSwitchState;
+import com.featureflux.store.FlagStore;
+import com.featureflux.store.KillSwitchStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes committed flag changes, kill switch toggles and live evaluation rates to the dashboards connected to this
+ * node over STOMP, so dashboards no longer poll the flag list.
+ * <p>
+ * Flag changes are sent as the {@link FeatureFlagDTO} fields that differ from what this node last sent, so a
+ * change reported twice, or one that only touched fields dashboards do not see, sends nothing. With the change feed,
+ * every node reports every committed change here, including its own; the {@code memory} store has no feed, so its
+ * single node compares its maps against what it last sent every {@code featureflux.dashboard.sweep-interval-ms}.
+ * Evaluation rates are counted per node and sent as one message per {@code featureflux.dashboard.rate-interval-ms}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardPublisher implements ApplicationRunner {
+
+    public static final String FLAGS_TOPIC = "/topic/flags";
+    /** Admins only, like the kill switch API. */
+    public static final String KILL_SWITCHES_TOPIC = "/topic/kill-switches";
+    public static final String EVALUATION_RATES_TOPIC = "/topic/evaluation-rates";
+
+    /** Bounds the rate counters, since the public evaluation API accepts any flag key. */
+    static final int MAX_RATED_FLAGS = 10_000;
+    private static final TypeReference<Map<String, Object>> FIELDS = new TypeReference<>() {};
+
+    private final SimpMessageSendingOperations messaging;
+    private final FlagStore flagStore;
+    private final KillSwitchStore killSwitchStore;
+    private final ObjectMapper objectMapper;
+
+    @Value("${featureflux.store.type:redis}")
+    private String storeType = "redis";
+
+    /** Fields of each flag as last sent; null until read, after which unknown flags are sent in full. */
+    private Map<String, Map<String, Object>> sentFlags;
+    /** Active switches as last sent, by scope and target. */
+    private Map<String, KillSwitch> sentKillSwitches;
+
+    private final ConcurrentHashMap<String, LongAdder> evaluations = new ConcurrentHashMap<>();
+    private long ratesSince = System.nanoTime();
+    private boolean sentRates;
+
+    /** Reads what dashboards load at startup, so the first changes are sent as diffs against it. */
+    @Override
+    public synchronized void run(ApplicationArguments args) {
+        try {
+            sentFlags = new HashMap<>();
+            for (FeatureFlag flag : flagStore.findAll()) {
+                sentFlags.put(flag.getKey(), fields(flag));
+            }
+            sentKillSwitches = byTarget(killSwitchStore.findActive());
+        } catch (RuntimeException e) {
+            log.warn("Could not read flags for dashboard diffs, sending the first changes in full", e);
+            sentFlags = null;
+            sentKillSwitches = null;
+        }
+    }
+
+    /** Sends what changed in the given flags since they were last sent. */
+    public synchronized void flagsChanged(Collection<String> flagKeys) {
+        if (flagKeys.isEmpty()) {
+            return;
+        }
+        try {
+            if (sentFlags == null) {
+                sentFlags = new HashMap<>();
+            }
+            for (String key : flagKeys) {
+                Optional<FeatureFlag> flag = flagStore.findByKey(key)
+                        .filter(found -> !Boolean.TRUE.equals(found.getArchived()));
+                send(key, flag.orElse(null));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to push flag changes to dashboards: {}", flagKeys, e);
+        }
+    }
+
+    /** Sends the switches toggled since the active ones were last sent. */
+    public synchronized void killSwitchesChanged() {
+        try {
+            List<KillSwitch> active = killSwitchStore.findActive();
+            Map<String, KillSwitch> current = byTarget(active);
+            Map<String, KillSwitch> previous = sentKillSwitches != null ? sentKillSwitches : Map.of();
+            List<KillSwitchEvent> events = new ArrayList<>();
+            current.forEach((target, killSwitch) -> {
+                KillSwitch sent = previous.get(target);
+                if (sent == null || !Objects.equals(sent.getReason(), killSwitch.getReason())) {
+                    events.add(event(true, killSwitch));
+                }
+            });
+            previous.forEach((target, killSwitch) -> {
+                if (!current.containsKey(target)) {
+                    events.add(event(false, killSwitch));
+                }
+            });
+            sentKillSwitches = current;
+            if (events.isEmpty()) {
+                return;
+            }
+            boolean expandsTags = active.stream().anyMatch(killSwitch -> killSwitch.getScope() != KillSwitchScope.FLAG);
+            List<String> killedFlags = List.copyOf(
+                    KillSwitchState.killedFlags(active, expandsTags ? flagStore.findAll() : List.of()));
+            for (KillSwitchEvent event : events) {
+                event.setKilledFlags(killedFlags);
+                messaging.convertAndSend(KILL_SWITCHES_TOPIC, event);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to push kill switch changes to dashboards", e);
+        }
+    }
+
+    /** Counts an evaluation served by this node towards its flag's live rate. */
+    public void recordEvaluation(String flagKey) {
+        LongAdder count = evaluations.get(flagKey);
+        if (count == null) {
+            if (evaluations.size() >= MAX_RATED_FLAGS) {
+                return;
+            }
+            count = evaluations.computeIfAbsent(flagKey, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * Sends the rates since the last call, and nothing while no flag is evaluated. Counts that race with the
+     * reset may move to the next interval, which a live rate can afford.
+     */
+    @Scheduled(fixedDelayString = "${featureflux.dashboard.rate-interval-ms:1000}")
+    public synchronized void publishEvaluationRates() {
+        long now = System.nanoTime();
+        long intervalMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(now - ratesSince));
+        ratesSince = now;
+        Map<String, Double> rates = new TreeMap<>();
+        evaluations.forEach((flagKey, count) -> {
+            long evaluated = count.sumThenReset();
+            if (evaluated > 0) {
+                rates.put(flagKey, evaluated * 1000.0 / intervalMs);
+            } else {
+                evaluations.remove(flagKey, count);
+            }
+        });
+        // One empty message after traffic stops, so dashboards drop to zero
+        if (!rates.isEmpty() || sentRates) {
+            messaging.convertAndSend(EVALUATION_RATES_TOPIC, new EvaluationRatesEvent(intervalMs, rates));
+        }
+        sentRates = !rates.isEmpty();
+    }
+
+    /** Stands in for the change feed on the {@code memory} store, whose maps are cheap to compare. */
+    @Scheduled(fixedDelayString = "${featureflux.dashboard.sweep-interval-ms:1000}")
+    public synchronized void sweep() {
+        if (!"memory".equals(storeType)) {
+            return;
+        }
+        Set<String> keys = new TreeSet<>();
+        flagStore.findAll().forEach(flag -> keys.add(flag.getKey()));
+        if (sentFlags != null) {
+            keys.addAll(sentFlags.keySet());
+        }
+        flagsChanged(keys);
+        killSwitchesChanged();
+    }
+
+    private void send(String key, FeatureFlag flag) {
+        Map<String, Object> previous = sentFlags.get(key);
+        if (flag == null) {
+            if (sentFlags.containsKey(key)) {
+                sentFlags.remove(key);
+                messaging.convertAndSend(FLAGS_TOPIC, new FlagChangeEvent(FlagChangeEvent.Type.REMOVED, key, null, null));
+            }
+            return;
+        }
+        Map<String, Object> current = fields(flag);
+        Map<String, Object> changes = new LinkedHashMap<>();
+        current.forEach((field, value) -> {
+            if (previous == null || !Objects.equals(previous.get(field), value)) {
+                changes.put(field, value);
+            }
+        });
+        sentFlags.put(key, current);
+        if (!changes.isEmpty()) {
+            messaging.convertAndSend(FLAGS_TOPIC,
+                    new FlagChangeEvent(FlagChangeEvent.Type.UPSERT, key, flag.getVersion(), changes));
+        }
+    }
+
+    /** The flag as the flag API returns it, as JSON values so lists and dates compare by content. */
+    private Map<String, Object> fields(FeatureFlag flag) {
+        return objectMapper.convertValue(FeatureFlagDTO.fromEntity(flag), FIELDS);
+    }
+
+    private static Map<String, KillSwitch> byTarget(List<KillSwitch> active) {
+        Map<String, KillSwitch> byTarget = new HashMap<>();
+        for (KillSwitch killSwitch : active) {
+            byTarget.put(killSwitch.getScope() + ":" + target(killSwitch), killSwitch);
+        }
+        return byTarget;
+    }
+
+    private static String target(KillSwitch killSwitch) {
+        return switch (killSwitch.getScope()) {
+            case FLAG -> killSwitch.getFlagKey();
+            case TAG -> killSwitch.getTag();
+            case GLOBAL -> null;
+        };
+    }
+
+    private static KillSwitchEvent event(boolean active, KillSwitch killSwitch) {
+        return new KillSwitchEvent(active, killSwitch.getScope(), target(killSwitch), killSwitch.getReason(),
+                killSwitch.getActivatedBy(), null);
+    }
+}
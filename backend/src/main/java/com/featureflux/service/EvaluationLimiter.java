@@ -0,0 +1,183 @@
+package com.featureflux.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive cap on concurrent evaluation requests, so that when Redis or Postgres slow down, requests are shed at once
+ * instead of piling up on request threads until nothing else can be served.
+ * <p>
+ * The limit follows AIMD on observed latency: a request that completes within {@code latency-threshold} while the
+ * limit is at least half used raises it by {@code 1 / limit}, about one per limit's worth of requests; a slower or
+ * failed one cuts it by {@code backoff-ratio}, at most once per round trip, since every request in flight when the
+ * slowdown started reports it. The limit stays between {@code min-limit} and the Tomcat thread pool less
+ * {@code reserved-threads}, so evaluation traffic can never take the threads that the admin, kill switch and flag
+ * endpoints are served on.
+ * <p>
+ * Acquiring and releasing are lock-free.
+ */
+@Service
+@Slf4j
+public class EvaluationLimiter {
+
+    public static final String LIMIT_METRIC = "featureflux.evaluation.concurrency.limit";
+    public static final String IN_FLIGHT_METRIC = "featureflux.evaluation.concurrency.in-flight";
+    public static final String SHED_METRIC = "featureflux.evaluation.shed";
+
+    /** What {@link #tryAcquire} returns for a request that must be shed. */
+    public static final long SHED = Long.MIN_VALUE;
+
+    /** How shed requests are answered. */
+    public enum ShedResponse {
+        /** 503 with {@code Retry-After}. */
+        UNAVAILABLE,
+        /** The configured default value as the result, as if evaluated. */
+        DEFAULT
+    }
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final ShedResponse shedResponse;
+    private final boolean defaultValue;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /** The limit as the bits of a double, so it can grow by fractions. */
+    private final AtomicLong limit;
+    /** When the limit was last cut; requests started earlier do not cut it again. */
+    private volatile long lastDecreaseNanos = System.nanoTime();
+    private final Counter shed;
+
+    public EvaluationLimiter(@Value("${featureflux.limiter.enabled:true}") boolean enabled,
+                             @Value("${featureflux.limiter.initial-limit:20}") int initialLimit,
+                             @Value("${featureflux.limiter.min-limit:4}") int minLimit,
+                             @Value("${server.tomcat.threads.max:200}") int requestThreads,
+                             @Value("${featureflux.limiter.reserved-threads:50}") int reservedThreads,
+                             @Value("${featureflux.limiter.latency-threshold:50ms}") Duration latencyThreshold,
+                             @Value("${featureflux.limiter.backoff-ratio:0.9}") double backoffRatio,
+                             @Value("${featureflux.limiter.shed-response:unavailable}") ShedResponse shedResponse,
+                             @Value("${featureflux.limiter.default-value:false}") boolean defaultValue,
+                             MeterRegistry meterRegistry) {
+        int maxLimit = requestThreads - reservedThreads;
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Evaluation concurrency limits need 1 <= min-limit <= request threads"
+                    + " - reserved-threads, got min-limit " + minLimit + " and " + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be above 0 and below 1: " + backoffRatio);
+        }
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.shedResponse = shedResponse;
+        this.defaultValue = defaultValue;
+        this.limit = new AtomicLong(Double.doubleToLongBits(Math.max(minLimit, Math.min(maxLimit, initialLimit))));
+
+        Gauge.builder(LIMIT_METRIC, this, EvaluationLimiter::getLimit)
+                .description("Concurrent evaluation requests allowed before new ones are shed")
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METRIC, inFlight, AtomicInteger::get)
+                .description("Evaluation requests being served")
+                .register(meterRegistry);
+        this.shed = Counter.builder(SHED_METRIC)
+                .description("Evaluation requests shed over the concurrency limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the start time to pass to {@link #release}, or {@link #SHED} if the request is over the limit
+     */
+    public long tryAcquire() {
+        if (!enabled) {
+            return System.nanoTime();
+        }
+        int allowed = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                shed.increment();
+                return SHED;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * @param startNanos what {@link #tryAcquire} returned
+     * @param failed     whether the request failed, which counts as slow
+     */
+    public void release(long startNanos, boolean failed) {
+        if (enabled) {
+            release(startNanos, System.nanoTime(), failed);
+        }
+    }
+
+    void release(long startNanos, long nowNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+        if (failed || nowNanos - startNanos > latencyThresholdNanos) {
+            if (startNanos - lastDecreaseNanos >= 0) {
+                lastDecreaseNanos = nowNanos;
+                decrease(nowNanos - startNanos);
+            }
+        } else if (current * 2 >= getLimit()) {
+            increase();
+        }
+    }
+
+    private void increase() {
+        while (true) {
+            long bits = limit.get();
+            double value = Double.longBitsToDouble(bits);
+            if (value >= maxLimit
+                    || limit.compareAndSet(bits, Double.doubleToLongBits(Math.min(maxLimit, value + 1 / value)))) {
+                return;
+            }
+        }
+    }
+
+    private void decrease(long latencyNanos) {
+        while (true) {
+            long bits = limit.get();
+            double value = Double.longBitsToDouble(bits);
+            double cut = Math.max(minLimit, value * backoffRatio);
+            if (cut == value) {
+                return;
+            }
+            if (limit.compareAndSet(bits, Double.doubleToLongBits(cut))) {
+                log.debug("Evaluation concurrency limit cut to {} after a {} ms request", (int) cut,
+                        latencyNanos / 1_000_000);
+                return;
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limit.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public ShedResponse getShedResponse() {
+        return shedResponse;
+    }
+
+    public boolean getDefaultValue() {
+        return defaultValue;
+    }
+}
@@ -0,0 +1,22 @@
+package com.featureflux.service;
+
+/**
+ * The step of the evaluation that decided a flag's result for a user, recorded in sampled {@link EvaluationTrace}s.
+ */
+public enum EvaluationReason {
+    KILL_SWITCH,
+    FLAG_NOT_FOUND,
+    DISABLED,
+    PREREQUISITE_FAILED,
+    EXCLUDED_USER,
+    EXCLUDED_SEGMENT,
+    TARGETED_USER,
+    TARGETED_SEGMENT,
+    RULE_MATCH,
+    /** The user's bucket against the rollout percentage, which the trace records. */
+    ROLLOUT,
+    /** The user's slot in the flag's experiment layer. */
+    LAYER_ROLLOUT,
+    /** Enabled, but rolled out to no one. */
+    NO_ROLLOUT
+}
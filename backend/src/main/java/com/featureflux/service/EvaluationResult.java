@@ -0,0 +1,34 @@
+package com.featureflux.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.featureflux.entity.Variant;
+import lombok.Getter;
+
+/**
+ * Outcome of evaluating a flag for one user: whether it is on and, for multivariate flags, the variant served.
+ * Boolean flags share the {@link #ON} and {@link #OFF} instances.
+ */
+@Getter
+public final class EvaluationResult {
+
+    public static final EvaluationResult ON = new EvaluationResult(true, null, null);
+    public static final EvaluationResult OFF = new EvaluationResult(false, null, null);
+
+    private final boolean enabled;
+    private final String variant;
+    private final JsonNode value;
+
+    private EvaluationResult(boolean enabled, String variant, JsonNode value) {
+        this.enabled = enabled;
+        this.variant = variant;
+        this.value = value;
+    }
+
+    public static EvaluationResult of(boolean enabled) {
+        return enabled ? ON : OFF;
+    }
+
+    static EvaluationResult serving(Variant variant) {
+        return new EvaluationResult(true, variant.getKey(), variant.getValue());
+    }
+}
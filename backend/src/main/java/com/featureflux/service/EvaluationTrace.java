@@ -0,0 +1,127 @@
+package com.featureflux.service;
+
+import com.featureflux.rules.UserHash;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One sampled evaluation: the result, the step that decided it, the tier that served it and how long each step
+ * took. Filled in by the evaluating thread and then published to the {@link EvaluationTracer}, after which it never
+ * changes. Users appear only as their {@link UserHash#stable} hash.
+ */
+@Getter
+public final class EvaluationTrace {
+
+    /** Where the result came from. */
+    public enum Tier {
+        /** Off before any lookup. */
+        KILL_SWITCH,
+        /** Evaluated inside Redis by the evaluation script. */
+        SCRIPT,
+        /** A cached result. */
+        CACHE,
+        /** Evaluated on this node from the stored definition. */
+        EVALUATED
+    }
+
+    public enum Step {
+        KILL_SWITCH,
+        CACHE_TIER,
+        FLAG_LOOKUP,
+        EVALUATION
+    }
+
+    private long sequence;
+    private final Instant timestamp;
+    private final String flagKey;
+    private final String userHash;
+    private boolean enabled;
+    private String variant;
+    /**
+     * For results served by the script or the cache, the reason the stored definition gives now, which is evaluated
+     * again for the trace.
+     */
+    private EvaluationReason reason;
+    private Tier tier;
+    private Integer bucket;
+    private Integer rolloutPercentage;
+    private long totalNanos;
+
+    @Getter(AccessLevel.NONE)
+    private final long[] stepNanos = new long[Step.values().length];
+    @Getter(AccessLevel.NONE)
+    private final long startNanos;
+
+    EvaluationTrace(String flagKey, String userId) {
+        this.timestamp = Instant.now();
+        this.startNanos = System.nanoTime();
+        this.flagKey = flagKey;
+        this.userHash = hash(userId);
+    }
+
+    /** How the trace shows a user id. */
+    public static String hash(String userId) {
+        return Long.toHexString(UserHash.stable(userId));
+    }
+
+    /** Nanos spent in each step that ran, in evaluation order. */
+    public Map<Step, Long> getStepNanos() {
+        Map<Step, Long> steps = new EnumMap<>(Step.class);
+        for (Step step : Step.values()) {
+            if (stepNanos[step.ordinal()] > 0) {
+                steps.put(step, stepNanos[step.ordinal()]);
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * Adds the time since {@code startNanos} to the step.
+     *
+     * @return the current time, for timing the next step
+     */
+    long time(Step step, long startNanos) {
+        long now = System.nanoTime();
+        add(step, now - startNanos);
+        return now;
+    }
+
+    void add(Step step, long nanos) {
+        stepNanos[step.ordinal()] += Math.max(1, nanos);
+    }
+
+    long nanos(Step step) {
+        return stepNanos[step.ordinal()];
+    }
+
+    void setReason(EvaluationReason reason) {
+        this.reason = reason;
+    }
+
+    void setTier(Tier tier) {
+        this.tier = tier;
+    }
+
+    void setBucket(int bucket) {
+        this.bucket = bucket;
+    }
+
+    void setRolloutPercentage(int rolloutPercentage) {
+        this.rolloutPercentage = rolloutPercentage;
+    }
+
+    EvaluationTrace finish(EvaluationResult result) {
+        this.enabled = result.isEnabled();
+        this.variant = result.getVariant();
+        this.totalNanos = System.nanoTime() - startNanos;
+        return this;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+}
@@ -0,0 +1,131 @@
+package com.featureflux.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The most recent sampled {@link EvaluationTrace}s of this node, in a fixed ring of
+ * {@code featureflux.tracing.capacity} slots that writers claim with one atomic increment, overwriting the oldest.
+ * Nothing locks, and readers copy whatever the slots hold at the time.
+ * <p>
+ * Sampling is off until set, per flag, per user or for a share of all evaluations, and can be changed at any time.
+ * While it is off, {@link #sample} costs evaluations one volatile read and allocates nothing. Both the buffer and the
+ * sampling are per node.
+ */
+@Service
+public class EvaluationTracer {
+
+    /**
+     * What to trace: every evaluation of {@code users}, the given share of each of {@code flags}, and {@code rate}
+     * of all the others.
+     */
+    public record Sampling(Map<String, Double> flags, Set<String> users, double rate) {
+
+        public Sampling {
+            if (flags != null) {
+                flags.values().forEach(Sampling::checkRate);
+            }
+            checkRate(rate);
+            flags = flags != null ? Map.copyOf(flags) : Map.of();
+            users = users != null ? Set.copyOf(users) : Set.of();
+        }
+
+        private static void checkRate(Double rate) {
+            if (rate == null || !(rate >= 0 && rate <= 1)) {
+                throw new IllegalArgumentException("Sampling rates must be between 0 and 1, got " + rate);
+            }
+        }
+
+        private boolean isOff() {
+            return rate == 0 && users.isEmpty() && flags.values().stream().allMatch(flagRate -> flagRate == 0);
+        }
+
+        private double rate(String flagKey, String userId) {
+            if (users.contains(userId)) {
+                return 1;
+            }
+            return flags.getOrDefault(flagKey, rate);
+        }
+    }
+
+    private final AtomicReferenceArray<EvaluationTrace> ring;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** {@code null} while sampling is off. */
+    private volatile Sampling sampling;
+
+    public EvaluationTracer(@Value("${featureflux.tracing.capacity:1024}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Trace capacity must be positive");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return a trace to fill in and {@link #record}, or {@code null} when this evaluation is not sampled
+     */
+    public EvaluationTrace sample(String flagKey, String userId) {
+        Sampling current = sampling;
+        if (current == null) {
+            return null;
+        }
+        double rate = current.rate(flagKey, userId);
+        if (rate == 0 || (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate)) {
+            return null;
+        }
+        return new EvaluationTrace(flagKey, userId);
+    }
+
+    /** Publishes a finished trace, which must not change afterwards. */
+    public void record(EvaluationTrace trace) {
+        long next = sequence.getAndIncrement();
+        trace.setSequence(next);
+        ring.set((int) (next & mask), trace);
+    }
+
+    /**
+     * @param flagKey only this flag's traces, or {@code null} for all
+     * @param userId  only this user's traces, or {@code null} for all
+     * @return up to {@code limit} of the buffered traces, newest first
+     */
+    public List<EvaluationTrace> recent(String flagKey, String userId, int limit) {
+        String userHash = userId != null ? EvaluationTrace.hash(userId) : null;
+        List<EvaluationTrace> traces = new ArrayList<>();
+        for (int i = 0; i < ring.length(); i++) {
+            EvaluationTrace trace = ring.get(i);
+            if (trace != null && (flagKey == null || flagKey.equals(trace.getFlagKey()))
+                    && (userHash == null || userHash.equals(trace.getUserHash()))) {
+                traces.add(trace);
+            }
+        }
+        traces.sort(Comparator.comparingLong(EvaluationTrace::getSequence).reversed());
+        return traces.size() > limit ? List.copyOf(traces.subList(0, Math.max(0, limit))) : traces;
+    }
+
+    /** The current sampling, or {@code null} when off. */
+    public Sampling getSampling() {
+        return sampling;
+    }
+
+    /**
+     * @param sampling {@code null}, or a sampling that selects nothing, turns tracing off
+     */
+    public void setSampling(Sampling sampling) {
+        this.sampling = sampling == null || sampling.isOff() ? null : sampling;
+    }
+}
@@ -1,69 +1,319 @@
 package com.featureflux.service;
 
 import com.featureflux.entity.FeatureFlag;
-import com.featureflux.repository.FeatureFlagRepository;
+import com.featureflux.entity.Prerequisite;
+import com.featureflux.rules.CompiledRules;
+import com.featureflux.rules.ExperimentLayers;
+import com.featureflux.rules.PrerequisiteGraph;
+import com.featureflux.rules.RolloutSchedule;
+import com.featureflux.rules.RuleCompiler;
+import com.featureflux.rules.SegmentRef;
+import com.featureflux.rules.UserHash;
+import com.featureflux.rules.VariantAllocation;
+import com.featureflux.store.EvaluationCache;
+import com.featureflux.store.FlagStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FeatureEvaluationService {
 
-    private final FeatureFlagRepository featureFlagRepository;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final FlagStore flagStore;
+    private final EvaluationCache evaluationCache;
     private final KillSwitchService killSwitchService;
+    private final SegmentService segmentService;
+    private final EvaluationTracer tracer;
 
-    private static final String EVALUATION_CACHE_PREFIX = "eval:";
-    private static final long CACHE_TTL_SECONDS = 60;
+    /**
+     * Targeting rules and segment handles compiled once per flag version, keyed by flag key. Only stored flags are
+     * held, and {@link #evictCache} drops a flag's entry once it changes, is archived or is deleted.
+     */
+    private final Map<String, CompiledFlag> compiledFlags = new ConcurrentHashMap<>();
+
+    /** Transitive prerequisites of each stored flag in dependency order, keyed by flag key; evicted with the above. */
+    private final Map<String, PrerequisiteOrder> prerequisiteOrders = new ConcurrentHashMap<>();
+
+    /** Time source for rollout schedules; replaced in tests. */
+    private Clock clock = Clock.systemUTC();
 
     /**
      * Evaluates a feature flag for a given user with deterministic bucketing.
-     * Uses Redis for high-frequency reads to offload PostgreSQL.
+     * Uses the configured store's cache tier for high-frequency reads to offload PostgreSQL.
      */
     @Cacheable(value = "evaluations", key = "#flagKey + ':' + #userId")
     public boolean evaluate(String flagKey, String userId) {
-        // Check Redis cache first
-        String cacheKey = EVALUATION_CACHE_PREFIX + flagKey + ":" + userId;
-        Boolean cachedResult = (Boolean) redisTemplate.opsForValue().get(cacheKey);
-        
-        if (cachedResult != null) {
-            log.debug("Cache hit for flag: {} user: {}", flagKey, userId);
-            return cachedResult;
+        EvaluationTrace trace = tracer.sample(flagKey, userId);
+        if (trace != null) {
+            return evaluateTraced(trace, flagKey, userId, Collections.emptyMap(), false).isEnabled();
+        }
+        return evaluateUntraced(flagKey, userId, Collections.emptyMap());
+    }
+
+    /**
+     * Evaluates a feature flag against request context attributes used by its targeting rules.
+     * Results depend on the context, so they bypass the per-user result caches. Flags the cache tier evaluates itself
+     * have no rules, so their results do not depend on the context.
+     */
+    public boolean evaluate(String flagKey, String userId, Map<String, String> context) {
+        if (context == null || context.isEmpty()) {
+            return evaluate(flagKey, userId);
+        }
+        EvaluationTrace trace = tracer.sample(flagKey, userId);
+        if (trace != null) {
+            return evaluateTraced(trace, flagKey, userId, context, false).isEnabled();
+        }
+        return evaluateUntraced(flagKey, userId, context);
+    }
+
+    private boolean evaluateUntraced(String flagKey, String userId, Map<String, String> context) {
+        if (killed(flagKey)) {
+            return false;
+        }
+        Boolean evaluated = evaluationCache.evaluate(flagKey, userId);
+        if (evaluated != null) {
+            return evaluated;
+        }
+        return evaluateBoolean(flagKey, userId, context);
+    }
+
+    /** The rest of {@link #evaluateUntraced}, once the kill switch and the cache tier have been checked. */
+    private boolean evaluateBoolean(String flagKey, String userId, Map<String, String> context) {
+        if (context == null || context.isEmpty()) {
+            Boolean result = cached(flagKey, userId, () -> evaluateUncached(flagKey, userId, Collections.emptyMap(), null));
+            if (result != null || !scheduled(flagKey)) {
+                return Boolean.TRUE.equals(result);
+            }
+        }
+        return Boolean.TRUE.equals(evaluateUncached(flagKey, userId, context, null));
+    }
+
+    /**
+     * The cached result, or the result of {@code load} on a miss, which concurrent misses share. Results of flags on a
+     * rollout schedule change with the clock while cache keys change only with the flag's revision, so they are never
+     * cached.
+     *
+     * @return the result, or {@code null} if the flag was not found or follows a schedule, which callers then
+     * evaluate themselves
+     */
+    private Boolean cached(String flagKey, String userId, Supplier<Boolean> load) {
+        if (scheduled(flagKey)) {
+            return null;
+        }
+        return evaluationCache.get(flagKey, userId, () -> {
+            Boolean loaded = load.get();
+            // The load compiled the flag, so a schedule is known by now
+            return scheduled(flagKey) ? null : loaded;
+        });
+    }
+
+    /** Whether the flag, as last compiled on this node, follows a rollout schedule. */
+    private boolean scheduled(String flagKey) {
+        CompiledFlag compiled = compiledFlags.get(flagKey);
+        return compiled != null && compiled.schedule != null;
+    }
+
+    /**
+     * Evaluates a flag including the variant served by multivariate flags. Boolean flags take the cached
+     * {@link #evaluate(String, String, Map)} path; multivariate flags are evaluated against the stored definition.
+     * Evaluations selected by the {@link EvaluationTracer}'s sampling are traced.
+     */
+    public EvaluationResult evaluateDetail(String flagKey, String userId, Map<String, String> context) {
+        EvaluationTrace trace = tracer.sample(flagKey, userId);
+        if (trace != null) {
+            return evaluateTraced(trace, flagKey, userId, context != null ? context : Collections.emptyMap(), true);
+        }
+        if (killed(flagKey)) {
+            return EvaluationResult.OFF;
+        }
+        // Flags the cache tier evaluates itself have no variants
+        Boolean evaluated = evaluationCache.evaluate(flagKey, userId);
+        if (evaluated != null) {
+            return EvaluationResult.of(evaluated);
+        }
+        Optional<FeatureFlag> flagOpt = flagStore.findByKey(flagKey);
+        if (flagOpt.isEmpty() || isEmpty(flagOpt.get().getVariants())) {
+            return EvaluationResult.of(evaluateBoolean(flagKey, userId, context));
+        }
+        return evaluateFlagDetail(flagOpt.get(), userId, context, null);
+    }
+
+    /**
+     * Evaluates several flags, each for its own user. Prerequisites shared between the requested flags
+     * (or requested themselves) are evaluated once per user for the whole batch.
+     */
+    public Map<String, Boolean> evaluateBulk(Map<String, String> requests) {
+        Map<String, EvaluationScope> scopesByUser = new HashMap<>();
+        Map<String, Boolean> results = new HashMap<>();
+        Map<String, String> live = new HashMap<>();
+        requests.forEach((flagKey, userId) -> {
+            if (killed(flagKey)) {
+                results.put(flagKey, false);
+            } else {
+                live.put(flagKey, userId);
+            }
+        });
+        // One call for every flag the cache tier can evaluate itself
+        Map<String, Boolean> evaluated = live.isEmpty() ? Map.of() : evaluationCache.evaluate(live);
+        live.forEach((flagKey, userId) -> {
+            Boolean scripted = evaluated.get(flagKey);
+            if (scripted != null) {
+                results.put(flagKey, scripted);
+                return;
+            }
+            Supplier<Boolean> load = () -> {
+                EvaluationScope scope = scopesByUser.computeIfAbsent(userId, user -> new EvaluationScope());
+                EvaluationResult memoized = scope.get(flagKey);
+                return memoized != null ? memoized.isEnabled() : evaluateUncached(flagKey, userId, Collections.emptyMap(), scope);
+            };
+            Boolean result = cached(flagKey, userId, load);
+            results.put(flagKey, Boolean.TRUE.equals(result != null || !scheduled(flagKey) ? result : load.get()));
+        });
+        return results;
+    }
+
+    /**
+     * The evaluation a sampled request would have taken, step by step, recorded in the trace and published to the
+     * tracer. Takes the same tiers in the same order as the untraced path; results served by the script or the cache
+     * are explained by evaluating the stored definition again afterwards, outside the timings.
+     *
+     * @param detail whether multivariate flags are evaluated directly, as {@link #evaluateDetail} does
+     */
+    private EvaluationResult evaluateTraced(EvaluationTrace trace, String flagKey, String userId,
+                                            Map<String, String> context, boolean detail) {
+        EvaluationResult result = evaluateTracedSteps(trace, flagKey, userId, context, detail);
+        trace.finish(result);
+        if (trace.getTier() == EvaluationTrace.Tier.SCRIPT || trace.getTier() == EvaluationTrace.Tier.CACHE) {
+            flagStore.findByKey(flagKey).ifPresentOrElse(
+                    flag -> evaluateFlagDetail(flag, userId, context, new EvaluationScope(trace)),
+                    () -> trace.setReason(EvaluationReason.FLAG_NOT_FOUND));
+        }
+        tracer.record(trace);
+        return result;
+    }
+
+    private EvaluationResult evaluateTracedSteps(EvaluationTrace trace, String flagKey, String userId,
+                                                 Map<String, String> context, boolean detail) {
+        long start = System.nanoTime();
+        boolean killed = killed(flagKey);
+        start = trace.time(EvaluationTrace.Step.KILL_SWITCH, start);
+        if (killed) {
+            trace.setTier(EvaluationTrace.Tier.KILL_SWITCH);
+            trace.setReason(EvaluationReason.KILL_SWITCH);
+            return EvaluationResult.OFF;
+        }
+        Boolean evaluated = evaluationCache.evaluate(flagKey, userId);
+        start = trace.time(EvaluationTrace.Step.CACHE_TIER, start);
+        if (evaluated != null) {
+            trace.setTier(EvaluationTrace.Tier.SCRIPT);
+            return EvaluationResult.of(evaluated);
+        }
+        if (detail) {
+            Optional<FeatureFlag> flagOpt = flagStore.findByKey(flagKey);
+            start = trace.time(EvaluationTrace.Step.FLAG_LOOKUP, start);
+            if (flagOpt.isPresent() && !isEmpty(flagOpt.get().getVariants())) {
+                trace.setTier(EvaluationTrace.Tier.EVALUATED);
+                EvaluationResult result = evaluateFlagDetail(flagOpt.get(), userId, context, new EvaluationScope(trace));
+                trace.time(EvaluationTrace.Step.EVALUATION, start);
+                return result;
+            }
+        }
+        if (!context.isEmpty() || scheduled(flagKey)) {
+            trace.setTier(EvaluationTrace.Tier.EVALUATED);
+            EvaluationResult result = evaluateUncached(trace, flagKey, userId, context);
+            return result != null ? result : EvaluationResult.OFF;
+        }
+        // Time spent in the cache itself, without the evaluation it may have run on a miss
+        long nested = trace.nanos(EvaluationTrace.Step.FLAG_LOOKUP) + trace.nanos(EvaluationTrace.Step.EVALUATION);
+        EvaluationResult[] loaded = new EvaluationResult[1];
+        Boolean result = cached(flagKey, userId, () -> {
+            loaded[0] = evaluateUncached(trace, flagKey, userId, context);
+            return loaded[0] != null ? loaded[0].isEnabled() : null;
+        });
+        nested = trace.nanos(EvaluationTrace.Step.FLAG_LOOKUP) + trace.nanos(EvaluationTrace.Step.EVALUATION) - nested;
+        trace.add(EvaluationTrace.Step.CACHE_TIER, System.nanoTime() - start - nested);
+        if (loaded[0] != null || trace.getReason() == EvaluationReason.FLAG_NOT_FOUND) {
+            trace.setTier(EvaluationTrace.Tier.EVALUATED);
+            return EvaluationResult.of(loaded[0] != null && loaded[0].isEnabled());
         }
+        if (result == null && scheduled(flagKey)) {
+            // Another caller's load found the flag on a schedule
+            trace.setTier(EvaluationTrace.Tier.EVALUATED);
+            EvaluationResult uncached = evaluateUncached(trace, flagKey, userId, context);
+            return uncached != null ? uncached : EvaluationResult.OFF;
+        }
+        trace.setTier(EvaluationTrace.Tier.CACHE);
+        return EvaluationResult.of(Boolean.TRUE.equals(result));
+    }
 
-        // Cache miss - fetch from database
-        Optional<FeatureFlag> flagOpt = featureFlagRepository.findByKey(flagKey);
+    /**
+     * Kill switches override everything. They are checked ahead of the result cache, from the node's compiled kill
+     * state, so cached results never depend on them and switching a whole tag off or on needs no cache invalidation.
+     */
+    private boolean killed(String flagKey) {
+        if (killSwitchService.isKillSwitchActive(flagKey)) {
+            log.debug("Kill switch active for flag: {}", flagKey);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Evaluates the flag without checking kill switches.
+     *
+     * @param scope per-request memo of flag results and layer hashes for this user, or {@code null} to start a new one
+     * @return the result, or {@code null} when the flag does not exist (and so must not be cached)
+     */
+    private Boolean evaluateUncached(String flagKey, String userId, Map<String, String> context,
+                                     EvaluationScope scope) {
+        // Fetch the flag definition from the store
+        Optional<FeatureFlag> flagOpt = flagStore.findByKey(flagKey);
         
         if (flagOpt.isEmpty()) {
             log.warn("Feature flag not found: {}", flagKey);
-            return false;
+            return null;
         }
 
         FeatureFlag flag = flagOpt.get();
-        
-        // Check kill switch first - overrides everything
-        if (killSwitchService.isKillSwitchActive(flagKey)) {
-            log.warn("Kill switch active for flag: {}", flagKey);
-            redisTemplate.opsForValue().set(cacheKey, false, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
-            return false;
+        EvaluationResult result = evaluateFlagDetail(flag, userId, context, scope);
+        if (scope != null) {
+            scope.put(flagKey, result);
         }
-        
-        boolean result = evaluateFlag(flag, userId);
+        return result.isEnabled();
+    }
 
-        // Cache the result in Redis
-        redisTemplate.opsForValue().set(cacheKey, result, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
-        
+    /**
+     * {@link #evaluateUncached(String, String, Map, EvaluationScope)} with its steps timed.
+     */
+    private EvaluationResult evaluateUncached(EvaluationTrace trace, String flagKey, String userId,
+                                              Map<String, String> context) {
+        long start = System.nanoTime();
+        Optional<FeatureFlag> flagOpt = flagStore.findByKey(flagKey);
+        start = trace.time(EvaluationTrace.Step.FLAG_LOOKUP, start);
+        if (flagOpt.isEmpty()) {
+            log.warn("Feature flag not found: {}", flagKey);
+            trace.setReason(EvaluationReason.FLAG_NOT_FOUND);
+            return null;
+        }
+        EvaluationResult result = evaluateFlagDetail(flagOpt.get(), userId, context, new EvaluationScope(trace));
+        trace.time(EvaluationTrace.Step.EVALUATION, start);
         return result;
     }
 
@@ -71,61 +321,455 @@ public class FeatureEvaluationService {
      * Deterministic user bucketing algorithm for percentage-based rollouts.
      * Uses consistent hashing to ensure the same user always gets the same bucket.
      */
-    private boolean evaluateFlag(FeatureFlag flag, String userId) {
+    boolean evaluateFlag(FeatureFlag flag, String userId) {
+        return evaluateFlag(flag, userId, Collections.emptyMap());
+    }
+
+    boolean evaluateFlag(FeatureFlag flag, String userId, Map<String, String> context) {
+        return evaluateFlagDetail(flag, userId, context, null).isEnabled();
+    }
+
+    EvaluationResult evaluateFlagDetail(FeatureFlag flag, String userId, Map<String, String> context) {
+        return evaluateFlagDetail(flag, userId, context, null);
+    }
+
+    /**
+     * @param scope results of flags already evaluated for this user in this request, and the user's layer hashes;
+     *              created on demand for flags with prerequisites
+     */
+    EvaluationResult evaluateFlagDetail(FeatureFlag flag, String userId, Map<String, String> context,
+                                        EvaluationScope scope) {
         // If flag is disabled, return false
         if (!flag.getEnabled()) {
-            return false;
+            return because(scope, EvaluationReason.DISABLED, EvaluationResult.OFF);
         }
 
+        CompiledFlag compiled = compile(flag);
+
+        // Prerequisites gate everything else, including explicit targets
+        if (compiled.prerequisites.length > 0) {
+            if (scope == null) {
+                scope = new EvaluationScope();
+            }
+            // Prerequisites are not part of this flag's trace
+            EvaluationTrace trace = scope.trace;
+            scope.trace = null;
+            boolean met = prerequisitesMet(flag, compiled, userId, context, scope);
+            scope.trace = trace;
+            if (!met) {
+                return because(scope, EvaluationReason.PREREQUISITE_FAILED, EvaluationResult.OFF);
+            }
+        }
+        // Hashed at most once per evaluation, and only for flags that reference segments
+        long userHash = compiled.hasSegments() ? UserHash.of(userId) : 0L;
+
         // Check explicit exclusions first
         if (flag.getExcludedUserIds() != null && flag.getExcludedUserIds().contains(userId)) {
-            return false;
+            return because(scope, EvaluationReason.EXCLUDED_USER, EvaluationResult.OFF);
+        }
+        for (SegmentRef segment : compiled.excludedSegments) {
+            if (segment.contains(userHash)) {
+                return because(scope, EvaluationReason.EXCLUDED_SEGMENT, EvaluationResult.OFF);
+            }
         }
 
         // Check explicit inclusions
         if (flag.getTargetUserIds() != null && flag.getTargetUserIds().contains(userId)) {
-            return true;
+            return because(scope, EvaluationReason.TARGETED_USER, serve(compiled, flag.getKey(), userId, null));
+        }
+        for (SegmentRef segment : compiled.targetSegments) {
+            if (segment.contains(userHash)) {
+                return because(scope, EvaluationReason.TARGETED_SEGMENT, serve(compiled, flag.getKey(), userId, null));
+            }
+        }
+
+        // Attribute rules, first match wins
+        Boolean ruleResult = compiled.rules.evaluate(userId, context);
+        if (ruleResult != null) {
+            return because(scope, EvaluationReason.RULE_MATCH,
+                    ruleResult ? serve(compiled, flag.getKey(), userId, null) : EvaluationResult.OFF);
         }
 
         // Percentage-based rollout using deterministic bucketing
-        if (flag.getRolloutPercentage() != null && flag.getRolloutPercentage() > 0) {
-            int bucket = getDeterministicBucket(flag.getKey(), userId);
-            return bucket < flag.getRolloutPercentage();
+        int rolloutPercentage = rolloutPercentage(flag, compiled);
+        if (scope != null && scope.trace != null) {
+            scope.trace.setRolloutPercentage(rolloutPercentage);
+        }
+        if (rolloutPercentage > 0 && flag.getLayerKey() != null) {
+            return because(scope, EvaluationReason.LAYER_ROLLOUT,
+                    layerRollout(flag, compiled, userId, rolloutPercentage, scope));
+        }
+        if (rolloutPercentage > 0) {
+            byte[] hash = hash(flag.getKey(), userId);
+            int bucket = rolloutBucket(hash, flag.getKey(), userId);
+            if (scope != null && scope.trace != null) {
+                scope.trace.setBucket(bucket);
+            }
+            return because(scope, EvaluationReason.ROLLOUT,
+                    bucket < rolloutPercentage ? serve(compiled, flag.getKey(), userId, hash) : EvaluationResult.OFF);
         }
 
         // If no rollout percentage, default to false unless explicitly enabled
-        return false;
+        return because(scope, EvaluationReason.NO_ROLLOUT, EvaluationResult.OFF);
+    }
+
+    /**
+     * Records why the flag evaluated to {@code result}, if the evaluation is traced.
+     */
+    private static EvaluationResult because(EvaluationScope scope, EvaluationReason reason, EvaluationResult result) {
+        if (scope != null && scope.trace != null) {
+            scope.trace.setReason(reason);
+        }
+        return result;
+    }
+
+    /**
+     * The flag's rollout percentage, or the percentage its schedule has reached by now.
+     */
+    private int rolloutPercentage(FeatureFlag flag, CompiledFlag compiled) {
+        int base = flag.getRolloutPercentage() != null ? flag.getRolloutPercentage() : 0;
+        return compiled.schedule != null ? compiled.schedule.percentageAt(clock.millis(), base) : base;
+    }
+
+    /**
+     * Rollout of a flag in an experiment layer. The user's slot in the layer must fall in the first
+     * {@code rolloutPercentage} of the flag's slot range, so widening the rollout only adds users and never takes slots
+     * from other flags of the layer. The layer hash also selects the variant, and is computed once per user per layer
+     * in a scope however many of the layer's flags are evaluated.
+     */
+    private EvaluationResult layerRollout(FeatureFlag flag, CompiledFlag compiled, String userId, int rolloutPercentage,
+                                          EvaluationScope scope) {
+        if (flag.getLayerStart() == null || flag.getLayerEnd() == null) {
+            return EvaluationResult.OFF;
+        }
+        byte[] hash = scope != null ? scope.layerHash(flag.getLayerKey(), userId) : layerHash(flag.getLayerKey(), userId);
+        int slot = layerSlot(hash, flag.getLayerKey(), userId);
+        int end = flag.getLayerStart() + (flag.getLayerEnd() - flag.getLayerStart()) * rolloutPercentage / 100;
+        return slot >= flag.getLayerStart() && slot < end ? serve(compiled, flag.getKey(), userId, hash) : EvaluationResult.OFF;
+    }
+
+    /**
+     * Result for a user the flag is on for. Multivariate flags pick the variant from the same hash as the rollout,
+     * computing it here only if the rollout did not already.
+     */
+    private EvaluationResult serve(CompiledFlag compiled, String flagKey, String userId, byte[] hash) {
+        if (compiled.variants == null) {
+            return EvaluationResult.ON;
+        }
+        byte[] digest = hash != null ? hash : hash(flagKey, userId);
+        return compiled.variantResults[compiled.variants.variantIndex(variantBucket(digest, flagKey, userId))];
+    }
+
+    private boolean prerequisitesMet(FeatureFlag flag, CompiledFlag compiled, String userId, Map<String, String> context,
+                                     EvaluationScope scope) {
+        if (!evaluatePrerequisites(flag, userId, context, scope)) {
+            return false;
+        }
+        for (Prerequisite prerequisite : compiled.prerequisites) {
+            EvaluationResult result = scope.get(prerequisite.getFlagKey());
+            if (result == null || !result.isEnabled()
+                    || (prerequisite.getVariant() != null && !prerequisite.getVariant().equals(result.getVariant()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Evaluates the flag's transitive prerequisites in their precompiled dependency order, skipping any already in
+     * the scope, so each one runs at most once per user per request however many flags depend on it.
+     *
+     * @return {@code false} if the prerequisite graph is unusable (a cycle), in which case the flag is off
+     */
+    private boolean evaluatePrerequisites(FeatureFlag flag, String userId, Map<String, String> context,
+                                          EvaluationScope scope) {
+        PrerequisiteOrder order = prerequisiteOrder(flag, false);
+        boolean rebuilt = false;
+        int i = 0;
+        while (!order.cyclic && i < order.keys.length) {
+            String key = order.keys[i];
+            if (scope.contains(key)) {
+                i++;
+                continue;
+            }
+            FeatureFlag prerequisite = flagStore.findByKey(key).orElse(null);
+            if (!rebuilt && (prerequisite == null || !Objects.equals(prerequisite.getVersion(), order.versions[i]))) {
+                // A prerequisite changed since the order was compiled; its own prerequisites may have too
+                order = prerequisiteOrder(flag, true);
+                rebuilt = true;
+                i = 0;
+                continue;
+            }
+            EvaluationResult result;
+            if (prerequisite == null || Boolean.TRUE.equals(prerequisite.getArchived()) || killSwitchService.isKillSwitchActive(key)) {
+                result = EvaluationResult.OFF;
+            } else {
+                result = evaluateFlagDetail(prerequisite, userId, context, scope);
+            }
+            scope.put(key, result);
+            i++;
+        }
+        return !order.cyclic;
+    }
+
+    private PrerequisiteOrder prerequisiteOrder(FeatureFlag flag, boolean forceRebuild) {
+        PrerequisiteOrder cached = prerequisiteOrders.get(flag.getKey());
+        if (!forceRebuild && cached != null && cached.isFor(flag)) {
+            return cached;
+        }
+        PrerequisiteOrder order;
+        try {
+            order = new PrerequisiteOrder(flag, PrerequisiteGraph.evaluationOrder(
+                    flag.getKey(), flag.getPrerequisites(), flagStore::findByKey, false));
+        } catch (IllegalArgumentException e) {
+            // Cycles are rejected on save; one can still appear from concurrent edits on different nodes
+            log.error("Invalid prerequisites for flag: {}", flag.getKey(), e);
+            order = new PrerequisiteOrder(flag, null);
+        }
+        if (flag.getVersion() != null) {
+            prerequisiteOrders.put(flag.getKey(), order);
+        }
+        return order;
+    }
+
+    /**
+     * Returns the flag's compiled form, recompiling only when the flag version changes. Unsaved flags have no
+     * version and are compiled on every call rather than held. Segment changes never require a recompile: the
+     * compiled form holds shared {@link SegmentRef}s that {@link SegmentService} updates in place.
+     */
+    CompiledFlag compile(FeatureFlag flag) {
+        if (isEmpty(flag.getRules()) && isEmpty(flag.getTargetSegmentKeys()) && isEmpty(flag.getExcludedSegmentKeys())
+                && isEmpty(flag.getVariants()) && isEmpty(flag.getPrerequisites()) && isEmpty(flag.getRolloutSchedule())) {
+            return CompiledFlag.EMPTY;
+        }
+        CompiledFlag cached = compiledFlags.get(flag.getKey());
+        if (cached != null && cached.isFor(flag)) {
+            return cached;
+        }
+        CompiledRules rules;
+        try {
+            rules = RuleCompiler.compile(flag.getRules());
+        } catch (IllegalArgumentException e) {
+            // Rules are validated on save; a stored flag that no longer compiles falls through to its rollout
+            log.error("Invalid targeting rules for flag: {}", flag.getKey(), e);
+            rules = CompiledRules.EMPTY;
+        }
+        VariantAllocation variants = null;
+        if (!isEmpty(flag.getVariants())) {
+            try {
+                variants = VariantAllocation.compile(flag.getVariants());
+            } catch (IllegalArgumentException e) {
+                // Also validated on save; serve the flag as a plain boolean rather than fail evaluations
+                log.error("Invalid variants for flag: {}", flag.getKey(), e);
+            }
+        }
+        RolloutSchedule schedule = null;
+        if (!isEmpty(flag.getRolloutSchedule())) {
+            try {
+                schedule = RolloutSchedule.compile(flag.getRolloutSchedule());
+            } catch (IllegalArgumentException e) {
+                // Also validated on save; keep serving the flag's own rollout percentage
+                log.error("Invalid rollout schedule for flag: {}", flag.getKey(), e);
+            }
+        }
+        CompiledFlag compiled = new CompiledFlag(flag, rules,
+                segmentRefs(flag.getTargetSegmentKeys()), segmentRefs(flag.getExcludedSegmentKeys()), variants, schedule);
+        if (flag.getVersion() != null) {
+            compiledFlags.put(flag.getKey(), compiled);
+        }
+        return compiled;
+    }
+
+    private SegmentRef[] segmentRefs(List<String> segmentKeys) {
+        if (isEmpty(segmentKeys)) {
+            return CompiledFlag.NO_SEGMENTS;
+        }
+        return segmentKeys.stream().distinct().map(segmentService::ref).toArray(SegmentRef[]::new);
+    }
+
+    private static boolean isEmpty(List<?> list) {
+        return list == null || list.isEmpty();
     }
 
     /**
      * Deterministic bucketing: same flag + same user = same bucket (0-99)
      * Uses SHA-256 hash for consistent distribution
      */
-    private int getDeterministicBucket(String flagKey, String userId) {
+    int getDeterministicBucket(String flagKey, String userId) {
+        return rolloutBucket(hash(flagKey, userId), flagKey, userId);
+    }
+
+    /**
+     * SHA-256 of {@code flagKey:userId}, the one hash per evaluation behind both the rollout and the variant bucket.
+     */
+    private static byte[] hash(String flagKey, String userId) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             String input = flagKey + ":" + userId;
-            byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-            
-            // Use first 4 bytes to get a number between 0-99
-            int hashValue = Math.abs(java.nio.ByteBuffer.wrap(hash, 0, 4).getInt());
-            return hashValue % 100;
+            return digest.digest(input.getBytes(StandardCharsets.UTF_8));
         } catch (NoSuchAlgorithmException e) {
             log.error("SHA-256 algorithm not available", e);
+            return null;
+        }
+    }
+
+    /**
+     * SHA-256 of {@code layer:layerKey:userId}, shared by all flags of the layer. The prefix keeps it distinct from
+     * the hash of a flag whose key equals the layer key.
+     */
+    private static byte[] layerHash(String layerKey, String userId) {
+        return hash("layer:" + layerKey, userId);
+    }
+
+    private static int layerSlot(byte[] hash, String layerKey, String userId) {
+        if (hash == null) {
+            return Math.floorMod((layerKey + userId).hashCode(), ExperimentLayers.SLOTS);
+        }
+        return (int) (Integer.toUnsignedLong(java.nio.ByteBuffer.wrap(hash, 0, 4).getInt()) % ExperimentLayers.SLOTS);
+    }
+
+    private static int rolloutBucket(byte[] hash, String flagKey, String userId) {
+        if (hash == null) {
             // Fallback to simple hash
             return Math.abs((flagKey + userId).hashCode()) % 100;
         }
+        // Use first 4 bytes to get a number between 0-99
+        int hashValue = Math.abs(java.nio.ByteBuffer.wrap(hash, 0, 4).getInt());
+        return hashValue % 100;
     }
 
+    /**
+     * Bucket in {@code [0, VariantAllocation.BUCKETS)} from the next 4 bytes of the hash, so variant assignment is
+     * independent of the rollout bucket.
+     */
+    private static int variantBucket(byte[] hash, String flagKey, String userId) {
+        if (hash == null) {
+            return Math.floorMod((userId + ":" + flagKey).hashCode(), VariantAllocation.BUCKETS);
+        }
+        return (int) (Integer.toUnsignedLong(java.nio.ByteBuffer.wrap(hash, 4, 4).getInt()) % VariantAllocation.BUCKETS);
+    }
+
+    /**
+     * Called whenever a flag is created, changed, archived or deleted, here or on a peer. Drops the flag's compiled
+     * form and prerequisite order, which are rebuilt on its next evaluation, so flags that are gone hold nothing.
+     */
     @CacheEvict(value = "evaluations", key = "#flagKey + ':*'")
     public void evictCache(String flagKey) {
-        String pattern = EVALUATION_CACHE_PREFIX + flagKey + ":*";
-    
+        compiledFlags.remove(flagKey);
+        prerequisiteOrders.remove(flagKey);
         log.info("Evicting cache for flag: {}", flagKey);
     }
 
     public boolean evaluateBulk(String flagKey, String userId) {
         return evaluate(flagKey, userId);
     }
-}
 
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    static final class CompiledFlag {
+        static final SegmentRef[] NO_SEGMENTS = new SegmentRef[0];
+        static final CompiledFlag EMPTY = new CompiledFlag(null, CompiledRules.EMPTY, NO_SEGMENTS, NO_SEGMENTS, null, null);
+
+        private final FeatureFlag source;
+        private final CompiledRules rules;
+        private final SegmentRef[] targetSegments;
+        private final SegmentRef[] excludedSegments;
+        private final VariantAllocation variants;
+        private final EvaluationResult[] variantResults;
+        private final Prerequisite[] prerequisites;
+        private final RolloutSchedule schedule;
+
+        private CompiledFlag(FeatureFlag source, CompiledRules rules, SegmentRef[] targetSegments, SegmentRef[] excludedSegments,
+                             VariantAllocation variants, RolloutSchedule schedule) {
+            this.source = source;
+            this.rules = rules;
+            this.targetSegments = targetSegments;
+            this.excludedSegments = excludedSegments;
+            this.variants = variants;
+            // One immutable result per variant, so serving a variant allocates nothing
+            this.variantResults = variants != null
+                    ? source.getVariants().stream().map(EvaluationResult::serving).toArray(EvaluationResult[]::new)
+                    : null;
+            this.prerequisites = source != null && source.getPrerequisites() != null
+                    ? source.getPrerequisites().toArray(new Prerequisite[0])
+                    : new Prerequisite[0];
+            this.schedule = schedule;
+        }
+
+        private boolean hasSegments() {
+            return targetSegments.length > 0 || excludedSegments.length > 0;
+        }
+
+        /**
+         * Saved flags are matched by version; unsaved ones (tests, benchmarks) by identity.
+         */
+        private boolean isFor(FeatureFlag flag) {
+            if (source.getVersion() != null) {
+                return source.getVersion().equals(flag.getVersion());
+            }
+            return source == flag;
+        }
+    }
+
+    /**
+     * Per-user memo for one request: results of the flags already evaluated, and the user's hash in each
+     * experiment layer touched so far. Sampled evaluations also carry their trace here.
+     */
+    static final class EvaluationScope {
+        private final Map<String, EvaluationResult> results = new HashMap<>();
+        private Map<String, byte[]> layerHashes;
+        private EvaluationTrace trace;
+
+        EvaluationScope() {
+        }
+
+        EvaluationScope(EvaluationTrace trace) {
+            this.trace = trace;
+        }
+
+        EvaluationResult get(String flagKey) {
+            return results.get(flagKey);
+        }
+
+        boolean contains(String flagKey) {
+            return results.containsKey(flagKey);
+        }
+
+        void put(String flagKey, EvaluationResult result) {
+            results.put(flagKey, result);
+        }
+
+        private byte[] layerHash(String layerKey, String userId) {
+            if (layerHashes == null) {
+                layerHashes = new HashMap<>();
+            }
+            return layerHashes.computeIfAbsent(layerKey, key -> FeatureEvaluationService.layerHash(key, userId));
+        }
+    }
+
+    static final class PrerequisiteOrder {
+        private final FeatureFlag source;
+        private final boolean cyclic;
+        private final String[] keys;
+        private final Long[] versions;
+
+        /**
+         * @param order transitive prerequisites, dependencies first; {@code null} if the graph has a cycle
+         */
+        private PrerequisiteOrder(FeatureFlag source, List<FeatureFlag> order) {
+            this.source = source;
+            this.cyclic = order == null;
+            this.keys = order != null ? order.stream().map(FeatureFlag::getKey).toArray(String[]::new) : new String[0];
+            this.versions = order != null ? order.stream().map(FeatureFlag::getVersion).toArray(Long[]::new) : new Long[0];
+        }
+
+        private boolean isFor(FeatureFlag flag) {
+            if (source.getVersion() != null) {
+                return source.getVersion().equals(flag.getVersion());
+            }
+            return source == flag;
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package com.featureflux.service;
 
 import com.featureflux.entity.FeatureFlag;
-import com.featureflux.repository.FeatureFlagRepository;
+import com.featureflux.rules.ExperimentLayers;
+import com.featureflux.rules.PrerequisiteGraph;
+import com.featureflux.rules.RolloutSchedule;
+import com.featureflux.rules.RuleCompiler;
+import com.featureflux.rules.VariantAllocation;
+import com.featureflux.store.FlagStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,14 +23,15 @@ import java.util.Optional;
 @Slf4j
 public class FeatureFlagService {
 
-    private final FeatureFlagRepository repository;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final FlagStore repository;
     private final AuditService auditService;
-    
-    private static final String EVALUATION_CACHE_PREFIX = "eval:";
+    private final SegmentService segmentService;
+    private final KillSwitchService killSwitchService;
+    private final FeatureEvaluationService evaluationService;
 
+    @Transactional(readOnly = true)
     public List<FeatureFlag> getAllFlags() {
-        return repository.findByArchivedFalse();
+        return repository.findAll();
     }
 
     public Optional<FeatureFlag> getFlagById(Long id) {
@@ -42,8 +48,10 @@ public class FeatureFlagService {
         if (repository.findByKey(flag.getKey()).isPresent()) {
             throw new IllegalArgumentException("Feature flag with key '" + flag.getKey() + "' already exists");
         }
+        validateTargeting(flag);
         FeatureFlag saved = repository.save(flag);
         evictEvaluationCache(flag.getKey());
+        killSwitchService.flagsChanged();
         if (request != null) {
             auditService.logFeatureFlagChange("CREATE", saved, null, request);
         }
@@ -59,9 +67,12 @@ public class FeatureFlagService {
         if (!existing.getKey().equals(flag.getKey())) {
             throw new IllegalArgumentException("Cannot change feature flag key");
         }
+        validateTargeting(flag);
         
         FeatureFlag updated = repository.save(flag);
         evictEvaluationCache(flag.getKey());
+        // The flag's tags may have changed
+        killSwitchService.flagsChanged();
         if (request != null) {
             auditService.logFeatureFlagChange("UPDATE", updated, existing, request);
         }
@@ -71,7 +82,7 @@ public class FeatureFlagService {
     @Transactional
     @CacheEvict(value = "featureFlags", key = "#key")
     public void deleteFlag(String key, jakarta.servlet.http.HttpServletRequest request) {
-        FeatureFlag flag = repository.findByKey(key)
+        FeatureFlag flag = repository.findByKeyForUpdate(key)
                 .orElseThrow(() -> new IllegalArgumentException("Feature flag not found"));
         FeatureFlag oldFlag = FeatureFlag.builder()
                 .id(flag.getId())
@@ -91,7 +102,7 @@ public class FeatureFlagService {
     @Transactional
     @CacheEvict(value = "featureFlags", key = "#key")
     public FeatureFlag toggleFlag(String key, boolean enabled, jakarta.servlet.http.HttpServletRequest request) {
-        FeatureFlag flag = repository.findByKey(key)
+        FeatureFlag flag = repository.findByKeyForUpdate(key)
                 .orElseThrow(() -> new IllegalArgumentException("Feature flag not found"));
         FeatureFlag oldFlag = FeatureFlag.builder()
                 .id(flag.getId())
@@ -109,8 +120,40 @@ public class FeatureFlagService {
         return updated;
     }
     
+    /**
+     * Rejects rules, variant weights and rollout schedules that do not compile, prerequisite cycles, overlapping
+     * layer slots and references to unknown flags or segments before anything is saved.
+     */
+    public void validateTargeting(FeatureFlag flag) {
+        RuleCompiler.compile(flag.getRules());
+        if (flag.getRolloutSchedule() != null && !flag.getRolloutSchedule().isEmpty()) {
+            RolloutSchedule.compile(flag.getRolloutSchedule());
+        }
+        if (flag.getPrerequisites() != null && !flag.getPrerequisites().isEmpty()) {
+            PrerequisiteGraph.validate(flag.getKey(), flag.getPrerequisites());
+            // Walks the saved graph with this flag's new prerequisites, so any path back to the flag is a cycle
+            PrerequisiteGraph.evaluationOrder(flag.getKey(), flag.getPrerequisites(), repository::findByKey, true);
+        }
+        if (flag.getVariants() != null && !flag.getVariants().isEmpty()) {
+            VariantAllocation.compile(flag.getVariants());
+        }
+        ExperimentLayers.validate(flag, flag.getLayerKey() != null ? repository.findAll() : List.of());
+        List<String> segmentKeys = new ArrayList<>();
+        if (flag.getTargetSegmentKeys() != null) {
+            segmentKeys.addAll(flag.getTargetSegmentKeys());
+        }
+        if (flag.getExcludedSegmentKeys() != null) {
+            segmentKeys.addAll(flag.getExcludedSegmentKeys());
+        }
+        for (String segmentKey : segmentKeys) {
+            if (!segmentService.exists(segmentKey)) {
+                throw new IllegalArgumentException("Segment not found: " + segmentKey);
+            }
+        }
+    }
+
     private void evictEvaluationCache(String flagKey) {
-        log.info("Evicting evaluation cache for flag: {}", flagKey);
+        evaluationService.evictCache(flagKey);
     }
 }
 
@@ -0,0 +1,176 @@
+package com.featureflux.service;
+
+import com.featureflux.analytics.FlagSketch;
+import com.featureflux.analytics.HeavyHitters;
+import com.featureflux.dto.FlagStats;
+import com.featureflux.store.SketchStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.LongStream;
+
+/**
+ * Approximate per-flag evaluation analytics: the on/off split, distinct users and the most frequent users, in
+ * {@code featureflux.analytics.bucket-minutes} buckets over the last {@code featureflux.analytics.buckets} of them.
+ * <p>
+ * Each node records its evaluations into a fixed-size {@link FlagSketch} per flag and bucket, so memory is bounded
+ * by {@code max-flags} times the window, whatever the number of users, and recording never locks. Every
+ * {@code publish-interval-ms} the node publishes the sketches that changed to the {@link SketchStore}; stats merge
+ * this node's live sketches with the other nodes' published ones, which lag by at most that interval.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FlagAnalyticsService {
+
+    private final SketchStore sketchStore;
+
+    @Value("${featureflux.analytics.bucket-minutes:5}")
+    private int bucketMinutes = 5;
+
+    @Value("${featureflux.analytics.buckets:12}")
+    private int buckets = 12;
+
+    /** Flags beyond this many are not recorded, since the public evaluation API accepts any flag key. */
+    @Value("${featureflux.analytics.max-flags:1000}")
+    private int maxFlags = 1000;
+
+    /** Each flag's sketches in a ring indexed by bucket, replaced as buckets roll over. */
+    private final Map<String, AtomicReferenceArray<FlagSketch>> sketches = new ConcurrentHashMap<>();
+    /** Evaluations in each sketch when it was last published; only touched by {@link #publish}. */
+    private Map<FlagSketch, Long> published = new IdentityHashMap<>();
+
+    /** Time source for buckets; replaced in tests. */
+    private Clock clock = Clock.systemUTC();
+
+    public void record(String flagKey, String userId, boolean enabled) {
+        if (userId == null) {
+            return;
+        }
+        AtomicReferenceArray<FlagSketch> ring = sketches.get(flagKey);
+        if (ring == null) {
+            if (sketches.size() >= maxFlags) {
+                return;
+            }
+            ring = sketches.computeIfAbsent(flagKey, key -> new AtomicReferenceArray<>(buckets));
+        }
+        long bucket = currentBucket();
+        int slot = (int) (bucket % buckets);
+        FlagSketch sketch = ring.get(slot);
+        if (sketch == null || sketch.getBucket() != bucket) {
+            FlagSketch started = new FlagSketch(bucket);
+            sketch = ring.compareAndSet(slot, sketch, started) ? started : ring.get(slot);
+        }
+        sketch.record(userId, enabled);
+    }
+
+    public FlagStats stats(String flagKey) {
+        long current = currentBucket();
+        List<Long> window = LongStream.rangeClosed(current - buckets + 1, current).boxed().toList();
+        Map<Long, FlagSketch> merged = new TreeMap<>();
+        AtomicReferenceArray<FlagSketch> ring = sketches.get(flagKey);
+        if (ring != null) {
+            for (int slot = 0; slot < ring.length(); slot++) {
+                FlagSketch local = ring.get(slot);
+                if (local != null && inWindow(local.getBucket(), current)) {
+                    merged.computeIfAbsent(local.getBucket(), FlagSketch::new).merge(local);
+                }
+            }
+        }
+
+        boolean clusterWide = sketchStore.isShared();
+        try {
+            sketchStore.read(flagKey, window).forEach((bucket, remotes) -> {
+                for (byte[] remote : remotes) {
+                    merged.computeIfAbsent(bucket, FlagSketch::new).merge(FlagSketch.fromBytes(remote));
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not read other nodes' analytics for flag {}, returning this node's only", flagKey, e);
+            clusterWide = false;
+        }
+
+        FlagSketch total = new FlagSketch(current);
+        List<FlagStats.Bucket> bucketStats = new ArrayList<>();
+        for (long bucket : window) {
+            FlagSketch sketch = merged.getOrDefault(bucket, new FlagSketch(bucket));
+            total.merge(sketch);
+            bucketStats.add(new FlagStats.Bucket(Instant.ofEpochMilli(bucket * bucketMillis()), sketch.getEvaluations(),
+                    sketch.getEnabled(), sketch.getDisabled(), sketch.getUniqueUsers()));
+        }
+        List<FlagStats.TopUser> topUsers = new ArrayList<>();
+        for (HeavyHitters.Candidate candidate : total.getTopUsers()) {
+            topUsers.add(new FlagStats.TopUser(candidate.userId(), candidate.count()));
+        }
+        return new FlagStats(flagKey, bucketMinutes, clusterWide, total.getEvaluations(), total.getEnabled(),
+                total.getDisabled(), total.getUniqueUsers(), topUsers, bucketStats);
+    }
+
+    /**
+     * Publishes the sketches recorded into since the last run, and forgets flags not evaluated for a whole window.
+     * Sketches are kept in the store one bucket longer than the window, so none expires while still in it.
+     */
+    @Scheduled(fixedDelayString = "${featureflux.analytics.publish-interval-ms:10000}")
+    public synchronized void publish() {
+        long current = currentBucket();
+        Duration ttl = Duration.ofMillis(bucketMillis() * (buckets + 1L));
+        Map<FlagSketch, Long> nowPublished = new IdentityHashMap<>();
+        try {
+            for (Map.Entry<String, AtomicReferenceArray<FlagSketch>> flag : sketches.entrySet()) {
+                boolean recent = false;
+                AtomicReferenceArray<FlagSketch> ring = flag.getValue();
+                for (int slot = 0; slot < ring.length(); slot++) {
+                    FlagSketch sketch = ring.get(slot);
+                    if (sketch == null || !inWindow(sketch.getBucket(), current)) {
+                        continue;
+                    }
+                    recent = true;
+                    long evaluations = sketch.getEvaluations();
+                    Long previously = published.get(sketch);
+                    if (sketchStore.isShared() && (previously == null || previously != evaluations)) {
+                        sketchStore.publish(flag.getKey(), sketch.getBucket(), sketch.toBytes(), ttl);
+                        previously = evaluations;
+                    }
+                    if (previously != null) {
+                        nowPublished.put(sketch, previously);
+                    }
+                }
+                if (!recent) {
+                    sketches.remove(flag.getKey(), ring);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish analytics sketches, retrying on the next run", e);
+        }
+        published = nowPublished;
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private long currentBucket() {
+        return clock.millis() / bucketMillis();
+    }
+
+    private long bucketMillis() {
+        return Duration.ofMinutes(bucketMinutes).toMillis();
+    }
+
+    private boolean inWindow(long bucket, long current) {
+        return bucket > current - buckets && bucket <= current;
+    }
+}
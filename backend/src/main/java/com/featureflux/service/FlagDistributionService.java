@@ -0,0 +1,129 @@
+package com.featureflux.service;
+
+import com.featureflux.dto.EvaluationSnapshot;
+import com.featureflux.dto.SnapshotCodec;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Segment;
+import com.featureflux.rules.KillSwitchState;
+import com.featureflux.store.FlagStore;
+import com.featureflux.store.KillSwitchStore;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds the {@link EvaluationSnapshot} SDKs download to evaluate flags locally.
+ * <p>
+ * Each request reads the active flags and kill switches, but the snapshot is only rebuilt, encoded and compressed
+ * when a flag version, a kill switch or a segment version has changed since the last request for the same format;
+ * otherwise the previous bytes and ETag are served as they are.
+ */
+@Service
+@RequiredArgsConstructor
+public class FlagDistributionService {
+
+    public enum Format {
+        BINARY(SnapshotCodec::encode),
+        JSON(SnapshotCodec::encodeJson);
+
+        private final Function<EvaluationSnapshot, byte[]> encoder;
+
+        Format(Function<EvaluationSnapshot, byte[]> encoder) {
+            this.encoder = encoder;
+        }
+    }
+
+    /** One encoding of a snapshot, plain and gzipped. */
+    @Getter
+    public static final class Encoded {
+        private final String fingerprint;
+        private final String etag;
+        private final byte[] plain;
+        private final byte[] gzipped;
+
+        Encoded(String fingerprint, Format format, byte[] plain) {
+            CRC32C checksum = new CRC32C();
+            checksum.update(plain);
+            this.fingerprint = fingerprint;
+            this.etag = "\"" + format.name().toLowerCase() + "-" + Long.toHexString(checksum.getValue()) + "\"";
+            this.plain = plain;
+            this.gzipped = gzip(plain);
+        }
+    }
+
+    private final FlagStore flagStore;
+    private final KillSwitchStore killSwitchStore;
+    private final SegmentService segmentService;
+
+    private final AtomicReference<Encoded> binary = new AtomicReference<>();
+    private final AtomicReference<Encoded> json = new AtomicReference<>();
+
+    @Transactional(readOnly = true)
+    public Encoded snapshot(Format format) {
+        List<FeatureFlag> flags = new ArrayList<>(flagStore.findActive());
+        flags.sort(Comparator.comparing(FeatureFlag::getKey));
+        // Tag and global switches are expanded, so clients only ever check a flag's own key
+        List<String> killSwitches = List.copyOf(KillSwitchState.killedFlags(killSwitchStore.findActive(), flags));
+        Set<String> segmentKeys = new LinkedHashSet<>();
+        flags.forEach(flag -> {
+            addAll(segmentKeys, flag.getTargetSegmentKeys());
+            addAll(segmentKeys, flag.getExcludedSegmentKeys());
+        });
+
+        StringBuilder fingerprint = new StringBuilder();
+        flags.forEach(flag -> fingerprint.append(flag.getKey()).append('@').append(flag.getVersion()).append(','));
+        fingerprint.append('|');
+        killSwitches.forEach(key -> fingerprint.append(key).append(','));
+        fingerprint.append('|');
+        segmentKeys.forEach(key -> fingerprint.append(key).append('@')
+                .append(segmentService.ref(key).getMembership().getVersion()).append(','));
+
+        AtomicReference<Encoded> cache = format == Format.BINARY ? binary : json;
+        Encoded cached = cache.get();
+        if (cached != null && cached.fingerprint.contentEquals(fingerprint)) {
+            return cached;
+        }
+        List<Segment> segments = segmentKeys.stream()
+                .map(segmentService::getSegment)
+                .flatMap(Optional::stream)
+                .map(EvaluationSnapshot::evaluationOnly)
+                .toList();
+        EvaluationSnapshot snapshot = new EvaluationSnapshot(Instant.now(),
+                flags.stream().map(EvaluationSnapshot::evaluationOnly).toList(), killSwitches, segments);
+        Encoded encoded = new Encoded(fingerprint.toString(), format, format.encoder.apply(snapshot));
+        cache.set(encoded);
+        return encoded;
+    }
+
+    private static void addAll(Set<String> keys, List<String> values) {
+        if (values != null) {
+            keys.addAll(values);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
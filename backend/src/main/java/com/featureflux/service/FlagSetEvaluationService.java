@@ -0,0 +1,149 @@
+package com.featureflux.service;
+
+import com.featureflux.dto.BulkEvaluationRequest;
+import com.featureflux.dto.BulkEvaluationResponse;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.store.FlagStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates many flags for one user by their position in the flag set, the non-archived flags sorted by key, and
+ * returns the results as a bitset. Callers learn the keys once and then send only positions, and get back one bit
+ * per flag.
+ * <p>
+ * The flag set's id is derived from its keys, so every node with the same flags gives it the same id, and
+ * toggling a flag never renumbers the others. The set is rebuilt every
+ * {@code featureflux.evaluation.flag-set-refresh-ms}, not per request, so a new flag can take up to that long to
+ * appear in it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FlagSetEvaluationService {
+
+    /** Non-archived flag keys in order, and the id that requests refer to them by. */
+    public record FlagSet(long id, List<String> keys) {
+    }
+
+    private final FlagStore flagStore;
+    private final FeatureEvaluationService evaluationService;
+    private final DashboardPublisher dashboardPublisher;
+    private final LastEvaluatedTracker lastEvaluatedTracker;
+    private final FlagAnalyticsService analyticsService;
+
+    private volatile FlagSet flagSet;
+
+    /**
+     * Evaluates the requested positions, or every flag when there are none or the request refers to another flag
+     * set; the response then lists the current set's keys.
+     *
+     * @throws IllegalArgumentException if a position is outside the flag set
+     */
+    public BulkEvaluationResponse evaluate(BulkEvaluationRequest request) {
+        FlagSet current = current();
+        List<String> keys = current.keys();
+        boolean known = request.getFlagSet() == current.id();
+        int[] positions = known && request.getFlags() != null ? request.getFlags() : new int[0];
+        for (int position : positions) {
+            if (position < 0 || position >= keys.size()) {
+                throw new IllegalArgumentException("Flag position " + position + " is outside the flag set of "
+                        + keys.size() + " flags");
+            }
+        }
+
+        Map<String, Integer> requested = new LinkedHashMap<>();
+        if (positions.length == 0) {
+            for (int position = 0; position < keys.size(); position++) {
+                requested.put(keys.get(position), position);
+            }
+        } else {
+            for (int position : positions) {
+                requested.put(keys.get(position), position);
+            }
+        }
+
+        String userId = request.getUserId();
+        Map<String, String> context = request.getContext();
+        byte[] enabled = new byte[(keys.size() + 7) / 8];
+        Map<String, Boolean> results;
+        if (context == null || context.isEmpty()) {
+            // Shares prerequisites between the flags, and hits the per-user result cache
+            Map<String, String> bulk = new LinkedHashMap<>();
+            requested.keySet().forEach(key -> bulk.put(key, userId));
+            results = evaluationService.evaluateBulk(bulk);
+        } else {
+            results = new LinkedHashMap<>();
+            for (String key : requested.keySet()) {
+                results.put(key, evaluationService.evaluate(key, userId, context));
+            }
+        }
+        requested.forEach((key, position) -> {
+            boolean on = Boolean.TRUE.equals(results.get(key));
+            if (on) {
+                enabled[position >>> 3] |= (byte) (1 << (position & 7));
+            }
+            dashboardPublisher.recordEvaluation(key);
+            lastEvaluatedTracker.record(key);
+            analyticsService.record(key, userId, on);
+        });
+        return new BulkEvaluationResponse(current.id(), keys.size(), enabled, known ? List.of() : keys);
+    }
+
+    public FlagSet current() {
+        FlagSet current = flagSet;
+        return current != null ? current : refreshFirst();
+    }
+
+    /** Rebuilds the flag set; while the store is unreachable the previous one stays in use. */
+    @Scheduled(fixedDelayString = "${featureflux.evaluation.flag-set-refresh-ms:1000}")
+    public void refresh() {
+        try {
+            List<String> keys = flagStore.findAll().stream()
+                    .map(FeatureFlag::getKey)
+                    .sorted()
+                    .toList();
+            FlagSet current = flagSet;
+            if (current == null || !current.keys().equals(keys)) {
+                flagSet = new FlagSet(id(keys), keys);
+            }
+        } catch (RuntimeException e) {
+            if (flagSet == null) {
+                throw e;
+            }
+            log.warn("Failed to refresh the flag set, keeping the previous one", e);
+        }
+    }
+
+    private synchronized FlagSet refreshFirst() {
+        if (flagSet == null) {
+            refresh();
+        }
+        return flagSet;
+    }
+
+    /** First 64 bits of the SHA-256 of the keys, never 0, which requests use for "no flag set". */
+    static long id(List<String> keys) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String key : keys) {
+                digest.update(key.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            long id = ByteBuffer.wrap(digest.digest()).getLong();
+            return id != 0 ? id : 1;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
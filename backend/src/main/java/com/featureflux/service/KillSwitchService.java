@@ -1,48 +1,46 @@
 package com.featureflux.service;
 
 import com.featureflux.entity.KillSwitch;
-import com.featureflux.repository.KillSwitchRepository;
+import com.featureflux.entity.KillSwitchScope;
+import com.featureflux.rules.KillSwitchState;
+import com.featureflux.store.FlagStore;
+import com.featureflux.store.KillSwitchStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Flag, tag and global kill switches. Evaluations never read the switches themselves: each node compiles the active
+ * ones into a {@link KillSwitchState}, recompiled after every kill switch change and, while a tag switch is active,
+ * every flag change, on this node directly and on the others through the change feed.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class KillSwitchService {
 
-    private final KillSwitchRepository killSwitchRepository;
-    private final RedisTemplate<String, Object> redisTemplate;
-    private static final String KILL_SWITCH_CACHE_PREFIX = "killswitch:";
-    private static final long CACHE_TTL_SECONDS = 300; // 5 minutes
+    private final KillSwitchStore killSwitchStore;
+    private final FlagStore flagStore;
+
+    private final KillSwitchState.Ordinals ordinals = new KillSwitchState.Ordinals();
+    private final AtomicLong epochs = new AtomicLong();
+    /** Compiled on first use, since the stores may be unreachable at startup. */
+    private final AtomicReference<KillSwitchState> state = new AtomicReference<>();
 
     @Transactional
     @CacheEvict(value = "killSwitches", key = "#flagKey")
     public KillSwitch activateKillSwitch(String flagKey, String reason, String activatedBy) {
-        Optional<KillSwitch> existing = killSwitchRepository.findByFlagKey(flagKey);
-        
-        KillSwitch killSwitch = existing.orElseGet(() -> KillSwitch.builder()
-                .flagKey(flagKey)
-                .active(false)
-                .build());
-        
-        killSwitch.setActive(true);
-        killSwitch.setReason(reason);
-        killSwitch.setActivatedBy(activatedBy);
-        
-        KillSwitch saved = killSwitchRepository.save(killSwitch);
-        
-        
-        String cacheKey = KILL_SWITCH_CACHE_PREFIX + flagKey;
-        redisTemplate.opsForValue().set(cacheKey, true, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
-        
+        KillSwitch saved = activate(killSwitchStore.findByFlagKey(flagKey), KillSwitch.builder().flagKey(flagKey),
+                reason, activatedBy);
         log.info("Kill switch activated for flag: {} by {}", flagKey, activatedBy);
         return saved;
     }
@@ -50,49 +48,149 @@ public class KillSwitchService {
     @Transactional
     @CacheEvict(value = "killSwitches", key = "#flagKey")
     public KillSwitch deactivateKillSwitch(String flagKey) {
-        Optional<KillSwitch> existing = killSwitchRepository.findByFlagKey(flagKey);
-        
-        if (existing.isEmpty()) {
-            throw new IllegalArgumentException("Kill switch not found for flag: " + flagKey);
-        }
-        
-        KillSwitch killSwitch = existing.get();
-        killSwitch.setActive(false);
-        killSwitch.setReason(null);
-        killSwitch.setActivatedBy(null);
-        
-        KillSwitch saved = killSwitchRepository.save(killSwitch);
-        
-        String cacheKey = KILL_SWITCH_CACHE_PREFIX + flagKey;
-        redisTemplate.delete(cacheKey);
-        
+        KillSwitch saved = deactivate(killSwitchStore.findByFlagKey(flagKey), "Kill switch not found for flag: " + flagKey);
         log.info("Kill switch deactivated for flag: {}", flagKey);
         return saved;
     }
 
-    public boolean isKillSwitchActive(String flagKey) {
-        
-        String cacheKey = KILL_SWITCH_CACHE_PREFIX + flagKey;
-        Boolean cached = (Boolean) redisTemplate.opsForValue().get(cacheKey);
-        
-        if (cached != null) {
-            return cached;
+    /** Switches off every flag carrying the tag, including flags tagged later. */
+    @Transactional
+    public KillSwitch activateTagKillSwitch(String tag, String reason, String activatedBy) {
+        if (tag == null || tag.isBlank()) {
+            throw new IllegalArgumentException("Tag is required");
         }
-        
-        Optional<KillSwitch> killSwitch = killSwitchRepository.findByFlagKey(flagKey);
-        boolean active = killSwitch.map(KillSwitch::getActive).orElse(false);
-        
-        redisTemplate.opsForValue().set(cacheKey, active, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
-        
-        return active;
+        KillSwitch saved = activate(killSwitchStore.findByTag(tag),
+                KillSwitch.builder().scope(KillSwitchScope.TAG).tag(tag), reason, activatedBy);
+        log.warn("Kill switch activated for tag: {} by {}", tag, activatedBy);
+        return saved;
+    }
+
+    @Transactional
+    public KillSwitch deactivateTagKillSwitch(String tag) {
+        KillSwitch saved = deactivate(killSwitchStore.findByTag(tag), "Kill switch not found for tag: " + tag);
+        log.info("Kill switch deactivated for tag: {}", tag);
+        return saved;
+    }
+
+    /** Panic mode: switches off every flag. */
+    @Transactional
+    public KillSwitch activateGlobalKillSwitch(String reason, String activatedBy) {
+        KillSwitch saved = activate(killSwitchStore.findGlobal(), KillSwitch.builder().scope(KillSwitchScope.GLOBAL),
+                reason, activatedBy);
+        log.warn("Global kill switch activated by {}", activatedBy);
+        return saved;
+    }
+
+    @Transactional
+    public KillSwitch deactivateGlobalKillSwitch() {
+        KillSwitch saved = deactivate(killSwitchStore.findGlobal(), "Global kill switch was never activated");
+        log.info("Global kill switch deactivated");
+        return saved;
     }
 
+    /** Whether the flag is switched off by its own, a tag's or the global kill switch. */
+    public boolean isKillSwitchActive(String flagKey) {
+        KillSwitchState current = state.get();
+        return (current != null ? current : compileFirst()).isKilled(flagKey);
+    }
+
+    @Transactional(readOnly = true)
     public List<KillSwitch> getActiveKillSwitches() {
-        return killSwitchRepository.findByActiveTrue();
+        return killSwitchStore.findActive();
     }
 
     public Optional<KillSwitch> getKillSwitch(String flagKey) {
-        return killSwitchRepository.findByFlagKey(flagKey);
+        return killSwitchStore.findByFlagKey(flagKey);
     }
-}
 
+    public Optional<KillSwitch> getTagKillSwitch(String tag) {
+        return killSwitchStore.findByTag(tag);
+    }
+
+    public Optional<KillSwitch> getGlobalKillSwitch() {
+        return killSwitchStore.findGlobal();
+    }
+
+    /** Recompiles the kill state once the surrounding transaction, which changed kill switches, commits. */
+    public void killSwitchesChanged() {
+        afterCommit(this::recompile);
+    }
+
+    /** Recompiles the kill state after commit if a tag switch is active, since the changed flags may carry the tag. */
+    public void flagsChanged() {
+        afterCommit(() -> {
+            KillSwitchState current = state.get();
+            if (current != null && current.dependsOnFlags()) {
+                recompile();
+            }
+        });
+    }
+
+    /**
+     * Compiles the kill state from the stores and publishes it, unless a compilation that started later has
+     * already published its own.
+     */
+    public KillSwitchState recompile() {
+        long epoch = epochs.incrementAndGet();
+        List<KillSwitch> active = killSwitchStore.findActive();
+        boolean tagged = active.stream().anyMatch(killSwitch -> killSwitch.getScope() == KillSwitchScope.TAG);
+        KillSwitchState compiled = KillSwitchState.compile(epoch, active, tagged ? flagStore.findAll() : List.of(), ordinals);
+        KillSwitchState published = state.accumulateAndGet(compiled,
+                (current, next) -> current == null || next.getEpoch() > current.getEpoch() ? next : current);
+        if (published == compiled) {
+            log.debug("Compiled kill state at epoch {} from {} active kill switches", epoch, active.size());
+        }
+        return published;
+    }
+
+    private synchronized KillSwitchState compileFirst() {
+        KillSwitchState current = state.get();
+        return current != null ? current : recompile();
+    }
+
+    private KillSwitch activate(Optional<KillSwitch> existing, KillSwitch.KillSwitchBuilder created, String reason,
+                                String activatedBy) {
+        KillSwitch killSwitch = existing.orElseGet(() -> created.active(false).build());
+        killSwitch.setActive(true);
+        killSwitch.setReason(reason);
+        killSwitch.setActivatedBy(activatedBy);
+        KillSwitch saved = killSwitchStore.save(killSwitch);
+        killSwitchesChanged();
+        return saved;
+    }
+
+    private KillSwitch deactivate(Optional<KillSwitch> existing, String notFound) {
+        KillSwitch killSwitch = existing.orElseThrow(() -> new IllegalArgumentException(notFound));
+        killSwitch.setActive(false);
+        killSwitch.setReason(null);
+        killSwitch.setActivatedBy(null);
+        KillSwitch saved = killSwitchStore.save(killSwitch);
+        killSwitchesChanged();
+        return saved;
+    }
+
+    /**
+     * Runs the recompilation after commit, so it reads the change, or immediately outside a transaction. A failure
+     * drops the compiled state, and the next check compiles it again.
+     */
+    private void afterCommit(Runnable recompilation) {
+        Runnable guarded = () -> {
+            try {
+                recompilation.run();
+            } catch (RuntimeException e) {
+                log.warn("Failed to recompile the kill state, retrying on the next check", e);
+                state.set(null);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.store.LastEvaluatedStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks when each flag was last evaluated, to find flags nothing uses any more. Every
+ * {@code featureflux.staleness.flush-interval-ms} the node writes the latest time of each flag evaluated since the
+ * previous flush to the {@link LastEvaluatedStore}, all in one batch, however often the flags were evaluated.
+ * <p>
+ * Recording reads the clock and the flag's timestamp, and stores the timestamp with a lazy write, without a fence,
+ * at most once per {@value #RESOLUTION_MS} ms. Threads evaluating a hot flag therefore share its timestamp instead
+ * of contending for it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LastEvaluatedTracker {
+
+    static final long RESOLUTION_MS = 1000;
+
+    private final LastEvaluatedStore store;
+
+    /** Flags beyond this many are not tracked until others go idle, since the public evaluation API accepts any key. */
+    @Value("${featureflux.staleness.max-flags:10000}")
+    private int maxFlags = 10000;
+
+    /** Flags evaluated on this node since the flush before last. */
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    /** Time source for evaluation times; replaced in tests. */
+    private Clock clock = Clock.systemUTC();
+
+    public void record(String flagKey) {
+        Slot slot = slots.get(flagKey);
+        if (slot == null) {
+            if (slots.size() >= maxFlags) {
+                return;
+            }
+            slot = slots.computeIfAbsent(flagKey, key -> new Slot());
+        }
+        long now = clock.millis();
+        if (now - slot.evaluated.get() >= RESOLUTION_MS) {
+            slot.evaluated.lazySet(now);
+        }
+    }
+
+    /**
+     * Flushes the times recorded since the last run and stops tracking flags not evaluated in between. A failed
+     * flush is retried with the then latest times on the next run.
+     */
+    @Scheduled(fixedDelayString = "${featureflux.staleness.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        Map<String, LocalDateTime> batch = new HashMap<>();
+        Map<Slot, Long> flushing = new IdentityHashMap<>();
+        for (Map.Entry<String, Slot> entry : slots.entrySet()) {
+            Slot slot = entry.getValue();
+            long evaluated = slot.evaluated.get();
+            if (evaluated == slot.flushed) {
+                slots.remove(entry.getKey(), slot);
+                if (slot.evaluated.get() != evaluated) {
+                    // Evaluated while being removed; keep the time rather than lose it
+                    slots.putIfAbsent(entry.getKey(), slot);
+                }
+                continue;
+            }
+            batch.put(entry.getKey(), toLocal(Instant.ofEpochMilli(evaluated)));
+            flushing.put(slot, evaluated);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            store.recordLastEvaluated(batch);
+            flushing.forEach((slot, evaluated) -> slot.flushed = evaluated);
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush the last evaluation times of {} flags, retrying on the next run", batch.size(), e);
+        }
+    }
+
+    /** Flags that existed but were not evaluated on any node for at least {@code unusedFor}, least recently used first. */
+    public List<FeatureFlag> findStale(Duration unusedFor) {
+        return store.findNotEvaluatedSince(toLocal(clock.instant().minus(unusedFor)));
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /** Flag timestamps are local date-times in the JVM's zone, like {@code createdAt}. */
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static final class Slot {
+        final AtomicLong evaluated = new AtomicLong();
+        /** The time last written to the store; only touched by {@link #flush}. */
+        long flushed;
+    }
+}
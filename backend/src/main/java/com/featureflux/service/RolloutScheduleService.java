@@ -0,0 +1,90 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.RolloutStep;
+import com.featureflux.rules.RolloutSchedule;
+import com.featureflux.store.FlagStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Announces rollout schedule steps. Evaluations compute the scheduled percentage from the clock on their own,
+ * so this only writes the audit entry and publishes a {@link RolloutStepEvent} for each step reached.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RolloutScheduleService {
+
+    private final FlagStore flagStore;
+    private final AuditService auditService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Last step announced (or found already announced) per flag key, for the flag version it was seen in. */
+    private final Map<String, AnnouncedStep> announced = new ConcurrentHashMap<>();
+
+    private Clock clock = Clock.systemUTC();
+
+    @Scheduled(fixedDelayString = "${featureflux.rollouts.check-interval-ms:15000}")
+    public void announceSteps() {
+        long now = clock.millis();
+        Set<String> scheduled = new HashSet<>();
+        for (FeatureFlag flag : flagStore.findActive()) {
+            if (flag.getRolloutSchedule() == null || flag.getRolloutSchedule().isEmpty()) {
+                continue;
+            }
+            scheduled.add(flag.getKey());
+            RolloutSchedule schedule;
+            try {
+                schedule = RolloutSchedule.compile(flag.getRolloutSchedule());
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            int reached = schedule.stepIndexAt(now);
+            AnnouncedStep previous = announced.get(flag.getKey());
+            // Steps passed before this node first saw the schedule are not replayed, only the current one
+            int from = previous != null && previous.isFor(flag) ? previous.stepIndex + 1 : reached;
+            for (int i = Math.max(from, 0); i <= reached; i++) {
+                announce(flag, i, schedule.size());
+            }
+            announced.put(flag.getKey(), new AnnouncedStep(flag.getVersion(), reached));
+        }
+        announced.keySet().retainAll(scheduled);
+    }
+
+    private void announce(FeatureFlag flag, int stepIndex, int stepCount) {
+        RolloutStep step = flag.getRolloutSchedule().get(stepIndex);
+        if (auditService.logRolloutStep(flag, stepIndex, stepCount, step)) {
+            log.info("Rollout of flag {} reached {}% (step {} of {})", flag.getKey(), step.getPercentage(), stepIndex + 1, stepCount);
+            eventPublisher.publishEvent(new RolloutStepEvent(flag.getKey(), stepIndex, step.getPercentage(), step.getAt()));
+        }
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private static final class AnnouncedStep {
+        private final Long version;
+        private final int stepIndex;
+
+        private AnnouncedStep(Long version, int stepIndex) {
+            this.version = version;
+            this.stepIndex = stepIndex;
+        }
+
+        private boolean isFor(FeatureFlag flag) {
+            return Objects.equals(version, flag.getVersion());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.featureflux.service;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Published once a flag's rollout schedule reaches a step. The step already applies to evaluations by then;
+ * the event is only a notification.
+ */
+@Value
+public class RolloutStepEvent {
+    String flagKey;
+    /** Zero-based index of the step in the flag's schedule. */
+    int stepIndex;
+    int percentage;
+    Instant at;
+}
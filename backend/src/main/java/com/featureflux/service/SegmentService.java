@@ -0,0 +1,172 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Segment;
+import com.featureflux.rules.SegmentMembership;
+import com.featureflux.rules.SegmentRef;
+import com.featureflux.store.FlagStore;
+import com.featureflux.store.SegmentStore;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SegmentService {
+
+    private final SegmentStore segmentStore;
+    private final FlagStore flagStore;
+    private final AuditService auditService;
+
+    /** One shared handle per segment key, referenced by every compiled flag that targets the segment. */
+    private final Map<String, SegmentRef> refs = new ConcurrentHashMap<>();
+
+    public List<Segment> getAllSegments() {
+        return segmentStore.findAll();
+    }
+
+    public Optional<Segment> getSegment(String key) {
+        return segmentStore.findByKey(key);
+    }
+
+    public boolean exists(String key) {
+        return segmentStore.findVersion(key).isPresent();
+    }
+
+    @Transactional
+    public Segment createSegment(Segment segment, HttpServletRequest request) {
+        if (segment.getKey() == null || segment.getKey().isBlank()) {
+            throw new IllegalArgumentException("Segment key is required");
+        }
+        if (segmentStore.findByKey(segment.getKey()).isPresent()) {
+            throw new IllegalArgumentException("Segment with key '" + segment.getKey() + "' already exists");
+        }
+        Segment saved = segmentStore.save(segment);
+        afterCommit(() -> publish(saved.getKey(), saved));
+        if (request != null) {
+            auditService.logSegmentChange("CREATE", saved, request);
+        }
+        return saved;
+    }
+
+    @Transactional
+    public Segment updateSegment(String key, Segment segment, HttpServletRequest request) {
+        Segment existing = segmentStore.findByKey(key)
+                .orElseThrow(() -> new IllegalArgumentException("Segment not found"));
+        existing.setName(segment.getName());
+        existing.setDescription(segment.getDescription());
+        existing.setMembers(segment.getMembers() != null ? new ArrayList<>(segment.getMembers()) : new ArrayList<>());
+        Segment saved = segmentStore.save(existing);
+        // Once committed, every flag referencing the segment switches to the new members at once
+        afterCommit(() -> publish(key, saved));
+        if (request != null) {
+            auditService.logSegmentChange("UPDATE", saved, request);
+        }
+        return saved;
+    }
+
+    @Transactional
+    public void deleteSegment(String key, HttpServletRequest request) {
+        Segment segment = segmentStore.findByKey(key)
+                .orElseThrow(() -> new IllegalArgumentException("Segment not found"));
+        List<String> dependents = flagStore.findAll().stream()
+                .filter(flag -> references(flag, key))
+                .map(FeatureFlag::getKey)
+                .collect(Collectors.toList());
+        if (!dependents.isEmpty()) {
+            throw new IllegalArgumentException("Segment '" + key + "' is still used by flags " + dependents);
+        }
+        segmentStore.delete(segment);
+        afterCommit(() -> publish(key, null));
+        if (request != null) {
+            auditService.logSegmentChange("DELETE", segment, request);
+        }
+    }
+
+    /**
+     * Handle used by compiled flags. The membership index is built on first use and replaced in place on
+     * every change, so flags never need to be recompiled when only a segment changes.
+     */
+    public SegmentRef ref(String key) {
+        SegmentRef ref = refs.get(key);
+        if (ref != null) {
+            return ref;
+        }
+        SegmentMembership membership = load(key);
+        return refs.computeIfAbsent(key, k -> new SegmentRef(k, membership));
+    }
+
+    /**
+     * Reloads one segment after the change feed reports a change made on another node.
+     */
+    public void reload(String key) {
+        SegmentRef ref = refs.get(key);
+        if (ref != null) {
+            ref.publish(load(key));
+        }
+    }
+
+    /**
+     * Picks up segment changes made by other nodes when the change feed is unavailable (memory store) or has
+     * missed them; local changes are published as soon as they commit.
+     */
+    @Scheduled(fixedDelayString = "${featureflux.segments.refresh-interval-ms:30000}")
+    public void refreshSegments() {
+        refs.values().forEach(ref -> {
+            Long current = segmentStore.findVersion(ref.getKey()).orElse(null);
+            if (!Objects.equals(current, ref.getMembership().getVersion())) {
+                log.info("Reloading segment {} (version {} -> {})", ref.getKey(), ref.getMembership().getVersion(), current);
+                ref.publish(load(ref.getKey()));
+            }
+        });
+    }
+
+    private void publish(String key, Segment segment) {
+        SegmentRef ref = refs.get(key);
+        if (ref != null) {
+            ref.publish(segment != null ? SegmentMembership.of(segment.getMembers(), segment.getVersion()) : SegmentMembership.EMPTY);
+        }
+    }
+
+    /**
+     * Runs the publish once the surrounding transaction commits, or immediately outside a transaction, so
+     * evaluations never see members that were not saved.
+     */
+    private static void afterCommit(Runnable publish) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
+    }
+
+    private SegmentMembership load(String key) {
+        return segmentStore.findByKey(key)
+                .map(segment -> SegmentMembership.of(segment.getMembers(), segment.getVersion()))
+                .orElse(SegmentMembership.EMPTY);
+    }
+
+    private static boolean references(FeatureFlag flag, String segmentKey) {
+        return (flag.getTargetSegmentKeys() != null && flag.getTargetSegmentKeys().contains(segmentKey))
+                || (flag.getExcludedSegmentKeys() != null && flag.getExcludedSegmentKeys().contains(segmentKey));
+    }
+}
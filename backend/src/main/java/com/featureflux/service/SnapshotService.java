@@ -0,0 +1,57 @@
+package com.featureflux.service;
+
+import com.featureflux.store.SnapshotFallback;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Keeps the local flag snapshot current and reconciles it with the live stores: once at startup, before
+ * {@link CacheWarmup}, then every {@code featureflux.snapshot.write-interval-ms} while the stores are reachable and
+ * every {@code featureflux.snapshot.retry-interval-ms} while evaluations are served from the snapshot.
+ */
+@Service
+@ConditionalOnExpression("'${featureflux.store.type:redis}' != 'memory' and ${featureflux.snapshot.enabled:true}")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class SnapshotService implements ApplicationRunner {
+
+    private final SnapshotFallback snapshot;
+    private final TransactionOperations transactions;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${featureflux.snapshot.write-interval-ms:60000}",
+            initialDelayString = "${featureflux.snapshot.write-interval-ms:60000}")
+    public void writeSnapshot() {
+        if (snapshot.isLive()) {
+            reconcile();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${featureflux.snapshot.retry-interval-ms:5000}")
+    public void retryLiveStores() {
+        if (!snapshot.isLive()) {
+            reconcile();
+        }
+    }
+
+    private void reconcile() {
+        try {
+            snapshot.reconcile(transactions);
+        } catch (RuntimeException e) {
+            log.warn("Failed to reconcile the flag snapshot", e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.ChangeRecord;
+import com.featureflux.entity.ChangeType;
+import com.featureflux.entity.ChangedKey;
+import com.featureflux.repository.ChangeRecordRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Writes the change feed. Called by the durable stores inside the transaction that saves the change, so a change
+ * is in the feed exactly when it is committed. On Postgres the same transaction also sends a {@code NOTIFY}, which
+ * the database delivers to listening nodes only on commit.
+ */
+@RequiredArgsConstructor
+public class ChangeOutbox {
+
+    public static final String CHANNEL = "flag_changes";
+
+    private final ChangeRecordRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final FlagRevisions flagRevisions;
+    private final boolean notify;
+
+    /** Changes collected by the {@link #changeset} running on this thread, if any. */
+    private final ThreadLocal<Set<ChangedKey>> changeset = new ThreadLocal<>();
+
+    public static boolean supportsNotify(String jdbcUrl) {
+        return jdbcUrl != null && jdbcUrl.startsWith("jdbc:postgresql:");
+    }
+
+    public void record(ChangeType type, String key) {
+        Set<ChangedKey> collected = changeset.get();
+        if (collected != null) {
+            collected.add(new ChangedKey(type, key));
+            return;
+        }
+        write(ChangeRecord.builder().type(type).key(key).build());
+    }
+
+    /**
+     * Runs {@code changes} inside the caller's transaction and records everything they change as one
+     * {@link ChangeType#CHANGESET} at a single revision, with a single notification, instead of one record each.
+     */
+    public <T> T changeset(String key, Supplier<T> changes) {
+        if (changeset.get() != null) {
+            throw new IllegalStateException("Changesets cannot be nested");
+        }
+        Set<ChangedKey> collected = new LinkedHashSet<>();
+        changeset.set(collected);
+        T result;
+        try {
+            result = changes.get();
+        } finally {
+            changeset.remove();
+        }
+        if (!collected.isEmpty()) {
+            write(ChangeRecord.builder().type(ChangeType.CHANGESET).key(key).changes(new ArrayList<>(collected)).build());
+        }
+        return result;
+    }
+
+    private void write(ChangeRecord change) {
+        long revision = repository.save(change).getRevision();
+        if (notify) {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, Long.toString(revision));
+        }
+        List<ChangedKey> changed = change.getType() == ChangeType.CHANGESET
+                ? change.getChanges()
+                : List.of(new ChangedKey(change.getType(), change.getKey()));
+        List<String> flagKeys = changed.stream()
+                .filter(changedKey -> changedKey.getType() == ChangeType.FLAG || changedKey.getType() == ChangeType.KILL_SWITCH)
+                .map(ChangedKey::getKey)
+                .toList();
+        if (!flagKeys.isEmpty()) {
+            // This node stops reading results cached before the change without waiting for its own notification
+            StoreSupport.afterCommit(() -> flagKeys.forEach(flagKey -> flagRevisions.advance(flagKey, revision)));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.featureflux.store;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Per-user evaluation result cache. Only worth having when flag reads leave the process,
+ * so it is a no-op for the in-memory and JPA-only stores. A cache tier that can evaluate flags itself, where the
+ * flags are, answers {@link #evaluate(Map)} too.
+ */
+public interface EvaluationCache {
+
+    /** Cached result, or {@code null} on a miss. */
+    Boolean get(String flagKey, String userId);
+
+    void put(String flagKey, String userId, boolean enabled);
+
+    /**
+     * Cached result, or the result of {@code load}, which is cached unless it is {@code null}. Implementations may
+     * share one load between concurrent callers and serve a stale result while it is refreshed.
+     *
+     * @return the result, or {@code null} when {@code load} returned {@code null}
+     */
+    default Boolean get(String flagKey, String userId, Supplier<Boolean> load) {
+        Boolean cached = get(flagKey, userId);
+        if (cached != null) {
+            return cached;
+        }
+        Boolean loaded = load.get();
+        if (loaded != null) {
+            put(flagKey, userId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Result evaluated by the cache tier itself, without the flag or a cached result leaving it. Kill switches are
+     * checked before this.
+     *
+     * @return the result, or {@code null} when the flag must be evaluated by the caller
+     */
+    default Boolean evaluate(String flagKey, String userId) {
+        return null;
+    }
+
+    /**
+     * {@link #evaluate(String, String)} for several flags, each for its own user, in one call.
+     *
+     * @param requests user id by flag key
+     * @return results of the flags the tier evaluated; the caller evaluates the others
+     */
+    default Map<String, Boolean> evaluate(Map<String, String> requests) {
+        return Map.of();
+    }
+}
@@ -0,0 +1,25 @@
+package com.featureflux.store;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest change feed revision this node has seen per flag key, counting changes to the flag, its kill switch,
+ * its segments and its prerequisites. Stamped into evaluation cache keys, so results cached before a change stop
+ * being read as soon as the node sees the change, without deleting any cache entries.
+ */
+public class FlagRevisions {
+
+    private final Map<String, Long> revisions = new ConcurrentHashMap<>();
+
+    /** Revision of the flag, or {@code 0} if it has not changed since the feed was last pruned. */
+    public long of(String flagKey) {
+        Long revision = revisions.get(flagKey);
+        return revision != null ? revision : 0L;
+    }
+
+    /** Raises the flag's revision; revisions never go back, so replays and out-of-order delivery are harmless. */
+    public void advance(String flagKey, long revision) {
+        revisions.merge(flagKey, revision, Math::max);
+    }
+}
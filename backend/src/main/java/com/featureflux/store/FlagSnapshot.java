@@ -0,0 +1,293 @@
+package com.featureflux.store;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Segment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+/**
+ * Read-only flag, kill switch and segment snapshot in a local file, memory-mapped on open. Lookups binary-search a
+ * sorted key index in the mapping and decode the record they return on first use only, keeping it for the life of
+ * the snapshot, so a snapshot costs page cache plus the flags actually evaluated rather than heap for every flag, and
+ * evaluations allocate nothing once a flag is decoded. Decoded flags and segments are shared, and must not be
+ * modified.
+ * <p>
+ * Layout, big-endian: a header of magic, format version, creation time, body length and the CRC32C of the body,
+ * followed by the flag, kill switch and segment sections. Each section is a record count, an index of
+ * {@code (offset, length)} pairs sorted by unsigned UTF-8 key, then the records: key length, key and the JSON value
+ * (empty for kill switches, which are listed only when active). Offsets are ints, which caps a snapshot at 2 GB.
+ */
+public final class FlagSnapshot {
+
+    static final int MAGIC = 0x4646534E; // "FFSN"
+    static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 8;
+    private static final int SECTIONS = 3;
+    private static final int FLAGS = 0;
+    private static final int KILL_SWITCHES = 1;
+    private static final int SEGMENTS = 2;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final ByteBuffer buffer;
+    private final Instant createdAt;
+    /** Offset of each section's record count. */
+    private final int[] sections;
+    /** Records decoded so far, by index; decoded twice at worst when first read concurrently. */
+    private final AtomicReferenceArray<FeatureFlag> decodedFlags;
+    private final AtomicReferenceArray<Segment> decodedSegments;
+
+    private FlagSnapshot(ByteBuffer buffer, Instant createdAt, int[] sections) {
+        this.buffer = buffer;
+        this.createdAt = createdAt;
+        this.sections = sections;
+        this.decodedFlags = new AtomicReferenceArray<>(buffer.getInt(sections[FLAGS]));
+        this.decodedSegments = new AtomicReferenceArray<>(buffer.getInt(sections[SEGMENTS]));
+    }
+
+    /**
+     * Writes a snapshot next to the target and moves it into place, so readers never see a partial file.
+     *
+     * @param activeKillSwitches keys of the flags switched off by an active kill switch
+     */
+    public static void write(Path file, Collection<FeatureFlag> flags, Collection<String> activeKillSwitches,
+                             Collection<Segment> segments) throws IOException {
+        List<List<byte[][]>> sectionRecords = List.of(
+                records(flags, FeatureFlag::getKey, FlagSnapshot::json),
+                records(activeKillSwitches, Function.identity(), key -> new byte[0]),
+                records(segments, Segment::getKey, FlagSnapshot::json));
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int offset = HEADER_BYTES;
+        for (List<byte[][]> records : sectionRecords) {
+            ByteBuffer index = ByteBuffer.allocate(4 + 8 * records.size());
+            index.putInt(records.size());
+            int recordOffset = offset + index.capacity();
+            for (byte[][] record : records) {
+                int length = 4 + record[0].length + record[1].length;
+                index.putInt(recordOffset).putInt(length);
+                recordOffset += length;
+            }
+            body.write(index.array());
+            for (byte[][] record : records) {
+                body.write(ByteBuffer.allocate(4).putInt(record[0].length).array());
+                body.write(record[0]);
+                body.write(record[1]);
+            }
+            offset = recordOffset;
+        }
+        if ((long) HEADER_BYTES + body.size() > Integer.MAX_VALUE) {
+            throw new IOException("Flag snapshot exceeds 2 GB");
+        }
+
+        byte[] bodyBytes = body.toByteArray();
+        CRC32C checksum = new CRC32C();
+        checksum.update(bodyBytes);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putLong(System.currentTimeMillis())
+                .putLong(bodyBytes.length)
+                .putLong(checksum.getValue())
+                .flip();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.write(new ByteBuffer[]{header, ByteBuffer.wrap(bodyBytes)});
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @throws IOException if the file cannot be read, is not a snapshot, has an unsupported format version, is
+     *                     truncated or fails its checksum
+     */
+    public static FlagSnapshot open(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a flag snapshot: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a flag snapshot: " + file);
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported flag snapshot format " + buffer.getInt(4) + ": " + file);
+        }
+        long bodyLength = buffer.getLong(16);
+        if (bodyLength != buffer.capacity() - HEADER_BYTES) {
+            throw new IOException("Truncated flag snapshot: " + file);
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.slice(HEADER_BYTES, (int) bodyLength));
+        if (checksum.getValue() != buffer.getLong(24)) {
+            throw new IOException("Flag snapshot checksum mismatch: " + file);
+        }
+
+        int[] sections = new int[SECTIONS];
+        int offset = HEADER_BYTES;
+        for (int section = 0; section < SECTIONS; section++) {
+            sections[section] = offset;
+            int count = buffer.getInt(offset);
+            offset = count == 0 ? offset + 4 : recordOffset(buffer, offset, count - 1) + recordLength(buffer, offset, count - 1);
+        }
+        return new FlagSnapshot(buffer, Instant.ofEpochMilli(buffer.getLong(8)), sections);
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public int flagCount() {
+        return buffer.getInt(sections[FLAGS]);
+    }
+
+    public Optional<FeatureFlag> flag(String key) {
+        int record = find(FLAGS, key);
+        return record < 0 ? Optional.empty() : Optional.of(decoded(decodedFlags, FLAGS, record, FeatureFlag.class));
+    }
+
+    /** Decodes every flag not decoded yet; for listings, not the evaluation path. */
+    public List<FeatureFlag> flags() {
+        int count = decodedFlags.length();
+        List<FeatureFlag> flags = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            flags.add(decoded(decodedFlags, FLAGS, i, FeatureFlag.class));
+        }
+        return flags;
+    }
+
+    public boolean killSwitchActive(String flagKey) {
+        return find(KILL_SWITCHES, flagKey) >= 0;
+    }
+
+    public List<String> activeKillSwitches() {
+        int count = buffer.getInt(sections[KILL_SWITCHES]);
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int offset = recordOffset(buffer, sections[KILL_SWITCHES], i);
+            byte[] key = new byte[buffer.getInt(offset)];
+            buffer.get(offset + 4, key);
+            keys.add(new String(key, StandardCharsets.UTF_8));
+        }
+        return keys;
+    }
+
+    public Optional<Segment> segment(String key) {
+        int record = find(SEGMENTS, key);
+        return record < 0 ? Optional.empty() : Optional.of(decoded(decodedSegments, SEGMENTS, record, Segment.class));
+    }
+
+    private int find(int section, String key) {
+        byte[] target = key.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = buffer.getInt(sections[section]) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareKey(recordOffset(buffer, sections[section], middle), target);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private int compareKey(int record, byte[] target) {
+        int length = buffer.getInt(record);
+        int common = Math.min(length, target.length);
+        for (int i = 0; i < common; i++) {
+            int comparison = Byte.compareUnsigned(buffer.get(record + 4 + i), target[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return length - target.length;
+    }
+
+    private <T> T decoded(AtomicReferenceArray<T> decoded, int section, int index, Class<T> type) {
+        T value = decoded.get(index);
+        if (value == null) {
+            value = value(section, index, type);
+            decoded.set(index, value);
+        }
+        return value;
+    }
+
+    private <T> T value(int section, int index, Class<T> type) {
+        int offset = recordOffset(buffer, sections[section], index);
+        int valueOffset = offset + 4 + buffer.getInt(offset);
+        byte[] value = new byte[offset + recordLength(buffer, sections[section], index) - valueOffset];
+        buffer.get(valueOffset, value);
+        try {
+            return MAPPER.readValue(value, type);
+        } catch (IOException e) {
+            // The checksum matched, so this is a snapshot written by an incompatible build
+            throw new UncheckedIOException("Unreadable " + type.getSimpleName() + " in flag snapshot", e);
+        }
+    }
+
+    private static int recordOffset(ByteBuffer buffer, int section, int index) {
+        return buffer.getInt(section + 4 + 8 * index);
+    }
+
+    private static int recordLength(ByteBuffer buffer, int section, int index) {
+        return buffer.getInt(section + 4 + 8 * index + 4);
+    }
+
+    private static <T> List<byte[][]> records(Collection<T> values, Function<T, String> key, Function<T, byte[]> value) {
+        List<byte[][]> records = new ArrayList<>(values.size());
+        for (T item : values) {
+            records.add(new byte[][]{key.apply(item).getBytes(StandardCharsets.UTF_8), value.apply(item)});
+        }
+        records.sort(Comparator.comparing((byte[][] record) -> record[0], Arrays::compareUnsigned));
+        return records;
+    }
+
+    private static byte[] json(Object value) {
+        try {
+            return MAPPER.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to serialize " + value.getClass().getSimpleName() + " for the flag snapshot", e);
+        }
+    }
+}
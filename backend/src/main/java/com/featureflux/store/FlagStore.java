@@ -0,0 +1,53 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.FeatureFlag;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage SPI for feature flag definitions. The implementation is selected with
+ * {@code featureflux.store.type} so each deployment can use the cheapest read path for its role:
+ * <ul>
+ *     <li>{@code redis} (default) - reads served from Redis, writes persisted to Postgres first</li>
+ *     <li>{@code jpa} - Postgres only, no Redis dependency</li>
+ *     <li>{@code memory} - process-local maps, for edge nodes and in-process tests</li>
+ * </ul>
+ */
+public interface FlagStore {
+
+    Optional<FeatureFlag> findByKey(String key);
+
+    /**
+     * Reads the flag from the durable store, for changes based on it. Stores that keep a copy outside the durable
+     * store must not serve it here, since it may be older than the flag.
+     */
+    default Optional<FeatureFlag> findByKeyForUpdate(String key) {
+        return findByKey(key);
+    }
+
+    Optional<FeatureFlag> findById(Long id);
+
+    /** All non-archived flags. */
+    List<FeatureFlag> findAll();
+
+    /** Non-archived, enabled flags. */
+    List<FeatureFlag> findActive();
+
+    FeatureFlag save(FeatureFlag flag);
+
+    /**
+     * Reloads any copy of the flag kept outside the durable store after another node changed it.
+     * Stores without such a copy have nothing to do.
+     */
+    default void refresh(String key) {
+    }
+
+    /**
+     * Loads flags read from the durable store into any copy kept outside it, ahead of the first evaluation.
+     * Stores without such a copy have nothing to do.
+     */
+    default void preload(Collection<FeatureFlag> flags) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.FeatureFlag;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Process-local flag store for edge nodes and in-process tests. Reads are lock-free map lookups
+ * that return the stored instance, except {@link #findByKeyForUpdate}, which returns a copy to modify and
+ * {@link #save}. Saves copy their argument and emulate the entity's id, timestamps and {@code @Version} check.
+ */
+public class InMemoryFlagStore implements FlagStore {
+
+    private final Map<String, FeatureFlag> flagsByKey = new ConcurrentHashMap<>();
+    private final Map<Long, String> keysById = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+
+    @Override
+    public Optional<FeatureFlag> findByKey(String key) {
+        return Optional.ofNullable(flagsByKey.get(key));
+    }
+
+    /** A copy, so evaluations never see changes before they are saved and the version check compares two flags. */
+    @Override
+    public Optional<FeatureFlag> findByKeyForUpdate(String key) {
+        return findByKey(key).map(StoreSupport::detach);
+    }
+
+    @Override
+    public Optional<FeatureFlag> findById(Long id) {
+        return Optional.ofNullable(keysById.get(id)).map(flagsByKey::get);
+    }
+
+    @Override
+    public List<FeatureFlag> findAll() {
+        return flagsByKey.values().stream()
+                .filter(flag -> !flag.getArchived())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<FeatureFlag> findActive() {
+        return flagsByKey.values().stream()
+                .filter(flag -> !flag.getArchived() && flag.getEnabled())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public synchronized FeatureFlag save(FeatureFlag flag) {
+        FeatureFlag stored = StoreSupport.detach(flag);
+        LocalDateTime now = LocalDateTime.now();
+
+        FeatureFlag existing = stored.getId() != null ? findById(stored.getId()).orElse(null) : null;
+        if (existing == null) {
+            if (stored.getId() == null) {
+                stored.setId(idSequence.incrementAndGet());
+            }
+            stored.setCreatedAt(now);
+            stored.setVersion(0L);
+        } else {
+            if (stored.getVersion() != null && !stored.getVersion().equals(existing.getVersion())) {
+                throw new OptimisticLockingFailureException("Feature flag was modified concurrently: " + stored.getKey());
+            }
+            stored.setCreatedAt(existing.getCreatedAt());
+            stored.setVersion(existing.getVersion() + 1);
+        }
+        stored.setUpdatedAt(now);
+
+        flagsByKey.put(stored.getKey(), stored);
+        keysById.put(stored.getId(), stored.getKey());
+        return stored;
+    }
+}
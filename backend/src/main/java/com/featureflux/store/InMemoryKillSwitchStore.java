@@ -0,0 +1,74 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.KillSwitch;
+import com.featureflux.entity.KillSwitchScope;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+public class InMemoryKillSwitchStore implements KillSwitchStore {
+
+    /** Keyed by scope and target, so a tag and a flag of the same name keep separate switches. */
+    private final Map<String, KillSwitch> killSwitches = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+
+    @Override
+    public Optional<KillSwitch> findByFlagKey(String flagKey) {
+        return Optional.ofNullable(killSwitches.get(key(KillSwitchScope.FLAG, flagKey)));
+    }
+
+    @Override
+    public Optional<KillSwitch> findByTag(String tag) {
+        return Optional.ofNullable(killSwitches.get(key(KillSwitchScope.TAG, tag)));
+    }
+
+    @Override
+    public Optional<KillSwitch> findGlobal() {
+        return Optional.ofNullable(killSwitches.get(key(KillSwitchScope.GLOBAL, null)));
+    }
+
+    @Override
+    public List<KillSwitch> findActive() {
+        return killSwitches.values().stream()
+                .filter(KillSwitch::getActive)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public synchronized KillSwitch save(KillSwitch killSwitch) {
+        KillSwitch stored = StoreSupport.detach(killSwitch);
+        LocalDateTime now = LocalDateTime.now();
+        String key = key(stored);
+        KillSwitch existing = killSwitches.get(key);
+        if (existing == null) {
+            stored.setId(stored.getId() != null ? stored.getId() : idSequence.incrementAndGet());
+            stored.setCreatedAt(now);
+        } else {
+            stored.setId(existing.getId());
+            stored.setCreatedAt(existing.getCreatedAt());
+        }
+        stored.setUpdatedAt(now);
+        killSwitches.put(key, stored);
+        return stored;
+    }
+
+    @Override
+    public boolean isActive(String flagKey) {
+        KillSwitch killSwitch = killSwitches.get(key(KillSwitchScope.FLAG, flagKey));
+        return killSwitch != null && killSwitch.getActive();
+    }
+
+    private static String key(KillSwitch killSwitch) {
+        KillSwitchScope scope = killSwitch.getScope() != null ? killSwitch.getScope() : KillSwitchScope.FLAG;
+        return key(scope, scope == KillSwitchScope.TAG ? killSwitch.getTag() : killSwitch.getFlagKey());
+    }
+
+    private static String key(KillSwitchScope scope, String target) {
+        return scope == KillSwitchScope.GLOBAL ? scope.name() : scope.name() + ":" + target;
+    }
+}
@@ -0,0 +1,38 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.FeatureFlag;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-local last evaluation times for the memory store type. Stale flags are returned as copies carrying
+ * their time, like the durable stores' {@code last_evaluated_at} column.
+ */
+@RequiredArgsConstructor
+public class InMemoryLastEvaluatedStore implements LastEvaluatedStore {
+
+    private final FlagStore flagStore;
+    private final Map<String, LocalDateTime> lastEvaluated = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordLastEvaluated(Map<String, LocalDateTime> times) {
+        times.forEach((flagKey, evaluatedAt) -> lastEvaluated.merge(flagKey, evaluatedAt,
+                (stored, flushed) -> flushed.isAfter(stored) ? flushed : stored));
+    }
+
+    @Override
+    public List<FeatureFlag> findNotEvaluatedSince(LocalDateTime cutoff) {
+        return flagStore.findAll().stream()
+                .filter(flag -> flag.getCreatedAt() != null && flag.getCreatedAt().isBefore(cutoff))
+                .map(flag -> flag.toBuilder().lastEvaluatedAt(lastEvaluated.get(flag.getKey())).build())
+                .filter(flag -> flag.getLastEvaluatedAt() == null || flag.getLastEvaluatedAt().isBefore(cutoff))
+                .sorted(Comparator.comparing(FeatureFlag::getLastEvaluatedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(FeatureFlag::getKey))
+                .toList();
+    }
+}
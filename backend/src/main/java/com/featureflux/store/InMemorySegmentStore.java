@@ -0,0 +1,66 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.Segment;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-local segment store. Like {@link InMemoryFlagStore}, saves copy their argument
+ * and emulate the entity's id, timestamps and {@code @Version} check.
+ */
+public class InMemorySegmentStore implements SegmentStore {
+
+    private final Map<String, Segment> segmentsByKey = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+
+    @Override
+    public Optional<Segment> findByKey(String key) {
+        return Optional.ofNullable(segmentsByKey.get(key));
+    }
+
+    @Override
+    public Optional<Long> findVersion(String key) {
+        return findByKey(key).map(Segment::getVersion);
+    }
+
+    @Override
+    public List<Segment> findAll() {
+        return new ArrayList<>(segmentsByKey.values());
+    }
+
+    @Override
+    public synchronized Segment save(Segment segment) {
+        Segment stored = StoreSupport.detach(segment);
+        LocalDateTime now = LocalDateTime.now();
+
+        Segment existing = segmentsByKey.get(stored.getKey());
+        if (existing == null) {
+            stored.setId(idSequence.incrementAndGet());
+            stored.setCreatedAt(now);
+            stored.setVersion(0L);
+        } else {
+            if (stored.getVersion() != null && !stored.getVersion().equals(existing.getVersion())) {
+                throw new OptimisticLockingFailureException("Segment was modified concurrently: " + stored.getKey());
+            }
+            stored.setId(existing.getId());
+            stored.setCreatedAt(existing.getCreatedAt());
+            stored.setVersion(existing.getVersion() + 1);
+        }
+        stored.setUpdatedAt(now);
+
+        segmentsByKey.put(stored.getKey(), stored);
+        return stored;
+    }
+
+    @Override
+    public synchronized void delete(Segment segment) {
+        segmentsByKey.remove(segment.getKey());
+    }
+}
@@ -0,0 +1,43 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.ChangeType;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.repository.FeatureFlagRepository;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class JpaFlagStore implements FlagStore {
+
+    private final FeatureFlagRepository repository;
+    private final ChangeOutbox outbox;
+
+    @Override
+    public Optional<FeatureFlag> findByKey(String key) {
+        return repository.findByKey(key);
+    }
+
+    @Override
+    public Optional<FeatureFlag> findById(Long id) {
+        return repository.findById(id);
+    }
+
+    @Override
+    public List<FeatureFlag> findAll() {
+        return repository.findByArchivedFalse();
+    }
+
+    @Override
+    public List<FeatureFlag> findActive() {
+        return repository.findActiveFlags();
+    }
+
+    @Override
+    public FeatureFlag save(FeatureFlag flag) {
+        FeatureFlag saved = repository.save(flag);
+        outbox.record(ChangeType.FLAG, saved.getKey());
+        return saved;
+    }
+}
@@ -0,0 +1,53 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.ChangeType;
+import com.featureflux.entity.KillSwitch;
+import com.featureflux.entity.KillSwitchScope;
+import com.featureflux.repository.KillSwitchRepository;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class JpaKillSwitchStore implements KillSwitchStore {
+
+    private final KillSwitchRepository repository;
+    private final ChangeOutbox outbox;
+
+    @Override
+    public Optional<KillSwitch> findByFlagKey(String flagKey) {
+        return repository.findByFlagKey(flagKey);
+    }
+
+    @Override
+    public Optional<KillSwitch> findByTag(String tag) {
+        return repository.findByTag(tag);
+    }
+
+    @Override
+    public Optional<KillSwitch> findGlobal() {
+        return repository.findFirstByScope(KillSwitchScope.GLOBAL);
+    }
+
+    @Override
+    public List<KillSwitch> findActive() {
+        return repository.findByActiveTrue();
+    }
+
+    @Override
+    public KillSwitch save(KillSwitch killSwitch) {
+        KillSwitch saved = repository.save(killSwitch);
+        switch (saved.getScope()) {
+            case FLAG -> outbox.record(ChangeType.KILL_SWITCH, saved.getFlagKey());
+            case TAG -> outbox.record(ChangeType.BULK_KILL_SWITCH, saved.getTag());
+            case GLOBAL -> outbox.record(ChangeType.BULK_KILL_SWITCH, "*");
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean isActive(String flagKey) {
+        return repository.findByFlagKey(flagKey).map(KillSwitch::getActive).orElse(false);
+    }
+}
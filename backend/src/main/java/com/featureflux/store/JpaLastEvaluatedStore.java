@@ -0,0 +1,41 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.repository.FeatureFlagRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps last evaluation times in {@code feature_flags.last_evaluated_at}. Each flush is one JDBC batch of
+ * conditional updates, so nodes flushing concurrently never move a time backwards. The updates bypass the entity,
+ * leaving the flag's version, {@code updatedAt} and the change feed alone.
+ */
+@RequiredArgsConstructor
+public class JpaLastEvaluatedStore implements LastEvaluatedStore {
+
+    private static final String UPDATE = "UPDATE feature_flags SET last_evaluated_at = ?"
+            + " WHERE key = ? AND (last_evaluated_at IS NULL OR last_evaluated_at < ?)";
+
+    private final FeatureFlagRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void recordLastEvaluated(Map<String, LocalDateTime> lastEvaluated) {
+        if (lastEvaluated.isEmpty()) {
+            return;
+        }
+        List<Object[]> updates = new ArrayList<>(lastEvaluated.size());
+        lastEvaluated.forEach((flagKey, evaluatedAt) -> updates.add(new Object[]{evaluatedAt, flagKey, evaluatedAt}));
+        jdbcTemplate.batchUpdate(UPDATE, updates);
+    }
+
+    @Override
+    public List<FeatureFlag> findNotEvaluatedSince(LocalDateTime cutoff) {
+        return repository.findNotEvaluatedSince(cutoff);
+    }
+}
@@ -0,0 +1,44 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.ChangeType;
+import com.featureflux.entity.Segment;
+import com.featureflux.repository.SegmentRepository;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class JpaSegmentStore implements SegmentStore {
+
+    private final SegmentRepository repository;
+    private final ChangeOutbox outbox;
+
+    @Override
+    public Optional<Segment> findByKey(String key) {
+        return repository.findByKey(key);
+    }
+
+    @Override
+    public Optional<Long> findVersion(String key) {
+        return repository.findVersionByKey(key);
+    }
+
+    @Override
+    public List<Segment> findAll() {
+        return repository.findAll();
+    }
+
+    @Override
+    public Segment save(Segment segment) {
+        Segment saved = repository.save(segment);
+        outbox.record(ChangeType.SEGMENT, saved.getKey());
+        return saved;
+    }
+
+    @Override
+    public void delete(Segment segment) {
+        repository.delete(segment);
+        outbox.record(ChangeType.SEGMENT, segment.getKey());
+    }
+}
@@ -0,0 +1,36 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.KillSwitch;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Storage SPI for kill switches, selected alongside {@link FlagStore}.
+ */
+public interface KillSwitchStore {
+
+    Optional<KillSwitch> findByFlagKey(String flagKey);
+
+    Optional<KillSwitch> findByTag(String tag);
+
+    /** The global switch, once it has been activated for the first time. */
+    Optional<KillSwitch> findGlobal();
+
+    /** Active switches of every scope. */
+    List<KillSwitch> findActive();
+
+    KillSwitch save(KillSwitch killSwitch);
+
+    /** Whether the flag's own switch is active; implementations should answer this from their fastest tier. */
+    boolean isActive(String flagKey);
+
+    /** Reloads any copy of the kill switch kept outside the durable store after another node changed it. */
+    default void refresh(String flagKey) {
+    }
+
+    /** Loads the state of each flag's kill switch, by flag key, into any copy kept outside the durable store. */
+    default void preload(Map<String, Boolean> states) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.FeatureFlag;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * When each flag was last evaluated, as flushed by the nodes in batches. Kept apart from {@link FlagStore} because
+ * it is written far more often than flags change and must not go through the change feed.
+ */
+public interface LastEvaluatedStore {
+
+    /** Moves each flag's last evaluation time forward to the given one; times older than the stored one are ignored. */
+    void recordLastEvaluated(Map<String, LocalDateTime> lastEvaluated);
+
+    /** Non-archived flags created before the cutoff and not evaluated since, never-evaluated ones first. */
+    List<FeatureFlag> findNotEvaluatedSince(LocalDateTime cutoff);
+}
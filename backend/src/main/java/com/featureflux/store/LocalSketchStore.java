@@ -0,0 +1,24 @@
+package com.featureflux.store;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public class LocalSketchStore implements SketchStore {
+
+    @Override
+    public void publish(String flagKey, long bucket, byte[] sketch, Duration ttl) {
+        // no other nodes to share with
+    }
+
+    @Override
+    public Map<Long, List<byte[]>> read(String flagKey, Collection<Long> buckets) {
+        return Map.of();
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+}
@@ -0,0 +1,14 @@
+package com.featureflux.store;
+
+public class NoOpEvaluationCache implements EvaluationCache {
+
+    @Override
+    public Boolean get(String flagKey, String userId) {
+        return null;
+    }
+
+    @Override
+    public void put(String flagKey, String userId, boolean enabled) {
+        // nothing to cache
+    }
+}
@@ -0,0 +1,145 @@
+package com.featureflux.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Postgres read replicas that read-only transactions are routed to, each used only while its replication lag is
+ * within {@code maxLag}. Lag is probed every {@code featureflux.datasource.replicas.lag-check-interval-ms}; a replica
+ * that cannot be reached, or whose lag is unknown, is skipped until a probe succeeds again. A server that is not in
+ * recovery is a primary, or a standalone copy, and counts as having no lag.
+ */
+@Slf4j
+public class ReadReplicas implements Closeable {
+
+    /**
+     * Replication lag in millis: none once everything received has been replayed, which also covers an idle primary
+     * whose last replayed transaction is old.
+     */
+    static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END""";
+
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        /** Last probed lag in millis, or {@code -1} when the last probe failed or none ran yet. */
+        private volatile long lagMillis = -1;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public long getLagMillis() {
+            return lagMillis;
+        }
+    }
+
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadReplicas(List<Replica> replicas, Duration maxLag) {
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = maxLag;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * The next usable replica in turn, or {@code null} when none is, and reads go to the primary.
+     */
+    public Replica choose() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (isUsable(replica)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /** Takes a replica out of rotation until its next successful probe, after it failed a connection. */
+    public void markFailed(Replica replica) {
+        record(replica, -1);
+    }
+
+    @Scheduled(fixedDelayString = "${featureflux.datasource.replicas.lag-check-interval-ms:1000}")
+    public void probe() {
+        for (Replica replica : replicas) {
+            long lag;
+            try {
+                Number probed = replica.jdbcTemplate.queryForObject(LAG_QUERY, Number.class);
+                lag = probed != null ? Math.max(0, probed.longValue()) : -1;
+            } catch (RuntimeException e) {
+                if (isUsable(replica)) {
+                    log.warn("Read replica {} unreachable, reading from the primary", replica.name, e);
+                }
+                lag = -1;
+            }
+            record(replica, lag);
+        }
+    }
+
+    /**
+     * @param lagMillis the replica's lag, or {@code -1} if it could not be probed
+     */
+    void record(Replica replica, long lagMillis) {
+        boolean wasUsable = isUsable(replica);
+        replica.lagMillis = lagMillis;
+        boolean usable = isUsable(replica);
+        if (wasUsable && !usable && lagMillis >= 0) {
+            log.warn("Read replica {} is {} ms behind, more than {} ms; reading from the primary",
+                    replica.name, lagMillis, maxLag.toMillis());
+        } else if (!wasUsable && usable) {
+            log.info("Read replica {} in rotation, {} ms behind", replica.name, lagMillis);
+        }
+    }
+
+    boolean isUsable(Replica replica) {
+        long lag = replica.lagMillis;
+        return lag >= 0 && lag <= maxLag.toMillis();
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close read replica {}", replica.name, e);
+                }
+            }
+        }
+    }
+}
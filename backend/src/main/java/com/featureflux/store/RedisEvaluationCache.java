@@ -0,0 +1,178 @@
+package com.featureflux.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Evaluation results in Redis under {@code eval:<flagKey>:<revision>:<userId>}, guarded against stampedes when a
+ * hot flag's entries expire:
+ * <ul>
+ *   <li>each entry's TTL is jittered, so entries written together do not expire together;</li>
+ *   <li>an entry is refreshed early with a probability that rises as its expiry nears and with how long it took to
+ *   compute (XFetch), so a hot entry is usually refreshed before it ever expires;</li>
+ *   <li>a refresh is run by one caller per node while concurrent callers keep being served the stale result, which
+ *   stays in Redis for a grace period past its expiry;</li>
+ *   <li>concurrent misses on the same entry share one load.</li>
+ * </ul>
+ */
+public class RedisEvaluationCache implements EvaluationCache {
+
+    public static final String CACHE_METRIC = "featureflux.evaluation.cache";
+    public static final String LOAD_METRIC = "featureflux.evaluation.cache.loads";
+
+    private static final String EVALUATION_CACHE_PREFIX = "eval:";
+
+    /** How eagerly entries are refreshed ahead of expiry; 1 is the value the XFetch paper recommends. */
+    private static final double EARLY_REFRESH_BETA = 1.0;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final FlagRevisions flagRevisions;
+    private final Duration ttl;
+    private final double jitter;
+    private final Duration staleGrace;
+    private final SingleFlight<String, Boolean> loads = new SingleFlight<>();
+
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Counter loadCount;
+
+    /** Time source for entry expiry; replaced in tests. */
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * @param jitter     fraction of {@code ttl} by which each entry's TTL is randomly shortened or lengthened
+     * @param staleGrace how long past its expiry an entry may still be served while it is being refreshed
+     */
+    public RedisEvaluationCache(RedisTemplate<String, Object> redisTemplate, FlagRevisions flagRevisions,
+                                Duration ttl, double jitter, Duration staleGrace, MeterRegistry meterRegistry) {
+        if (jitter < 0 || jitter >= 1) {
+            throw new IllegalArgumentException("TTL jitter must be at least 0 and below 1: " + jitter);
+        }
+        this.redisTemplate = redisTemplate;
+        this.flagRevisions = flagRevisions;
+        this.ttl = ttl;
+        this.jitter = jitter;
+        this.staleGrace = staleGrace;
+        this.hits = result(meterRegistry, "hit");
+        this.staleHits = result(meterRegistry, "stale");
+        this.misses = result(meterRegistry, "miss");
+        this.loadCount = Counter.builder(LOAD_METRIC)
+                .description("Evaluations computed to fill the evaluation cache")
+                .register(meterRegistry);
+    }
+
+    /** {@code ttl} randomly shortened or lengthened by up to {@code jitter} of itself. */
+    public static Duration jittered(Duration ttl, double jitter) {
+        if (jitter == 0) {
+            return ttl;
+        }
+        double factor = 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Duration.ofMillis(Math.max(1, (long) (ttl.toMillis() * factor)));
+    }
+
+    @Override
+    public Boolean get(String flagKey, String userId) {
+        Entry entry = read(cacheKey(flagKey, userId));
+        return entry != null ? entry.enabled() : null;
+    }
+
+    @Override
+    public void put(String flagKey, String userId, boolean enabled) {
+        write(cacheKey(flagKey, userId), enabled, 0);
+    }
+
+    @Override
+    public Boolean get(String flagKey, String userId, Supplier<Boolean> load) {
+        String key = cacheKey(flagKey, userId);
+        Entry entry = read(key);
+        if (entry == null) {
+            misses.increment();
+            return loads.run(key, () -> load(key, load));
+        }
+        long now = clock.millis();
+        if (!entry.refreshDue(now)) {
+            hits.increment();
+            return entry.enabled();
+        }
+        return loads.run(key, () -> load(key, load), () -> {
+            (now >= entry.expiresAt() ? staleHits : hits).increment();
+            return entry.enabled();
+        });
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private Boolean load(String key, Supplier<Boolean> load) {
+        long start = System.nanoTime();
+        Boolean loaded = load.get();
+        loadCount.increment();
+        if (loaded != null) {
+            write(key, loaded, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return loaded;
+    }
+
+    /**
+     * Entries are {@code <0|1>:<expiresAt>:<computeMillis>}, kept in Redis for the stale grace period beyond
+     * {@code expiresAt}.
+     */
+    private void write(String key, boolean enabled, long computeMillis) {
+        long ttlMillis = jittered(ttl, jitter).toMillis();
+        String value = (enabled ? "1:" : "0:") + (clock.millis() + ttlMillis) + ":" + computeMillis;
+        redisTemplate.opsForValue().set(key, value, ttlMillis + staleGrace.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private Entry read(String key) {
+        Object value = redisTemplate.opsForValue().get(key);
+        if (value instanceof String encoded) {
+            int expiry = encoded.indexOf(':', 2);
+            return new Entry(encoded.charAt(0) == '1', Long.parseLong(encoded, 2, expiry, 10),
+                    Long.parseLong(encoded, expiry + 1, encoded.length(), 10));
+        }
+        // Written before entries carried their expiry; they expire on their own Redis TTL
+        if (value instanceof Boolean enabled) {
+            return new Entry(enabled, Long.MAX_VALUE, 0);
+        }
+        return null;
+    }
+
+    /**
+     * Keys carry the flag's change feed revision, so a change is invalidation enough: entries cached under an
+     * older revision are simply no longer read and expire on their own.
+     */
+    private String cacheKey(String flagKey, String userId) {
+        return EVALUATION_CACHE_PREFIX + flagKey + ":" + flagRevisions.of(flagKey) + ":" + userId;
+    }
+
+    private static Counter result(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(CACHE_METRIC)
+                .tag("result", result)
+                .description("Evaluation cache lookups by outcome; stale results are served while another caller refreshes them")
+                .register(meterRegistry);
+    }
+
+    private record Entry(boolean enabled, long expiresAt, long computeMillis) {
+
+        /**
+         * Expired, or picked for early refresh: {@code now - computeMillis * beta * ln(random) >= expiresAt}, which
+         * becomes likelier the nearer the expiry and the costlier the entry is to compute.
+         */
+        boolean refreshDue(long now) {
+            if (now >= expiresAt) {
+                return true;
+            }
+            return computeMillis > 0
+                    && now - computeMillis * EARLY_REFRESH_BETA * Math.log(ThreadLocalRandom.current().nextDouble()) >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.RolloutStep;
+import com.featureflux.rules.RolloutSchedule;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates flags inside Redis with {@code redis/evaluate.lua}, one round trip for one flag or a whole bulk request,
+ * instead of reading the flag or a cached result and evaluating in Java. The script runs atomically, so it never
+ * sees a definition half-published.
+ * <p>
+ * Each flag's definition is published next to the flag itself: a hash {@code flagdef:<key>} with its mode, enabled
+ * state, rollout percentage and schedule, and sets {@code flagtargets:<key>} and {@code flagexcluded:<key>} of its
+ * target and excluded users. Only flags without prerequisites, segments, rules, an experiment layer or variants are
+ * in {@code script} mode, as are all disabled flags; the script answers the others with "evaluate in Java". The
+ * rollout bucket is the same SHA-256 of {@code flagKey:userId} as in Java, so both give every user the same result.
+ * Kill switches are not published: callers check them first, from the node's compiled kill state.
+ * <p>
+ * The script is sent by its SHA-1 ({@code EVALSHA}), and in full only when Redis does not have it yet.
+ */
+public class RedisEvaluationScript {
+
+    static final String DEFINITION_PREFIX = "flagdef:";
+    static final String TARGETS_PREFIX = "flagtargets:";
+    static final String EXCLUDED_PREFIX = "flagexcluded:";
+
+    static final String SCRIPT_MODE = "script";
+    static final String JAVA_MODE = "java";
+
+    private static final DefaultRedisScript<List> SCRIPT = new DefaultRedisScript<>();
+
+    static {
+        SCRIPT.setLocation(new ClassPathResource("redis/evaluate.lua"));
+        SCRIPT.setResultType(List.class);
+    }
+
+    /** The script returns integers, which are not deserialized; this only has to match the result type. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisSerializer<List> RESULTS = (RedisSerializer) RedisSerializer.string();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /** Time source for rollout schedules; replaced in tests. */
+    private Clock clock = Clock.systemUTC();
+
+    public RedisEvaluationScript(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * @param requests user id by flag key
+     * @return results of the flags evaluated in Redis; the others, including flags not published yet, must be
+     * evaluated in Java
+     */
+    public Map<String, Boolean> evaluate(Map<String, String> requests) {
+        List<String> flagKeys = new ArrayList<>(requests.size());
+        List<String> keys = new ArrayList<>(requests.size() * 3);
+        List<String> args = new ArrayList<>(requests.size() * 2 + 1);
+        args.add(Long.toString(clock.millis()));
+        requests.forEach((flagKey, userId) -> {
+            if (userId == null) {
+                return;
+            }
+            flagKeys.add(flagKey);
+            keys.add(DEFINITION_PREFIX + flagKey);
+            keys.add(TARGETS_PREFIX + flagKey);
+            keys.add(EXCLUDED_PREFIX + flagKey);
+            args.add(flagKey);
+            args.add(userId);
+        });
+        if (flagKeys.isEmpty()) {
+            return Map.of();
+        }
+
+        List<?> results = redisTemplate.execute(SCRIPT, RedisSerializer.string(), RESULTS, keys, args.toArray());
+        Map<String, Boolean> evaluated = new HashMap<>();
+        for (int i = 0; results != null && i < flagKeys.size(); i++) {
+            if (results.get(i) instanceof Long result && result >= 0) {
+                evaluated.put(flagKeys.get(i), result == 1);
+            }
+        }
+        return evaluated;
+    }
+
+    /** Replaces the flag's definition. */
+    public void publish(FeatureFlag flag) {
+        publishAll(List.of(flag));
+    }
+
+    /** Replaces the flags' definitions in one transaction. */
+    public void publishAll(Collection<FeatureFlag> flags) {
+        if (flags.isEmpty()) {
+            return;
+        }
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.multi();
+            for (FeatureFlag flag : flags) {
+                write(connection, flag);
+            }
+            connection.exec();
+            return null;
+        });
+    }
+
+    public void remove(String flagKey) {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.keyCommands().del(keys(flagKey));
+            return null;
+        });
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private static void write(RedisConnection connection, FeatureFlag flag) {
+        byte[][] keys = keys(flag.getKey());
+        connection.keyCommands().del(keys);
+        connection.hashCommands().hMSet(keys[0], definition(flag).entrySet().stream()
+                .collect(Collectors.toMap(field -> bytes(field.getKey()), field -> bytes(field.getValue()))));
+        if (isScriptEvaluable(flag) && flag.getEnabled()) {
+            addMembers(connection, keys[1], flag.getTargetUserIds());
+            addMembers(connection, keys[2], flag.getExcludedUserIds());
+        }
+    }
+
+    private static void addMembers(RedisConnection connection, byte[] key, Collection<String> userIds) {
+        if (userIds != null && !userIds.isEmpty()) {
+            connection.setCommands().sAdd(key, userIds.stream().map(RedisEvaluationScript::bytes).toArray(byte[][]::new));
+        }
+    }
+
+    /** Fields of the flag's definition hash, as the script reads them. */
+    static Map<String, String> definition(FeatureFlag flag) {
+        Map<String, String> definition = new LinkedHashMap<>();
+        if (!isScriptEvaluable(flag)) {
+            definition.put("mode", JAVA_MODE);
+            return definition;
+        }
+        definition.put("mode", SCRIPT_MODE);
+        definition.put("enabled", flag.getEnabled() ? "1" : "0");
+        definition.put("rollout", Integer.toString(flag.getRolloutPercentage() != null ? flag.getRolloutPercentage() : 0));
+        definition.put("steps", steps(flag.getRolloutSchedule()));
+        return definition;
+    }
+
+    /**
+     * Disabled flags are always off. Enabled ones only when their result depends on nothing but the user id, the
+     * clock and the definition itself.
+     */
+    static boolean isScriptEvaluable(FeatureFlag flag) {
+        if (flag.getEnabled() == null) {
+            return false;
+        }
+        return !flag.getEnabled()
+                || (isEmpty(flag.getPrerequisites()) && isEmpty(flag.getTargetSegmentKeys())
+                && isEmpty(flag.getExcludedSegmentKeys()) && isEmpty(flag.getRules()) && isEmpty(flag.getVariants())
+                && flag.getLayerKey() == null);
+    }
+
+    /**
+     * Steps as {@code at:percentage:linear}, comma-separated. A schedule that does not compile is left out, since
+     * Java then serves the flag's own rollout percentage.
+     */
+    static String steps(List<RolloutStep> steps) {
+        if (isEmpty(steps)) {
+            return "";
+        }
+        try {
+            RolloutSchedule.compile(steps);
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+        return steps.stream()
+                .map(step -> step.getAt().toEpochMilli() + ":" + step.getPercentage() + ":" + (step.isLinear() ? 1 : 0))
+                .collect(Collectors.joining(","));
+    }
+
+    private static byte[][] keys(String flagKey) {
+        return new byte[][]{
+                bytes(DEFINITION_PREFIX + flagKey), bytes(TARGETS_PREFIX + flagKey), bytes(EXCLUDED_PREFIX + flagKey)
+        };
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean isEmpty(Collection<?> collection) {
+        return collection == null || collection.isEmpty();
+    }
+}
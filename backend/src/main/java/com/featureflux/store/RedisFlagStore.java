@@ -0,0 +1,122 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.FeatureFlag;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Redis-primary store: the evaluation path reads flag definitions from a Redis hash,
+ * falling back to the durable store only when a flag has not been published yet; concurrent misses on one flag
+ * share a single durable read, and populate the hash only if the flag is still absent, so a copy read before a
+ * write committed never overwrites the copy that write publishes.
+ * Writes go to the durable store and are published to Redis after commit, and republished by every node that
+ * sees the change in the change feed, so a publish lost while Redis was unreachable is repaired.
+ * Admin listings read the durable store, which is the only complete copy.
+ * With a {@link RedisEvaluationScript}, each flag's script definition is published and removed along with it.
+ */
+public class RedisFlagStore implements FlagStore {
+
+    private static final String FLAGS_KEY = "flags";
+
+    private final FlagStore durableStore;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisEvaluationScript script;
+    private final SingleFlight<String, Optional<FeatureFlag>> misses = new SingleFlight<>();
+
+    public RedisFlagStore(FlagStore durableStore, RedisTemplate<String, Object> redisTemplate) {
+        this(durableStore, redisTemplate, null);
+    }
+
+    /**
+     * @param script where to also publish flag definitions for evaluation in Redis, or {@code null}
+     */
+    public RedisFlagStore(FlagStore durableStore, RedisTemplate<String, Object> redisTemplate,
+                          RedisEvaluationScript script) {
+        this.durableStore = durableStore;
+        this.redisTemplate = redisTemplate;
+        this.script = script;
+    }
+
+    @Override
+    public Optional<FeatureFlag> findByKey(String key) {
+        Object cached = redisTemplate.opsForHash().get(FLAGS_KEY, key);
+        if (cached instanceof FeatureFlag flag) {
+            return Optional.of(flag);
+        }
+
+        // Detached, since callers that joined the read use the flag outside the session that loaded it
+        return misses.run(key, () -> {
+            Optional<FeatureFlag> flag = durableStore.findByKey(key).map(StoreSupport::detach);
+            // The script definition is left to the next publish; the script evaluates unpublished flags in Java
+            flag.ifPresent(found -> redisTemplate.opsForHash().putIfAbsent(FLAGS_KEY, key, found));
+            return flag;
+        });
+    }
+
+    @Override
+    public Optional<FeatureFlag> findByKeyForUpdate(String key) {
+        return durableStore.findByKeyForUpdate(key);
+    }
+
+    @Override
+    public Optional<FeatureFlag> findById(Long id) {
+        return durableStore.findById(id);
+    }
+
+    @Override
+    public List<FeatureFlag> findAll() {
+        return durableStore.findAll();
+    }
+
+    @Override
+    public List<FeatureFlag> findActive() {
+        return durableStore.findActive();
+    }
+
+    @Override
+    public FeatureFlag save(FeatureFlag flag) {
+        FeatureFlag saved = durableStore.save(flag);
+        FeatureFlag published = StoreSupport.detach(saved);
+        StoreSupport.afterCommit(() -> publish(published));
+        return saved;
+    }
+
+    @Override
+    public void refresh(String key) {
+        Optional<FeatureFlag> flag = durableStore.findByKey(key);
+        if (flag.isPresent()) {
+            publish(flag.get());
+        } else {
+            redisTemplate.opsForHash().delete(FLAGS_KEY, key);
+            if (script != null) {
+                script.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Publishes all flags in one round trip. A change committed meanwhile may be overwritten with the older copy;
+     * the change feed republishes it right after.
+     */
+    @Override
+    public void preload(Collection<FeatureFlag> flags) {
+        Map<String, FeatureFlag> published = new HashMap<>();
+        flags.forEach(flag -> published.put(flag.getKey(), StoreSupport.detach(flag)));
+        redisTemplate.opsForHash().putAll(FLAGS_KEY, published);
+        if (script != null) {
+            script.publishAll(published.values());
+        }
+    }
+
+    private void publish(FeatureFlag flag) {
+        redisTemplate.opsForHash().put(FLAGS_KEY, flag.getKey(), StoreSupport.detach(flag));
+        if (script != null) {
+            script.publish(flag);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.KillSwitch;
+import com.featureflux.entity.KillSwitchScope;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis-primary flag kill switch state under {@code killswitch:<flagKey>}. Every write republishes
+ * the state after commit, so published keys need no TTL to converge. Concurrent misses on one flag share a
+ * single durable read, and set the key only if it is still absent and with a TTL, so a state read before a write
+ * committed neither overwrites the state that write publishes nor outlives it. Tag and global switches are only
+ * read to compile each node's kill state, so they stay in the durable store.
+ */
+@RequiredArgsConstructor
+public class RedisKillSwitchStore implements KillSwitchStore {
+
+    private static final String KILL_SWITCH_PREFIX = "killswitch:";
+    private static final long MISS_TTL_SECONDS = 300; // 5 minutes
+
+    private final KillSwitchStore durableStore;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final SingleFlight<String, Boolean> misses = new SingleFlight<>();
+
+    @Override
+    public Optional<KillSwitch> findByFlagKey(String flagKey) {
+        return durableStore.findByFlagKey(flagKey);
+    }
+
+    @Override
+    public Optional<KillSwitch> findByTag(String tag) {
+        return durableStore.findByTag(tag);
+    }
+
+    @Override
+    public Optional<KillSwitch> findGlobal() {
+        return durableStore.findGlobal();
+    }
+
+    @Override
+    public List<KillSwitch> findActive() {
+        return durableStore.findActive();
+    }
+
+    @Override
+    public KillSwitch save(KillSwitch killSwitch) {
+        KillSwitch saved = durableStore.save(killSwitch);
+        if (saved.getScope() != KillSwitchScope.FLAG) {
+            return saved;
+        }
+        String flagKey = saved.getFlagKey();
+        boolean active = saved.getActive();
+        StoreSupport.afterCommit(() -> redisTemplate.opsForValue().set(KILL_SWITCH_PREFIX + flagKey, active));
+        return saved;
+    }
+
+    @Override
+    public void refresh(String flagKey) {
+        redisTemplate.opsForValue().set(KILL_SWITCH_PREFIX + flagKey, durableStore.isActive(flagKey));
+    }
+
+    /** Sets all states in one round trip, so evaluations of flags without an active kill switch never miss either. */
+    @Override
+    public void preload(Map<String, Boolean> states) {
+        Map<String, Object> keys = new HashMap<>();
+        states.forEach((flagKey, active) -> keys.put(KILL_SWITCH_PREFIX + flagKey, active));
+        redisTemplate.opsForValue().multiSet(keys);
+    }
+
+    @Override
+    public boolean isActive(String flagKey) {
+        String key = KILL_SWITCH_PREFIX + flagKey;
+        Boolean cached = (Boolean) redisTemplate.opsForValue().get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        return misses.run(flagKey, () -> {
+            boolean active = durableStore.isActive(flagKey);
+            redisTemplate.opsForValue().setIfAbsent(key, active, MISS_TTL_SECONDS, TimeUnit.SECONDS);
+            return active;
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package com.featureflux.store;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates flags in Redis with {@link RedisEvaluationScript}, and caches results of the flags the script leaves to
+ * Java in the wrapped cache as before. Flags the script answered "evaluate in Java" for are not sent to it again
+ * until their change feed revision moves, so they cost no extra round trip.
+ */
+public class RedisScriptEvaluationCache implements EvaluationCache {
+
+    private final EvaluationCache delegate;
+    private final RedisEvaluationScript script;
+    private final FlagRevisions flagRevisions;
+
+    /** Flags beyond this many are sent to the script every time, since the evaluation API accepts any flag key. */
+    static final int MAX_JAVA_ONLY_FLAGS = 10_000;
+
+    /** Revision at which each flag was last left to Java by the script. */
+    private final Map<String, Long> javaOnly = new ConcurrentHashMap<>();
+
+    public RedisScriptEvaluationCache(EvaluationCache delegate, RedisEvaluationScript script, FlagRevisions flagRevisions) {
+        this.delegate = delegate;
+        this.script = script;
+        this.flagRevisions = flagRevisions;
+    }
+
+    @Override
+    public Boolean get(String flagKey, String userId) {
+        return delegate.get(flagKey, userId);
+    }
+
+    @Override
+    public void put(String flagKey, String userId, boolean enabled) {
+        delegate.put(flagKey, userId, enabled);
+    }
+
+    @Override
+    public Boolean get(String flagKey, String userId, Supplier<Boolean> load) {
+        return delegate.get(flagKey, userId, load);
+    }
+
+    @Override
+    public Boolean evaluate(String flagKey, String userId) {
+        return userId != null ? evaluate(Map.of(flagKey, userId)).get(flagKey) : null;
+    }
+
+    @Override
+    public Map<String, Boolean> evaluate(Map<String, String> requests) {
+        Map<String, String> scripted = new HashMap<>();
+        // Read before the script runs, so a change seen meanwhile is retried
+        Map<String, Long> revisions = new HashMap<>();
+        requests.forEach((flagKey, userId) -> {
+            long revision = flagRevisions.of(flagKey);
+            Long leftAt = javaOnly.get(flagKey);
+            if (userId != null && (leftAt == null || leftAt != revision)) {
+                scripted.put(flagKey, userId);
+                revisions.put(flagKey, revision);
+            }
+        });
+        if (scripted.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Boolean> results = script.evaluate(scripted);
+        revisions.forEach((flagKey, revision) -> {
+            if (!results.containsKey(flagKey) && (javaOnly.size() < MAX_JAVA_ONLY_FLAGS || javaOnly.containsKey(flagKey))) {
+                javaOnly.put(flagKey, revision);
+            }
+        });
+        return results;
+    }
+}
@@ -0,0 +1,70 @@
+package com.featureflux.store;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps each node's sketch of a flag's time bucket as one field, named after the node, of a Redis hash per flag
+ * and bucket. Hashes expire with their bucket. Nodes get a new name on every start, so the sketch of a node's
+ * previous run stays counted until it expires. Bytes go through the connection directly, since the template's
+ * serializer is JSON.
+ */
+public class RedisSketchStore implements SketchStore {
+
+    private static final String KEY_PREFIX = "analytics:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final byte[] node = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+    public RedisSketchStore(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void publish(String flagKey, long bucket, byte[] sketch, Duration ttl) {
+        byte[] key = key(flagKey, bucket);
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.hashCommands().hSet(key, node, sketch);
+            connection.keyCommands().pExpire(key, ttl.toMillis());
+            return null;
+        });
+    }
+
+    @Override
+    public Map<Long, List<byte[]>> read(String flagKey, Collection<Long> buckets) {
+        return redisTemplate.execute((RedisCallback<Map<Long, List<byte[]>>>) connection -> {
+            Map<Long, List<byte[]>> sketches = new HashMap<>();
+            for (long bucket : buckets) {
+                Map<byte[], byte[]> byNode = connection.hashCommands().hGetAll(key(flagKey, bucket));
+                if (byNode == null) {
+                    continue;
+                }
+                byNode.forEach((otherNode, sketch) -> {
+                    if (!Arrays.equals(otherNode, node)) {
+                        sketches.computeIfAbsent(bucket, b -> new ArrayList<>()).add(sketch);
+                    }
+                });
+            }
+            return sketches;
+        });
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    private static byte[] key(String flagKey, long bucket) {
+        return (KEY_PREFIX + flagKey + ":" + bucket).getBytes(StandardCharsets.UTF_8);
+    }
+}
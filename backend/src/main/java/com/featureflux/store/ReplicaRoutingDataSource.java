@@ -0,0 +1,59 @@
+package com.featureflux.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Sends connections of read-only transactions ({@code @Transactional(readOnly = true)}) to a {@link ReadReplicas}
+ * replica, and everything else to the primary: writes, reads inside read-write transactions, which must see their
+ * own writes, and reads outside any transaction. Falls back to the primary when no replica is within its lag bound,
+ * or when the chosen one refuses a connection.
+ * <p>
+ * The transaction is only known to be read-only once it has begun, after JPA has asked for its connection, so this
+ * must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which asks for the
+ * connection at the first statement instead.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReadReplicas replicas;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReadReplicas replicas) {
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ReadReplicas.Replica replica = replicaForCurrentTransaction();
+        if (replica != null) {
+            try {
+                return replica.getDataSource().getConnection();
+            } catch (SQLException e) {
+                log.warn("Read replica {} refused a connection, reading from the primary", replica.getName(), e);
+                replicas.markFailed(replica);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /** The replica the current transaction reads from, or {@code null} for the primary. */
+    ReadReplicas.Replica replicaForCurrentTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        return replicas.choose();
+    }
+}
@@ -0,0 +1,24 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.Segment;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage SPI for user segments, selected together with {@link FlagStore} by {@code featureflux.store.type}.
+ * Segment membership is indexed in process by the evaluation path, so the Redis type reads segments from Postgres.
+ */
+public interface SegmentStore {
+
+    Optional<Segment> findByKey(String key);
+
+    /** Current version of a segment, without loading its members. */
+    Optional<Long> findVersion(String key);
+
+    List<Segment> findAll();
+
+    Segment save(Segment segment);
+
+    void delete(Segment segment);
+}
@@ -0,0 +1,60 @@
+package com.featureflux.store;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key within this node: the first caller runs the load, callers that arrive
+ * while it is running share its result instead of issuing their own. Nothing is kept once the load completes.
+ */
+final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@code load}, or waits for the load of the same key already running. A failed load fails every caller
+     * waiting on it with the same exception.
+     */
+    V run(K key, Supplier<V> load) {
+        return run(key, load, null);
+    }
+
+    /**
+     * Like {@link #run(Object, Supplier)}, but callers that find a load already running take {@code whileRunning}
+     * instead of waiting, when given.
+     */
+    V run(K key, Supplier<V> load, Supplier<V> whileRunning) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            return whileRunning != null ? whileRunning.get() : join(running);
+        }
+        try {
+            V value = load.get();
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
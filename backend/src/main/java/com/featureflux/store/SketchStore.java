@@ -0,0 +1,22 @@
+package com.featureflux.store;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where nodes exchange their evaluation analytics sketches, so each node can merge the cluster's. Sketches are
+ * opaque bytes here; only the {@code redis} type shares them, the others keep analytics node-local.
+ */
+public interface SketchStore {
+
+    /** Replaces this node's sketch of one of the flag's time buckets, kept for {@code ttl}. */
+    void publish(String flagKey, long bucket, byte[] sketch, Duration ttl);
+
+    /** The other nodes' sketches of the flag's buckets, by bucket. */
+    Map<Long, List<byte[]>> read(String flagKey, Collection<Long> buckets);
+
+    /** Whether {@link #read} returns other nodes' sketches at all. */
+    boolean isShared();
+}
@@ -0,0 +1,170 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Segment;
+import com.featureflux.rules.KillSwitchState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Serves evaluation reads from the last good {@link FlagSnapshot} while the live stores are unreachable.
+ * <p>
+ * A snapshot found on disk is mapped when this is created, before any connection to Postgres or Redis exists, and
+ * answers reads until {@link #reconcile()} first succeeds. After that, reads go to the live stores; the first one
+ * to fail with a connectivity error switches reads back to the snapshot until the next successful reconcile, so an
+ * outage costs one timeout rather than one per request. Writes always go to the live stores.
+ */
+@Slf4j
+public class SnapshotFallback {
+
+    private final Path path;
+    private FlagStore liveFlags;
+    private KillSwitchStore liveKillSwitches;
+    private SegmentStore liveSegments;
+
+    private volatile FlagSnapshot snapshot;
+    private volatile boolean live;
+
+    public SnapshotFallback(Path path) {
+        this.path = path;
+        this.snapshot = load(path);
+        this.live = snapshot == null;
+    }
+
+    public FlagStore wrap(FlagStore store) {
+        liveFlags = store;
+        return new SnapshotFlagStore(store, this);
+    }
+
+    public KillSwitchStore wrap(KillSwitchStore store) {
+        liveKillSwitches = store;
+        return new SnapshotKillSwitchStore(store, this);
+    }
+
+    public SegmentStore wrap(SegmentStore store) {
+        liveSegments = store;
+        return new SnapshotSegmentStore(store, this);
+    }
+
+    public boolean isLive() {
+        return live;
+    }
+
+    /**
+     * Reads everything the snapshot needs from the live stores and, if they answer, writes a fresh snapshot and
+     * switches reads back to them; if they do not, switches reads to the snapshot.
+     *
+     * @param transactions flags are read with their lazily loaded collections, which the snapshot serializes
+     * @return {@code false} if a live store is unreachable
+     */
+    public boolean reconcile(TransactionOperations transactions) {
+        int flags;
+        try {
+            flags = transactions.execute(status -> write());
+        } catch (DataAccessException | TransactionException e) {
+            if (live && snapshot != null) {
+                live = false;
+                log.warn("Live stores unavailable, serving flags from the snapshot written at {}", snapshot.getCreatedAt(), e);
+            } else {
+                log.debug("Live stores unavailable", e);
+            }
+            return false;
+        }
+        if (!live) {
+            live = true;
+            log.info("Live stores reachable, reconciled the flag snapshot with {} flags", flags);
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the snapshot with the active flags, active kill switches and the segments those flags reference,
+     * as read from the live stores.
+     *
+     * @return number of flags read
+     */
+    private int write() {
+        List<FeatureFlag> flags = liveFlags.findActive();
+        if (!flags.isEmpty()) {
+            // Also exercises the fast tier evaluation reads go through, not just the durable store behind it
+            liveFlags.findByKey(flags.get(0).getKey());
+            liveKillSwitches.isActive(flags.get(0).getKey());
+        }
+        // Recorded as the flags they switch off, which is all the snapshot's reads need
+        Set<String> killSwitches = KillSwitchState.killedFlags(liveKillSwitches.findActive(), flags);
+        Map<String, Segment> segments = new LinkedHashMap<>();
+        for (FeatureFlag flag : flags) {
+            List<String> segmentKeys = new ArrayList<>();
+            if (flag.getTargetSegmentKeys() != null) {
+                segmentKeys.addAll(flag.getTargetSegmentKeys());
+            }
+            if (flag.getExcludedSegmentKeys() != null) {
+                segmentKeys.addAll(flag.getExcludedSegmentKeys());
+            }
+            for (String segmentKey : segmentKeys) {
+                if (!segments.containsKey(segmentKey)) {
+                    liveSegments.findByKey(segmentKey).ifPresent(segment -> segments.put(segmentKey, StoreSupport.detach(segment)));
+                }
+            }
+        }
+        try {
+            FlagSnapshot.write(path, flags.stream().map(StoreSupport::detach).toList(), killSwitches, segments.values());
+            snapshot = FlagSnapshot.open(path);
+        } catch (IOException e) {
+            // The previous snapshot stays mapped and in use
+            log.error("Failed to write flag snapshot to {}", path, e);
+        }
+        return flags.size();
+    }
+
+    /**
+     * Answers from the live store while it is reachable and from the snapshot otherwise. Without a snapshot,
+     * live failures propagate as before.
+     */
+    <T> T read(Supplier<T> fromLive, Function<FlagSnapshot, T> fromSnapshot) {
+        FlagSnapshot current = snapshot;
+        if (current == null) {
+            return fromLive.get();
+        }
+        if (!live) {
+            return fromSnapshot.apply(current);
+        }
+        try {
+            return fromLive.get();
+        } catch (DataAccessException | TransactionException e) {
+            if (live) {
+                live = false;
+                log.warn("Live stores unavailable, serving flags from the snapshot written at {}", current.getCreatedAt(), e);
+            }
+            return fromSnapshot.apply(current);
+        }
+    }
+
+    private static FlagSnapshot load(Path path) {
+        if (!Files.exists(path)) {
+            log.info("No flag snapshot at {}, evaluations wait for the live stores", path);
+            return null;
+        }
+        try {
+            FlagSnapshot snapshot = FlagSnapshot.open(path);
+            log.info("Mapped flag snapshot with {} flags written at {}", snapshot.flagCount(), snapshot.getCreatedAt());
+            return snapshot;
+        } catch (IOException e) {
+            log.warn("Ignoring unusable flag snapshot at {}", path, e);
+            return null;
+        }
+    }
+}
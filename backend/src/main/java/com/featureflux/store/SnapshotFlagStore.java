@@ -0,0 +1,60 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.FeatureFlag;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Flag store that answers reads from the {@link SnapshotFallback} snapshot while the live store is unreachable.
+ * Lookups by id and for update only serve the admin API and always go to the live store.
+ */
+@RequiredArgsConstructor
+public class SnapshotFlagStore implements FlagStore {
+
+    private final FlagStore delegate;
+    private final SnapshotFallback fallback;
+
+    @Override
+    public Optional<FeatureFlag> findByKey(String key) {
+        return fallback.read(() -> delegate.findByKey(key), snapshot -> snapshot.flag(key));
+    }
+
+    @Override
+    public Optional<FeatureFlag> findByKeyForUpdate(String key) {
+        return delegate.findByKeyForUpdate(key);
+    }
+
+    @Override
+    public Optional<FeatureFlag> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    /** The snapshot only holds active flags, so this lists those during an outage. */
+    @Override
+    public List<FeatureFlag> findAll() {
+        return fallback.read(delegate::findAll, FlagSnapshot::flags);
+    }
+
+    @Override
+    public List<FeatureFlag> findActive() {
+        return fallback.read(delegate::findActive, FlagSnapshot::flags);
+    }
+
+    @Override
+    public FeatureFlag save(FeatureFlag flag) {
+        return delegate.save(flag);
+    }
+
+    @Override
+    public void refresh(String key) {
+        delegate.refresh(key);
+    }
+
+    @Override
+    public void preload(Collection<FeatureFlag> flags) {
+        delegate.preload(flags);
+    }
+}
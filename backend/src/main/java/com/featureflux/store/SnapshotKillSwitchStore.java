@@ -0,0 +1,67 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.KillSwitch;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Kill switch store that answers reads from the {@link SnapshotFallback} snapshot while the live store is
+ * unreachable. The snapshot only records which flags are switched off, whether by their own, a tag or the global
+ * switch, not who activated them or why; while serving from it, every flag it lists reads as having an active
+ * switch of its own and tag and global switches read as absent.
+ */
+@RequiredArgsConstructor
+public class SnapshotKillSwitchStore implements KillSwitchStore {
+
+    private final KillSwitchStore delegate;
+    private final SnapshotFallback fallback;
+
+    @Override
+    public Optional<KillSwitch> findByFlagKey(String flagKey) {
+        return fallback.read(() -> delegate.findByFlagKey(flagKey),
+                snapshot -> snapshot.killSwitchActive(flagKey) ? Optional.of(active(flagKey)) : Optional.empty());
+    }
+
+    @Override
+    public Optional<KillSwitch> findByTag(String tag) {
+        return fallback.read(() -> delegate.findByTag(tag), snapshot -> Optional.empty());
+    }
+
+    @Override
+    public Optional<KillSwitch> findGlobal() {
+        return fallback.read(delegate::findGlobal, snapshot -> Optional.empty());
+    }
+
+    @Override
+    public List<KillSwitch> findActive() {
+        return fallback.read(delegate::findActive,
+                snapshot -> snapshot.activeKillSwitches().stream().map(SnapshotKillSwitchStore::active).toList());
+    }
+
+    @Override
+    public KillSwitch save(KillSwitch killSwitch) {
+        return delegate.save(killSwitch);
+    }
+
+    @Override
+    public boolean isActive(String flagKey) {
+        return fallback.read(() -> delegate.isActive(flagKey), snapshot -> snapshot.killSwitchActive(flagKey));
+    }
+
+    @Override
+    public void refresh(String flagKey) {
+        delegate.refresh(flagKey);
+    }
+
+    @Override
+    public void preload(Map<String, Boolean> states) {
+        delegate.preload(states);
+    }
+
+    private static KillSwitch active(String flagKey) {
+        return KillSwitch.builder().flagKey(flagKey).active(true).build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.Segment;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Segment store that answers evaluation reads from the {@link SnapshotFallback} snapshot while the live store is
+ * unreachable. The snapshot only holds segments referenced by active flags; listings always go to the live store.
+ */
+@RequiredArgsConstructor
+public class SnapshotSegmentStore implements SegmentStore {
+
+    private final SegmentStore delegate;
+    private final SnapshotFallback fallback;
+
+    @Override
+    public Optional<Segment> findByKey(String key) {
+        return fallback.read(() -> delegate.findByKey(key), snapshot -> snapshot.segment(key));
+    }
+
+    @Override
+    public Optional<Long> findVersion(String key) {
+        return fallback.read(() -> delegate.findVersion(key), snapshot -> snapshot.segment(key).map(Segment::getVersion));
+    }
+
+    @Override
+    public List<Segment> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Segment save(Segment segment) {
+        return delegate.save(segment);
+    }
+
+    @Override
+    public void delete(Segment segment) {
+        delegate.delete(segment);
+    }
+}
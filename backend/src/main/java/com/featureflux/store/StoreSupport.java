@@ -0,0 +1,60 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.KillSwitch;
+import com.featureflux.entity.Segment;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+
+final class StoreSupport {
+
+    private StoreSupport() {
+    }
+
+    /**
+     * Copy detached from any persistence context, with plain collections,
+     * safe to serialize or to share outside the transaction that loaded it.
+     */
+    static FeatureFlag detach(FeatureFlag flag) {
+        return flag.toBuilder()
+                .rolloutSchedule(flag.getRolloutSchedule() != null ? new ArrayList<>(flag.getRolloutSchedule()) : new ArrayList<>())
+                .tags(flag.getTags() != null ? new ArrayList<>(flag.getTags()) : new ArrayList<>())
+                .targetUserIds(flag.getTargetUserIds() != null ? new ArrayList<>(flag.getTargetUserIds()) : new ArrayList<>())
+                .excludedUserIds(flag.getExcludedUserIds() != null ? new ArrayList<>(flag.getExcludedUserIds()) : new ArrayList<>())
+                .targetSegmentKeys(flag.getTargetSegmentKeys() != null ? new ArrayList<>(flag.getTargetSegmentKeys()) : new ArrayList<>())
+                .excludedSegmentKeys(flag.getExcludedSegmentKeys() != null ? new ArrayList<>(flag.getExcludedSegmentKeys()) : new ArrayList<>())
+                .rules(flag.getRules() != null ? new ArrayList<>(flag.getRules()) : new ArrayList<>())
+                .prerequisites(flag.getPrerequisites() != null ? new ArrayList<>(flag.getPrerequisites()) : new ArrayList<>())
+                .variants(flag.getVariants() != null ? new ArrayList<>(flag.getVariants()) : new ArrayList<>())
+                .build();
+    }
+
+    static Segment detach(Segment segment) {
+        return segment.toBuilder()
+                .members(segment.getMembers() != null ? new ArrayList<>(segment.getMembers()) : new ArrayList<>())
+                .build();
+    }
+
+    static KillSwitch detach(KillSwitch killSwitch) {
+        return killSwitch.toBuilder().build();
+    }
+
+    /**
+     * Runs the action once the surrounding transaction commits, or immediately when there is none,
+     * so secondary tiers never expose writes that were rolled back.
+     */
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
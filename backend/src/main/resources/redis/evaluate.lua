@@ -0,0 +1,130 @@
+-- Evaluates boolean flags for users inside Redis, in one round trip for any number of flags. Gives the same result
+-- as FeatureEvaluationService for the flags RedisEvaluationScript publishes in "script" mode: disabled flags, and
+-- flags without prerequisites, segments, rules, an experiment layer or variants.
+--
+-- KEYS: for each flag, its definition hash, its target user set and its excluded user set.
+-- ARGV: the time in epoch millis, then for each flag its key and the user id.
+-- Returns for each flag 1 (on), 0 (off) or -1 (not published, or not evaluable here: evaluate it in Java).
+
+local band, bnot, bxor, rshift, ror, tobit = bit.band, bit.bnot, bit.bxor, bit.rshift, bit.ror, bit.tobit
+
+local K = {
+  0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+  0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+  0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+  0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+  0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+  0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+  0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+  0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2,
+}
+
+-- First four bytes of the SHA-256 of the message, as a signed 32-bit integer like ByteBuffer.getInt() reads them.
+local function sha256_first_int(message)
+  local length = #message
+  local padded = message .. '\128' .. string.rep('\0', (55 - length) % 64)
+  local bits = length * 8
+  for shift = 7, 0, -1 do
+    padded = padded .. string.char(math.floor(bits / 2 ^ (8 * shift)) % 256)
+  end
+
+  local h0, h1, h2, h3 = 0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a
+  local h4, h5, h6, h7 = 0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+  local w = {}
+  for chunk = 1, #padded, 64 do
+    for i = 1, 16 do
+      local b1, b2, b3, b4 = string.byte(padded, chunk + 4 * i - 4, chunk + 4 * i - 1)
+      w[i] = tobit(b1 * 0x1000000 + b2 * 0x10000 + b3 * 0x100 + b4)
+    end
+    for i = 17, 64 do
+      local x, y = w[i - 15], w[i - 2]
+      local s0 = bxor(ror(x, 7), ror(x, 18), rshift(x, 3))
+      local s1 = bxor(ror(y, 17), ror(y, 19), rshift(y, 10))
+      w[i] = tobit(w[i - 16] + s0 + w[i - 7] + s1)
+    end
+
+    local a, b, c, d, e, f, g, h = h0, h1, h2, h3, h4, h5, h6, h7
+    for i = 1, 64 do
+      local S1 = bxor(ror(e, 6), ror(e, 11), ror(e, 25))
+      local ch = bxor(band(e, f), band(bnot(e), g))
+      local t1 = h + S1 + ch + K[i] + w[i]
+      local S0 = bxor(ror(a, 2), ror(a, 13), ror(a, 22))
+      local maj = bxor(band(a, b), band(a, c), band(b, c))
+      h, g, f, e = g, f, e, tobit(d + t1)
+      d, c, b, a = c, b, a, tobit(t1 + S0 + maj)
+    end
+    h0, h1, h2, h3 = tobit(h0 + a), tobit(h1 + b), tobit(h2 + c), tobit(h3 + d)
+    h4, h5, h6, h7 = tobit(h4 + e), tobit(h5 + f), tobit(h6 + g), tobit(h7 + h)
+  end
+  return h0
+end
+
+-- Math.abs(first int) % 100, including Java's result for Integer.MIN_VALUE, whose absolute value is itself.
+local function rollout_bucket(flag_key, user_id)
+  local first = sha256_first_int(flag_key .. ':' .. user_id)
+  if first == -2147483648 then
+    return -48
+  end
+  return math.abs(first) % 100
+end
+
+-- RolloutSchedule.percentageAt over steps published as "at:percentage:linear" separated by commas.
+local function rollout_percentage(base, steps, now)
+  if not steps or steps == '' then
+    return base
+  end
+  local times, percentages, linear = {}, {}, {}
+  for at, percentage, ramp in string.gmatch(steps, '(-?%d+):(%d+):([01])') do
+    times[#times + 1] = tonumber(at)
+    percentages[#percentages + 1] = tonumber(percentage)
+    linear[#linear + 1] = ramp == '1'
+  end
+  local index = 0
+  for step = 1, #times do
+    if times[step] <= now then
+      index = step
+    end
+  end
+  if index == 0 then
+    return base
+  end
+  local next_step = index + 1
+  if next_step <= #times and linear[next_step] then
+    -- Truncated towards zero like Java's long division, so a ramp never runs ahead of schedule
+    local ramp = (percentages[next_step] - percentages[index]) * (now - times[index])
+        / (times[next_step] - times[index])
+    if ramp >= 0 then
+      ramp = math.floor(ramp)
+    else
+      ramp = math.ceil(ramp)
+    end
+    return percentages[index] + ramp
+  end
+  return percentages[index]
+end
+
+local now = tonumber(ARGV[1])
+local results = {}
+for i = 1, #KEYS / 3 do
+  local flag_key, user_id = ARGV[2 * i], ARGV[2 * i + 1]
+  local fields = redis.call('HMGET', KEYS[3 * i - 2], 'mode', 'enabled', 'rollout', 'steps')
+  local result
+  if fields[1] ~= 'script' then
+    result = -1
+  elseif fields[2] ~= '1' then
+    result = 0
+  elseif redis.call('SISMEMBER', KEYS[3 * i], user_id) == 1 then
+    result = 0
+  elseif redis.call('SISMEMBER', KEYS[3 * i - 1], user_id) == 1 then
+    result = 1
+  else
+    local percentage = rollout_percentage(tonumber(fields[3]), fields[4], now)
+    if percentage > 0 and rollout_bucket(flag_key, user_id) < percentage then
+      result = 1
+    else
+      result = 0
+    end
+  end
+  results[i] = result
+end
+return results
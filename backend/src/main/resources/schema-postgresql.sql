@@ -0,0 +1,9 @@
+-- Schema changes Hibernate's ddl-auto: update does not make, run after it on every start; each is idempotent.
+
+-- Tag and global kill switches have no flag key; databases created before scopes existed still require one
+ALTER TABLE kill_switches ALTER COLUMN flag_key DROP NOT NULL;
+
+-- At most one global kill switch
+DELETE FROM kill_switches duplicate USING kill_switches kept
+WHERE duplicate.scope = 'GLOBAL' AND kept.scope = 'GLOBAL' AND duplicate.id > kept.id;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_kill_switches_global ON kill_switches (scope) WHERE scope = 'GLOBAL';
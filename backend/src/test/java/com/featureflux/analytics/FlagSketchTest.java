@@ -0,0 +1,111 @@
+package com.featureflux.analytics;
+
+import com.featureflux.rules.UserHash;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlagSketchTest {
+
+    @Test
+    void distinctUsersAreEstimatedWithinTheHyperLogLogError() {
+        HyperLogLog users = new HyperLogLog();
+        for (int i = 0; i < 100_000; i++) {
+            users.add(UserHash.stable("user-" + i));
+            // Repeats do not count
+            users.add(UserHash.stable("user-" + (i / 2)));
+        }
+
+        assertEquals(100_000, users.estimate(), 100_000 * 0.05);
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void countMinNeverUndercounts() {
+        CountMinSketch frequencies = new CountMinSketch();
+        for (int i = 0; i < 10_000; i++) {
+            frequencies.add(UserHash.stable("user-" + (i % 1_000)));
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(frequencies.estimate(UserHash.stable("user-" + i)) >= 10);
+        }
+    }
+
+    @Test
+    void mostFrequentUsersAreTracked() {
+        FlagSketch sketch = new FlagSketch(0);
+        for (int i = 0; i < 5_000; i++) {
+            sketch.record("user-" + i, i % 2 == 0);
+            if (i % 10 == 0) {
+                sketch.record("heavy", true);
+            }
+            if (i % 25 == 0) {
+                sketch.record("busy", false);
+            }
+        }
+
+        List<HeavyHitters.Candidate> top = sketch.getTopUsers();
+        assertEquals("heavy", top.get(0).userId());
+        assertTrue(top.get(0).count() >= 500);
+        assertEquals("busy", top.get(1).userId());
+        assertEquals(5_000 + 500 + 200, sketch.getEvaluations());
+        assertEquals(2_500 + 500, sketch.getEnabled());
+    }
+
+    @Test
+    void sketchesOfTwoNodesMergeIntoTheClustersAfterARoundTrip() {
+        FlagSketch first = new FlagSketch(7);
+        FlagSketch second = new FlagSketch(7);
+        for (int i = 0; i < 2_000; i++) {
+            first.record("user-" + i, true);
+            second.record("user-" + (i + 1_000), false);
+        }
+        for (int i = 0; i < 300; i++) {
+            first.record("shared", true);
+            second.record("shared", true);
+        }
+
+        FlagSketch merged = FlagSketch.fromBytes(first.toBytes());
+        merged.merge(FlagSketch.fromBytes(second.toBytes()));
+
+        assertEquals(7, merged.getBucket());
+        assertEquals(4_600, merged.getEvaluations());
+        assertEquals(2_600, merged.getEnabled());
+        assertEquals(3_001, merged.getUniqueUsers(), 3_001 * 0.05);
+        assertEquals("shared", merged.getTopUsers().get(0).userId());
+        assertTrue(merged.getTopUsers().get(0).count() >= 600);
+    }
+
+    @Test
+    void concurrentRecordingLosesNothing() throws InterruptedException {
+        FlagSketch sketch = new FlagSketch(0);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            int offset = thread;
+            threads.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    sketch.record("user-" + (i * 8 + offset), true);
+                }
+            });
+        }
+        threads.shutdown();
+        assertTrue(threads.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(80_000, sketch.getEvaluations());
+        assertEquals(80_000, sketch.getUniqueUsers(), 80_000 * 0.05);
+    }
+
+    @Test
+    void unknownFormatVersionsAreRejected() {
+        byte[] bytes = new FlagSketch(0).toBytes();
+        bytes[0] = 99;
+
+        assertThrows(IllegalArgumentException.class, () -> FlagSketch.fromBytes(bytes));
+    }
+}
@@ -0,0 +1,84 @@
+package com.featureflux.controller;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.service.AuditService;
+import com.featureflux.service.KillSwitchService;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemoryKillSwitchStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class KillSwitchControllerTest {
+
+    private static final UsernamePasswordAuthenticationToken ADMIN =
+            new UsernamePasswordAuthenticationToken("admin", null, List.of());
+
+    private KillSwitchService killSwitchService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryFlagStore flagStore = new InMemoryFlagStore();
+        killSwitchService = new KillSwitchService(new InMemoryKillSwitchStore(), flagStore);
+        mockMvc = MockMvcBuilders.standaloneSetup(new KillSwitchController(killSwitchService, mock(AuditService.class)))
+                .build();
+
+        flagStore.save(FeatureFlag.builder().key("global").name("global").enabled(true).rolloutPercentage(100)
+                .tags(List.of("tags")).build());
+        flagStore.save(FeatureFlag.builder().key("search").name("search").enabled(true).rolloutPercentage(100).build());
+    }
+
+    @Test
+    void aFlagKeyedGlobalHasItsOwnSwitch() throws Exception {
+        mockMvc.perform(post("/api/admin/killswitch/global/activate").principal(ADMIN)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"reason\": \"incident\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.scope").value("FLAG"))
+                .andExpect(jsonPath("$.flagKey").value("global"));
+
+        assertTrue(killSwitchService.isKillSwitchActive("global"));
+        assertFalse(killSwitchService.isKillSwitchActive("search"));
+        assertTrue(killSwitchService.getGlobalKillSwitch().isEmpty());
+        mockMvc.perform(get("/api/admin/killswitch/global"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.flagKey").value("global"));
+
+        mockMvc.perform(post("/api/admin/killswitch/global/deactivate").principal(ADMIN))
+                .andExpect(status().isOk());
+        assertFalse(killSwitchService.isKillSwitchActive("global"));
+    }
+
+    @Test
+    void scopeSwitchesLiveUnderTheirOwnPrefix() throws Exception {
+        mockMvc.perform(post("/api/admin/killswitch/scope/tags/tags/activate").principal(ADMIN)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"reason\": \"incident\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.scope").value("TAG"));
+        assertTrue(killSwitchService.isKillSwitchActive("global"));
+        assertFalse(killSwitchService.isKillSwitchActive("search"));
+        assertTrue(killSwitchService.getKillSwitch("tags").isEmpty());
+
+        mockMvc.perform(post("/api/admin/killswitch/scope/global/activate").principal(ADMIN)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"reason\": \"panic\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.scope").value("GLOBAL"));
+        assertTrue(killSwitchService.isKillSwitchActive("search"));
+        assertTrue(killSwitchService.getKillSwitch("global").isEmpty());
+        mockMvc.perform(get("/api/admin/killswitch/scope/global"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active").value(true));
+    }
+}
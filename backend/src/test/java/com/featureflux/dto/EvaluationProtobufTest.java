@@ -0,0 +1,146 @@
+package com.featureflux.dto;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluationProtobufTest {
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    @Test
+    void decodesARequestAsEncodedByProtoc() {
+        // flag_key: "a", user_id: "u", context: {"k": "v"}
+        byte[] data = bytes(0x0A, 0x01, 'a', 0x12, 0x01, 'u', 0x1A, 0x06, 0x0A, 0x01, 'k', 0x12, 0x01, 'v');
+
+        EvaluationRequest request = EvaluationProtobuf.decodeRequest(data);
+
+        assertEquals(new EvaluationRequest("a", "u", Map.of("k", "v")), request);
+    }
+
+    @Test
+    void encodesAResponseAsProtocWould() {
+        EvaluationResponse response = new EvaluationResponse("a", "u", true, 42, null, null);
+
+        // Fields at their default value, such as the empty variant, are left out
+        assertArrayEquals(bytes(0x0A, 0x01, 'a', 0x12, 0x01, 'u', 0x18, 0x01, 0x20, 0x2A),
+                EvaluationProtobuf.encodeResponse(response));
+    }
+
+    @Test
+    void writesVariantValuesAsJsonText() {
+        EvaluationResponse response = new EvaluationResponse("theme", "u", true, 7, "dark", TextNode.valueOf("#000"));
+
+        EvaluationProtobuf.Input input = input(EvaluationProtobuf.encodeResponse(response));
+        Map<Integer, Object> fields = new HashMap<>();
+        while (input.hasMore()) {
+            int tag = input.tag();
+            fields.put(tag >>> 3, (tag & 7) == EvaluationProtobuf.VARINT ? (Object) input.uint(tag) : input.string(tag));
+        }
+
+        assertEquals(Map.of(1, "theme", 2, "u", 3, 1L, 4, 7L, 5, "dark", 6, "\"#000\""), fields);
+    }
+
+    @Test
+    void skipsUnknownFields() {
+        EvaluationProtobuf.Output output = new EvaluationProtobuf.Output(16);
+        output.uint(15, 300);
+        output.string(1, "checkout");
+        output.fixed64(16, -1L);
+        output.string(17, "from a newer schema");
+        output.string(2, "user-1");
+
+        EvaluationRequest request = EvaluationProtobuf.decodeRequest(output.toByteArray());
+
+        assertEquals("checkout", request.getFlagKey());
+        assertEquals("user-1", request.getUserId());
+        assertNull(request.getContext());
+    }
+
+    @Test
+    void acceptsPackedAndUnpackedPositions() {
+        EvaluationProtobuf.Output packed = new EvaluationProtobuf.Output(16);
+        packed.string(1, "user-1");
+        packed.fixed64(3, 0x0123456789ABCDEFL);
+        packed.packed(4, new int[]{0, 5, 300});
+        packed.mapEntry(2, "country", "NZ");
+
+        EvaluationProtobuf.Output unpacked = new EvaluationProtobuf.Output(16);
+        unpacked.string(1, "user-1");
+        unpacked.fixed64(3, 0x0123456789ABCDEFL);
+        for (int position : new int[]{0, 5, 300}) {
+            unpacked.repeatedUint(4, position);
+        }
+        unpacked.mapEntry(2, "country", "NZ");
+
+        for (EvaluationProtobuf.Output output : List.of(packed, unpacked)) {
+            BulkEvaluationRequest request = EvaluationProtobuf.decodeBulkRequest(output.toByteArray());
+            assertEquals("user-1", request.getUserId());
+            assertEquals(0x0123456789ABCDEFL, request.getFlagSet());
+            assertArrayEquals(new int[]{0, 5, 300}, request.getFlags());
+            assertEquals(Map.of("country", "NZ"), request.getContext());
+        }
+    }
+
+    @Test
+    void encodesBulkResponses() {
+        byte[] enabled = bytes(0b101, 0, 0b1000_0000);
+        BulkEvaluationResponse response = new BulkEvaluationResponse(-2L, 24, enabled, List.of("a", "b"));
+
+        EvaluationProtobuf.Input input = input(EvaluationProtobuf.encodeBulkResponse(response));
+        long flagSet = 0;
+        long flagCount = 0;
+        byte[] bits = new byte[0];
+        List<String> keys = new ArrayList<>();
+        while (input.hasMore()) {
+            int tag = input.tag();
+            switch (tag >>> 3) {
+                case 1 -> flagSet = input.fixed64(tag);
+                case 2 -> flagCount = input.uint(tag);
+                case 3 -> bits = input.bytes(tag);
+                case 4 -> keys.add(input.string(tag));
+                default -> fail("Unexpected field " + (tag >>> 3));
+            }
+        }
+
+        assertEquals(-2L, flagSet);
+        assertEquals(24, flagCount);
+        assertArrayEquals(enabled, bits);
+        assertEquals(List.of("a", "b"), keys);
+        assertTrue(response.isEnabled(0));
+        assertFalse(response.isEnabled(1));
+        assertTrue(response.isEnabled(2));
+        assertTrue(response.isEnabled(23));
+    }
+
+    @Test
+    void rejectsMalformedMessages() {
+        // Length past the end of the message
+        assertThrows(IllegalArgumentException.class, () -> EvaluationProtobuf.decodeRequest(bytes(0x0A, 0x05, 'a')));
+        // flag_key sent as a varint
+        assertThrows(IllegalArgumentException.class, () -> EvaluationProtobuf.decodeRequest(bytes(0x08, 0x01)));
+        // Varint cut off
+        assertThrows(IllegalArgumentException.class, () -> EvaluationProtobuf.decodeRequest(bytes(0x0A, 0x80)));
+        // Field number 0
+        assertThrows(IllegalArgumentException.class, () -> EvaluationProtobuf.decodeRequest(bytes(0x02, 0x00)));
+        // Position beyond uint32
+        assertThrows(IllegalArgumentException.class, () -> EvaluationProtobuf.decodeBulkRequest(
+                bytes(0x20, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F)));
+    }
+
+    private static EvaluationProtobuf.Input input(byte[] data) {
+        return new EvaluationProtobuf.Input(data, 0, data.length);
+    }
+}
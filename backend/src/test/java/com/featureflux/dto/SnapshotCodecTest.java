@@ -0,0 +1,113 @@
+package com.featureflux.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.featureflux.entity.ClauseOperator;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Prerequisite;
+import com.featureflux.entity.RolloutStep;
+import com.featureflux.entity.Segment;
+import com.featureflux.entity.TargetingClause;
+import com.featureflux.entity.TargetingRule;
+import com.featureflux.entity.Variant;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCodecTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T12:00:00Z");
+
+    private static FeatureFlag flag(String key, List<String> targets) {
+        return FeatureFlag.builder()
+                .key(key)
+                .name("Flag " + key)
+                .description("Description of " + key)
+                .version(3L)
+                .enabled(true)
+                .rolloutPercentage(40)
+                .targetUserIds(new ArrayList<>(targets))
+                .build();
+    }
+
+    private static EvaluationSnapshot snapshot() {
+        FeatureFlag checkout = flag("checkout", List.of("alice", "bob")).toBuilder()
+                .layerKey("pricing").layerStart(0).layerEnd(500)
+                .excludedUserIds(new ArrayList<>(List.of("mallory")))
+                .targetSegmentKeys(new ArrayList<>(List.of("beta")))
+                .rules(new ArrayList<>(List.of(TargetingRule.builder()
+                        .clauses(List.of(TargetingClause.builder().attribute("country").operator(ClauseOperator.IN)
+                                .values(List.of("NZ", "AU")).negate(true).build()))
+                        .serve(false)
+                        .build())))
+                .rolloutSchedule(new ArrayList<>(List.of(RolloutStep.builder().at(Instant.parse("2026-04-01T00:00:00Z")).percentage(80).linear(true).build())))
+                .prerequisites(new ArrayList<>(List.of(Prerequisite.builder().flagKey("login").variant("on").build(),
+                        Prerequisite.builder().flagKey("signup").build())))
+                .variants(new ArrayList<>(List.of(
+                        Variant.builder().key("control").weight(50).build(),
+                        Variant.builder().key("treatment").weight(50)
+                                .value(new ObjectMapper().createObjectNode().put("color", "ünïcode-blue")).build())))
+                .build();
+        FeatureFlag login = flag("login", List.of("alice")).toBuilder().enabled(false).version(null).build();
+        Segment beta = Segment.builder().key("beta").name("Beta").version(7L).members(new ArrayList<>(List.of("carol", "alice"))).build();
+        return new EvaluationSnapshot(NOW,
+                List.of(EvaluationSnapshot.evaluationOnly(checkout), EvaluationSnapshot.evaluationOnly(login)),
+                List.of("login"),
+                List.of(EvaluationSnapshot.evaluationOnly(beta)));
+    }
+
+    @Test
+    void binaryRoundTripKeepsEverythingEvaluationReads() {
+        EvaluationSnapshot snapshot = snapshot();
+
+        EvaluationSnapshot decoded = SnapshotCodec.decode(SnapshotCodec.encode(snapshot));
+
+        assertEquals(snapshot, decoded);
+        assertNull(decoded.getFlags().get(0).getName());
+        assertNull(decoded.getFlags().get(0).getRules().get(0).getDescription());
+    }
+
+    @Test
+    void jsonRoundTripMatchesBinary() {
+        EvaluationSnapshot snapshot = snapshot();
+
+        assertEquals(SnapshotCodec.decode(SnapshotCodec.encode(snapshot)), SnapshotCodec.decodeJson(SnapshotCodec.encodeJson(snapshot)));
+    }
+
+    @Test
+    void corruptTruncatedOrUnknownDataIsRejected() {
+        byte[] bytes = SnapshotCodec.encode(snapshot());
+
+        byte[] corrupt = bytes.clone();
+        corrupt[corrupt.length - 3] ^= 1;
+        assertThrows(IllegalArgumentException.class, () -> SnapshotCodec.decode(corrupt));
+
+        byte[] futureFormat = bytes.clone();
+        futureFormat[5] = (byte) (SnapshotCodec.FORMAT_VERSION + 1);
+        assertThrows(IllegalArgumentException.class, () -> SnapshotCodec.decode(futureFormat));
+
+        assertThrows(IllegalArgumentException.class, () -> SnapshotCodec.decode(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThrows(IllegalArgumentException.class, () -> SnapshotCodec.decode(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    void sharedStringsAreSentOnceAndTheResultIsSeveralTimesSmallerThanTheAdminJson() throws Exception {
+        List<String> users = IntStream.range(0, 500).mapToObj(i -> "user-" + i).toList();
+        List<FeatureFlag> flags = IntStream.range(0, 50).mapToObj(i -> flag("flag-" + i, users)).toList();
+        EvaluationSnapshot snapshot = new EvaluationSnapshot(NOW,
+                flags.stream().map(EvaluationSnapshot::evaluationOnly).toList(), List.of(), List.of());
+
+        byte[] binary = SnapshotCodec.encode(snapshot);
+        byte[] adminJson = new ObjectMapper().registerModule(new JavaTimeModule())
+                .writeValueAsBytes(flags.stream().map(FeatureFlagDTO::fromEntity).toList());
+
+        assertTrue(binary.length * 5 < adminJson.length, binary.length + " vs " + adminJson.length);
+        assertEquals(snapshot, SnapshotCodec.decode(binary));
+    }
+}
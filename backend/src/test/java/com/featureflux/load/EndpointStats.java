@@ -0,0 +1,44 @@
+package com.featureflux.load;
+
+import lombok.Getter;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and error counters for one endpoint, recorded in microseconds.
+ * {@code latency} is measured from the request's intended start time and is therefore
+ * corrected for coordinated omission; {@code serviceTime} is measured from the actual send.
+ */
+@Getter
+public class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String endpoint;
+    private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    public EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void record(long latencyNanos, long serviceTimeNanos, boolean success) {
+        latency.recordValue(toMicros(latencyNanos));
+        serviceTime.recordValue(toMicros(serviceTimeNanos));
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    public long getRequests() {
+        return latency.getTotalCount();
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS);
+    }
+}
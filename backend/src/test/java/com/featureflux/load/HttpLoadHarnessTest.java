@@ -0,0 +1,148 @@
+package com.featureflux.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflux.dto.AuthRequest;
+import com.featureflux.dto.FeatureFlagDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end HTTP load harness for the evaluation and admin read endpoints.
+ * Runs only with the {@code load} profile: {@code mvn -Pload test -Dload.rate=2000 -Dload.label=1.1.0}.
+ * See {@link LoadHarnessConfig} for the tunable {@code load.*} properties.
+ */
+@Tag("load")
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+public class HttpLoadHarnessTest {
+
+    private static RedisServer redis;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) throws IOException {
+        if (!"redis".equals(System.getProperty("load.store", "memory"))) {
+            return;
+        }
+        int redisPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            redisPort = socket.getLocalPort();
+        }
+        redis = new RedisServer(redisPort);
+        redis.start();
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", () -> redisPort);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redis != null) {
+            redis.stop();
+        }
+    }
+
+    @Test
+    public void driveEvaluationEndpointsAtFixedRate() throws Exception {
+        LoadHarnessConfig config = LoadHarnessConfig.fromSystemProperties();
+        // Tomcat serves plain HTTP/1.1 here; skip the client's h2c upgrade attempt
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String baseUrl = "http://localhost:" + port;
+
+        String token = login(client, baseUrl);
+        List<String> flagKeys = seedFlags(client, baseUrl, token, config.getFlagCount());
+        LoadWorkload workload = new LoadWorkload(baseUrl, token, flagKeys, config, objectMapper);
+        OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator(client);
+
+        log.info("Warming up for {}s at {} req/s", config.getWarmupSeconds(), config.getRate());
+        generator.run(config.getRate(), Duration.ofSeconds(config.getWarmupSeconds()),
+                config.getMaxInFlight(), workload::next);
+
+        log.info("Measuring for {}s at {} req/s", config.getDurationSeconds(), config.getRate());
+        Duration duration = Duration.ofSeconds(config.getDurationSeconds());
+        Map<String, EndpointStats> results = generator.run(config.getRate(), duration,
+                config.getMaxInFlight(), workload::next);
+
+        Path report = new LoadReport(config, results, duration).write(objectMapper);
+        log.info("Load report written to {}", report.toAbsolutePath());
+
+        long requests = results.values().stream().mapToLong(EndpointStats::getRequests).sum();
+        long errors = results.values().stream().mapToLong(stats -> stats.getErrors().sum()).sum();
+        assertTrue(Files.exists(report));
+        assertTrue(requests > 0, "No requests were issued");
+        assertTrue(errors <= requests * config.getMaxErrorRate(),
+                "Error rate too high: " + errors + " of " + requests);
+    }
+
+    private String login(HttpClient client, String baseUrl) throws Exception {
+        HttpResponse<String> response = client.send(jsonPost(baseUrl + "/api/auth/login", null,
+                new AuthRequest("admin", "admin123")), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "Admin login failed");
+        JsonNode body = objectMapper.readTree(response.body());
+        return body.get("token").asText();
+    }
+
+    private List<String> seedFlags(HttpClient client, String baseUrl, String token, int count) throws Exception {
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String key = "load-flag-" + i;
+            FeatureFlagDTO flag = FeatureFlagDTO.builder()
+                    .key(key)
+                    .name("Load Flag " + i)
+                    .enabled(i % 10 != 0)
+                    .rolloutPercentage(i % 101)
+                    .targetUserIds(List.of("user-" + i, "user-" + (i + 1)))
+                    .excludedUserIds(List.of("user-" + (i + 2)))
+                    .build();
+            HttpResponse<Void> response = client.send(jsonPost(baseUrl + "/api/flags", token, flag),
+                    HttpResponse.BodyHandlers.discarding());
+            assertEquals(201, response.statusCode(), "Failed to seed flag " + key);
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private HttpRequest jsonPost(String url, String token, Object body) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.featureflux.load;
+
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load harness settings, read from {@code load.*} system properties so runs can be
+ * tuned from the command line, e.g. {@code mvn -Pload test -Dload.rate=5000 -Dload.flagSkew=1.2}.
+ */
+@Data
+public class LoadHarnessConfig {
+
+    /** Label written into the report, typically the release being measured. */
+    private String label;
+    /** Target arrival rate in requests per second across all endpoints. */
+    private int rate;
+    private int warmupSeconds;
+    private int durationSeconds;
+    /** Upper bound on concurrently outstanding requests; time spent waiting is charged to latency. */
+    private int maxInFlight;
+    private int flagCount;
+    private double flagSkew;
+    private int userCount;
+    private double userSkew;
+    private int bulkSize;
+    /** Relative weight of each endpoint in the request mix. */
+    private Map<String, Integer> mix;
+    private double maxErrorRate;
+    private Path reportDir;
+
+    public static LoadHarnessConfig fromSystemProperties() {
+        LoadHarnessConfig config = new LoadHarnessConfig();
+        config.setLabel(System.getProperty("load.label", "local"));
+        config.setRate(Integer.getInteger("load.rate", 1000));
+        config.setWarmupSeconds(Integer.getInteger("load.warmupSeconds", 10));
+        config.setDurationSeconds(Integer.getInteger("load.durationSeconds", 30));
+        config.setMaxInFlight(Integer.getInteger("load.maxInFlight", 512));
+        config.setFlagCount(Integer.getInteger("load.flags", 200));
+        config.setFlagSkew(Double.parseDouble(System.getProperty("load.flagSkew", "0.99")));
+        config.setUserCount(Integer.getInteger("load.users", 100_000));
+        config.setUserSkew(Double.parseDouble(System.getProperty("load.userSkew", "0")));
+        config.setBulkSize(Integer.getInteger("load.bulkSize", 20));
+        config.setMix(parseMix(System.getProperty("load.mix", "evaluate:80,bulk:15,flags:5")));
+        config.setMaxErrorRate(Double.parseDouble(System.getProperty("load.maxErrorRate", "0.01")));
+        config.setReportDir(Paths.get(System.getProperty("load.reportDir", "target/load-reports")));
+        return config;
+    }
+
+    static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid load.mix entry: " + entry);
+            }
+            mix.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,104 @@
+package com.featureflux.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes a machine-readable summary ({@code load-report.json}) plus the full HdrHistogram
+ * percentile distribution of each endpoint ({@code <endpoint>.hgrm}) into
+ * {@code <reportDir>/<label>/}, so two releases can be compared with a plain diff
+ * or plotted with the HdrHistogram plotter.
+ */
+public class LoadReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadHarnessConfig config;
+    private final Map<String, EndpointStats> results;
+    private final Duration duration;
+
+    public LoadReport(LoadHarnessConfig config, Map<String, EndpointStats> results, Duration duration) {
+        this.config = config;
+        this.results = results;
+        this.duration = duration;
+    }
+
+    public Path write(ObjectMapper objectMapper) throws IOException {
+        Path dir = config.getReportDir().resolve(config.getLabel());
+        Files.createDirectories(dir);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", config.getLabel());
+        report.put("generatedAt", Instant.now().toString());
+        report.put("config", configSummary());
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (EndpointStats stats : results.values()) {
+            endpoints.put(stats.getEndpoint(), endpointSummary(stats));
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(stats.getEndpoint() + ".hgrm")))) {
+                stats.getLatency().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        report.put("endpoints", endpoints);
+
+        Path file = dir.resolve("load-report.json");
+        objectMapper.copy()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(file.toFile(), report);
+        return file;
+    }
+
+    private Map<String, Object> configSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("ratePerSecond", config.getRate());
+        summary.put("durationSeconds", config.getDurationSeconds());
+        summary.put("maxInFlight", config.getMaxInFlight());
+        summary.put("flags", config.getFlagCount());
+        summary.put("flagSkew", config.getFlagSkew());
+        summary.put("users", config.getUserCount());
+        summary.put("userSkew", config.getUserSkew());
+        summary.put("bulkSize", config.getBulkSize());
+        summary.put("mix", config.getMix());
+        return summary;
+    }
+
+    private Map<String, Object> endpointSummary(EndpointStats stats) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", stats.getRequests());
+        summary.put("errors", stats.getErrors().sum());
+        summary.put("throughputPerSecond", round(stats.getRequests() / (double) duration.toSeconds()));
+        summary.put("latencyMs", percentiles(stats.getLatency()));
+        summary.put("serviceTimeMs", percentiles(stats.getServiceTime()));
+        return summary;
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram) {
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("mean", round(histogram.getMean() / MICROS_PER_MILLI));
+        percentiles.put("p50", millis(histogram, 50.0));
+        percentiles.put("p90", millis(histogram, 90.0));
+        percentiles.put("p95", millis(histogram, 95.0));
+        percentiles.put("p99", millis(histogram, 99.0));
+        percentiles.put("p999", millis(histogram, 99.9));
+        percentiles.put("max", round(histogram.getMaxValue() / MICROS_PER_MILLI));
+        return percentiles;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return round(histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
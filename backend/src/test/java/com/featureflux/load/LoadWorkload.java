@@ -0,0 +1,105 @@
+package com.featureflux.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflux.dto.EvaluationRequest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Builds the request mix: single and bulk evaluations against Zipfian-distributed flags
+ * and users, plus authenticated reads of the flag list.
+ */
+public class LoadWorkload {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final String token;
+    private final List<String> flagKeys;
+    private final ObjectMapper objectMapper;
+    private final int bulkSize;
+    private final ZipfianGenerator flags;
+    private final ZipfianGenerator users;
+    private final String[] endpoints;
+    private final int[] cumulativeWeights;
+
+    public LoadWorkload(String baseUrl, String token, List<String> flagKeys,
+                        LoadHarnessConfig config, ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl;
+        this.token = token;
+        this.flagKeys = flagKeys;
+        this.objectMapper = objectMapper;
+        this.bulkSize = config.getBulkSize();
+        this.flags = new ZipfianGenerator(flagKeys.size(), config.getFlagSkew());
+        this.users = new ZipfianGenerator(config.getUserCount(), config.getUserSkew());
+
+        Map<String, Integer> mix = config.getMix();
+        endpoints = mix.keySet().toArray(new String[0]);
+        cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += mix.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public OpenLoopLoadGenerator.LoadRequest next() {
+        String endpoint = pickEndpoint();
+        switch (endpoint) {
+            case "evaluate":
+                return new OpenLoopLoadGenerator.LoadRequest(endpoint,
+                        post("/api/evaluate", new EvaluationRequest(nextFlag(), nextUser(), null)));
+            case "bulk":
+                Map<String, String> bulk = new HashMap<>();
+                for (int i = 0; i < bulkSize; i++) {
+                    bulk.put(nextFlag(), nextUser());
+                }
+                return new OpenLoopLoadGenerator.LoadRequest(endpoint, post("/api/evaluate/bulk", bulk));
+            case "flags":
+                return new OpenLoopLoadGenerator.LoadRequest(endpoint, HttpRequest.newBuilder(URI.create(baseUrl + "/api/flags"))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("Authorization", "Bearer " + token)
+                        .GET()
+                        .build());
+            default:
+                throw new IllegalArgumentException("Unknown endpoint in load.mix: " + endpoint);
+        }
+    }
+
+    private String pickEndpoint() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        return endpoints[endpoints.length - 1];
+    }
+
+    private String nextFlag() {
+        return flagKeys.get(flags.next());
+    }
+
+    private String nextUser() {
+        return "user-" + users.next();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode load request", e);
+        }
+    }
+}
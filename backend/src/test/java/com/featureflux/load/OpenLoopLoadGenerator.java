@@ -0,0 +1,76 @@
+package com.featureflux.load;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Issues requests on a fixed arrival schedule, independent of how fast responses come back.
+ * Every request has an intended start time of {@code start + i / rate}; latency is recorded
+ * from that instant, so a stalled server is charged for the requests it delayed instead of
+ * silently lowering the offered load (coordinated omission).
+ */
+@Slf4j
+public class OpenLoopLoadGenerator {
+
+    private final HttpClient client;
+
+    public OpenLoopLoadGenerator(HttpClient client) {
+        this.client = client;
+    }
+
+    public Map<String, EndpointStats> run(int ratePerSecond, Duration duration, int maxInFlight,
+                                          Supplier<LoadRequest> workload) throws InterruptedException {
+        Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long intervalNanos = 1_000_000_000L / ratePerSecond;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long scheduled = 0;
+
+        for (long intended = start; intended < end; intended = start + ++scheduled * intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            LoadRequest request = workload.get();
+            EndpointStats endpoint = stats.computeIfAbsent(request.getEndpoint(), EndpointStats::new);
+            inFlight.acquire();
+
+            final long intendedStart = intended;
+            final long sentAt = System.nanoTime();
+            client.sendAsync(request.getRequest(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long completedAt = System.nanoTime();
+                        boolean success = error == null && response.statusCode() < 400;
+                        endpoint.record(completedAt - intendedStart, completedAt - sentAt, success);
+                        inFlight.release();
+                    });
+        }
+
+        // Wait for the tail of outstanding requests before reporting
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+
+        long lagMillis = (System.nanoTime() - end) / 1_000_000;
+        log.info("Issued {} requests at {} req/s, drained {} ms after schedule end", scheduled, ratePerSecond, lagMillis);
+        return new TreeMap<>(stats);
+    }
+
+    @Value
+    public static class LoadRequest {
+        String endpoint;
+        HttpRequest request;
+    }
+}
@@ -0,0 +1,66 @@
+package com.featureflux.rules;
+
+import com.featureflux.entity.RolloutStep;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RolloutScheduleTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private static RolloutStep step(Duration after, int percentage, boolean linear) {
+        return RolloutStep.builder().at(START.plus(after)).percentage(percentage).linear(linear).build();
+    }
+
+    private static long at(Duration after) {
+        return START.plus(after).toEpochMilli();
+    }
+
+    @Test
+    void stepsApplyFromTheirTime() {
+        RolloutSchedule schedule = RolloutSchedule.compile(List.of(
+                step(Duration.ZERO, 1, false),
+                step(Duration.ofDays(1), 10, false),
+                step(Duration.ofDays(2), 100, false)));
+
+        assertEquals(0, schedule.percentageAt(at(Duration.ofMillis(-1)), 0), "base percentage before the first step");
+        assertEquals(-1, schedule.stepIndexAt(at(Duration.ofMillis(-1))));
+        assertEquals(1, schedule.percentageAt(at(Duration.ZERO), 0));
+        assertEquals(1, schedule.percentageAt(at(Duration.ofDays(1).minusMillis(1)), 0));
+        assertEquals(10, schedule.percentageAt(at(Duration.ofDays(1)), 0));
+        assertEquals(1, schedule.stepIndexAt(at(Duration.ofDays(1))));
+        assertEquals(100, schedule.percentageAt(at(Duration.ofDays(30)), 0));
+        assertEquals(2, schedule.stepIndexAt(at(Duration.ofDays(30))));
+    }
+
+    @Test
+    void linearStepsRampFromThePreviousStep() {
+        RolloutSchedule schedule = RolloutSchedule.compile(List.of(
+                step(Duration.ZERO, 0, false),
+                step(Duration.ofHours(100), 100, true)));
+
+        assertEquals(0, schedule.percentageAt(at(Duration.ZERO), 0));
+        assertEquals(25, schedule.percentageAt(at(Duration.ofHours(25)), 0));
+        assertEquals(49, schedule.percentageAt(at(Duration.ofHours(50).minusMillis(1)), 0), "never ahead of schedule");
+        assertEquals(100, schedule.percentageAt(at(Duration.ofHours(100)), 0));
+        assertEquals(100, schedule.percentageAt(at(Duration.ofHours(200)), 0));
+    }
+
+    @Test
+    void invalidSchedulesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RolloutSchedule.compile(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> RolloutSchedule.compile(List.of(
+                RolloutStep.builder().percentage(10).build())));
+        assertThrows(IllegalArgumentException.class, () -> RolloutSchedule.compile(List.of(
+                step(Duration.ZERO, 101, false))));
+        assertThrows(IllegalArgumentException.class, () -> RolloutSchedule.compile(List.of(
+                step(Duration.ofDays(1), 10, false), step(Duration.ofDays(1), 20, false))));
+        assertThrows(IllegalArgumentException.class, () -> RolloutSchedule.compile(List.of(
+                step(Duration.ZERO, 10, true))));
+    }
+}
@@ -0,0 +1,98 @@
+package com.featureflux.rules;
+
+import com.featureflux.entity.ClauseOperator;
+import com.featureflux.entity.TargetingClause;
+import com.featureflux.entity.TargetingRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleCompilerTest {
+
+    private static TargetingClause clause(String attribute, ClauseOperator operator, String... values) {
+        return TargetingClause.builder().attribute(attribute).operator(operator).values(List.of(values)).build();
+    }
+
+    private static TargetingRule rule(boolean serve, TargetingClause... clauses) {
+        return TargetingRule.builder().clauses(List.of(clauses)).serve(serve).build();
+    }
+
+    @Test
+    void firstMatchingRuleWins() {
+        CompiledRules rules = RuleCompiler.compile(List.of(
+                rule(false, clause("plan", ClauseOperator.EQUALS, "free")),
+                rule(true, clause("country", ClauseOperator.IN, "DE", "FR"))));
+
+        assertEquals(false, rules.evaluate("u1", Map.of("plan", "free", "country", "DE")));
+        assertEquals(true, rules.evaluate("u1", Map.of("plan", "pro", "country", "FR")));
+        assertNull(rules.evaluate("u1", Map.of("plan", "pro", "country", "US")));
+    }
+
+    @Test
+    void clausesAreAndedAndMissingAttributesNeverMatch() {
+        TargetingClause notBeta = clause("tenant", ClauseOperator.STARTS_WITH, "beta-");
+        notBeta.setNegate(true);
+        CompiledRules rules = RuleCompiler.compile(List.of(
+                rule(true, clause("country", ClauseOperator.EQUALS, "DE"), notBeta)));
+
+        assertEquals(true, rules.evaluate("u1", Map.of("country", "DE", "tenant", "acme")));
+        assertNull(rules.evaluate("u1", Map.of("country", "DE", "tenant", "beta-acme")));
+        assertNull(rules.evaluate("u1", Map.of("country", "DE")));
+        assertNull(rules.evaluate("u1", null));
+    }
+
+    @Test
+    void semverComparisonsFollowPrecedence() {
+        CompiledRules range = RuleCompiler.compile(List.of(rule(true,
+                clause("appVersion", ClauseOperator.SEMVER_GTE, "2.4.0"),
+                clause("appVersion", ClauseOperator.SEMVER_LT, "3.0.0"))));
+
+        assertEquals(true, range.evaluate("u1", Map.of("appVersion", "2.4")));
+        assertEquals(true, range.evaluate("u1", Map.of("appVersion", "v2.10.1+build.7")));
+        assertEquals(true, range.evaluate("u1", Map.of("appVersion", "3.0.0-rc.1")));
+        assertNull(range.evaluate("u1", Map.of("appVersion", "2.4.0-beta")));
+        assertNull(range.evaluate("u1", Map.of("appVersion", "3.0.0")));
+        assertNull(range.evaluate("u1", Map.of("appVersion", "not-a-version")));
+
+        assertTrue(Semver.parse("1.0.0-alpha.1").compareTo(Semver.parse("1.0.0-alpha.beta")) < 0);
+        assertTrue(Semver.parse("1.0.0-beta.2").compareTo(Semver.parse("1.0.0-beta.11")) < 0);
+    }
+
+    @Test
+    void regexAndUserIdAttribute() {
+        CompiledRules rules = RuleCompiler.compile(List.of(rule(true,
+                clause("email", ClauseOperator.MATCHES, "@example\\.com$", "@example\\.org$"),
+                clause("userId", ClauseOperator.IN, "u1", "u2"))));
+
+        assertEquals(true, rules.evaluate("u2", Map.of("email", "ann@example.org")));
+        assertNull(rules.evaluate("u3", Map.of("email", "ann@example.org")));
+        assertNull(rules.evaluate("u1", Map.of("email", "ann@example.net")));
+    }
+
+    @Test
+    void literalPatternsKeepRegexSemantics() {
+        CompiledRules exact = RuleCompiler.compile(List.of(rule(true, clause("tenant", ClauseOperator.MATCHES, "^acme$"))));
+        CompiledRules prefix = RuleCompiler.compile(List.of(rule(true, clause("tenant", ClauseOperator.MATCHES, "^acme"))));
+        CompiledRules anywhere = RuleCompiler.compile(List.of(rule(true, clause("tenant", ClauseOperator.MATCHES, "acme"))));
+
+        assertEquals(true, exact.evaluate("u1", Map.of("tenant", "acme")));
+        assertNull(exact.evaluate("u1", Map.of("tenant", "acme-eu")));
+        assertEquals(true, prefix.evaluate("u1", Map.of("tenant", "acme-eu")));
+        assertNull(prefix.evaluate("u1", Map.of("tenant", "eu-acme")));
+        assertEquals(true, anywhere.evaluate("u1", Map.of("tenant", "eu-acme-1")));
+    }
+
+    @Test
+    void invalidRulesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile(List.of(
+                rule(true, clause("email", ClauseOperator.MATCHES, "(unclosed")))));
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile(List.of(
+                rule(true, clause("appVersion", ClauseOperator.SEMVER_GT, "two")))));
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile(List.of(
+                rule(true, clause("country", ClauseOperator.IN)))));
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile(List.of(rule(true))));
+    }
+}
@@ -0,0 +1,36 @@
+package com.featureflux.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentMembershipTest {
+
+    @Test
+    void sipHashMatchesReferenceVectors() {
+        // Key 00..0f from the SipHash paper's test vectors
+        long k0 = 0x0706050403020100L;
+        long k1 = 0x0f0e0d0c0b0a0908L;
+        byte[] fifteen = new byte[15];
+        for (int i = 0; i < fifteen.length; i++) {
+            fifteen[i] = (byte) i;
+        }
+
+        assertEquals(0x726fdb47dd0e0e31L, UserHash.sipHash24(k0, k1, new byte[0]));
+        assertEquals(0xa129ca6149be45e5L, UserHash.sipHash24(k0, k1, fifteen));
+    }
+
+    @Test
+    void containsOnlyMembers() {
+        SegmentMembership membership = SegmentMembership.of(List.of("alice", "bob", "carol", "bob"), 3L);
+
+        assertEquals(3, membership.size());
+        assertEquals(3L, membership.getVersion());
+        assertTrue(membership.contains(UserHash.of("alice")));
+        assertTrue(membership.contains(UserHash.of("carol")));
+        assertFalse(membership.contains(UserHash.of("dave")));
+        assertFalse(SegmentMembership.EMPTY.contains(UserHash.of("alice")));
+    }
+}
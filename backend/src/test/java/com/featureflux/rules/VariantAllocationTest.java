@@ -0,0 +1,48 @@
+package com.featureflux.rules;
+
+import com.featureflux.entity.Variant;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VariantAllocationTest {
+
+    private static Variant variant(String key, int weight) {
+        return Variant.builder().key(key).weight(weight).build();
+    }
+
+    @Test
+    void weightsMapToContiguousBucketRanges() {
+        VariantAllocation allocation = VariantAllocation.compile(List.of(
+                variant("a", 10), variant("b", 10), variant("c", 80)));
+
+        assertEquals(0, allocation.variantIndex(0));
+        assertEquals(0, allocation.variantIndex(999));
+        assertEquals(1, allocation.variantIndex(1000));
+        assertEquals(1, allocation.variantIndex(1999));
+        assertEquals(2, allocation.variantIndex(2000));
+        assertEquals(2, allocation.variantIndex(VariantAllocation.BUCKETS - 1));
+    }
+
+    @Test
+    void zeroWeightVariantsAreNeverServed() {
+        VariantAllocation allocation = VariantAllocation.compile(List.of(
+                variant("off", 0), variant("a", 1), variant("paused", 0), variant("b", 1)));
+
+        for (int bucket = 0; bucket < VariantAllocation.BUCKETS; bucket++) {
+            int index = allocation.variantIndex(bucket);
+            assertEquals(bucket < 5000 ? 1 : 3, index, "bucket " + bucket);
+        }
+    }
+
+    @Test
+    void invalidAllocationsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> VariantAllocation.compile(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> VariantAllocation.compile(List.of(variant("a", 0))));
+        assertThrows(IllegalArgumentException.class, () -> VariantAllocation.compile(List.of(variant("a", -1), variant("b", 2))));
+        assertThrows(IllegalArgumentException.class, () -> VariantAllocation.compile(List.of(variant("a", 1), variant("a", 1))));
+        assertThrows(IllegalArgumentException.class, () -> VariantAllocation.compile(List.of(variant("tiny", 1), variant("huge", 100_000))));
+    }
+}
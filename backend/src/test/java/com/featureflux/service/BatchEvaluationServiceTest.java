@@ -0,0 +1,129 @@
+package com.featureflux.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Variant;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemoryKillSwitchStore;
+import com.featureflux.store.InMemorySegmentStore;
+import com.featureflux.store.NoOpEvaluationCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchEvaluationServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private InMemoryFlagStore flagStore;
+    private KillSwitchService killSwitchService;
+    private FeatureEvaluationService evaluationService;
+    private BatchEvaluationService batchService;
+
+    @BeforeEach
+    void setUp() {
+        flagStore = new InMemoryFlagStore();
+        killSwitchService = new KillSwitchService(new InMemoryKillSwitchStore(), flagStore);
+        evaluationService = new FeatureEvaluationService(flagStore, new NoOpEvaluationCache(), killSwitchService,
+                new SegmentService(new InMemorySegmentStore(), flagStore, null), new EvaluationTracer(16));
+        // Chunks of 7 on 3 threads, so results of many chunks come back out of order
+        batchService = new BatchEvaluationService(flagStore, killSwitchService, evaluationService, objectMapper, 7, 3, 1);
+
+        flagStore.save(FeatureFlag.builder().key("campaign").name("campaign").enabled(true).rolloutPercentage(30)
+                .targetUserIds(new ArrayList<>(List.of("user-3"))).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchService.close();
+    }
+
+    private List<JsonNode> evaluate(String flagKey, String body, boolean ndjson) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(BatchEvaluationService.Outcome.EVALUATED,
+                batchService.evaluate(flagKey, new BufferedReader(new StringReader(body)), ndjson, out));
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                results.add(objectMapper.readTree(line));
+            }
+        }
+        return results;
+    }
+
+    private static List<String> users(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "user-" + i).collect(Collectors.toList());
+    }
+
+    @Test
+    void resultsMatchSingleEvaluationsInInputOrder() throws IOException {
+        List<String> users = users(500);
+
+        List<JsonNode> results = evaluate("campaign", String.join("\n", users) + "\n", false);
+
+        assertEquals(users.size(), results.size());
+        for (int i = 0; i < users.size(); i++) {
+            assertEquals(users.get(i), results.get(i).get("userId").asText());
+            assertEquals(evaluationService.evaluate("campaign", users.get(i)), results.get(i).get("enabled").asBoolean(),
+                    users.get(i));
+        }
+        assertTrue(results.get(3).get("enabled").asBoolean());
+    }
+
+    @Test
+    void ndjsonTakesStringsOrObjectsAndSkipsBlankLines() throws IOException {
+        List<JsonNode> results = evaluate("campaign", "\"user-3\"\n\n{\"userId\": \"user-4\"}\n", true);
+
+        assertEquals(2, results.size());
+        assertEquals("user-3", results.get(0).get("userId").asText());
+        assertEquals("user-4", results.get(1).get("userId").asText());
+        assertThrows(IllegalArgumentException.class, () -> evaluate("campaign", "{\"id\": 1}\n", true));
+        assertThrows(IllegalArgumentException.class, () -> evaluate("campaign", "user-3\n", true));
+    }
+
+    @Test
+    void variantsAreIncluded() throws IOException {
+        flagStore.save(FeatureFlag.builder().key("experiment").name("experiment").enabled(true).rolloutPercentage(100)
+                .variants(new ArrayList<>(List.of(Variant.builder().key("control").weight(50).build(),
+                        Variant.builder().key("treatment").weight(50).build()))).build());
+
+        List<JsonNode> results = evaluate("experiment", String.join("\n", users(50)), false);
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(evaluationService.evaluateDetail("experiment", "user-" + i, Collections.emptyMap()).getVariant(),
+                    results.get(i).get("variant").asText());
+        }
+    }
+
+    @Test
+    void aKilledFlagIsOffForEveryone() throws IOException {
+        killSwitchService.activateKillSwitch("campaign", "incident", "admin");
+
+        List<JsonNode> results = evaluate("campaign", String.join("\n", users(100)), false);
+
+        assertEquals(100, results.size());
+        assertTrue(results.stream().noneMatch(result -> result.get("enabled").asBoolean()));
+    }
+
+    @Test
+    void unknownFlagsWriteNothing() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(BatchEvaluationService.Outcome.FLAG_NOT_FOUND,
+                batchService.evaluate("missing", new BufferedReader(new StringReader("user-1\n")), false, out));
+        assertEquals(0, out.size());
+    }
+}
@@ -0,0 +1,175 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.KillSwitch;
+import com.featureflux.entity.KillSwitchScope;
+import com.featureflux.rules.KillSwitchState;
+import com.featureflux.store.EvaluationCache;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemoryKillSwitchStore;
+import com.featureflux.store.InMemorySegmentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class BulkKillSwitchTest {
+
+    /** Result cache in a map, to show switches take effect over cached results without any eviction. */
+    static class MapEvaluationCache implements EvaluationCache {
+        final Map<String, Boolean> results = new ConcurrentHashMap<>();
+
+        @Override
+        public Boolean get(String flagKey, String userId) {
+            return results.get(flagKey + ":" + userId);
+        }
+
+        @Override
+        public void put(String flagKey, String userId, boolean enabled) {
+            results.put(flagKey + ":" + userId, enabled);
+        }
+    }
+
+    private InMemoryFlagStore flagStore;
+    private InMemoryKillSwitchStore killSwitchStore;
+    private KillSwitchService killSwitchService;
+    private FeatureFlagService flagService;
+    private FeatureEvaluationService evaluationService;
+
+    @BeforeEach
+    void setUp() {
+        flagStore = new InMemoryFlagStore();
+        killSwitchStore = spy(new InMemoryKillSwitchStore());
+        killSwitchService = new KillSwitchService(killSwitchStore, flagStore);
+        SegmentService segmentService = new SegmentService(new InMemorySegmentStore(), flagStore, null);
+        evaluationService = new FeatureEvaluationService(flagStore, new MapEvaluationCache(), killSwitchService, segmentService,
+                new EvaluationTracer(16));
+        flagService = new FeatureFlagService(flagStore, null, segmentService, killSwitchService, evaluationService);
+
+        flag("checkout", "payments");
+        flag("refunds", "payments", "backoffice");
+        flag("search");
+    }
+
+    private FeatureFlag flag(String key, String... tags) {
+        return flagService.createFlag(FeatureFlag.builder()
+                .key(key)
+                .name(key)
+                .enabled(true)
+                .rolloutPercentage(100)
+                .tags(new ArrayList<>(List.of(tags)))
+                .build(), null);
+    }
+
+    private boolean on(String flagKey) {
+        return evaluationService.evaluate(flagKey, "user-1");
+    }
+
+    @Test
+    void tagSwitchTurnsOffEveryTaggedFlag() {
+        assertTrue(on("checkout"));
+        assertTrue(on("refunds"));
+
+        killSwitchService.activateTagKillSwitch("payments", "card processor down", "admin");
+
+        assertFalse(on("checkout"));
+        assertFalse(on("refunds"));
+        assertTrue(on("search"));
+        assertEquals(Map.of("checkout", false, "refunds", false, "search", true),
+                evaluationService.evaluateBulk(Map.of("checkout", "user-1", "refunds", "user-1", "search", "user-1")));
+
+        killSwitchService.deactivateTagKillSwitch("payments");
+
+        assertTrue(on("checkout"));
+        assertTrue(on("refunds"));
+    }
+
+    @Test
+    void flagsTaggedWhileTheSwitchIsActiveAreTurnedOffToo() {
+        killSwitchService.activateTagKillSwitch("payments", "card processor down", "admin");
+        assertTrue(on("search"));
+
+        FeatureFlag search = flagStore.findByKey("search").orElseThrow();
+        search.setTags(new ArrayList<>(List.of("payments")));
+        flagService.updateFlag(search, null);
+
+        assertFalse(on("search"));
+    }
+
+    @Test
+    void globalSwitchTurnsOffEveryFlag() {
+        assertTrue(on("search"));
+
+        KillSwitch global = killSwitchService.activateGlobalKillSwitch("incident", "admin");
+
+        assertEquals(KillSwitchScope.GLOBAL, global.getScope());
+        assertFalse(on("checkout"));
+        assertFalse(on("search"));
+        assertFalse(on("unknown"));
+
+        killSwitchService.deactivateGlobalKillSwitch();
+
+        assertTrue(on("search"));
+    }
+
+    @Test
+    void switchesOfEachScopeAreKeptApart() {
+        killSwitchService.activateKillSwitch("payments", "flag named like the tag", "admin");
+
+        assertTrue(on("checkout"));
+        assertTrue(killSwitchService.isKillSwitchActive("payments"));
+        assertTrue(killSwitchService.getTagKillSwitch("payments").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> killSwitchService.deactivateTagKillSwitch("payments"));
+        assertThrows(IllegalArgumentException.class, () -> killSwitchService.deactivateGlobalKillSwitch());
+    }
+
+    @Test
+    void evaluationsReadTheCompiledStateInsteadOfTheStore() {
+        killSwitchService.activateKillSwitch("checkout", "broken", "admin");
+        killSwitchService.activateTagKillSwitch("backoffice", "maintenance", "admin");
+        clearInvocations(killSwitchStore);
+
+        for (int i = 0; i < 1_000; i++) {
+            evaluationService.evaluate("checkout", "user-" + i);
+            evaluationService.evaluate("refunds", "user-" + i);
+            evaluationService.evaluate("search", "user-" + i);
+        }
+
+        verify(killSwitchStore, never()).isActive(anyString());
+        verify(killSwitchStore, never()).findActive();
+    }
+
+    @Test
+    void compiledStateCarriesItsEpochAndOnlyTheSwitchedOffFlags() {
+        KillSwitchState.Ordinals ordinals = new KillSwitchState.Ordinals();
+        List<KillSwitch> active = List.of(KillSwitch.builder().flagKey("checkout").active(true).build());
+
+        KillSwitchState older = KillSwitchState.compile(1, List.of(), List.of(), ordinals);
+        KillSwitchState newer = KillSwitchState.compile(2, active, List.of(), ordinals);
+
+        assertEquals(2, newer.getEpoch());
+        assertTrue(newer.isKilled("checkout"));
+        assertFalse(newer.isKilled("search"));
+        assertFalse(older.isKilled("checkout"));
+    }
+
+    @Test
+    void snapshotsListTheFlagsEachSwitchTurnsOff() {
+        List<FeatureFlag> flags = flagStore.findAll();
+
+        assertEquals(Set.of("checkout", "refunds"), KillSwitchState.killedFlags(List.of(
+                KillSwitch.builder().scope(KillSwitchScope.TAG).tag("payments").active(true).build()), flags));
+        assertEquals(Set.of("checkout", "refunds", "search"), KillSwitchState.killedFlags(List.of(
+                KillSwitch.builder().scope(KillSwitchScope.GLOBAL).active(true).build()), flags));
+        assertEquals(Set.of("search"), KillSwitchState.killedFlags(List.of(
+                KillSwitch.builder().flagKey("search").active(true).build()), flags));
+    }
+}
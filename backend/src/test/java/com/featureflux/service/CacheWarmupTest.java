@@ -0,0 +1,84 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.KillSwitch;
+import com.featureflux.store.EvaluationCache;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemoryKillSwitchStore;
+import com.featureflux.store.InMemorySegmentStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Collection;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class CacheWarmupTest {
+
+    private InMemoryFlagStore flagStore;
+    private InMemoryKillSwitchStore killSwitchStore;
+    private EvaluationCache evaluationCache;
+    private ConcurrentMapCacheManager cacheManager;
+    private SimpleMeterRegistry meterRegistry;
+    private CacheWarmup warmup;
+
+    @BeforeEach
+    void setUp() {
+        flagStore = spy(new InMemoryFlagStore());
+        killSwitchStore = spy(new InMemoryKillSwitchStore());
+        evaluationCache = mock(EvaluationCache.class);
+        cacheManager = new ConcurrentMapCacheManager("featureFlags");
+        meterRegistry = new SimpleMeterRegistry();
+        KillSwitchService killSwitchService = new KillSwitchService(killSwitchStore, flagStore);
+        FeatureEvaluationService evaluationService = new FeatureEvaluationService(flagStore, evaluationCache,
+                killSwitchService, new SegmentService(new InMemorySegmentStore(), flagStore, null),
+                new EvaluationTracer(16));
+        warmup = new CacheWarmup(flagStore, killSwitchStore, killSwitchService, evaluationService, cacheManager,
+                TransactionOperations.withoutTransaction(), meterRegistry);
+    }
+
+    private void saveFlag(String key, boolean enabled) {
+        flagStore.save(FeatureFlag.builder().key(key).name(key).enabled(enabled).rolloutPercentage(50).build());
+    }
+
+    @Test
+    void activeFlagsAndTheirKillSwitchStatesArePreloaded() {
+        saveFlag("checkout", true);
+        saveFlag("search", true);
+        saveFlag("legacy", false);
+        killSwitchStore.save(KillSwitch.builder().flagKey("search").active(true).build());
+
+        warmup.warmUp();
+
+        verify(flagStore).preload(argThat((Collection<FeatureFlag> flags) -> flags.size() == 2));
+        verify(killSwitchStore).preload(Map.of("checkout", false, "search", true));
+        assertNotNull(cacheManager.getCache("featureFlags").get("checkout"));
+        assertNotNull(cacheManager.getCache("featureFlags").get("search"));
+        assertNull(cacheManager.getCache("featureFlags").get("legacy"));
+        assertEquals(1, meterRegistry.get(CacheWarmup.WARMUP_TIMER).timer().count());
+    }
+
+    @Test
+    void syntheticEvaluationsStayOutOfTheEvaluationCache() {
+        saveFlag("checkout", true);
+
+        warmup.warmUp();
+
+        verifyNoInteractions(evaluationCache);
+    }
+
+    @Test
+    void failedWarmupStillRecordsItsDuration() {
+        doThrow(new IllegalStateException("database unavailable")).when(flagStore).findActive();
+
+        assertDoesNotThrow(warmup::warmUp);
+
+        assertEquals(1, meterRegistry.get(CacheWarmup.WARMUP_TIMER).timer().count());
+    }
+}
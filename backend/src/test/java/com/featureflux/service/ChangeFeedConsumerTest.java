@@ -0,0 +1,235 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.ChangeRecord;
+import com.featureflux.entity.ChangeType;
+import com.featureflux.entity.ChangedKey;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Prerequisite;
+import com.featureflux.repository.ChangeRecordRepository;
+import com.featureflux.store.FlagRevisions;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemorySegmentStore;
+import com.featureflux.store.KillSwitchStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ChangeFeedConsumerTest {
+
+    /** Counts refreshes, i.e. how often each change is applied. */
+    static class RefreshCountingFlagStore extends InMemoryFlagStore {
+        final Map<String, Integer> refreshes = new HashMap<>();
+
+        @Override
+        public void refresh(String key) {
+            refreshes.merge(key, 1, Integer::sum);
+        }
+    }
+
+    private final List<ChangeRecord> feed = new ArrayList<>();
+    private ChangeRecordRepository repository;
+    private RefreshCountingFlagStore flagStore;
+    private KillSwitchStore killSwitchStore;
+    private KillSwitchService killSwitchService;
+    private DashboardPublisher dashboardPublisher;
+    private FeatureEvaluationService evaluationService;
+    private FlagRevisions revisions;
+    private ChangeFeedConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ChangeRecordRepository.class);
+        when(repository.findTop500ByRevisionGreaterThanOrderByRevisionAsc(anyLong())).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            return feed.stream()
+                    .filter(change -> change.getRevision() > after)
+                    .sorted(Comparator.comparing(ChangeRecord::getRevision))
+                    .limit(500)
+                    .toList();
+        });
+        when(repository.findLatestRevision()).thenAnswer(invocation ->
+                feed.stream().map(ChangeRecord::getRevision).max(Long::compare));
+        when(repository.findLatestRevisionByKey(any())).thenAnswer(invocation -> {
+            Collection<ChangeType> types = invocation.getArgument(0);
+            Map<String, Long> latest = new HashMap<>();
+            feed.stream()
+                    .filter(change -> types.contains(change.getType()))
+                    .forEach(change -> latest.merge(change.getKey(), change.getRevision(), Math::max));
+            return latest.entrySet().stream().map(entry -> new Object[]{entry.getKey(), entry.getValue()}).toList();
+        });
+        when(repository.findByType(any())).thenAnswer(invocation ->
+                feed.stream().filter(change -> change.getType() == invocation.getArgument(0)).toList());
+        flagStore = new RefreshCountingFlagStore();
+        killSwitchStore = mock(KillSwitchStore.class);
+        revisions = new FlagRevisions();
+        killSwitchService = mock(KillSwitchService.class);
+        dashboardPublisher = mock(DashboardPublisher.class);
+        evaluationService = mock(FeatureEvaluationService.class);
+        consumer = new ChangeFeedConsumer(repository, flagStore, killSwitchStore,
+                new SegmentService(new InMemorySegmentStore(), flagStore, null), killSwitchService, dashboardPublisher,
+                revisions, evaluationService, null,
+                TransactionOperations.withoutTransaction());
+        // Positions the consumer at the end of the still empty feed, as start() does
+        consumer.poll();
+    }
+
+    private void commit(long revision, ChangeType type, String key) {
+        feed.add(ChangeRecord.builder().revision(revision).type(type).key(key).build());
+    }
+
+    @Test
+    void eachRevisionIsAppliedOnce() {
+        commit(1, ChangeType.FLAG, "a");
+        commit(2, ChangeType.KILL_SWITCH, "a");
+        commit(3, ChangeType.FLAG, "b");
+
+        consumer.poll();
+        consumer.poll();
+
+        assertEquals(Map.of("a", 1, "b", 1), flagStore.refreshes);
+        verify(killSwitchStore, times(1)).refresh("a");
+        // Flags archived or deleted on a peer leave nothing compiled here
+        verify(evaluationService, times(1)).evictCache("a");
+        verify(evaluationService, times(1)).evictCache("b");
+        assertEquals(2, revisions.of("a"));
+        assertEquals(3, revisions.of("b"));
+    }
+
+    @Test
+    void changesetAppliesEveryChangeAtItsOneRevision() {
+        feed.add(ChangeRecord.builder().revision(4L).type(ChangeType.CHANGESET).key("release").changes(List.of(
+                new ChangedKey(ChangeType.FLAG, "a"),
+                new ChangedKey(ChangeType.FLAG, "b"),
+                new ChangedKey(ChangeType.KILL_SWITCH, "c"))).build());
+
+        consumer.poll();
+        consumer.poll();
+
+        assertEquals(Map.of("a", 1, "b", 1), flagStore.refreshes);
+        verify(killSwitchStore, times(1)).refresh("c");
+        assertEquals(4, revisions.of("a"));
+        assertEquals(4, revisions.of("b"));
+        assertEquals(4, revisions.of("c"));
+    }
+
+    @Test
+    void tagAndGlobalKillSwitchesOnlyRecompileTheKillState() {
+        commit(1, ChangeType.BULK_KILL_SWITCH, "payments");
+        commit(2, ChangeType.BULK_KILL_SWITCH, "*");
+        consumer.poll();
+
+        verify(killSwitchService, times(1)).killSwitchesChanged();
+        verify(killSwitchStore, never()).refresh(anyString());
+        assertEquals(0, revisions.of("payments"));
+
+        // Flag changes recompile it only if a tag switch makes them matter
+        commit(3, ChangeType.FLAG, "a");
+        consumer.poll();
+
+        verify(killSwitchService, times(1)).flagsChanged();
+        verify(killSwitchService, times(1)).killSwitchesChanged();
+    }
+
+    @Test
+    void appliedChangesArePushedToDashboards() {
+        commit(1, ChangeType.FLAG, "a");
+        commit(2, ChangeType.SEGMENT, "beta");
+        consumer.poll();
+
+        verify(dashboardPublisher).flagsChanged(Set.of("a"));
+        verify(dashboardPublisher, never()).killSwitchesChanged();
+
+        commit(3, ChangeType.BULK_KILL_SWITCH, "payments");
+        consumer.poll();
+
+        verify(dashboardPublisher, times(1)).killSwitchesChanged();
+    }
+
+    @Test
+    void revisionCommittedAfterALaterOneIsStillApplied() {
+        commit(1, ChangeType.FLAG, "a");
+        commit(3, ChangeType.FLAG, "c");
+        consumer.poll();
+
+        // Revision 2 was allocated before 3 but committed after it
+        commit(2, ChangeType.FLAG, "b");
+        consumer.poll();
+        consumer.poll();
+
+        assertEquals(Map.of("a", 1, "b", 1, "c", 1), flagStore.refreshes);
+        assertEquals(2, revisions.of("b"));
+    }
+
+    @Test
+    void dependentFlagsAdvanceWithTheirPrerequisitesAndSegments() {
+        flagStore.save(FeatureFlag.builder().key("parent").name("parent").build());
+        flagStore.save(FeatureFlag.builder().key("child").name("child")
+                .prerequisites(new ArrayList<>(List.of(Prerequisite.builder().flagKey("parent").build()))).build());
+        flagStore.save(FeatureFlag.builder().key("grandchild").name("grandchild")
+                .prerequisites(new ArrayList<>(List.of(Prerequisite.builder().flagKey("child").build()))).build());
+        flagStore.save(FeatureFlag.builder().key("beta-only").name("beta-only")
+                .targetSegmentKeys(new ArrayList<>(List.of("beta"))).build());
+
+        commit(5, ChangeType.FLAG, "parent");
+        commit(6, ChangeType.SEGMENT, "beta");
+        consumer.poll();
+
+        assertEquals(5, revisions.of("parent"));
+        assertEquals(5, revisions.of("child"));
+        assertEquals(5, revisions.of("grandchild"));
+        assertEquals(6, revisions.of("beta-only"));
+    }
+
+    @Test
+    void revisionsSurviveARestart() {
+        flagStore.save(FeatureFlag.builder().key("parent").name("parent").build());
+        flagStore.save(FeatureFlag.builder().key("child").name("child")
+                .prerequisites(new ArrayList<>(List.of(Prerequisite.builder().flagKey("parent").build()))).build());
+        flagStore.save(FeatureFlag.builder().key("beta-only").name("beta-only")
+                .targetSegmentKeys(new ArrayList<>(List.of("beta"))).build());
+        commit(1, ChangeType.FLAG, "child");
+        commit(2, ChangeType.FLAG, "beta-only");
+        commit(3, ChangeType.KILL_SWITCH, "parent");
+        commit(4, ChangeType.SEGMENT, "beta");
+        feed.add(ChangeRecord.builder().revision(5L).type(ChangeType.CHANGESET).key("release").changes(List.of(
+                new ChangedKey(ChangeType.SEGMENT, "beta"))).build());
+        consumer.poll();
+        Map<String, Long> before = Map.of("parent", revisions.of("parent"), "child", revisions.of("child"),
+                "beta-only", revisions.of("beta-only"));
+
+        FlagRevisions restarted = new FlagRevisions();
+        new ChangeFeedConsumer(repository, flagStore, killSwitchStore,
+                new SegmentService(new InMemorySegmentStore(), flagStore, null), killSwitchService, dashboardPublisher,
+                restarted, evaluationService, null, TransactionOperations.withoutTransaction()).poll();
+
+        assertEquals(Map.of("parent", 3L, "child", 3L, "beta-only", 5L), before);
+        before.forEach((key, revision) -> assertEquals(revision, restarted.of(key), key));
+    }
+
+    @Test
+    void changeThatFailsToApplyIsRetried() {
+        doThrow(new IllegalStateException("Redis unavailable")).doNothing().when(killSwitchStore).refresh("a");
+        commit(1, ChangeType.KILL_SWITCH, "a");
+
+        consumer.poll();
+        assertEquals(0, revisions.of("a"));
+
+        consumer.poll();
+        assertEquals(1, revisions.of("a"));
+        verify(killSwitchStore, times(2)).refresh("a");
+    }
+}
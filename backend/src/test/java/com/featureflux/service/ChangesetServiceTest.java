@@ -0,0 +1,141 @@
+package com.featureflux.service;
+
+import com.featureflux.dto.ChangesetRequest;
+import com.featureflux.entity.ChangeRecord;
+import com.featureflux.entity.ChangeType;
+import com.featureflux.entity.ChangedKey;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.KillSwitch;
+import com.featureflux.entity.Variant;
+import com.featureflux.repository.ChangeRecordRepository;
+import com.featureflux.store.ChangeOutbox;
+import com.featureflux.store.FlagRevisions;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemoryKillSwitchStore;
+import com.featureflux.store.InMemorySegmentStore;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChangesetServiceTest {
+
+    private InMemoryFlagStore flagStore;
+    private InMemoryKillSwitchStore killSwitchStore;
+    private ChangeRecordRepository changeRecords;
+    private FlagRevisions revisions;
+    private AuditService auditService;
+    private ChangesetService changesetService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        changeRecords = mock(ChangeRecordRepository.class);
+        when(changeRecords.save(any())).thenAnswer(invocation -> {
+            ChangeRecord change = invocation.getArgument(0);
+            change.setRevision(42L);
+            return change;
+        });
+        revisions = new FlagRevisions();
+        ChangeOutbox changeOutbox = new ChangeOutbox(changeRecords, null, revisions, false);
+        ObjectProvider<ChangeOutbox> outbox = mock(ObjectProvider.class);
+        when(outbox.getIfAvailable()).thenReturn(changeOutbox);
+        // Record their writes in the change feed, as the durable stores do
+        flagStore = new InMemoryFlagStore() {
+            @Override
+            public synchronized FeatureFlag save(FeatureFlag flag) {
+                FeatureFlag saved = super.save(flag);
+                changeOutbox.record(ChangeType.FLAG, saved.getKey());
+                return saved;
+            }
+        };
+        killSwitchStore = new InMemoryKillSwitchStore() {
+            @Override
+            public KillSwitch save(KillSwitch killSwitch) {
+                KillSwitch saved = super.save(killSwitch);
+                changeOutbox.record(ChangeType.KILL_SWITCH, saved.getFlagKey());
+                return saved;
+            }
+        };
+        auditService = mock(AuditService.class);
+        SegmentService segmentService = new SegmentService(new InMemorySegmentStore(), flagStore, null);
+        KillSwitchService killSwitchService = new KillSwitchService(killSwitchStore, flagStore);
+        changesetService = new ChangesetService(flagStore, killSwitchStore,
+                new FeatureFlagService(flagStore, auditService, segmentService, killSwitchService,
+                        mock(FeatureEvaluationService.class)), killSwitchService,
+                auditService, outbox);
+
+        for (String key : List.of("checkout", "search", "pricing")) {
+            flagStore.save(FeatureFlag.builder().key(key).name(key).enabled(false).rolloutPercentage(0).build());
+        }
+        clearInvocations(changeRecords);
+    }
+
+    private static ChangesetRequest.FlagChange enable(String key, long version, int percentage) {
+        return new ChangesetRequest.FlagChange(key, version, true, percentage, null);
+    }
+
+    @Test
+    void allChangesShareOneRevisionOneNotificationAndOneAuditWrite() {
+        ChangesetRequest changeset = new ChangesetRequest("release 42",
+                List.of(enable("checkout", 0, 50), enable("search", 0, 100)),
+                List.of(new ChangesetRequest.KillSwitchChange("pricing", true, "broken")));
+
+        changesetService.apply(changeset, "admin", mock(HttpServletRequest.class));
+
+        assertTrue(flagStore.findByKey("checkout").orElseThrow().getEnabled());
+        assertEquals(100, flagStore.findByKey("search").orElseThrow().getRolloutPercentage());
+        assertTrue(killSwitchStore.isActive("pricing"));
+
+        ArgumentCaptor<ChangeRecord> record = ArgumentCaptor.forClass(ChangeRecord.class);
+        verify(changeRecords, times(1)).save(record.capture());
+        assertEquals(ChangeType.CHANGESET, record.getValue().getType());
+        assertEquals(List.of(new ChangedKey(ChangeType.FLAG, "checkout"), new ChangedKey(ChangeType.FLAG, "search"),
+                new ChangedKey(ChangeType.KILL_SWITCH, "pricing")), record.getValue().getChanges());
+        assertEquals(42, revisions.of("checkout"));
+        assertEquals(42, revisions.of("search"));
+        assertEquals(42, revisions.of("pricing"));
+        verify(auditService, times(1)).logChangeset(eq("release 42"), anyList(), anyList(), anyList(), any());
+        verifyNoMoreInteractions(auditService);
+    }
+
+    @Test
+    void staleVersionRejectsTheWholeChangeset() {
+        changesetService.apply(new ChangesetRequest(null, List.of(enable("search", 0, 10)), List.of()), "admin", null);
+        clearInvocations(changeRecords);
+
+        ChangesetRequest changeset = new ChangesetRequest(null,
+                List.of(enable("checkout", 0, 50), enable("search", 0, 100)), List.of());
+
+        assertThrows(OptimisticLockingFailureException.class, () -> changesetService.apply(changeset, "admin", null));
+        assertFalse(flagStore.findByKey("checkout").orElseThrow().getEnabled());
+        assertEquals(10, flagStore.findByKey("search").orElseThrow().getRolloutPercentage());
+        verifyNoInteractions(changeRecords);
+    }
+
+    @Test
+    void invalidChangeRejectsTheWholeChangeset() {
+        List<Variant> badWeights = new ArrayList<>(List.of(Variant.builder().key("a").weight(-1).build()));
+        ChangesetRequest changeset = new ChangesetRequest(null, List.of(enable("checkout", 0, 50),
+                new ChangesetRequest.FlagChange("search", 0L, null, null, badWeights)), List.of());
+
+        assertThrows(IllegalArgumentException.class, () -> changesetService.apply(changeset, "admin", null));
+        assertFalse(flagStore.findByKey("checkout").orElseThrow().getEnabled());
+        assertEquals(0, flagStore.findByKey("checkout").orElseThrow().getVersion());
+
+        assertThrows(IllegalArgumentException.class, () -> changesetService.apply(new ChangesetRequest(null,
+                List.of(enable("checkout", 0, 50), enable("checkout", 0, 60)), List.of()), "admin", null));
+        assertThrows(IllegalArgumentException.class, () -> changesetService.apply(new ChangesetRequest(null,
+                List.of(), List.of(new ChangesetRequest.KillSwitchChange("checkout", false, null))), "admin", null));
+        verifyNoInteractions(changeRecords);
+    }
+}
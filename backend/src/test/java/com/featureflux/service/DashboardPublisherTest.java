@@ -0,0 +1,170 @@
+package com.featureflux.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflux.dto.EvaluationRatesEvent;
+import com.featureflux.dto.FlagChangeEvent;
+import com.featureflux.dto.KillSwitchEvent;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.KillSwitch;
+import com.featureflux.entity.KillSwitchScope;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemoryKillSwitchStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DashboardPublisherTest {
+
+    private SimpMessageSendingOperations messaging;
+    private InMemoryFlagStore flagStore;
+    private InMemoryKillSwitchStore killSwitchStore;
+    private DashboardPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        messaging = mock(SimpMessageSendingOperations.class);
+        flagStore = new InMemoryFlagStore();
+        killSwitchStore = new InMemoryKillSwitchStore();
+        publisher = new DashboardPublisher(messaging, flagStore, killSwitchStore, new ObjectMapper().findAndRegisterModules());
+        saveFlag("checkout", List.of("payments"));
+        saveFlag("search", List.of());
+        // Startup, which reads what dashboards load from the flag API
+        publisher.run(null);
+    }
+
+    private FeatureFlag saveFlag(String key, List<String> tags) {
+        return flagStore.save(FeatureFlag.builder()
+                .key(key)
+                .name(key)
+                .enabled(true)
+                .rolloutPercentage(10)
+                .targetUserIds(new ArrayList<>(List.of("user-1", "user-2")))
+                .tags(new ArrayList<>(tags))
+                .build());
+    }
+
+    private List<FlagChangeEvent> sentFlagChanges() {
+        ArgumentCaptor<FlagChangeEvent> events = ArgumentCaptor.forClass(FlagChangeEvent.class);
+        verify(messaging, atLeast(0)).convertAndSend(eq(DashboardPublisher.FLAGS_TOPIC), events.capture());
+        return events.getAllValues();
+    }
+
+    @Test
+    void flagChangesAreSentAsTheFieldsThatDiffer() {
+        FeatureFlag checkout = flagStore.findByKey("checkout").orElseThrow();
+        checkout.setRolloutPercentage(50);
+        flagStore.save(checkout);
+
+        publisher.flagsChanged(List.of("checkout", "search"));
+
+        List<FlagChangeEvent> events = sentFlagChanges();
+        assertEquals(1, events.size());
+        FlagChangeEvent event = events.get(0);
+        assertEquals(FlagChangeEvent.Type.UPSERT, event.getType());
+        assertEquals("checkout", event.getKey());
+        assertEquals(1L, event.getVersion());
+        assertEquals(50, event.getChanges().get("rolloutPercentage"));
+        assertFalse(event.getChanges().containsKey("targetUserIds"));
+        assertFalse(event.getChanges().containsKey("name"));
+    }
+
+    @Test
+    void changeReportedTwiceIsSentOnce() {
+        FeatureFlag search = flagStore.findByKey("search").orElseThrow();
+        search.setEnabled(false);
+        flagStore.save(search);
+
+        publisher.flagsChanged(List.of("search"));
+        publisher.flagsChanged(List.of("search"));
+
+        assertEquals(1, sentFlagChanges().size());
+    }
+
+    @Test
+    void newFlagsAreSentInFullAndArchivedOnesAsRemoved() {
+        saveFlag("new-onboarding", List.of());
+        FeatureFlag search = flagStore.findByKey("search").orElseThrow();
+        search.setArchived(true);
+        flagStore.save(search);
+
+        publisher.flagsChanged(List.of("new-onboarding", "search"));
+
+        List<FlagChangeEvent> events = sentFlagChanges();
+        assertEquals(2, events.size());
+        assertEquals(List.of("user-1", "user-2"), events.get(0).getChanges().get("targetUserIds"));
+        assertEquals(new FlagChangeEvent(FlagChangeEvent.Type.REMOVED, "search", null, null), events.get(1));
+    }
+
+    @Test
+    void killSwitchTogglesAreSentWithTheFlagsTheyTurnOff() {
+        killSwitchStore.save(KillSwitch.builder().scope(KillSwitchScope.TAG).tag("payments").active(true)
+                .reason("card processor down").activatedBy("admin").build());
+        publisher.killSwitchesChanged();
+
+        ArgumentCaptor<KillSwitchEvent> events = ArgumentCaptor.forClass(KillSwitchEvent.class);
+        verify(messaging).convertAndSend(eq(DashboardPublisher.KILL_SWITCHES_TOPIC), events.capture());
+        KillSwitchEvent activated = events.getValue();
+        assertTrue(activated.isActive());
+        assertEquals(KillSwitchScope.TAG, activated.getScope());
+        assertEquals("payments", activated.getTarget());
+        assertEquals(List.of("checkout"), activated.getKilledFlags());
+
+        KillSwitch payments = killSwitchStore.findByTag("payments").orElseThrow();
+        payments.setActive(false);
+        killSwitchStore.save(payments);
+        publisher.killSwitchesChanged();
+        publisher.killSwitchesChanged();
+
+        verify(messaging, times(2)).convertAndSend(eq(DashboardPublisher.KILL_SWITCHES_TOPIC), events.capture());
+        KillSwitchEvent deactivated = events.getValue();
+        assertFalse(deactivated.isActive());
+        assertEquals(List.of(), deactivated.getKilledFlags());
+    }
+
+    @Test
+    void evaluationRatesAreCoalescedIntoOneMessagePerInterval() {
+        for (int i = 0; i < 30; i++) {
+            publisher.recordEvaluation("checkout");
+        }
+        publisher.recordEvaluation("search");
+
+        publisher.publishEvaluationRates();
+
+        ArgumentCaptor<EvaluationRatesEvent> rates = ArgumentCaptor.forClass(EvaluationRatesEvent.class);
+        verify(messaging).convertAndSend(eq(DashboardPublisher.EVALUATION_RATES_TOPIC), rates.capture());
+        assertEquals(2, rates.getValue().getRates().size());
+        assertTrue(rates.getValue().getRates().get("checkout") > rates.getValue().getRates().get("search"));
+
+        // Once more to drop to zero, then silence until the next evaluation
+        publisher.publishEvaluationRates();
+        publisher.publishEvaluationRates();
+
+        verify(messaging, times(2)).convertAndSend(eq(DashboardPublisher.EVALUATION_RATES_TOPIC), rates.capture());
+        assertTrue(rates.getValue().getRates().isEmpty());
+    }
+
+    @Test
+    void memoryStoreIsSweptForChanges() {
+        publisher.sweep();
+        verify(messaging, never()).convertAndSend(any(String.class), any(Object.class));
+
+        ReflectionTestUtils.setField(publisher, "storeType", "memory");
+        saveFlag("new-onboarding", List.of());
+        publisher.sweep();
+        publisher.sweep();
+
+        List<FlagChangeEvent> events = sentFlagChanges();
+        assertEquals(1, events.size());
+        assertEquals("new-onboarding", events.get(0).getKey());
+    }
+}
@@ -0,0 +1,106 @@
+package com.featureflux.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluationLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(5).toNanos();
+    private static final long SLOW = Duration.ofMillis(500).toNanos();
+
+    private SimpleMeterRegistry meterRegistry;
+    private EvaluationLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = limiter(10, 4, 40);
+    }
+
+    private EvaluationLimiter limiter(int initialLimit, int minLimit, int reservedThreads) {
+        return new EvaluationLimiter(true, initialLimit, minLimit, 100, reservedThreads, Duration.ofMillis(50), 0.5,
+                EvaluationLimiter.ShedResponse.UNAVAILABLE, false, meterRegistry);
+    }
+
+    private List<Long> acquire(int count) {
+        List<Long> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(limiter.tryAcquire());
+        }
+        return permits;
+    }
+
+    @Test
+    void requestsOverTheLimitAreShed() {
+        List<Long> permits = acquire(10);
+
+        assertFalse(permits.contains(EvaluationLimiter.SHED));
+        assertEquals(EvaluationLimiter.SHED, limiter.tryAcquire());
+        assertEquals(1, meterRegistry.counter(EvaluationLimiter.SHED_METRIC).count());
+
+        limiter.release(permits.get(0), permits.get(0) + FAST, false);
+        assertNotEquals(EvaluationLimiter.SHED, limiter.tryAcquire());
+    }
+
+    @Test
+    void slowRequestsCutTheLimitOncePerRoundTrip() {
+        List<Long> permits = acquire(10);
+
+        // Every request in flight when latency rose reports it; only the first cuts the limit
+        for (long permit : permits) {
+            limiter.release(permit, permit + SLOW, false);
+        }
+        assertEquals(5, limiter.getLimit());
+
+        // A request started after the cut may cut it again
+        limiter.tryAcquire();
+        long next = permits.get(9) + SLOW + 1;
+        limiter.release(next, next + SLOW, false);
+        assertEquals(4, limiter.getLimit(), "never below min-limit");
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void failuresCountAsSlow() {
+        long permit = limiter.tryAcquire();
+        limiter.release(permit, permit + FAST, true);
+
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void fastRequestsRaiseAUsedLimitUpToTheReservedThreads() {
+        for (int round = 0; round < 2_000; round++) {
+            List<Long> permits = acquire(limiter.getLimit());
+            for (long permit : permits) {
+                limiter.release(permit, permit + FAST, false);
+            }
+        }
+
+        assertEquals(60, limiter.getLimit());
+        assertEquals(60.0, meterRegistry.get(EvaluationLimiter.LIMIT_METRIC).gauge().value());
+    }
+
+    @Test
+    void anIdleLimitDoesNotGrow() {
+        for (int i = 0; i < 100; i++) {
+            long permit = limiter.tryAcquire();
+            limiter.release(permit, permit + FAST, false);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void limitsMustLeaveThreadsForEverythingElse() {
+        assertThrows(IllegalArgumentException.class, () -> limiter(10, 4, 98));
+        assertThrows(IllegalArgumentException.class, () -> limiter(10, 0, 40));
+    }
+}
@@ -0,0 +1,127 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemoryKillSwitchStore;
+import com.featureflux.store.InMemorySegmentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluationTracerTest {
+
+    private InMemoryFlagStore flagStore;
+    private KillSwitchService killSwitchService;
+    private EvaluationTracer tracer;
+    private FeatureEvaluationService evaluationService;
+
+    @BeforeEach
+    void setUp() {
+        flagStore = new InMemoryFlagStore();
+        killSwitchService = new KillSwitchService(new InMemoryKillSwitchStore(), flagStore);
+        tracer = new EvaluationTracer(8);
+        evaluationService = new FeatureEvaluationService(flagStore, new BulkKillSwitchTest.MapEvaluationCache(),
+                killSwitchService, new SegmentService(new InMemorySegmentStore(), flagStore, null), tracer);
+
+        flagStore.save(FeatureFlag.builder().key("checkout").name("checkout").enabled(true).rolloutPercentage(100)
+                .targetUserIds(new ArrayList<>(List.of("alice"))).build());
+        flagStore.save(FeatureFlag.builder().key("search").name("search").enabled(true).rolloutPercentage(0).build());
+    }
+
+    private static EvaluationTracer.Sampling users(String... userIds) {
+        return new EvaluationTracer.Sampling(null, Set.of(userIds), 0);
+    }
+
+    @Test
+    void nothingIsTracedUntilSamplingIsSet() {
+        evaluationService.evaluate("checkout", "alice");
+
+        assertNull(tracer.getSampling());
+        assertTrue(tracer.recent(null, null, 100).isEmpty());
+    }
+
+    @Test
+    void tracesRecordTheDecidingStepAndTheTierThatServedTheResult() {
+        tracer.setSampling(users("alice", "bob"));
+
+        assertTrue(evaluationService.evaluate("checkout", "alice"));
+        assertTrue(evaluationService.evaluate("checkout", "bob"));
+        assertTrue(evaluationService.evaluate("checkout", "bob"));
+        assertFalse(evaluationService.evaluate("search", "bob"));
+        evaluationService.evaluate("checkout", "carol");
+
+        List<EvaluationTrace> traces = tracer.recent(null, null, 100);
+        assertEquals(4, traces.size());
+
+        EvaluationTrace search = traces.get(0);
+        assertEquals(EvaluationReason.NO_ROLLOUT, search.getReason());
+        assertEquals(0, search.getRolloutPercentage());
+        assertFalse(search.isEnabled());
+
+        EvaluationTrace cached = traces.get(1);
+        assertEquals(EvaluationTrace.Tier.CACHE, cached.getTier());
+        assertEquals(EvaluationReason.ROLLOUT, cached.getReason());
+        assertNotNull(cached.getBucket());
+        assertFalse(cached.getStepNanos().containsKey(EvaluationTrace.Step.EVALUATION));
+
+        EvaluationTrace evaluated = traces.get(2);
+        assertEquals(EvaluationTrace.Tier.EVALUATED, evaluated.getTier());
+        assertEquals(EvaluationReason.ROLLOUT, evaluated.getReason());
+        assertTrue(evaluated.getStepNanos().keySet().containsAll(List.of(EvaluationTrace.Step.KILL_SWITCH,
+                EvaluationTrace.Step.CACHE_TIER, EvaluationTrace.Step.FLAG_LOOKUP, EvaluationTrace.Step.EVALUATION)));
+        assertTrue(evaluated.getTotalNanos() > 0);
+
+        EvaluationTrace targeted = traces.get(3);
+        assertEquals(EvaluationReason.TARGETED_USER, targeted.getReason());
+        assertEquals(EvaluationTrace.hash("alice"), targeted.getUserHash());
+        assertNotEquals("alice", targeted.getUserHash());
+    }
+
+    @Test
+    void killedAndMissingFlagsAreTraced() {
+        tracer.setSampling(new EvaluationTracer.Sampling(Map.of("checkout", 1.0, "missing", 1.0), null, 0));
+        killSwitchService.activateKillSwitch("checkout", "incident", "admin");
+
+        assertEquals(EvaluationResult.OFF, evaluationService.evaluateDetail("checkout", "alice", Map.of()));
+        assertFalse(evaluationService.evaluate("missing", "alice"));
+        assertFalse(evaluationService.evaluate("search", "alice"));
+
+        EvaluationTrace killed = tracer.recent("checkout", null, 100).get(0);
+        assertEquals(EvaluationReason.KILL_SWITCH, killed.getReason());
+        assertEquals(EvaluationTrace.Tier.KILL_SWITCH, killed.getTier());
+        assertEquals(EvaluationReason.FLAG_NOT_FOUND, tracer.recent("missing", null, 100).get(0).getReason());
+        assertTrue(tracer.recent("search", null, 100).isEmpty());
+    }
+
+    @Test
+    void theBufferKeepsTheNewestTraces() {
+        tracer.setSampling(new EvaluationTracer.Sampling(null, null, 1));
+
+        for (int i = 0; i < 20; i++) {
+            evaluationService.evaluate("checkout", "user-" + i);
+        }
+
+        List<EvaluationTrace> traces = tracer.recent(null, null, 100);
+        assertEquals(8, traces.size());
+        assertEquals(EvaluationTrace.hash("user-19"), traces.get(0).getUserHash());
+        assertEquals(EvaluationTrace.hash("user-12"), traces.get(7).getUserHash());
+        assertEquals(1, tracer.recent(null, "user-15", 100).size());
+        assertEquals(3, tracer.recent(null, null, 3).size());
+    }
+
+    @Test
+    void samplingRatesMustBeBetweenZeroAndOne() {
+        assertThrows(IllegalArgumentException.class, () -> new EvaluationTracer.Sampling(null, null, 1.5));
+        assertThrows(IllegalArgumentException.class,
+                () -> new EvaluationTracer.Sampling(Map.of("checkout", -0.1), null, 0));
+
+        tracer.setSampling(new EvaluationTracer.Sampling(Map.of("checkout", 0.0), Set.of(), 0));
+        assertNull(tracer.getSampling());
+    }
+}
@@ -0,0 +1,122 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemoryKillSwitchStore;
+import com.featureflux.store.InMemorySegmentStore;
+import com.featureflux.store.NoOpEvaluationCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExperimentLayerTest {
+
+    private static final int USERS = 20_000;
+
+    private InMemoryFlagStore flagStore;
+    private FeatureFlagService flagService;
+    private FeatureEvaluationService evaluationService;
+
+    @BeforeEach
+    void setUp() {
+        flagStore = new InMemoryFlagStore();
+        SegmentService segmentService = new SegmentService(new InMemorySegmentStore(), flagStore, null);
+        KillSwitchService killSwitchService = new KillSwitchService(new InMemoryKillSwitchStore(), flagStore);
+        evaluationService = new FeatureEvaluationService(flagStore, new NoOpEvaluationCache(),
+                killSwitchService, segmentService, new EvaluationTracer(16));
+        flagService = new FeatureFlagService(flagStore, null, segmentService, killSwitchService, evaluationService);
+    }
+
+    private FeatureFlag layered(String key, String layerKey, int start, int end, int rolloutPercentage) {
+        return flagService.createFlag(FeatureFlag.builder()
+                .key(key)
+                .name(key)
+                .enabled(true)
+                .rolloutPercentage(rolloutPercentage)
+                .layerKey(layerKey)
+                .layerStart(start)
+                .layerEnd(end)
+                .build(), null);
+    }
+
+    @Test
+    void flagsInALayerNeverShareAUser() {
+        layered("checkout-a", "checkout", 0, 3000, 100);
+        layered("checkout-b", "checkout", 3000, 6000, 100);
+        layered("checkout-c", "checkout", 6000, 10_000, 100);
+
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int i = 0; i < USERS; i++) {
+            String userId = "user-" + i;
+            int on = 0;
+            for (String key : List.of("checkout-a", "checkout-b", "checkout-c")) {
+                if (evaluationService.evaluate(key, userId)) {
+                    counts.merge(key, 1, Integer::sum);
+                    on++;
+                }
+            }
+            assertEquals(1, on, userId);
+        }
+        assertEquals(0.3, counts.get("checkout-a") / (double) USERS, 0.02);
+        assertEquals(0.3, counts.get("checkout-b") / (double) USERS, 0.02);
+        assertEquals(0.4, counts.get("checkout-c") / (double) USERS, 0.02);
+    }
+
+    @Test
+    void rolloutPercentageCoversTheStartOfTheRangeAndOnlyGrows() {
+        FeatureFlag flag = layered("search", "ranking", 0, 5000, 50);
+
+        boolean[] before = new boolean[USERS];
+        int on = 0;
+        for (int i = 0; i < USERS; i++) {
+            before[i] = evaluationService.evaluate("search", "user-" + i);
+            on += before[i] ? 1 : 0;
+        }
+        assertEquals(0.25, on / (double) USERS, 0.02);
+
+        flag.setRolloutPercentage(100);
+        flagService.updateFlag(flag, null);
+        for (int i = 0; i < USERS; i++) {
+            if (before[i]) {
+                assertTrue(evaluationService.evaluate("search", "user-" + i), "user-" + i);
+            }
+        }
+    }
+
+    @Test
+    void bulkEvaluationSharesTheLayerHashWithoutChangingResults() {
+        layered("a", "pricing", 0, 2500, 100);
+        layered("b", "pricing", 2500, 5000, 100);
+        layered("c", "pricing", 5000, 10_000, 60);
+
+        for (int i = 0; i < 1000; i++) {
+            String userId = "user-" + i;
+            Map<String, String> requests = new LinkedHashMap<>();
+            requests.put("a", userId);
+            requests.put("b", userId);
+            requests.put("c", userId);
+
+            Map<String, Boolean> bulk = evaluationService.evaluateBulk(requests);
+            for (String key : requests.keySet()) {
+                assertEquals(evaluationService.evaluate(key, userId), bulk.get(key), key + " " + userId);
+            }
+        }
+    }
+
+    @Test
+    void overlappingRangesAreRejected() {
+        layered("a", "pricing", 0, 5000, 100);
+        layered("b", "pricing", 5000, 10_000, 100);
+        layered("other-layer", "ranking", 0, 10_000, 100);
+
+        assertThrows(IllegalArgumentException.class, () -> layered("c", "pricing", 4999, 5001, 100));
+        assertThrows(IllegalArgumentException.class, () -> layered("d", "ranking", 0, 0, 100));
+        assertThrows(IllegalArgumentException.class, () -> layered("e", "ranking", 0, 10_001, 100));
+        assertThrows(IllegalArgumentException.class, () -> layered("f", null, 0, 100, 100));
+    }
+}
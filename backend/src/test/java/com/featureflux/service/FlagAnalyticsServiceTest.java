@@ -0,0 +1,197 @@
+package com.featureflux.service;
+
+import com.featureflux.dto.FlagStats;
+import com.featureflux.store.SketchStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class FlagAnalyticsServiceTest {
+
+    /** Redis stand-in shared by the nodes of a test; each node's view leaves out its own sketches, as Redis does. */
+    static class SharedSketches {
+        final Map<String, Map<SketchStore, byte[]>> sketches = new ConcurrentHashMap<>();
+
+        SketchStore node() {
+            return new SketchStore() {
+                @Override
+                public void publish(String flagKey, long bucket, byte[] sketch, Duration ttl) {
+                    sketches.computeIfAbsent(flagKey + ":" + bucket, key -> new ConcurrentHashMap<>()).put(this, sketch);
+                }
+
+                @Override
+                public Map<Long, List<byte[]>> read(String flagKey, Collection<Long> buckets) {
+                    Map<Long, List<byte[]>> read = new HashMap<>();
+                    for (long bucket : buckets) {
+                        sketches.getOrDefault(flagKey + ":" + bucket, Map.of()).forEach((node, sketch) -> {
+                            if (node != this) {
+                                read.computeIfAbsent(bucket, b -> new ArrayList<>()).add(sketch);
+                            }
+                        });
+                    }
+                    return read;
+                }
+
+                @Override
+                public boolean isShared() {
+                    return true;
+                }
+            };
+        }
+    }
+
+    private static final Instant START = Instant.parse("2026-03-02T10:00:00Z");
+
+    private final SharedSketches redis = new SharedSketches();
+    private FlagAnalyticsService first;
+    private FlagAnalyticsService second;
+
+    @BeforeEach
+    void setUp() {
+        first = node(redis.node());
+        second = node(redis.node());
+    }
+
+    private FlagAnalyticsService node(SketchStore store) {
+        FlagAnalyticsService node = new FlagAnalyticsService(store);
+        node.setClock(Clock.fixed(START, ZoneOffset.UTC));
+        return node;
+    }
+
+    private void at(Instant now) {
+        first.setClock(Clock.fixed(now, ZoneOffset.UTC));
+        second.setClock(Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void statsMergeEveryNodesPublishedSketches() {
+        for (int i = 0; i < 100; i++) {
+            first.record("checkout", "user-" + i, true);
+        }
+        for (int i = 75; i < 125; i++) {
+            second.record("checkout", "user-" + i, false);
+        }
+
+        assertEquals(100, first.stats("checkout").getEvaluations());
+
+        first.publish();
+        second.publish();
+        FlagStats stats = first.stats("checkout");
+
+        assertTrue(stats.isClusterWide());
+        assertEquals(150, stats.getEvaluations());
+        assertEquals(100, stats.getEnabled());
+        assertEquals(50, stats.getDisabled());
+        assertEquals(125, stats.getUniqueUsers(), 5);
+        assertEquals(stats.getEvaluations(), second.stats("checkout").getEvaluations());
+    }
+
+    @Test
+    void frequentUsersRankFirstAcrossNodes() {
+        for (int i = 0; i < 200; i++) {
+            first.record("checkout", "user-" + i, true);
+            second.record("checkout", "user-" + (i + 200), true);
+        }
+        for (int i = 0; i < 20; i++) {
+            first.record("checkout", "bot", true);
+            second.record("checkout", "bot", true);
+        }
+        second.publish();
+
+        FlagStats.TopUser top = first.stats("checkout").getTopUsers().get(0);
+
+        assertEquals("bot", top.getUserId());
+        assertTrue(top.getEvaluations() >= 40);
+    }
+
+    @Test
+    void evaluationsAreBucketedOverTheWindow() {
+        first.record("checkout", "user-1", true);
+        at(START.plus(Duration.ofMinutes(5)));
+        first.record("checkout", "user-1", true);
+        first.record("checkout", "user-2", true);
+
+        FlagStats stats = first.stats("checkout");
+
+        assertEquals(5, stats.getBucketMinutes());
+        assertEquals(12, stats.getBuckets().size());
+        FlagStats.Bucket latest = stats.getBuckets().get(11);
+        assertEquals(START.plus(Duration.ofMinutes(5)), latest.getStart());
+        assertEquals(2, latest.getEvaluations());
+        assertEquals(1, stats.getBuckets().get(10).getEvaluations());
+        assertEquals(3, stats.getEvaluations());
+        assertEquals(2, stats.getUniqueUsers());
+
+        // An hour later the first bucket has left the window
+        at(START.plus(Duration.ofMinutes(60)));
+        assertEquals(2, first.stats("checkout").getEvaluations());
+    }
+
+    @Test
+    void onlyChangedSketchesArePublished() {
+        SketchStore store = spy(redis.node());
+        FlagAnalyticsService node = node(store);
+        node.record("checkout", "user-1", true);
+
+        node.publish();
+        node.publish();
+        node.record("checkout", "user-2", true);
+        node.publish();
+
+        verify(store, times(2)).publish(eq("checkout"), anyLong(), any(), eq(Duration.ofMinutes(65)));
+    }
+
+    @Test
+    void flagsNotEvaluatedForAWholeWindowAreForgotten() {
+        first.record("checkout", "user-1", true);
+        at(START.plus(Duration.ofHours(2)));
+
+        first.publish();
+
+        assertEquals(0, first.stats("checkout").getEvaluations());
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(first, "sketches")).isEmpty());
+    }
+
+    @Test
+    void recordedFlagsAreBounded() {
+        ReflectionTestUtils.setField(first, "maxFlags", 2);
+
+        first.record("a", "user-1", true);
+        first.record("b", "user-1", true);
+        first.record("c", "user-1", true);
+
+        assertEquals(1, first.stats("b").getEvaluations());
+        assertEquals(0, first.stats("c").getEvaluations());
+    }
+
+    @Test
+    void unreachableStoreFallsBackToThisNode() {
+        SketchStore store = mock(SketchStore.class);
+        when(store.isShared()).thenReturn(true);
+        when(store.read(anyString(), any())).thenThrow(new IllegalStateException("Redis unavailable"));
+        FlagAnalyticsService node = node(store);
+        node.record("checkout", "user-1", true);
+
+        FlagStats stats = node.stats("checkout");
+
+        assertFalse(stats.isClusterWide());
+        assertEquals(1, stats.getEvaluations());
+    }
+}
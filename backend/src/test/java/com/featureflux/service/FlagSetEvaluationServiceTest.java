@@ -0,0 +1,108 @@
+package com.featureflux.service;
+
+import com.featureflux.dto.BulkEvaluationRequest;
+import com.featureflux.dto.BulkEvaluationResponse;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemoryKillSwitchStore;
+import com.featureflux.store.InMemorySegmentStore;
+import com.featureflux.store.NoOpEvaluationCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FlagSetEvaluationServiceTest {
+
+    private FeatureFlagService flagService;
+    private FlagAnalyticsService analyticsService;
+    private FlagSetEvaluationService service;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryFlagStore flagStore = new InMemoryFlagStore();
+        SegmentService segmentService = new SegmentService(new InMemorySegmentStore(), flagStore, null);
+        KillSwitchService killSwitchService = new KillSwitchService(new InMemoryKillSwitchStore(), flagStore);
+        FeatureEvaluationService evaluationService = new FeatureEvaluationService(flagStore, new NoOpEvaluationCache(),
+                killSwitchService, segmentService, new EvaluationTracer(16));
+        flagService = new FeatureFlagService(flagStore, null, segmentService, killSwitchService, evaluationService);
+        analyticsService = mock(FlagAnalyticsService.class);
+        service = new FlagSetEvaluationService(flagStore, evaluationService, mock(DashboardPublisher.class),
+                mock(LastEvaluatedTracker.class), analyticsService);
+
+        flag("gamma", true);
+        flag("alpha", true);
+        flag("beta", false);
+    }
+
+    private void flag(String key, boolean enabled) {
+        flagService.createFlag(FeatureFlag.builder().key(key).name(key).enabled(enabled).rolloutPercentage(100).build(), null);
+    }
+
+    private static BulkEvaluationRequest request(long flagSet, int... flags) {
+        return new BulkEvaluationRequest("user-1", null, flagSet, flags);
+    }
+
+    @Test
+    void callersWithoutTheFlagSetGetEveryFlagAndTheKeys() {
+        BulkEvaluationResponse response = service.evaluate(request(0));
+
+        assertEquals(List.of("alpha", "beta", "gamma"), response.getFlagKeys());
+        assertEquals(3, response.getFlagCount());
+        assertEquals(service.current().id(), response.getFlagSet());
+        assertArrayEquals(new byte[]{0b101}, response.getEnabled());
+        verify(analyticsService).record("beta", "user-1", false);
+    }
+
+    @Test
+    void callersWithTheFlagSetGetTheRequestedPositionsOnly() {
+        long flagSet = service.evaluate(request(0)).getFlagSet();
+
+        BulkEvaluationResponse response = service.evaluate(request(flagSet, 2));
+
+        assertEquals(List.of(), response.getFlagKeys());
+        assertFalse(response.isEnabled(0));
+        assertTrue(response.isEnabled(2));
+    }
+
+    @Test
+    void positionsOfAnOutdatedFlagSetAreIgnored() {
+        long flagSet = service.evaluate(request(0)).getFlagSet();
+        flag("aardvark", true);
+        service.refresh();
+
+        BulkEvaluationResponse response = service.evaluate(request(flagSet, 1));
+
+        assertNotEquals(flagSet, response.getFlagSet());
+        assertEquals(List.of("aardvark", "alpha", "beta", "gamma"), response.getFlagKeys());
+        assertArrayEquals(new byte[]{0b1011}, response.getEnabled());
+    }
+
+    @Test
+    void togglingAFlagKeepsItsPosition() {
+        long flagSet = service.current().id();
+        flagService.toggleFlag("beta", true, null);
+        service.refresh();
+
+        assertEquals(flagSet, service.current().id());
+        assertTrue(service.evaluate(request(flagSet, 1)).isEnabled(1));
+    }
+
+    @Test
+    void flagSetIdsDependOnlyOnTheKeys() {
+        assertEquals(FlagSetEvaluationService.id(List.of("alpha", "beta")),
+                FlagSetEvaluationService.id(List.of("alpha", "beta")));
+        assertNotEquals(FlagSetEvaluationService.id(List.of("alpha", "beta")),
+                FlagSetEvaluationService.id(List.of("alphabeta")));
+    }
+
+    @Test
+    void rejectsPositionsOutsideTheFlagSet() {
+        long flagSet = service.current().id();
+
+        assertThrows(IllegalArgumentException.class, () -> service.evaluate(request(flagSet, 3)));
+    }
+}
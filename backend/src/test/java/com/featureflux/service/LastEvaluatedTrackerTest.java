@@ -0,0 +1,145 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemoryLastEvaluatedStore;
+import com.featureflux.store.LastEvaluatedStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LastEvaluatedTrackerTest {
+
+    // Flags saved to the memory store are created now, so the tracker's clock runs well ahead of that
+    private static final Instant START = Instant.now().plus(Duration.ofDays(60)).truncatedTo(ChronoUnit.MILLIS);
+
+    private LastEvaluatedStore store;
+    private LastEvaluatedTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        store = mock(LastEvaluatedStore.class);
+        tracker = tracker(store);
+    }
+
+    private LastEvaluatedTracker tracker(LastEvaluatedStore store) {
+        LastEvaluatedTracker tracker = new LastEvaluatedTracker(store);
+        at(tracker, START);
+        return tracker;
+    }
+
+    private static void at(LastEvaluatedTracker tracker, Instant now) {
+        tracker.setClock(Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static LocalDateTime local(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    @Test
+    void flushesEachFlagsLatestTimeInOneBatch() {
+        tracker.record("checkout");
+        at(tracker, START.plusSeconds(5));
+        tracker.record("checkout");
+        tracker.record("search");
+
+        tracker.flush();
+
+        verify(store).recordLastEvaluated(Map.of(
+                "checkout", local(START.plusSeconds(5)),
+                "search", local(START.plusSeconds(5))));
+    }
+
+    @Test
+    void evaluationsWithinTheResolutionDoNotMoveTheTime() {
+        tracker.record("checkout");
+        at(tracker, START.plusMillis(LastEvaluatedTracker.RESOLUTION_MS - 1));
+        tracker.record("checkout");
+
+        tracker.flush();
+
+        verify(store).recordLastEvaluated(Map.of("checkout", local(START)));
+    }
+
+    @Test
+    void flagsNotEvaluatedSinceTheLastFlushAreNotWrittenAgain() {
+        tracker.record("checkout");
+        tracker.flush();
+        tracker.flush();
+
+        verify(store, times(1)).recordLastEvaluated(any());
+
+        at(tracker, START.plusSeconds(60));
+        tracker.record("checkout");
+        tracker.flush();
+
+        verify(store).recordLastEvaluated(Map.of("checkout", local(START.plusSeconds(60))));
+    }
+
+    @Test
+    void idleFlagsStopBeingTracked() {
+        ReflectionTestUtils.setField(tracker, "maxFlags", 1);
+        tracker.record("checkout");
+        tracker.flush();
+        tracker.record("search");
+        tracker.flush();
+
+        // The second flush found checkout idle and dropped it, making room for search
+        verify(store, times(1)).recordLastEvaluated(any());
+        tracker.record("search");
+        tracker.flush();
+
+        verify(store).recordLastEvaluated(Map.of("search", local(START)));
+    }
+
+    @Test
+    void failedFlushesAreRetriedWithTheLatestTime() {
+        doThrow(new IllegalStateException("database down")).doNothing().when(store).recordLastEvaluated(any());
+        tracker.record("checkout");
+        tracker.flush();
+
+        at(tracker, START.plusSeconds(60));
+        tracker.record("checkout");
+        tracker.flush();
+
+        verify(store).recordLastEvaluated(Map.of("checkout", local(START.plusSeconds(60))));
+    }
+
+    @Test
+    void findsFlagsNotEvaluatedForTheGivenTime() {
+        InMemoryFlagStore flags = new InMemoryFlagStore();
+        for (String key : List.of("checkout", "search", "legacy-banner", "dead-experiment")) {
+            flags.save(FeatureFlag.builder().key(key).name(key).build());
+        }
+        LastEvaluatedTracker tracker = tracker(new InMemoryLastEvaluatedStore(flags));
+
+        tracker.record("legacy-banner");
+        tracker.flush();
+        at(tracker, START.plus(Duration.ofDays(20)));
+        tracker.record("checkout");
+        tracker.flush();
+        at(tracker, START.plus(Duration.ofDays(40)));
+        tracker.record("search");
+        tracker.flush();
+
+        List<FeatureFlag> stale = tracker.findStale(Duration.ofDays(30));
+
+        assertEquals(List.of("dead-experiment", "legacy-banner"), stale.stream().map(FeatureFlag::getKey).toList());
+        assertNull(stale.get(0).getLastEvaluatedAt());
+        assertEquals(local(START), stale.get(1).getLastEvaluatedAt());
+    }
+}
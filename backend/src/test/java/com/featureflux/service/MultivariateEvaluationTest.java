@@ -0,0 +1,76 @@
+package com.featureflux.service;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Variant;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultivariateEvaluationTest {
+
+    private final FeatureEvaluationService service = new FeatureEvaluationService(null, null, null, null, null);
+
+    private static FeatureFlag experiment(int rolloutPercentage) {
+        return FeatureFlag.builder()
+                .key("checkout-experiment")
+                .name("Checkout experiment")
+                // As read from the store, so the compiled form is kept between evaluations
+                .version(0L)
+                .enabled(true)
+                .rolloutPercentage(rolloutPercentage)
+                .targetUserIds(new ArrayList<>(List.of("vip")))
+                .variants(new ArrayList<>(List.of(
+                        Variant.builder().key("red").weight(10).value(JsonNodeFactory.instance.textNode("#f00")).build(),
+                        Variant.builder().key("green").weight(10).value(JsonNodeFactory.instance.textNode("#0f0")).build(),
+                        Variant.builder().key("control").weight(80).build())))
+                .build();
+    }
+
+    @Test
+    void variantsAreServedInProportionToTheirWeights() {
+        FeatureFlag flag = experiment(100);
+        Map<String, Integer> counts = new HashMap<>();
+        int users = 50_000;
+        for (int i = 0; i < users; i++) {
+            EvaluationResult result = service.evaluateFlagDetail(flag, "user-" + i, Map.of());
+            assertTrue(result.isEnabled());
+            counts.merge(result.getVariant(), 1, Integer::sum);
+        }
+
+        assertEquals(0.10, counts.get("red") / (double) users, 0.01);
+        assertEquals(0.10, counts.get("green") / (double) users, 0.01);
+        assertEquals(0.80, counts.get("control") / (double) users, 0.01);
+    }
+
+    @Test
+    void assignmentIsDeterministicAndCarriesThePayload() {
+        FeatureFlag flag = experiment(100);
+        for (int i = 0; i < 100; i++) {
+            EvaluationResult first = service.evaluateFlagDetail(flag, "user-" + i, Map.of());
+            EvaluationResult second = service.evaluateFlagDetail(flag, "user-" + i, Map.of());
+            assertSame(first, second);
+            if ("red".equals(first.getVariant())) {
+                assertEquals("#f00", first.getValue().asText());
+            }
+        }
+    }
+
+    @Test
+    void usersOutsideTheRolloutGetNoVariant() {
+        FeatureFlag flag = experiment(0);
+
+        EvaluationResult outside = service.evaluateFlagDetail(flag, "user-1", Map.of());
+        assertFalse(outside.isEnabled());
+        assertNull(outside.getVariant());
+
+        EvaluationResult targeted = service.evaluateFlagDetail(flag, "vip", Map.of());
+        assertTrue(targeted.isEnabled());
+        assertNotNull(targeted.getVariant());
+    }
+}
@@ -0,0 +1,171 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Prerequisite;
+import com.featureflux.entity.Variant;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemoryKillSwitchStore;
+import com.featureflux.store.InMemorySegmentStore;
+import com.featureflux.store.NoOpEvaluationCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrerequisiteEvaluationTest {
+
+    /** Counts definition lookups, i.e. how often each flag is evaluated. */
+    static class CountingFlagStore extends InMemoryFlagStore {
+        final Map<String, Integer> lookups = new HashMap<>();
+
+        @Override
+        public Optional<FeatureFlag> findByKey(String key) {
+            lookups.merge(key, 1, Integer::sum);
+            return super.findByKey(key);
+        }
+    }
+
+    private CountingFlagStore flagStore;
+    private FeatureFlagService flagService;
+    private FeatureEvaluationService evaluationService;
+
+    @BeforeEach
+    void setUp() {
+        flagStore = new CountingFlagStore();
+        SegmentService segmentService = new SegmentService(new InMemorySegmentStore(), flagStore, null);
+        KillSwitchService killSwitchService = new KillSwitchService(new InMemoryKillSwitchStore(), flagStore);
+        evaluationService = new FeatureEvaluationService(flagStore, new NoOpEvaluationCache(),
+                killSwitchService, segmentService, new EvaluationTracer(16));
+        flagService = new FeatureFlagService(flagStore, null, segmentService, killSwitchService, evaluationService);
+    }
+
+    private FeatureFlag flag(String key, boolean enabled, String... prerequisites) {
+        List<Prerequisite> required = new ArrayList<>();
+        for (String prerequisite : prerequisites) {
+            required.add(Prerequisite.builder().flagKey(prerequisite).build());
+        }
+        return flagService.createFlag(FeatureFlag.builder()
+                .key(key)
+                .name(key)
+                .enabled(enabled)
+                .rolloutPercentage(100)
+                .prerequisites(required)
+                .build(), null);
+    }
+
+    @Test
+    void dependentFlagFollowsItsPrerequisite() {
+        flag("payments-v2", false);
+        flag("new-checkout", true, "payments-v2");
+        assertFalse(evaluationService.evaluate("new-checkout", "user-1"));
+
+        flagService.toggleFlag("payments-v2", true, null);
+        assertTrue(evaluationService.evaluate("new-checkout", "user-1"));
+    }
+
+    @Test
+    void prerequisiteCanRequireAVariant() {
+        flagService.createFlag(FeatureFlag.builder()
+                .key("theme")
+                .name("theme")
+                .enabled(true)
+                .rolloutPercentage(100)
+                .variants(new ArrayList<>(List.of(Variant.builder().key("dark").weight(1).build())))
+                .build(), null);
+        flagService.createFlag(FeatureFlag.builder()
+                .key("dark-only")
+                .name("dark-only")
+                .enabled(true)
+                .rolloutPercentage(100)
+                .prerequisites(new ArrayList<>(List.of(Prerequisite.builder().flagKey("theme").variant("dark").build())))
+                .build(), null);
+        flagService.createFlag(FeatureFlag.builder()
+                .key("light-only")
+                .name("light-only")
+                .enabled(true)
+                .rolloutPercentage(100)
+                .prerequisites(new ArrayList<>(List.of(Prerequisite.builder().flagKey("theme").variant("light").build())))
+                .build(), null);
+
+        assertTrue(evaluationService.evaluate("dark-only", "user-1"));
+        assertFalse(evaluationService.evaluate("light-only", "user-1"));
+    }
+
+    @Test
+    void cyclesAndMissingPrerequisitesAreRejected() {
+        flag("a", true);
+        flag("b", true, "a");
+        flag("c", true, "b");
+
+        FeatureFlag a = flagStore.findByKey("a").orElseThrow();
+        FeatureFlag cyclic = a.toBuilder()
+                .prerequisites(new ArrayList<>(List.of(Prerequisite.builder().flagKey("c").build())))
+                .build();
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> flagService.updateFlag(cyclic, null));
+        assertTrue(error.getMessage().contains("a -> c -> b -> a"), error.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> flag("d", true, "missing"));
+        assertThrows(IllegalArgumentException.class, () -> flag("e", true, "e"));
+    }
+
+    @Test
+    void onlyStoredFlagsStayCompiled() {
+        flag("payments-v2", true);
+        FeatureFlag checkout = flag("new-checkout", true, "payments-v2");
+        assertTrue(evaluationService.evaluate("new-checkout", "user-1"));
+        FeatureEvaluationService.CompiledFlag compiled = evaluationService.compile(checkout);
+        assertSame(compiled, evaluationService.compile(checkout));
+
+        flagService.deleteFlag("new-checkout", null);
+        assertNotSame(compiled, evaluationService.compile(checkout));
+
+        FeatureFlag draft = checkout.toBuilder().key("draft").version(null).build();
+        assertNotSame(evaluationService.compile(draft), evaluationService.compile(draft));
+    }
+
+    @Test
+    void sharedPrerequisitesAreEvaluatedOncePerUserPerRequest() {
+        // Diamond: top -> left, right -> base
+        flag("base", true);
+        flag("left", true, "base");
+        flag("right", true, "base");
+        flag("top", true, "left", "right");
+
+        Map<String, String> requests = new LinkedHashMap<>();
+        requests.put("top", "user-1");
+        requests.put("left", "user-1");
+        requests.put("base", "user-1");
+        // The first request also compiles the dependency orders, which reads the definitions
+        evaluationService.evaluateBulk(requests);
+        flagStore.lookups.clear();
+
+        Map<String, Boolean> results = evaluationService.evaluateBulk(requests);
+
+        assertEquals(Map.of("top", true, "left", true, "base", true), results);
+        assertEquals(1, flagStore.lookups.get("base"));
+        assertEquals(1, flagStore.lookups.get("left"));
+        assertEquals(1, flagStore.lookups.get("right"));
+    }
+
+    @Test
+    void orderIsRecompiledWhenAPrerequisiteGainsPrerequisites() {
+        flag("gate", false);
+        flag("middle", true);
+        flag("leaf", true, "middle");
+        assertTrue(evaluationService.evaluate("leaf", "user-1"));
+
+        FeatureFlag middle = flagStore.findByKey("middle").orElseThrow();
+        flagService.updateFlag(middle.toBuilder()
+                .prerequisites(new ArrayList<>(List.of(Prerequisite.builder().flagKey("gate").build())))
+                .build(), null);
+
+        assertFalse(evaluationService.evaluate("leaf", "user-1"));
+    }
+}
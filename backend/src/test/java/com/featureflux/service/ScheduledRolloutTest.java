@@ -0,0 +1,206 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.RolloutStep;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemoryKillSwitchStore;
+import com.featureflux.store.InMemorySegmentStore;
+import com.featureflux.store.FlagRevisions;
+import com.featureflux.store.NoOpEvaluationCache;
+import com.featureflux.store.RedisEvaluationCache;
+import com.featureflux.store.RedisFlagStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ScheduledRolloutTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    /** Clock the test moves by hand. */
+    static class TestClock extends Clock {
+        Instant now = START.minusSeconds(60);
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private final TestClock clock = new TestClock();
+    private InMemoryFlagStore flagStore;
+    private AuditService auditService;
+    private List<Object> events;
+    private FeatureEvaluationService evaluationService;
+    private RolloutScheduleService scheduleService;
+
+    @BeforeEach
+    void setUp() {
+        flagStore = new InMemoryFlagStore();
+        evaluationService = new FeatureEvaluationService(flagStore, new NoOpEvaluationCache(),
+                new KillSwitchService(new InMemoryKillSwitchStore(), flagStore),
+                new SegmentService(new InMemorySegmentStore(), flagStore, null), new EvaluationTracer(16));
+        evaluationService.setClock(clock);
+
+        auditService = mock(AuditService.class);
+        when(auditService.logRolloutStep(any(), anyInt(), anyInt(), any())).thenReturn(true);
+        events = new ArrayList<>();
+        scheduleService = new RolloutScheduleService(flagStore, auditService, events::add);
+        scheduleService.setClock(clock);
+    }
+
+    private FeatureFlag scheduledFlag(RolloutStep... steps) {
+        return flagStore.save(FeatureFlag.builder()
+                .key("new-checkout")
+                .name("New checkout")
+                .enabled(true)
+                .rolloutPercentage(0)
+                .rolloutSchedule(new ArrayList<>(List.of(steps)))
+                .build());
+    }
+
+    private static RolloutStep step(Duration after, int percentage, boolean linear) {
+        return RolloutStep.builder().at(START.plus(after)).percentage(percentage).linear(linear).build();
+    }
+
+    private double share(int users) {
+        return share(evaluationService, users);
+    }
+
+    private static double share(FeatureEvaluationService evaluationService, int users) {
+        int on = 0;
+        for (int i = 0; i < users; i++) {
+            if (evaluationService.evaluate("new-checkout", "user-" + i)) {
+                on++;
+            }
+        }
+        return on / (double) users;
+    }
+
+    @Test
+    void stepsApplyAtEvaluationTimeWithoutSavingTheFlag() {
+        FeatureFlag saved = scheduledFlag(
+                step(Duration.ZERO, 10, false),
+                step(Duration.ofDays(1), 50, false),
+                step(Duration.ofDays(2), 100, false));
+
+        assertEquals(0.0, share(10_000));
+        clock.now = START;
+        assertEquals(0.10, share(10_000), 0.02);
+        clock.now = START.plus(Duration.ofDays(1));
+        assertEquals(0.50, share(10_000), 0.02);
+        clock.now = START.plus(Duration.ofDays(2));
+        assertEquals(1.0, share(10_000));
+
+        assertEquals(saved.getVersion(), flagStore.findByKey("new-checkout").orElseThrow().getVersion());
+    }
+
+    @Test
+    void linearRampWidensTheRolloutOverTime() {
+        scheduledFlag(step(Duration.ZERO, 0, false), step(Duration.ofDays(10), 100, true));
+
+        clock.now = START.plus(Duration.ofDays(3));
+        assertEquals(0.30, share(10_000), 0.02);
+        clock.now = START.plus(Duration.ofDays(8));
+        assertEquals(0.80, share(10_000), 0.02);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stepsApplyOverCachedResultsWithTheRedisStore() {
+        // Redis backed by maps
+        Map<String, Object> values = new ConcurrentHashMap<>();
+        Map<Object, Object> flagHash = new ConcurrentHashMap<>();
+        ValueOperations<String, Object> valueOps = mock(ValueOperations.class);
+        when(valueOps.get(anyString())).thenAnswer(invocation -> values.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> values.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOps).set(anyString(), any(), anyLong(), any(TimeUnit.class));
+        HashOperations<String, Object, Object> hashOps = mock(HashOperations.class);
+        when(hashOps.get(anyString(), any())).thenAnswer(invocation -> flagHash.get(invocation.getArgument(1)));
+        when(hashOps.putIfAbsent(anyString(), any(), any()))
+                .thenAnswer(invocation -> flagHash.putIfAbsent(invocation.getArgument(1), invocation.getArgument(2)) == null);
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOps);
+
+        RedisFlagStore redisStore = new RedisFlagStore(flagStore, redisTemplate);
+        FeatureEvaluationService cachedService = new FeatureEvaluationService(redisStore,
+                new RedisEvaluationCache(redisTemplate, new FlagRevisions(), Duration.ofSeconds(60), 0,
+                        Duration.ofSeconds(30), new SimpleMeterRegistry()),
+                new KillSwitchService(new InMemoryKillSwitchStore(), redisStore),
+                new SegmentService(new InMemorySegmentStore(), redisStore, null), new EvaluationTracer(16));
+        cachedService.setClock(clock);
+        scheduledFlag(step(Duration.ZERO, 10, false), step(Duration.ofDays(1), 50, false),
+                step(Duration.ofDays(2), 100, true));
+
+        clock.now = START;
+        assertEquals(0.10, share(cachedService, 2_000), 0.03);
+        // Well within the results' TTL, which only a revision change would otherwise cut short
+        clock.now = START.plus(Duration.ofDays(1));
+        assertEquals(0.50, share(cachedService, 2_000), 0.03);
+        clock.now = START.plus(Duration.ofHours(36));
+        assertEquals(0.75, share(cachedService, 2_000), 0.03);
+        assertTrue(values.keySet().stream().noneMatch(key -> key.startsWith("eval:new-checkout:")));
+    }
+
+    @Test
+    void eachStepIsAnnouncedOnceWhenReached() {
+        scheduledFlag(step(Duration.ZERO, 10, false), step(Duration.ofDays(1), 100, false));
+
+        scheduleService.announceSteps();
+        assertTrue(events.isEmpty());
+
+        clock.now = START.plusSeconds(1);
+        scheduleService.announceSteps();
+        scheduleService.announceSteps();
+        assertEquals(List.of(new RolloutStepEvent("new-checkout", 0, 10, START)), events);
+
+        clock.now = START.plus(Duration.ofDays(1));
+        scheduleService.announceSteps();
+        assertEquals(2, events.size());
+        assertEquals(100, ((RolloutStepEvent) events.get(1)).getPercentage());
+        verify(auditService, times(2)).logRolloutStep(any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void stepsAnnouncedByAnotherNodeAreNotRepeated() {
+        when(auditService.logRolloutStep(any(), anyInt(), anyInt(), any())).thenReturn(false);
+        scheduledFlag(step(Duration.ZERO, 10, false));
+
+        clock.now = START;
+        scheduleService.announceSteps();
+
+        assertTrue(events.isEmpty());
+    }
+}
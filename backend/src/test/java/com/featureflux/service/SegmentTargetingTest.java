@@ -0,0 +1,104 @@
+package com.featureflux.service;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.Segment;
+import com.featureflux.store.InMemoryFlagStore;
+import com.featureflux.store.InMemoryKillSwitchStore;
+import com.featureflux.store.InMemorySegmentStore;
+import com.featureflux.store.NoOpEvaluationCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentTargetingTest {
+
+    private InMemoryFlagStore flagStore;
+    private SegmentService segmentService;
+    private FeatureFlagService flagService;
+    private FeatureEvaluationService evaluationService;
+
+    @BeforeEach
+    void setUp() {
+        flagStore = new InMemoryFlagStore();
+        segmentService = new SegmentService(new InMemorySegmentStore(), flagStore, null);
+        KillSwitchService killSwitchService = new KillSwitchService(new InMemoryKillSwitchStore(), flagStore);
+        evaluationService = new FeatureEvaluationService(flagStore, new NoOpEvaluationCache(),
+                killSwitchService, segmentService, new EvaluationTracer(16));
+        flagService = new FeatureFlagService(flagStore, null, segmentService, killSwitchService, evaluationService);
+
+        segmentService.createSegment(segment("beta", "alice", "bob"), null);
+        segmentService.createSegment(segment("staff", "bob"), null);
+    }
+
+    private static Segment segment(String key, String... members) {
+        return Segment.builder().key(key).name(key).members(new ArrayList<>(List.of(members))).build();
+    }
+
+    private FeatureFlag flag(String key, List<String> targetSegments, List<String> excludedSegments) {
+        return flagService.createFlag(FeatureFlag.builder()
+                .key(key)
+                .name(key)
+                .enabled(true)
+                .targetSegmentKeys(new ArrayList<>(targetSegments))
+                .excludedSegmentKeys(new ArrayList<>(excludedSegments))
+                .build(), null);
+    }
+
+    @Test
+    void segmentsTargetAndExcludeMembers() {
+        flag("new-checkout", List.of("beta"), List.of("staff"));
+
+        assertTrue(evaluationService.evaluate("new-checkout", "alice"));
+        assertFalse(evaluationService.evaluate("new-checkout", "bob"));
+        assertFalse(evaluationService.evaluate("new-checkout", "carol"));
+    }
+
+    @Test
+    void segmentUpdateAppliesToEveryDependentFlag() {
+        flag("flag-a", List.of("beta"), List.of());
+        flag("flag-b", List.of("beta"), List.of());
+        assertFalse(evaluationService.evaluate("flag-a", "carol"));
+        assertFalse(evaluationService.evaluate("flag-b", "carol"));
+
+        segmentService.updateSegment("beta", segment("beta", "carol"), null);
+
+        assertTrue(evaluationService.evaluate("flag-a", "carol"));
+        assertTrue(evaluationService.evaluate("flag-b", "carol"));
+        assertFalse(evaluationService.evaluate("flag-a", "alice"));
+    }
+
+    @Test
+    void segmentChangesApplyOnlyOnceCommitted() {
+        flag("flag-a", List.of("beta"), List.of());
+        assertFalse(evaluationService.evaluate("flag-a", "carol"));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            segmentService.updateSegment("beta", segment("beta", "carol"), null);
+            assertFalse(evaluationService.evaluate("flag-a", "carol"));
+            assertTrue(evaluationService.evaluate("flag-a", "alice"));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(evaluationService.evaluate("flag-a", "carol"));
+        assertFalse(evaluationService.evaluate("flag-a", "alice"));
+    }
+
+    @Test
+    void unknownAndReferencedSegmentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> flag("broken", List.of("missing"), List.of()));
+
+        flag("uses-beta", List.of("beta"), List.of());
+        assertThrows(IllegalArgumentException.class, () -> segmentService.deleteSegment("beta", null));
+        segmentService.deleteSegment("staff", null);
+        assertFalse(segmentService.exists("staff"));
+    }
+}
@@ -0,0 +1,217 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.service.EvaluationTracer;
+import com.featureflux.service.FeatureEvaluationService;
+import com.featureflux.service.KillSwitchService;
+import com.featureflux.service.SegmentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CacheStampedeTest {
+
+    private static final int CALLERS = 200;
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final Map<String, Object> values = new ConcurrentHashMap<>();
+    private final Map<Object, Object> flagHash = new ConcurrentHashMap<>();
+    private final List<Long> ttls = new ArrayList<>();
+    private final AtomicInteger redisReads = new AtomicInteger();
+    private final AtomicInteger databaseReads = new AtomicInteger();
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    private RedisTemplate<String, Object> redisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private InMemoryFlagStore database;
+    private RedisEvaluationCache evaluationCache;
+    private FeatureEvaluationService evaluationService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Redis backed by maps, counting reads so a load can wait until every caller has looked at the cache
+        ValueOperations<String, Object> valueOps = mock(ValueOperations.class);
+        when(valueOps.get(anyString())).thenAnswer(invocation -> {
+            redisReads.incrementAndGet();
+            return values.get(invocation.<String>getArgument(0));
+        });
+        doAnswer(invocation -> {
+            values.put(invocation.getArgument(0), invocation.getArgument(1));
+            synchronized (ttls) {
+                ttls.add(invocation.getArgument(2));
+            }
+            return null;
+        }).when(valueOps).set(anyString(), any(), anyLong(), any(TimeUnit.class));
+        doAnswer(invocation -> values.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOps).set(anyString(), any());
+        HashOperations<String, Object, Object> hashOps = mock(HashOperations.class);
+        when(hashOps.get(anyString(), any())).thenAnswer(invocation -> {
+            redisReads.incrementAndGet();
+            return flagHash.get(invocation.getArgument(1));
+        });
+        doAnswer(invocation -> flagHash.put(invocation.getArgument(1), invocation.getArgument(2)))
+                .when(hashOps).put(anyString(), any(), any());
+        when(hashOps.putIfAbsent(anyString(), any(), any()))
+                .thenAnswer(invocation -> flagHash.putIfAbsent(invocation.getArgument(1), invocation.getArgument(2)) == null);
+        redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOps);
+
+        // A slow durable store, held until all callers have missed
+        database = new InMemoryFlagStore() {
+            @Override
+            public Optional<FeatureFlag> findByKey(String key) {
+                databaseReads.incrementAndGet();
+                awaitCallers();
+                return super.findByKey(key);
+            }
+        };
+        meterRegistry = new SimpleMeterRegistry();
+        evaluationCache = new RedisEvaluationCache(redisTemplate, new FlagRevisions(), Duration.ofSeconds(60), 0,
+                Duration.ofSeconds(30), meterRegistry);
+        evaluationCache.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+        evaluationService = new FeatureEvaluationService(database, evaluationCache,
+                new KillSwitchService(new InMemoryKillSwitchStore(), database), new SegmentService(new InMemorySegmentStore(), database, null),
+                new EvaluationTracer(16));
+        database.save(FeatureFlag.builder().key("checkout").name("checkout").enabled(true).rolloutPercentage(100).build());
+        databaseReads.set(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    private volatile boolean concurrent;
+    private volatile int readsBeforeRound;
+
+    private void awaitCallers() {
+        if (!concurrent) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (redisReads.get() - readsBeforeRound < CALLERS && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        // Callers that have read the cache still need a moment to join the load
+        sleep(100);
+    }
+
+    private List<Boolean> concurrently(Callable<Boolean> call) throws Exception {
+        readsBeforeRound = redisReads.get();
+        concurrent = true;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return call.call();
+            }));
+        }
+        start.countDown();
+        List<Boolean> values = new ArrayList<>();
+        for (Future<Boolean> result : results) {
+            values.add(result.get(10, TimeUnit.SECONDS));
+        }
+        concurrent = false;
+        return values;
+    }
+
+    private double cacheResults(String result) {
+        return meterRegistry.get(RedisEvaluationCache.CACHE_METRIC).tag("result", result).counter().count();
+    }
+
+    private double loads() {
+        return meterRegistry.get(RedisEvaluationCache.LOAD_METRIC).counter().count();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void concurrentMissesShareOneDatabaseRead() throws Exception {
+        List<Boolean> results = concurrently(() -> evaluationService.evaluate("checkout", "user-1"));
+
+        assertTrue(results.stream().allMatch(Boolean::booleanValue));
+        assertEquals(1, databaseReads.get());
+        assertEquals(1, loads());
+        assertEquals(CALLERS, cacheResults("miss") + cacheResults("hit"));
+    }
+
+    @Test
+    void expiredEntryIsRefreshedOnceWhileTheOthersAreServedStale() throws Exception {
+        evaluationService.evaluate("checkout", "user-1");
+        FeatureFlag flag = database.findByKey("checkout").orElseThrow();
+        flag.setEnabled(false);
+        database.save(flag);
+        databaseReads.set(0);
+
+        evaluationCache.setClock(Clock.fixed(NOW.plusSeconds(61), ZoneOffset.UTC));
+        List<Boolean> results = concurrently(() -> evaluationService.evaluate("checkout", "user-1"));
+
+        assertEquals(1, databaseReads.get());
+        assertEquals(2, loads());
+        assertEquals(CALLERS - 1, cacheResults("stale"));
+        assertEquals(CALLERS - 1, results.stream().filter(Boolean::booleanValue).count());
+        assertFalse(evaluationCache.get("checkout", "user-1"));
+    }
+
+    @Test
+    void staleEntriesStayInRedisForTheGracePeriodAndTtlsAreJittered() {
+        RedisEvaluationCache jittered = new RedisEvaluationCache(redisTemplate, new FlagRevisions(), Duration.ofSeconds(60),
+                0.1, Duration.ofSeconds(30), new SimpleMeterRegistry());
+        for (int i = 0; i < 100; i++) {
+            jittered.put("checkout", "user-" + i, true);
+        }
+
+        Set<Long> distinct = new HashSet<>(ttls);
+        assertTrue(distinct.size() > 10, "TTLs should be spread out, got " + distinct);
+        assertTrue(ttls.stream().allMatch(ttl -> ttl >= 84_000 && ttl <= 96_000), "TTLs should be 60s ±10% plus 30s, got " + ttls);
+        assertThrows(IllegalArgumentException.class, () -> new RedisEvaluationCache(redisTemplate, new FlagRevisions(),
+                Duration.ofSeconds(60), 1, Duration.ZERO, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void concurrentFlagMissesShareOneDatabaseRead() throws Exception {
+        RedisFlagStore flagStore = new RedisFlagStore(database, redisTemplate);
+
+        List<Boolean> results = concurrently(() -> flagStore.findByKey("checkout").isPresent());
+
+        assertTrue(results.stream().allMatch(Boolean::booleanValue));
+        assertEquals(1, databaseReads.get());
+        assertTrue(flagHash.containsKey("checkout"));
+    }
+}
@@ -0,0 +1,142 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.ClauseOperator;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.KillSwitch;
+import com.featureflux.entity.RolloutStep;
+import com.featureflux.entity.Segment;
+import com.featureflux.entity.TargetingClause;
+import com.featureflux.entity.TargetingRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FlagSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private InMemoryFlagStore flagStore;
+    private InMemoryKillSwitchStore killSwitchStore;
+    private InMemorySegmentStore segmentStore;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("flags.snapshot");
+        flagStore = spy(new InMemoryFlagStore());
+        killSwitchStore = spy(new InMemoryKillSwitchStore());
+        segmentStore = new InMemorySegmentStore();
+    }
+
+    private static FeatureFlag flag(String key) {
+        return FeatureFlag.builder().key(key).name(key).enabled(true).rolloutPercentage(25).build();
+    }
+
+    @Test
+    void recordsRoundTripThroughTheMappedFile() throws IOException {
+        FeatureFlag checkout = flag("checkout").toBuilder()
+                .targetSegmentKeys(new ArrayList<>(List.of("beta")))
+                .rules(new ArrayList<>(List.of(TargetingRule.builder()
+                        .clauses(List.of(TargetingClause.builder().attribute("country").operator(ClauseOperator.IN).values(List.of("NZ")).build()))
+                        .build())))
+                .rolloutSchedule(new ArrayList<>(List.of(RolloutStep.builder().at(Instant.parse("2026-01-01T00:00:00Z")).percentage(50).build())))
+                .build();
+        List<FeatureFlag> flags = new ArrayList<>(List.of(checkout));
+        for (int i = 0; i < 1_000; i++) {
+            flags.add(flag("flag-" + i));
+        }
+        Segment beta = Segment.builder().key("beta").name("Beta").members(new ArrayList<>(List.of("alice", "bob"))).build();
+
+        FlagSnapshot.write(file, flags, List.of("flag-7", "ünïcode"), List.of(beta));
+        FlagSnapshot snapshot = FlagSnapshot.open(file);
+
+        assertEquals(1_001, snapshot.flagCount());
+        assertEquals(checkout, snapshot.flag("checkout").orElseThrow());
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals("flag-" + i, snapshot.flag("flag-" + i).orElseThrow().getKey());
+        }
+        assertTrue(snapshot.flag("missing").isEmpty());
+        assertTrue(snapshot.killSwitchActive("flag-7"));
+        assertTrue(snapshot.killSwitchActive("ünïcode"));
+        assertFalse(snapshot.killSwitchActive("flag-8"));
+        assertEquals(List.of("alice", "bob"), snapshot.segment("beta").orElseThrow().getMembers());
+
+        // Decoded once per snapshot
+        assertSame(snapshot.flag("checkout").orElseThrow(), snapshot.flag("checkout").orElseThrow());
+        assertTrue(snapshot.flags().stream().anyMatch(flag -> flag == snapshot.flag("flag-3").orElseThrow()));
+        assertSame(snapshot.segment("beta").orElseThrow(), snapshot.segment("beta").orElseThrow());
+        assertNotSame(snapshot.flag("checkout").orElseThrow(), FlagSnapshot.open(file).flag("checkout").orElseThrow());
+    }
+
+    @Test
+    void corruptOrUnknownFilesAreRejected() throws IOException {
+        FlagSnapshot.write(file, List.of(flag("checkout")), List.of(), List.of());
+        byte[] bytes = Files.readAllBytes(file);
+
+        byte[] corrupt = bytes.clone();
+        corrupt[corrupt.length - 2] ^= 1;
+        Files.write(file, corrupt);
+        assertThrows(IOException.class, () -> FlagSnapshot.open(file));
+
+        byte[] futureFormat = bytes.clone();
+        futureFormat[7] = (byte) (FlagSnapshot.FORMAT_VERSION + 1);
+        Files.write(file, futureFormat);
+        assertThrows(IOException.class, () -> FlagSnapshot.open(file));
+
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> FlagSnapshot.open(file));
+    }
+
+    @Test
+    void snapshotFoundAtStartupServesReadsBeforeTheLiveStoresAreReached() throws IOException {
+        FlagSnapshot.write(file, List.of(flag("checkout")), List.of("checkout"), List.of());
+
+        SnapshotFallback fallback = new SnapshotFallback(file);
+        FlagStore flags = fallback.wrap(flagStore);
+        KillSwitchStore killSwitches = fallback.wrap(killSwitchStore);
+
+        assertEquals("checkout", flags.findByKey("checkout").orElseThrow().getKey());
+        assertTrue(killSwitches.isActive("checkout"));
+        verifyNoInteractions(flagStore, killSwitchStore);
+    }
+
+    @Test
+    void outageSwitchesReadsToTheSnapshotUntilReconciled() {
+        flagStore.save(flag("checkout"));
+        killSwitchStore.save(KillSwitch.builder().flagKey("checkout").active(true).build());
+        SnapshotFallback fallback = new SnapshotFallback(file);
+        FlagStore flags = fallback.wrap(flagStore);
+        fallback.wrap(killSwitchStore);
+        fallback.wrap(segmentStore);
+        assertTrue(fallback.reconcile(TransactionOperations.withoutTransaction()));
+        clearInvocations(flagStore);
+
+        doThrow(new DataAccessResourceFailureException("connection refused")).when(flagStore).findByKey("checkout");
+        assertEquals("checkout", flags.findByKey("checkout").orElseThrow().getKey());
+        assertFalse(fallback.isLive());
+        flags.findByKey("checkout");
+        verify(flagStore, times(1)).findByKey("checkout");
+
+        doThrow(new DataAccessResourceFailureException("connection refused")).when(flagStore).findActive();
+        assertFalse(fallback.reconcile(TransactionOperations.withoutTransaction()));
+        assertFalse(fallback.isLive());
+
+        doCallRealMethod().when(flagStore).findActive();
+        doCallRealMethod().when(flagStore).findByKey("checkout");
+        assertTrue(fallback.reconcile(TransactionOperations.withoutTransaction()));
+        assertTrue(fallback.isLive());
+    }
+}
@@ -0,0 +1,41 @@
+package com.featureflux.store;
+
+import com.featureflux.entity.FeatureFlag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryFlagStoreTest {
+
+    private InMemoryFlagStore flagStore;
+
+    @BeforeEach
+    void setUp() {
+        flagStore = new InMemoryFlagStore();
+        flagStore.save(FeatureFlag.builder().key("checkout").name("checkout").enabled(false).rolloutPercentage(100).build());
+    }
+
+    @Test
+    void changesToAFlagReadForUpdateAreInvisibleUntilSaved() {
+        FeatureFlag flag = flagStore.findByKeyForUpdate("checkout").orElseThrow();
+        flag.setEnabled(true);
+
+        assertFalse(flagStore.findByKey("checkout").orElseThrow().getEnabled());
+        flagStore.save(flag);
+        assertTrue(flagStore.findByKey("checkout").orElseThrow().getEnabled());
+    }
+
+    @Test
+    void concurrentUpdatesAreRejected() {
+        FeatureFlag first = flagStore.findByKeyForUpdate("checkout").orElseThrow();
+        FeatureFlag second = flagStore.findByKeyForUpdate("checkout").orElseThrow();
+        first.setEnabled(true);
+        flagStore.save(first);
+
+        second.setArchived(true);
+        assertThrows(OptimisticLockingFailureException.class, () -> flagStore.save(second));
+        assertFalse(flagStore.findByKey("checkout").orElseThrow().getArchived());
+    }
+}
@@ -0,0 +1,226 @@
+package com.featureflux.store;
+
+import com.featureflux.config.RedisConfig;
+import com.featureflux.entity.FeatureFlag;
+import com.featureflux.entity.RolloutStep;
+import com.featureflux.entity.TargetingRule;
+import com.featureflux.rules.RolloutSchedule;
+import com.featureflux.service.EvaluationTracer;
+import com.featureflux.service.FeatureEvaluationService;
+import com.featureflux.service.KillSwitchService;
+import com.featureflux.service.SegmentService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the evaluation script on an embedded Redis and checks it against the Java evaluation of the same flags.
+ */
+class RedisEvaluationScriptTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    private static RedisServer redis;
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, Object> redisTemplate;
+
+    private InMemoryFlagStore javaFlags;
+    private FeatureEvaluationService javaEvaluation;
+    private RedisEvaluationScript script;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        try {
+            redis = new RedisServer(port);
+            redis.start();
+        } catch (IOException | RuntimeException e) {
+            redis = null;
+        }
+        assumeTrue(redis != null, "No embedded Redis for this platform");
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(RedisConfig.valueSerializer());
+        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+        redisTemplate.setHashValueSerializer(RedisConfig.valueSerializer());
+        redisTemplate.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (redis != null) {
+            redis.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        javaFlags = new InMemoryFlagStore();
+        SegmentService segmentService = new SegmentService(new InMemorySegmentStore(), javaFlags, null);
+        javaEvaluation = new FeatureEvaluationService(javaFlags, new NoOpEvaluationCache(),
+                new KillSwitchService(new InMemoryKillSwitchStore(), javaFlags), segmentService, new EvaluationTracer(16));
+        script = new RedisEvaluationScript(redisTemplate);
+        script.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private FeatureFlag flag(String key, int rolloutPercentage) {
+        return FeatureFlag.builder().key(key).name(key).enabled(true).rolloutPercentage(rolloutPercentage).build();
+    }
+
+    private Map<String, Boolean> evaluate(String flagKey, List<String> userIds) {
+        Map<String, Boolean> results = new HashMap<>();
+        for (String userId : userIds) {
+            Boolean result = script.evaluate(Map.of(flagKey, userId)).get(flagKey);
+            assertNotNull(result, "Not evaluated in Redis for " + userId);
+            results.put(userId, result);
+        }
+        return results;
+    }
+
+    private static List<String> users(int count) {
+        List<String> userIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            userIds.add("user-" + i);
+        }
+        userIds.add("üser-ß-東京");
+        userIds.add("");
+        return userIds;
+    }
+
+    @Test
+    void rolloutBucketsMatchTheJavaEvaluation() {
+        List<String> userIds = users(2000);
+        for (int percentage : new int[]{0, 1, 37, 50, 99, 100}) {
+            FeatureFlag flag = flag("rollout-" + percentage, percentage);
+            javaFlags.save(flag);
+            script.publish(flag);
+
+            Map<String, Boolean> scripted = evaluate(flag.getKey(), userIds);
+            for (String userId : userIds) {
+                assertEquals(javaEvaluation.evaluate(flag.getKey(), userId), scripted.get(userId),
+                        flag.getKey() + " for " + userId);
+            }
+        }
+    }
+
+    @Test
+    void exclusionsWinOverTargetsAndTargetsOverTheRollout() {
+        FeatureFlag flag = flag("beta", 0);
+        flag.setTargetUserIds(List.of("alice", "bob"));
+        flag.setExcludedUserIds(List.of("bob"));
+        script.publish(flag);
+
+        assertEquals(Map.of("beta", true), script.evaluate(Map.of("beta", "alice")));
+        assertEquals(Map.of("beta", false), script.evaluate(Map.of("beta", "bob")));
+        assertEquals(Map.of("beta", false), script.evaluate(Map.of("beta", "carol")));
+    }
+
+    @Test
+    void scheduledRolloutFollowsTheJavaSchedule() {
+        List<RolloutStep> steps = List.of(
+                new RolloutStep(NOW.minus(Duration.ofHours(1)), 10, false),
+                new RolloutStep(NOW.plus(Duration.ofMinutes(17)), 80, true));
+        FeatureFlag scheduled = flag("ramp", 0);
+        scheduled.setRolloutSchedule(steps);
+        script.publish(scheduled);
+        // Same key, so the same buckets, at the percentage the schedule has reached by NOW
+        int percentage = RolloutSchedule.compile(steps).percentageAt(NOW.toEpochMilli(), 0);
+        javaFlags.save(flag("ramp", percentage));
+
+        List<String> userIds = users(1000);
+        Map<String, Boolean> scripted = evaluate("ramp", userIds);
+        for (String userId : userIds) {
+            assertEquals(javaEvaluation.evaluate("ramp", userId), scripted.get(userId), "ramp for " + userId);
+        }
+    }
+
+    @Test
+    void bulkRequestsLeaveFlagsTheScriptCannotEvaluateToJava() {
+        FeatureFlag disabled = flag("disabled", 100);
+        disabled.setEnabled(false);
+        disabled.setRules(List.of(new TargetingRule()));
+        FeatureFlag ruled = flag("ruled", 100);
+        ruled.setRules(List.of(new TargetingRule()));
+        script.publishAll(List.of(flag("everyone", 100), disabled, ruled));
+
+        Map<String, Boolean> results = script.evaluate(Map.of(
+                "everyone", "alice", "disabled", "alice", "ruled", "alice", "unpublished", "alice"));
+
+        assertEquals(Map.of("everyone", true, "disabled", false), results);
+    }
+
+    @Test
+    void removedAndRepublishedDefinitionsReplaceTheOldOnes() {
+        FeatureFlag flag = flag("beta", 0);
+        flag.setTargetUserIds(List.of("alice"));
+        script.publish(flag);
+        flag.setTargetUserIds(List.of());
+        script.publish(flag);
+
+        assertEquals(Map.of("beta", false), script.evaluate(Map.of("beta", "alice")));
+
+        script.remove("beta");
+
+        assertEquals(Map.of(), script.evaluate(Map.of("beta", "alice")));
+    }
+
+    @Test
+    void onlyFlagsDependingOnTheirOwnDefinitionAreScriptEvaluable() {
+        assertTrue(RedisEvaluationScript.isScriptEvaluable(flag("plain", 50)));
+
+        FeatureFlag segmented = flag("segmented", 50);
+        segmented.setTargetSegmentKeys(List.of("internal"));
+        assertFalse(RedisEvaluationScript.isScriptEvaluable(segmented));
+
+        FeatureFlag layered = flag("layered", 50);
+        layered.setLayerKey("checkout");
+        assertFalse(RedisEvaluationScript.isScriptEvaluable(layered));
+
+        segmented.setEnabled(false);
+        assertTrue(RedisEvaluationScript.isScriptEvaluable(segmented));
+        assertEquals(Map.of("mode", "java"), RedisEvaluationScript.definition(layered));
+    }
+
+    @Test
+    void invalidSchedulesArePublishedWithoutSteps() {
+        Instant at = Instant.ofEpochMilli(1_000);
+        assertEquals("1000:10:0,2000:50:1", RedisEvaluationScript.steps(List.of(
+                new RolloutStep(at, 10, false), new RolloutStep(at.plusSeconds(1), 50, true))));
+        assertEquals("", RedisEvaluationScript.steps(List.of(new RolloutStep(at, 10, true))));
+    }
+}
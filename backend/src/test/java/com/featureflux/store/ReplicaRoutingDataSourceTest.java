@@ -0,0 +1,110 @@
+package com.featureflux.store;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstConnection = mock(Connection.class);
+    private final Connection secondConnection = mock(Connection.class);
+    private DataSource first;
+    private ReadReplicas.Replica firstReplica;
+    private ReadReplicas.Replica secondReplica;
+    private ReadReplicas replicas;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        first = mock(DataSource.class);
+        when(first.getConnection()).thenReturn(firstConnection);
+        DataSource second = mock(DataSource.class);
+        when(second.getConnection()).thenReturn(secondConnection);
+        firstReplica = new ReadReplicas.Replica("replica-1", first);
+        secondReplica = new ReadReplicas.Replica("replica-2", second);
+        replicas = new ReadReplicas(List.of(firstReplica, secondReplica), Duration.ofSeconds(5));
+        replicas.record(firstReplica, 0);
+        replicas.record(secondReplica, 0);
+        routing = new ReplicaRoutingDataSource(primary, replicas);
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    private void inTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    @Test
+    void readOnlyTransactionsAlternateBetweenReplicas() throws SQLException {
+        inTransaction(true);
+
+        List<Connection> connections = List.of(routing.getConnection(), routing.getConnection(), routing.getConnection());
+
+        assertTrue(connections.contains(firstConnection));
+        assertTrue(connections.contains(secondConnection));
+        assertFalse(connections.contains(primaryConnection));
+    }
+
+    @Test
+    void writesAndReadsOutsideReadOnlyTransactionsStayOnThePrimary() throws SQLException {
+        assertSame(primaryConnection, routing.getConnection());
+
+        inTransaction(false);
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void laggingReplicasAreSkippedUntilTheyCatchUp() throws SQLException {
+        inTransaction(true);
+        replicas.record(firstReplica, 12_000);
+        replicas.record(secondReplica, -1);
+
+        assertSame(primaryConnection, routing.getConnection());
+
+        replicas.record(firstReplica, 800);
+        assertSame(firstConnection, routing.getConnection());
+        assertSame(firstConnection, routing.getConnection());
+    }
+
+    @Test
+    void aReplicaRefusingConnectionsFallsBackToThePrimaryAndLeavesTheRotation() throws SQLException {
+        inTransaction(true);
+        replicas.record(secondReplica, -1);
+        when(first.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        assertSame(primaryConnection, routing.getConnection());
+        assertEquals(-1, firstReplica.getLagMillis());
+
+        assertSame(primaryConnection, routing.getConnection());
+        verify(first, times(1)).getConnection();
+    }
+
+    @Test
+    void noReplicasMeansThePrimary() throws SQLException {
+        inTransaction(true);
+        DataSource primary = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReplicaRoutingDataSource primaryOnly = new ReplicaRoutingDataSource(primary,
+                new ReadReplicas(List.of(), Duration.ofSeconds(5)));
+
+        assertSame(primaryConnection, primaryOnly.getConnection());
+    }
+}
@@ -3,6 +3,7 @@
 import { useState, useEffect } from 'react';
 import { useRouter } from 'next/navigation';
 import { featureFlagApi, FeatureFlag } from '@/lib/api';
+import { applyFlagChange, connectLive, KillSwitchEvent } from '@/lib/live';
 import FeatureFlagList from '@/components/FeatureFlagList';
 import CreateFlagModal from '@/components/CreateFlagModal';
 import Header from '@/components/Header';
@@ -13,9 +14,11 @@ export default function Home() {
   const [flags, setFlags] = useState<FeatureFlag[]>([]);
   const [loading, setLoading] = useState(true);
   const [showCreateModal, setShowCreateModal] = useState(false);
-  const [refreshKey, setRefreshKey] = useState(0);
   const [user, setUser] = useState<{ username: string; role: string } | null>(null);
-
+  // Whether changes are pushed over the socket, which replaces polling
+  const [live, setLive] = useState(false);
+  const [evaluationRates, setEvaluationRates] = useState<Record<string, number>>({});
+  const [lastKillSwitch, setLastKillSwitch] = useState<KillSwitchEvent | null>(null);
 
   const loadFlags = async () => {
     try {
@@ -37,26 +40,46 @@ export default function Home() {
       return;
     }
     try {
-      setUser(JSON.parse(userData));
+      const parsed = JSON.parse(userData);
+      setUser(parsed);
       loadFlags();
-      const interval = setInterval(loadFlags, 5000);
-      return () => clearInterval(interval);
+      return connectLive(
+        {
+          // Reloads once per (re)connect, since changes made while disconnected were not pushed
+          onConnect: () => {
+            setLive(true);
+            loadFlags();
+          },
+          onDisconnect: () => setLive(false),
+          onFlagChange: (event) => setFlags((current) => applyFlagChange(current, event)),
+          onKillSwitch: setLastKillSwitch,
+          onEvaluationRates: (event) => setEvaluationRates(event.rates),
+        },
+        parsed.role === 'ADMIN'
+      );
     } catch (e) {
       router.push('/login');
     }
-  }, [router, refreshKey]);
+  }, [router]);
 
-  const handleFlagCreated = () => {
-    setShowCreateModal(false);
-    setRefreshKey((k) => k + 1);
-  };
+  useEffect(() => {
+    if (live || !user) {
+      return;
+    }
+    const interval = setInterval(loadFlags, 5000);
+    return () => clearInterval(interval);
+  }, [live, user]);
 
-  const handleFlagUpdated = () => {
-    setRefreshKey((k) => k + 1);
+  // Pushed changes arrive on their own; without the socket, reload right away
+  const handleFlagChanged = () => {
+    if (!live) {
+      loadFlags();
+    }
   };
 
-  const handleFlagDeleted = () => {
-    setRefreshKey((k) => k + 1);
+  const handleFlagCreated = () => {
+    setShowCreateModal(false);
+    handleFlagChanged();
   };
 
   return (
@@ -80,7 +103,18 @@ export default function Home() {
           )}
         </div>
 
-        <StatsDashboard flags={flags} />
+        {lastKillSwitch && (
+          <div className="mb-6 rounded-lg border border-red-200 bg-red-50 px-4 py-3 text-sm text-red-800">
+            {lastKillSwitch.scope === 'GLOBAL'
+              ? 'Global kill switch'
+              : `Kill switch for ${lastKillSwitch.scope === 'TAG' ? 'tag' : 'flag'} "${lastKillSwitch.target}"`}{' '}
+            {lastKillSwitch.active ? `activated by ${lastKillSwitch.activatedBy}` : 'deactivated'}
+            {lastKillSwitch.active && lastKillSwitch.reason ? `: ${lastKillSwitch.reason}` : ''}.{' '}
+            {lastKillSwitch.killedFlags.length} flag(s) currently switched off.
+          </div>
+        )}
+
+        <StatsDashboard flags={flags} evaluationRates={evaluationRates} />
 
         {loading ? (
           <div className="text-center py-12">
@@ -90,8 +124,8 @@ export default function Home() {
         ) : (
           <FeatureFlagList
             flags={flags}
-            onUpdate={handleFlagUpdated}
-            onDelete={handleFlagDeleted}
+            onUpdate={handleFlagChanged}
+            onDelete={handleFlagChanged}
           />
         )}
 
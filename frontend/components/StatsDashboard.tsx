@@ -4,13 +4,16 @@ import { FeatureFlag } from '@/lib/api';
 
 interface StatsDashboardProps {
   flags: FeatureFlag[];
+  // Evaluations per second by flag key, pushed by the node this dashboard is connected to
+  evaluationRates?: Record<string, number>;
 }
 
-export default function StatsDashboard({ flags }: StatsDashboardProps) {
+export default function StatsDashboard({ flags, evaluationRates = {} }: StatsDashboardProps) {
   const totalFlags = flags.length;
   const enabledFlags = flags.filter((f) => f.enabled).length;
   const activeRollouts = flags.filter((f) => f.enabled && f.rolloutPercentage > 0 && f.rolloutPercentage < 100).length;
   const fullRollouts = flags.filter((f) => f.enabled && f.rolloutPercentage === 100).length;
+  const evaluationsPerSecond = Math.round(Object.values(evaluationRates).reduce((sum, rate) => sum + rate, 0));
 
   const stats = [
     {
@@ -33,10 +36,15 @@ export default function StatsDashboard({ flags }: StatsDashboardProps) {
       value: fullRollouts,
       color: 'bg-purple-500',
     },
+    {
+      label: 'Evaluations/s',
+      value: evaluationsPerSecond,
+      color: 'bg-blue-500',
+    },
   ];
 
   return (
-    <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-4 gap-4 mb-8">
+    <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-5 gap-4 mb-8">
       {stats.map((stat) => (
         <div
           key={stat.label}
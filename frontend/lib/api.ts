@@ -27,6 +27,49 @@ api.interceptors.response.use(
   }
 );
 
+export type ClauseOperator =
+  | 'EQUALS'
+  | 'IN'
+  | 'STARTS_WITH'
+  | 'ENDS_WITH'
+  | 'CONTAINS'
+  | 'MATCHES'
+  | 'SEMVER_EQ'
+  | 'SEMVER_LT'
+  | 'SEMVER_LTE'
+  | 'SEMVER_GT'
+  | 'SEMVER_GTE';
+
+export interface TargetingClause {
+  attribute: string;
+  operator: ClauseOperator;
+  values: string[];
+  negate?: boolean;
+}
+
+export interface TargetingRule {
+  description?: string;
+  clauses: TargetingClause[];
+  serve?: boolean;
+}
+
+export interface Variant {
+  key: string;
+  weight: number;
+  value?: unknown;
+}
+
+export interface RolloutStep {
+  at: string;
+  percentage: number;
+  linear?: boolean;
+}
+
+export interface Prerequisite {
+  flagKey: string;
+  variant?: string;
+}
+
 export interface FeatureFlag {
   id: number;
   key: string;
@@ -34,11 +77,54 @@ export interface FeatureFlag {
   description: string;
   enabled: boolean;
   rolloutPercentage: number;
+  rolloutSchedule?: RolloutStep[];
+  layerKey?: string;
+  layerStart?: number;
+  layerEnd?: number;
+  tags?: string[];
   targetUserIds: string[];
   excludedUserIds: string[];
+  targetSegmentKeys?: string[];
+  excludedSegmentKeys?: string[];
+  rules?: TargetingRule[];
+  variants?: Variant[];
+  prerequisites?: Prerequisite[];
   archived: boolean;
   createdAt: string;
   updatedAt: string;
+  version?: number;
+}
+
+export interface ChangesetRequest {
+  description?: string;
+  flags?: {
+    key: string;
+    version: number;
+    enabled?: boolean;
+    rolloutPercentage?: number;
+    variants?: Variant[];
+  }[];
+  killSwitches?: {
+    flagKey: string;
+    active: boolean;
+    reason?: string;
+  }[];
+}
+
+export interface ChangesetResponse {
+  flags: FeatureFlag[];
+  killSwitches: KillSwitch[];
+}
+
+export interface Segment {
+  id: number;
+  key: string;
+  name: string;
+  description: string;
+  members?: string[];
+  memberCount: number;
+  createdAt: string;
+  updatedAt: string;
 }
 
 export interface EvaluationResponse {
@@ -46,6 +132,35 @@ export interface EvaluationResponse {
   userId: string;
   enabled: boolean;
   bucket: number;
+  variant?: string;
+  value?: unknown;
+}
+
+export interface FlagStats {
+  flagKey: string;
+  bucketMinutes: number;
+  clusterWide: boolean;
+  evaluations: number;
+  enabled: number;
+  disabled: number;
+  uniqueUsers: number;
+  topUsers: { userId: string; evaluations: number }[];
+  buckets: {
+    start: string;
+    evaluations: number;
+    enabled: number;
+    disabled: number;
+    uniqueUsers: number;
+  }[];
+}
+
+export interface StaleFlag {
+  key: string;
+  name: string;
+  enabled: boolean;
+  tags: string[];
+  createdAt: string;
+  lastEvaluatedAt: string | null;
 }
 
 export const featureFlagApi = {
@@ -83,6 +198,21 @@ export const featureFlagApi = {
     return response.data;
   },
 
+  getStats: async (key: string): Promise<FlagStats> => {
+    const response = await api.get(`/flags/${key}/stats`);
+    return response.data;
+  },
+
+  getStale: async (days = 30): Promise<StaleFlag[]> => {
+    const response = await api.get('/flags/stale', { params: { days } });
+    return response.data;
+  },
+
+  applyChangeset: async (changeset: ChangesetRequest): Promise<ChangesetResponse> => {
+    const response = await api.post('/flags/changesets', changeset);
+    return response.data;
+  },
+
   evaluate: async (flagKey: string, userId: string): Promise<EvaluationResponse> => {
     const response = await api.post('/evaluate', { flagKey, userId });
     return response.data;
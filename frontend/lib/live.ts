@@ -0,0 +1,128 @@
+import { FeatureFlag } from './api';
+
+export interface FlagChangeEvent {
+  type: 'UPSERT' | 'REMOVED';
+  key: string;
+  version?: number;
+  // Only the fields that changed, or every field for a flag not sent before
+  changes?: Partial<FeatureFlag>;
+}
+
+export interface KillSwitchEvent {
+  active: boolean;
+  scope: 'FLAG' | 'TAG' | 'GLOBAL';
+  target?: string;
+  reason?: string;
+  activatedBy?: string;
+  killedFlags: string[];
+}
+
+export interface EvaluationRatesEvent {
+  intervalMs: number;
+  rates: Record<string, number>;
+}
+
+export interface LiveHandlers {
+  onConnect?: () => void;
+  onDisconnect?: () => void;
+  onFlagChange?: (event: FlagChangeEvent) => void;
+  onKillSwitch?: (event: KillSwitchEvent) => void;
+  onEvaluationRates?: (event: EvaluationRatesEvent) => void;
+}
+
+const RECONNECT_DELAY_MS = 5000;
+
+const liveUrl = () => {
+  if (process.env.NEXT_PUBLIC_WS_URL) {
+    return process.env.NEXT_PUBLIC_WS_URL;
+  }
+  const protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';
+  return `${protocol}//${window.location.host}/api/ws`;
+};
+
+const frame = (command: string, headers: Record<string, string>, body = '') =>
+  `${command}\n${Object.entries(headers)
+    .map(([name, value]) => `${name}:${value}\n`)
+    .join('')}\n${body}\0`;
+
+export const applyFlagChange = (flags: FeatureFlag[], event: FlagChangeEvent): FeatureFlag[] => {
+  if (event.type === 'REMOVED') {
+    return flags.filter((flag) => flag.key !== event.key);
+  }
+  if (!flags.some((flag) => flag.key === event.key)) {
+    return [...flags, event.changes as FeatureFlag];
+  }
+  return flags.map((flag) => (flag.key === event.key ? { ...flag, ...event.changes } : flag));
+};
+
+/**
+ * Subscribes to the dashboard topics over STOMP, reconnecting until the returned function is called.
+ * Kill switch events are only sent to admins.
+ */
+export function connectLive(handlers: LiveHandlers, admin: boolean): () => void {
+  let socket: WebSocket | null = null;
+  let reconnect: ReturnType<typeof setTimeout> | undefined;
+  let stopped = false;
+
+  const topics: Record<string, ((body: any) => void) | undefined> = {
+    '/topic/flags': handlers.onFlagChange,
+    '/topic/evaluation-rates': handlers.onEvaluationRates,
+    ...(admin ? { '/topic/kill-switches': handlers.onKillSwitch } : {}),
+  };
+
+  const receive = (data: string) => {
+    for (const message of data.split('\0')) {
+      const text = message.replace(/^\n+/, '');
+      if (!text) {
+        continue;
+      }
+      const headerEnd = text.indexOf('\n\n');
+      const lines = text.substring(0, headerEnd).split('\n');
+      const headers: Record<string, string> = {};
+      for (const line of lines.slice(1)) {
+        const separator = line.indexOf(':');
+        headers[line.substring(0, separator)] = line.substring(separator + 1);
+      }
+      const command = lines[0];
+      if (command === 'CONNECTED') {
+        Object.keys(topics).forEach((destination, id) =>
+          socket?.send(frame('SUBSCRIBE', { id: `sub-${id}`, destination }))
+        );
+        handlers.onConnect?.();
+      } else if (command === 'MESSAGE') {
+        topics[headers.destination]?.(JSON.parse(text.substring(headerEnd + 2)));
+      } else if (command === 'ERROR') {
+        console.error('Live updates rejected:', headers.message);
+        socket?.close();
+      }
+    }
+  };
+
+  const connect = () => {
+    socket = new WebSocket(liveUrl());
+    socket.onopen = () => {
+      socket?.send(
+        frame('CONNECT', {
+          'accept-version': '1.2',
+          host: window.location.hostname,
+          'heart-beat': '0,0',
+          Authorization: `Bearer ${localStorage.getItem('token') ?? ''}`,
+        })
+      );
+    };
+    socket.onmessage = (event) => receive(event.data);
+    socket.onclose = () => {
+      handlers.onDisconnect?.();
+      if (!stopped) {
+        reconnect = setTimeout(connect, RECONNECT_DELAY_MS);
+      }
+    };
+  };
+
+  connect();
+  return () => {
+    stopped = true;
+    clearTimeout(reconnect);
+    socket?.close();
+  };
+}